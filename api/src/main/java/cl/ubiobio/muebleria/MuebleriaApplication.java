@@ -1,16 +1,20 @@
 package cl.ubiobio.muebleria;
 
+import cl.ubiobio.muebleria.reactive.CatalogoReactivoApplication;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Profile;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 @SpringBootApplication
+@Profile("!" + CatalogoReactivoApplication.PERFIL)
 public class MuebleriaApplication {
 
   public static void main(String[] args) {
-    SpringApplication.run(MuebleriaApplication.class, args);
+    // Según el perfil se registra solo una: la API completa o el nodo de catálogo reactivo
+    SpringApplication.run(new Class<?>[] {MuebleriaApplication.class, CatalogoReactivoApplication.class}, args);
   }
 
   @RequestMapping("/")
@@ -0,0 +1,47 @@
+package cl.ubiobio.muebleria.config;
+
+import cl.ubiobio.muebleria.enums.TipoCarga;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * DataSource que entrega la conexión del pool Hikari de la carga del hilo actual.
+ * MamparoInterceptor fija la carga al entrar al controlador; sin carga (tareas programadas,
+ * arranque, filtros) se usa el pool de fondo.
+ */
+class DataSourcePorCarga extends AbstractRoutingDataSource {
+
+  // Clave del pool de fondo
+  static final String FONDO = "fondo";
+
+  private static final ThreadLocal<TipoCarga> CARGA = new ThreadLocal<>();
+
+  static void usar(TipoCarga carga) {
+    CARGA.set(carga);
+  }
+
+  static TipoCarga actual() {
+    return CARGA.get();
+  }
+
+  static void limpiar() {
+    CARGA.remove();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    TipoCarga carga = CARGA.get();
+    return carga != null ? carga : FONDO;
+  }
+
+  // Método de destrucción inferido por Spring: los pools no son beans propios
+  public void close() {
+    for (DataSource pool : getResolvedDataSources().values()) {
+      if (pool instanceof HikariDataSource hikari) {
+        hikari.close();
+      }
+    }
+  }
+}
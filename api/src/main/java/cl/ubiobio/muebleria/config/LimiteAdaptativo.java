@@ -0,0 +1,114 @@
+package cl.ubiobio.muebleria.config;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite de concurrencia AIMD guiado por latencia.
+ * Las respuestas se agrupan en ventanas de aproximadamente un RTT (tantas muestras como el límite,
+ * entre MUESTRAS_MINIMAS y tamanoVentana) y el límite se ajusta una sola vez por ventana: si el
+ * percentil PERCENTIL de la ventana supera tolerancia x latencia base, o hubo fallos de servidor,
+ * se reduce multiplicativamente; si no, y el límite estaba en uso, crece en 1.
+ * La latencia base es una media móvil exponencial lenta de esos percentiles: una lentitud sostenida
+ * sigue contando como congestión por varias ventanas, pero un cambio real de la línea base se absorbe.
+ * Comparar percentiles y no muestras sueltas evita que la cola normal de latencias se lea como congestión.
+ */
+class LimiteAdaptativo {
+
+    static final double FACTOR_REDUCCION = 0.9;
+    static final double PERCENTIL = 0.9;
+    static final double ALFA_BASE = 0.05;
+    static final int MUESTRAS_MINIMAS = 10;
+
+    private final int minimo;
+    private final int maximo;
+    private final double tolerancia;
+    private final int tamanoVentana;
+
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private volatile double limite;
+
+    // Estado de la ventana de muestras; protegido por this
+    private final long[] muestras;
+    private int muestrasVentana = 0;
+    private int fallosVentana = 0;
+    private boolean enUsoVentana = false;
+    private double latenciaBase = 0;
+
+    LimiteAdaptativo(int inicial, int minimo, int maximo, double tolerancia, int tamanoVentana) {
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.tolerancia = tolerancia;
+        this.tamanoVentana = Math.max(MUESTRAS_MINIMAS, tamanoVentana);
+        this.muestras = new long[this.tamanoVentana];
+        this.limite = Math.max(minimo, Math.min(maximo, inicial));
+    }
+
+    /**
+     * Reserva un lugar si hay capacidad; no espera
+     */
+    boolean adquirir() {
+        while (true) {
+            int actual = enCurso.get();
+            if (actual >= (int) limite) {
+                return false;
+            }
+            if (enCurso.compareAndSet(actual, actual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera el lugar y registra la latencia observada
+     * @param fallo true si la petición terminó en error de servidor (cuenta como congestión)
+     */
+    synchronized void liberar(long latenciaNanos, boolean fallo) {
+        int enUso = enCurso.getAndDecrement();
+        // Solo crece si se estaba usando: con poca carga no hay evidencia de que aguante más
+        enUsoVentana |= enUso * 2 >= limite;
+        muestras[muestrasVentana++] = latenciaNanos;
+        if (fallo) {
+            fallosVentana++;
+        }
+        if (muestrasVentana >= Math.max(MUESTRAS_MINIMAS, Math.min(tamanoVentana, (int) limite))) {
+            cerrarVentana();
+        }
+    }
+
+    /**
+     * Libera el lugar sin aportar muestra (la petición no llegó a hacer trabajo)
+     */
+    void liberarSinMuestra() {
+        enCurso.decrementAndGet();
+    }
+
+    int getLimite() {
+        return (int) limite;
+    }
+
+    int getEnCurso() {
+        return enCurso.get();
+    }
+
+    private void cerrarVentana() {
+        long[] ordenadas = Arrays.copyOf(muestras, muestrasVentana);
+        Arrays.sort(ordenadas);
+        long percentil = ordenadas[(int) Math.ceil(PERCENTIL * ordenadas.length) - 1];
+
+        if (latenciaBase == 0) {
+            latenciaBase = percentil;
+        }
+        boolean congestion = fallosVentana > 0 || percentil > tolerancia * latenciaBase;
+        if (congestion) {
+            limite = Math.max(minimo, limite * FACTOR_REDUCCION);
+        } else if (enUsoVentana) {
+            limite = Math.min(maximo, limite + 1);
+        }
+        latenciaBase += ALFA_BASE * (percentil - latenciaBase);
+
+        muestrasVentana = 0;
+        fallosVentana = 0;
+        enUsoVentana = false;
+    }
+}
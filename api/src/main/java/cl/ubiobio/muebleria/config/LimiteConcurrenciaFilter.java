@@ -0,0 +1,84 @@
+package cl.ubiobio.muebleria.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Límite de concurrencia adaptativo para las escrituras de órdenes (POST/PUT/DELETE /api/ordenes/**).
+ * Si MariaDB se pone lenta, el límite baja y el exceso se rechaza de inmediato con 503 en vez de
+ * acumularse en hilos de Tomcat: el catálogo y las lecturas siguen atendiéndose.
+ * Se registra como filtro de servlet normal, después de la cadena de seguridad, así que las
+ * peticiones sin autenticar o limitadas por tasa no ocupan lugar.
+ */
+@Component
+public class LimiteConcurrenciaFilter extends OncePerRequestFilter {
+
+    private final LimiteAdaptativo limite;
+    private final boolean habilitado;
+    private final Counter rechazos;
+
+    public LimiteConcurrenciaFilter(MeterRegistry meterRegistry,
+                                    @Value("${ordenes.concurrencia.habilitado:true}") boolean habilitado,
+                                    @Value("${ordenes.concurrencia.inicial:20}") int inicial,
+                                    @Value("${ordenes.concurrencia.minimo:2}") int minimo,
+                                    @Value("${ordenes.concurrencia.maximo:100}") int maximo,
+                                    @Value("${ordenes.concurrencia.tolerancia:2.0}") double tolerancia,
+                                    @Value("${ordenes.concurrencia.ventana:100}") int ventana) {
+        this.limite = new LimiteAdaptativo(inicial, minimo, maximo, tolerancia, ventana);
+        this.habilitado = habilitado;
+
+        // Métricas (ordenes.concurrencia.*)
+        meterRegistry.gauge("ordenes.concurrencia.limite", limite, LimiteAdaptativo::getLimite);
+        meterRegistry.gauge("ordenes.concurrencia.en-curso", limite, LimiteAdaptativo::getEnCurso);
+        this.rechazos = meterRegistry.counter("ordenes.concurrencia.rechazos");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        return !habilitado || !ruta.startsWith("/api/ordenes") || HttpMethod.GET.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!limite.adquirir()) {
+            rechazos.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write("{\"error\":\"Servicio de órdenes saturado, intente nuevamente\"}");
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        boolean fallo = true;
+        try {
+            filterChain.doFilter(request, response);
+            // 4xx es un error del cliente y no dice nada de la carga
+            fallo = response.getStatus() >= 500;
+        } finally {
+            // El 503 del mamparo se responde sin trabajo: su latencia tampoco es una muestra válida
+            if (request.getAttribute(MamparoInterceptor.ATRIBUTO_RECHAZO) != null) {
+                limite.liberarSinMuestra();
+            } else {
+                limite.liberar(System.nanoTime() - inicio, fallo);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package cl.ubiobio.muebleria.config;
+
+import cl.ubiobio.muebleria.enums.TipoCarga;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Asigna un controlador (o un método, que tiene prioridad) a un mamparo de hilos y conexiones.
+ * Las peticiones de un ADMIN autenticado van siempre al mamparo ADMIN (listados completos, importaciones),
+ * igual que las de controladores sin anotación y las tareas en segundo plano.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Mamparo {
+
+  TipoCarga value();
+}
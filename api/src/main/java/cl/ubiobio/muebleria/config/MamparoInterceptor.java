@@ -0,0 +1,117 @@
+package cl.ubiobio.muebleria.config;
+
+import cl.ubiobio.muebleria.enums.Rol;
+import cl.ubiobio.muebleria.enums.TipoCarga;
+import cl.ubiobio.muebleria.security.UsuarioPrincipal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mamparos de hilos: cada clase de carga puede ocupar a la vez solo sus propios permisos del pool
+ * de Tomcat, así un listado completo de admin o una ráfaga de catálogo no deja sin hilos al checkout.
+ * Sin permiso disponible tras una espera corta responde 503. Además fija la carga del hilo para que
+ * DataSourcePorCarga entregue conexiones del pool correspondiente.
+ * En respuestas asíncronas (StreamingResponseBody) el permiso se mantiene hasta que termina el envío.
+ */
+class MamparoInterceptor implements AsyncHandlerInterceptor {
+
+  private static final String ATRIBUTO_PERMISO = MamparoInterceptor.class.getName() + ".permiso";
+  // Marca un 503 propio, que LimiteConcurrenciaFilter no debe contar como fallo del servidor
+  static final String ATRIBUTO_RECHAZO = MamparoInterceptor.class.getName() + ".rechazo";
+
+  private final Map<TipoCarga, Semaphore> permisos = new EnumMap<>(TipoCarga.class);
+  private final Map<TipoCarga, Counter> rechazos = new EnumMap<>(TipoCarga.class);
+  private final long esperaMs;
+
+  MamparoInterceptor(Map<TipoCarga, Integer> concurrencia, long esperaMs, MeterRegistry meterRegistry) {
+    this.esperaMs = esperaMs;
+    for (TipoCarga carga : TipoCarga.values()) {
+      int maximo = concurrencia.get(carga);
+      Semaphore semaforo = new Semaphore(maximo);
+      permisos.put(carga, semaforo);
+
+      // Métricas (mamparos.*{carga})
+      Tags tags = Tags.of("carga", carga.name());
+      meterRegistry.gauge("mamparos.en-curso", tags, semaforo, s -> maximo - s.availablePermits());
+      meterRegistry.gauge("mamparos.maximo", tags, semaforo, s -> maximo);
+      rechazos.put(carga, meterRegistry.counter("mamparos.rechazos", tags));
+    }
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+      throws IOException, InterruptedException {
+    TipoCarga carga = carga(handler);
+    DataSourcePorCarga.usar(carga);
+    // El despacho ASYNC continúa una petición que ya tiene su permiso
+    if (request.getDispatcherType() == DispatcherType.ASYNC || request.getAttribute(ATRIBUTO_PERMISO) != null) {
+      return true;
+    }
+    if (!permisos.get(carga).tryAcquire(esperaMs, TimeUnit.MILLISECONDS)) {
+      DataSourcePorCarga.limpiar();
+      rechazos.get(carga).increment();
+      request.setAttribute(ATRIBUTO_RECHAZO, Boolean.TRUE);
+      response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+      response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+      response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+      response.setCharacterEncoding("UTF-8");
+      response.getWriter().write("{\"error\":\"Servicio saturado, intente nuevamente\"}");
+      return false;
+    }
+    request.setAttribute(ATRIBUTO_PERMISO, carga);
+    return true;
+  }
+
+  // El hilo de Tomcat queda libre mientras la respuesta se escribe en otro hilo: no se libera el permiso
+  @Override
+  public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    DataSourcePorCarga.limpiar();
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                              Exception ex) {
+    DataSourcePorCarga.limpiar();
+    Object carga = request.getAttribute(ATRIBUTO_PERMISO);
+    if (carga != null) {
+      request.removeAttribute(ATRIBUTO_PERMISO);
+      permisos.get((TipoCarga) carga).release();
+    }
+  }
+
+  // Un ADMIN siempre usa su mamparo; si no, el método manda sobre el controlador; sin anotación, ADMIN
+  static TipoCarga carga(Object handler) {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null && authentication.getPrincipal() instanceof UsuarioPrincipal principal
+        && principal.getRol() == Rol.ADMIN) {
+      return TipoCarga.ADMIN;
+    }
+    if (handler instanceof HandlerMethod metodo) {
+      Mamparo mamparo = metodo.getMethodAnnotation(Mamparo.class);
+      if (mamparo == null) {
+        mamparo = metodo.getBeanType().getAnnotation(Mamparo.class);
+      }
+      if (mamparo != null) {
+        return mamparo.value();
+      }
+    }
+    return TipoCarga.ADMIN;
+  }
+}
@@ -0,0 +1,147 @@
+package cl.ubiobio.muebleria.config;
+
+import cl.ubiobio.muebleria.enums.TipoCarga;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Mamparos por clase de carga (catálogo público, escrituras de órdenes, admin/reportes):
+ * cada una tiene su límite de hilos de Tomcat en uso (MamparoInterceptor) y su propio pool Hikari
+ * (DataSourcePorCarga). La asignación es por controlador con @Mamparo.
+ * Límites en mamparos.{carga}.concurrencia y mamparos.{carga}.conexiones. Lo que corre fuera de una
+ * petición (tareas programadas, arranque) usa un pool aparte, mamparos.fondo.conexiones, para no
+ * competir con los reportes de admin.
+ */
+@Configuration
+public class MamparosConfig implements WebMvcConfigurer {
+
+  // Valores por defecto: {concurrencia, conexiones}
+  private static final Map<TipoCarga, int[]> POR_DEFECTO = Map.of(
+      TipoCarga.CATALOGO, new int[]{120, 10},
+      TipoCarga.ORDENES, new int[]{60, 10},
+      TipoCarga.ADMIN, new int[]{10, 4});
+  // Una por tarea programada que puede correr a la vez (spring.task.scheduling.pool.size)
+  private static final int CONEXIONES_FONDO = 4;
+
+  private final Environment environment;
+  private final MeterRegistry meterRegistry;
+  private final long esperaMs;
+  private final boolean hilosVirtuales;
+
+  public MamparosConfig(Environment environment,
+                        MeterRegistry meterRegistry,
+                        @Value("${mamparos.espera-ms:50}") long esperaMs,
+                        @Value("${spring.threads.virtual.enabled:false}") boolean hilosVirtuales) {
+    this.environment = environment;
+    this.meterRegistry = meterRegistry;
+    this.esperaMs = esperaMs;
+    this.hilosVirtuales = hilosVirtuales;
+  }
+
+  /**
+   * Un pool Hikari por carga, más el de fondo, con la misma configuración de spring.datasource.*;
+   * reemplaza al DataSource autoconfigurado
+   */
+  @Bean
+  @Primary
+  public DataSource dataSource(DataSourceProperties properties) {
+    Map<Object, Object> pools = new HashMap<>();
+    for (TipoCarga carga : TipoCarga.values()) {
+      pools.put(carga, pool(properties, carga.name().toLowerCase(), conexiones(carga)));
+    }
+    HikariDataSource fondo = pool(properties, DataSourcePorCarga.FONDO,
+        environment.getProperty("mamparos.fondo.conexiones", Integer.class, CONEXIONES_FONDO));
+    pools.put(DataSourcePorCarga.FONDO, fondo);
+
+    DataSourcePorCarga dataSource = new DataSourcePorCarga();
+    dataSource.setTargetDataSources(pools);
+    dataSource.setDefaultTargetDataSource(fondo);
+    return dataSource;
+  }
+
+  private HikariDataSource pool(DataSourceProperties properties, String nombre, int conexiones) {
+    HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    pool.setPoolName("muebleria-" + nombre);
+    pool.setMaximumPoolSize(conexiones);
+    // hikaricp.connections.* con tag pool: saturación de cada pool por separado
+    pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+    return pool;
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    Map<TipoCarga, Integer> concurrencia = new EnumMap<>(TipoCarga.class);
+    for (TipoCarga carga : TipoCarga.values()) {
+      concurrencia.put(carga, concurrencia(carga));
+    }
+    registry.addInterceptor(new MamparoInterceptor(concurrencia, esperaMs, meterRegistry)).addPathPatterns("/api/**");
+  }
+
+  /**
+   * Las respuestas asíncronas (catálogo en streaming) se escriben en este executor; cada tarea
+   * hereda la carga del hilo que la creó para seguir usando el pool de conexiones de su mamparo.
+   * Con spring.threads.virtual.enabled cada tarea corre en un hilo virtual propio.
+   */
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    TaskDecorator propagarCarga = tarea -> {
+      TipoCarga carga = DataSourcePorCarga.actual();
+      return () -> {
+        DataSourcePorCarga.usar(carga);
+        try {
+          tarea.run();
+        } finally {
+          DataSourcePorCarga.limpiar();
+        }
+      };
+    };
+    // Acotado por el mamparo de catálogo, que es el único que responde en streaming
+    int maximo = concurrencia(TipoCarga.CATALOGO);
+
+    if (hilosVirtuales) {
+      SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("mvc-async-");
+      executor.setVirtualThreads(true);
+      executor.setConcurrencyLimit(maximo);
+      executor.setTaskDecorator(propagarCarga);
+      configurer.setTaskExecutor(executor);
+      return;
+    }
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setThreadNamePrefix("mvc-async-");
+    executor.setCorePoolSize(maximo);
+    executor.setAllowCoreThreadTimeOut(true);
+    executor.setTaskDecorator(propagarCarga);
+    executor.initialize();
+    configurer.setTaskExecutor(executor);
+  }
+
+  private int concurrencia(TipoCarga carga) {
+    return environment.getProperty(propiedad(carga, "concurrencia"), Integer.class, POR_DEFECTO.get(carga)[0]);
+  }
+
+  private int conexiones(TipoCarga carga) {
+    return environment.getProperty(propiedad(carga, "conexiones"), Integer.class, POR_DEFECTO.get(carga)[1]);
+  }
+
+  private static String propiedad(TipoCarga carga, String nombre) {
+    return "mamparos." + carga.name().toLowerCase() + "." + nombre;
+  }
+}
@@ -0,0 +1,12 @@
+package cl.ubiobio.muebleria.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas periódicas (checkpoints del diario de stock)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
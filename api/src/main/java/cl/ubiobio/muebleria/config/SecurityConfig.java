@@ -1,9 +1,16 @@
 package cl.ubiobio.muebleria.config;
 
+import cl.ubiobio.muebleria.security.CodificadorBcryptAcotado;
+import cl.ubiobio.muebleria.security.CustomUserDetailsService;
 import cl.ubiobio.muebleria.security.JwtAuthenticationFilter;
+import cl.ubiobio.muebleria.security.LimiteTasaFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -12,9 +19,9 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -34,9 +41,29 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private LimiteTasaFilter limiteTasaFilter;
+
+    @Autowired
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // BCrypt en un pool acotado (ver CodificadorBcryptAcotado); por defecto un hilo por cada dos núcleos
+    @Value("${auth.bcrypt.fuerza:10}")
+    private int bcryptFuerza;
+
+    @Value("${auth.bcrypt.hilos:0}")
+    private int bcryptHilos;
+
+    @Value("${auth.bcrypt.cola:64}")
+    private int bcryptCola;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int hilos = bcryptHilos > 0 ? bcryptHilos : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new CodificadorBcryptAcotado(bcryptFuerza, hilos, bcryptCola, meterRegistry);
     }
 
     @Bean
@@ -44,6 +71,8 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Rehash transparente al hacer login si el hash guardado tiene menos rondas que auth.bcrypt.fuerza
+        authProvider.setUserDetailsPasswordService(customUserDetailsService);
         return authProvider;
     }
 
@@ -58,15 +87,25 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                // 401 (no 403) sin token válido: el cliente sabe que debe renovar con /api/auth/refresh
+                .exceptionHandling(ex -> ex.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
                 .authorizeHttpRequests(auth -> auth
                         // Public endpoints
                         .requestMatchers("/api/auth/**").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
                         .requestMatchers("/api/muebles").permitAll() // GET muebles (catalog view)
                         .requestMatchers("/api/variantes").permitAll() // GET variantes (catalog view)
+                        .requestMatchers(HttpMethod.GET, "/api/muebles/buscar", "/api/muebles/filtrar",
+                                "/api/muebles/sugerencias").permitAll() // Catalog search
+                        .requestMatchers(HttpMethod.GET, "/api/sucursales", "/api/sucursales/disponibilidad/**")
+                                .permitAll() // Branch selector and availability
 
                         // Admin-only endpoints
                         .requestMatchers("/api/muebles/**").hasRole("ADMIN")
                         .requestMatchers("/api/variantes/**").hasRole("ADMIN")
+                        .requestMatchers("/api/inventario/**").hasRole("ADMIN")
+                        .requestMatchers("/api/sucursales/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
 
                         // Authenticated endpoints (both ADMIN and USER)
                         .requestMatchers("/api/ordenes/**").authenticated()
@@ -75,7 +114,9 @@ public class SecurityConfig {
                         .anyRequest().authenticated()
                 )
                 .authenticationProvider(authenticationProvider())
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                // Después del JWT para conocer al usuario; antes de cualquier controlador
+                .addFilterAfter(limiteTasaFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
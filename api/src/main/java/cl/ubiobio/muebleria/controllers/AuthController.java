@@ -1,14 +1,20 @@
 package cl.ubiobio.muebleria.controllers;
 
+import cl.ubiobio.muebleria.config.Mamparo;
 import cl.ubiobio.muebleria.dto.AuthResponseDTO;
 import cl.ubiobio.muebleria.dto.LoginRequestDTO;
+import cl.ubiobio.muebleria.dto.RefreshRequestDTO;
 import cl.ubiobio.muebleria.dto.RegisterRequestDTO;
 import cl.ubiobio.muebleria.enums.Rol;
+import cl.ubiobio.muebleria.enums.TipoCarga;
 import cl.ubiobio.muebleria.models.Usuario;
 import cl.ubiobio.muebleria.repositories.UsuarioRepository;
 import cl.ubiobio.muebleria.security.CustomUserDetailsService;
 import cl.ubiobio.muebleria.security.JwtTokenProvider;
+import cl.ubiobio.muebleria.security.TokensRefresco;
+import cl.ubiobio.muebleria.security.UsuarioPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -20,9 +26,11 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
+@Mamparo(TipoCarga.ORDENES)
 public class AuthController {
 
     @Autowired
@@ -40,6 +48,9 @@ public class AuthController {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private TokensRefresco tokensRefresco;
+
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequestDTO loginRequest) {
         try {
@@ -51,18 +62,61 @@ public class AuthController {
             );
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
-            String jwt = tokenProvider.generateToken(authentication);
 
+            // El token lleva id, rol y versión para que las peticiones siguientes no consulten usuarios
             Usuario usuario = userDetailsService.getUserByUsername(loginRequest.getUsername());
+            String jwt = tokenProvider.generateToken(usuario);
+            String refreshToken = tokensRefresco.emitir(usuario);
 
-            return ResponseEntity.ok(new AuthResponseDTO(jwt, usuario.getUsername(), usuario.getRol().name()));
+            return ResponseEntity.ok(new AuthResponseDTO(jwt, refreshToken, usuario.getUsername(), usuario.getRol().name()));
         } catch (Exception e) {
+            if (esSaturacion(e)) {
+                return saturado();
+            }
             Map<String, String> error = new HashMap<>();
             error.put("error", "Credenciales inválidas");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
         }
     }
 
+    /**
+     * Cambia un refresh token vigente por un access token nuevo y el siguiente refresh token de la familia
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshRequestDTO request) {
+        if (request.getRefreshToken() == null || request.getRefreshToken().isBlank()) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Refresh token requerido");
+            return ResponseEntity.badRequest().body(error);
+        }
+        try {
+            TokensRefresco.Rotacion rotacion = tokensRefresco.rotar(request.getRefreshToken());
+            Usuario usuario = rotacion.usuario();
+            String jwt = tokenProvider.generateToken(usuario);
+
+            return ResponseEntity.ok(new AuthResponseDTO(jwt, rotacion.token(), usuario.getUsername(), usuario.getRol().name()));
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Sesión expirada");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+        }
+    }
+
+    /**
+     * Revoca el access token en curso y la familia del refresh token recibido
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                    @RequestBody(required = false) RefreshRequestDTO request) {
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            tokenProvider.revocar(authorization.substring(7));
+        }
+        if (request != null && request.getRefreshToken() != null) {
+            tokensRefresco.revocar(request.getRefreshToken());
+        }
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody RegisterRequestDTO registerRequest) {
         // Validate username not taken
@@ -83,7 +137,11 @@ public class AuthController {
         Usuario usuario = new Usuario();
         usuario.setUsername(registerRequest.getUsername());
         usuario.setEmail(registerRequest.getEmail());
-        usuario.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
+        try {
+            usuario.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
+        } catch (RejectedExecutionException e) {
+            return saturado();
+        }
         usuario.setRol(Rol.USER);
         usuario.setActivo(true);
 
@@ -97,11 +155,12 @@ public class AuthController {
 
     @GetMapping("/me")
     public ResponseEntity<?> getCurrentUser(Authentication authentication) {
-        if (authentication == null) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof UsuarioPrincipal principal)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        Usuario usuario = userDetailsService.getUserByUsername(authentication.getName());
+        // Desde el caché de usuarios por el ID que trae el token
+        Usuario usuario = userDetailsService.getUserById(principal.getId());
         Map<String, Object> userInfo = new HashMap<>();
         userInfo.put("id", usuario.getId());
         userInfo.put("username", usuario.getUsername());
@@ -110,4 +169,22 @@ public class AuthController {
 
         return ResponseEntity.ok(userInfo);
     }
+
+    // El pool de BCrypt rechazó la tarea; puede venir envuelta en una AuthenticationException
+    private static boolean esSaturacion(Throwable e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof RejectedExecutionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ResponseEntity<Map<String, String>> saturado() {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Servicio de autenticación saturado, intente nuevamente");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
 }
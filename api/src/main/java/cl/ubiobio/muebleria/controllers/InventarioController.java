@@ -0,0 +1,126 @@
+package cl.ubiobio.muebleria.controllers;
+
+import cl.ubiobio.muebleria.config.Mamparo;
+import cl.ubiobio.muebleria.dto.AjusteStockDTO;
+import cl.ubiobio.muebleria.dto.MovimientoStockDTO;
+import cl.ubiobio.muebleria.dto.ReporteVerificacionDTO;
+import cl.ubiobio.muebleria.dto.ResultadoInventarioDTO;
+import cl.ubiobio.muebleria.dto.StockHistoricoDTO;
+import cl.ubiobio.muebleria.enums.TipoCarga;
+import cl.ubiobio.muebleria.services.DiarioStockService;
+import cl.ubiobio.muebleria.services.InventarioService;
+import cl.ubiobio.muebleria.services.VerificadorStockService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/inventario")
+@CrossOrigin(origins = "*")
+@Mamparo(TipoCarga.ADMIN)
+public class InventarioController {
+
+  private final InventarioService inventarioService;
+  private final DiarioStockService diarioStock;
+  private final VerificadorStockService verificador;
+
+  public InventarioController(InventarioService inventarioService,
+                              DiarioStockService diarioStock,
+                              VerificadorStockService verificador) {
+    this.inventarioService = inventarioService;
+    this.diarioStock = diarioStock;
+    this.verificador = verificador;
+  }
+
+  /**
+   * Ajustes de stock por delta: [{"idMueble":1,"cantidad":5},{"idMueble":2,"cantidad":-1}]
+   */
+  @PostMapping("/ajustes")
+  public ResponseEntity<ResultadoInventarioDTO> ajustar(@RequestBody List<AjusteStockDTO> ajustes) {
+    return ResponseEntity.ok(inventarioService.aplicar(ajustes));
+  }
+
+  /**
+   * Recepción de un envío completo en NDJSON, procesado en streaming
+   */
+  @PostMapping(value = "/recepciones", consumes = "application/x-ndjson")
+  public ResponseEntity<?> recibir(InputStream cuerpo) {
+    try {
+      return ResponseEntity.ok(inventarioService.recibir(cuerpo));
+    } catch (IOException e) {
+      return ResponseEntity.badRequest().body(e.getMessage());
+    }
+  }
+
+  @GetMapping("/{idMueble}/movimientos")
+  public ResponseEntity<List<MovimientoStockDTO>> movimientos(
+      @PathVariable Integer idMueble,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta) {
+    return ResponseEntity.ok(diarioStock.movimientos(idMueble, desde, hasta != null ? hasta : LocalDateTime.now()));
+  }
+
+  /**
+   * Stock de un mueble en un instante pasado (ej: ?instante=2025-01-31T23:59:59)
+   */
+  @GetMapping("/{idMueble}/stock")
+  public ResponseEntity<StockHistoricoDTO> stockEn(
+      @PathVariable Integer idMueble,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime instante) {
+    return ResponseEntity.ok(diarioStock.stockEn(idMueble, instante));
+  }
+
+  /**
+   * Modo hot item: reparte el stock del mueble en N sub-contadores para ventas con mucha concurrencia
+   */
+  @PutMapping("/{idMueble}/shards")
+  public ResponseEntity<?> activarShards(@PathVariable Integer idMueble, @RequestParam int cantidad) {
+    try {
+      inventarioService.activarShards(idMueble, cantidad);
+      return ResponseEntity.noContent().build();
+    } catch (RuntimeException e) {
+      return ResponseEntity.badRequest().body(e.getMessage());
+    }
+  }
+
+  @DeleteMapping("/{idMueble}/shards")
+  public ResponseEntity<?> desactivarShards(@PathVariable Integer idMueble) {
+    try {
+      inventarioService.desactivarShards(idMueble);
+      return ResponseEntity.noContent().build();
+    } catch (RuntimeException e) {
+      return ResponseEntity.badRequest().body(e.getMessage());
+    }
+  }
+
+  @PostMapping("/checkpoints")
+  public ResponseEntity<Void> checkpoint() {
+    diarioStock.checkpoint();
+    return ResponseEntity.noContent().build();
+  }
+
+  /**
+   * Último reporte del verificador de consistencia (stock vs. diario)
+   */
+  @GetMapping("/verificacion")
+  public ResponseEntity<ReporteVerificacionDTO> ultimaVerificacion() {
+    ReporteVerificacionDTO reporte = verificador.getUltimoReporte();
+    if (reporte == null) {
+      return ResponseEntity.noContent().build();
+    }
+    return ResponseEntity.ok(reporte);
+  }
+
+  @PostMapping("/verificacion")
+  public ResponseEntity<Void> verificar() {
+    return verificador.iniciar()
+        ? ResponseEntity.status(HttpStatus.ACCEPTED).build()
+        : ResponseEntity.status(HttpStatus.CONFLICT).build();
+  }
+}
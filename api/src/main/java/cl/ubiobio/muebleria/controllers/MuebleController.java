@@ -1,29 +1,98 @@
 package cl.ubiobio.muebleria.controllers;
 
+import cl.ubiobio.muebleria.config.Mamparo;
+import cl.ubiobio.muebleria.dto.AjustePrecioRequestDTO;
+import cl.ubiobio.muebleria.dto.AjustePrecioResultadoDTO;
+import cl.ubiobio.muebleria.dto.CatalogoFiltradoDTO;
+import cl.ubiobio.muebleria.dto.ComponenteKitDTO;
+import cl.ubiobio.muebleria.dto.FiltroCatalogoDTO;
 import cl.ubiobio.muebleria.dto.MuebleDTO;
 import cl.ubiobio.muebleria.dto.MuebleRequestDTO;
+import cl.ubiobio.muebleria.dto.PaginaMueblesDTO;
+import cl.ubiobio.muebleria.dto.ResultadoImportacionDTO;
+import cl.ubiobio.muebleria.dto.SugerenciaDTO;
+import cl.ubiobio.muebleria.enums.FormatoImportacion;
+import cl.ubiobio.muebleria.enums.OrdenCatalogo;
+import cl.ubiobio.muebleria.enums.TipoCarga;
+import cl.ubiobio.muebleria.search.MuebleSugerenciasTrie;
+import cl.ubiobio.muebleria.services.AjustePrecioService;
+import cl.ubiobio.muebleria.services.ImportacionCatalogoService;
+import cl.ubiobio.muebleria.services.KitService;
 import cl.ubiobio.muebleria.services.MuebleService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/muebles")
 @CrossOrigin(origins = "*")
+@Mamparo(TipoCarga.CATALOGO)
 public class MuebleController {
 
+  private static final int LIMITE_MAXIMO = 100;
+
   private final MuebleService muebleService;
+  private final ImportacionCatalogoService importacionService;
+  private final AjustePrecioService ajustePrecioService;
+  private final KitService kitService;
+  private final ObjectMapper objectMapper;
 
-  public MuebleController(MuebleService muebleService) {
+  public MuebleController(MuebleService muebleService,
+                          ImportacionCatalogoService importacionService,
+                          AjustePrecioService ajustePrecioService,
+                          KitService kitService,
+                          ObjectMapper objectMapper) {
     this.muebleService = muebleService;
+    this.importacionService = importacionService;
+    this.ajustePrecioService = ajustePrecioService;
+    this.kitService = kitService;
+    this.objectMapper = objectMapper;
   }
 
+  /**
+   * Catálogo completo como arreglo JSON, escrito por lotes a medida que se lee
+   */
   @GetMapping
-  public ResponseEntity<List<MuebleDTO>> listar() {
-    List<MuebleDTO> muebles = muebleService.listarMueblesActivos();
-    return ResponseEntity.ok(muebles);
+  public ResponseEntity<StreamingResponseBody> listar(@RequestParam(defaultValue = "NOMBRE") OrdenCatalogo orden) {
+    StreamingResponseBody cuerpo = salida -> {
+      JsonGenerator generador = objectMapper.getFactory().createGenerator(salida);
+      generador.writeStartArray();
+      muebleService.recorrerActivos(orden, mueble -> {
+        try {
+          generador.writeObject(mueble);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      generador.writeEndArray();
+      generador.flush();
+    };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cuerpo);
+  }
+
+  /**
+   * Página del catálogo: ?limit=50&orden=PRECIO&cursor=<siguienteCursor de la página anterior>
+   */
+  @GetMapping(params = "limit")
+  public ResponseEntity<?> listarPagina(@RequestParam int limit,
+                                        @RequestParam(defaultValue = "NOMBRE") OrdenCatalogo orden,
+                                        @RequestParam(required = false) String cursor) {
+    try {
+      PaginaMueblesDTO pagina = muebleService.listarPagina(orden, cursor,
+          Math.max(1, Math.min(limit, LIMITE_MAXIMO)));
+      return ResponseEntity.ok(pagina);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(e.getMessage());
+    }
   }
 
   @GetMapping("/{id}")
@@ -37,17 +106,100 @@ public class MuebleController {
   }
 
   @GetMapping("/buscar")
-  public ResponseEntity<List<MuebleDTO>> buscarPorNombre(@RequestParam String nombre) {
-    List<MuebleDTO> muebles = muebleService.buscarPorNombre(nombre);
+  public ResponseEntity<List<MuebleDTO>> buscarPorNombre(@RequestParam String nombre,
+                                                          @RequestParam(defaultValue = "20") int limit,
+                                                          @RequestParam(defaultValue = "0") int offset) {
+    List<MuebleDTO> muebles = muebleService.buscarPorNombre(nombre, Math.min(limit, LIMITE_MAXIMO), offset);
     return ResponseEntity.ok(muebles);
   }
 
+  /**
+   * Filtros combinables: ?tipo=Silla&tipo=Mesa&material=Roble&tamano=GRANDE&precioMin=&precioMax=&enStock=true
+   */
+  @GetMapping("/filtrar")
+  public ResponseEntity<CatalogoFiltradoDTO> filtrar(FiltroCatalogoDTO filtro,
+                                                     @RequestParam(defaultValue = "20") int limit,
+                                                     @RequestParam(defaultValue = "0") int offset) {
+    CatalogoFiltradoDTO resultado = muebleService.filtrar(filtro, Math.min(limit, LIMITE_MAXIMO), offset);
+    return ResponseEntity.ok(resultado);
+  }
+
+  @GetMapping("/sugerencias")
+  public ResponseEntity<List<SugerenciaDTO>> sugerencias(@RequestParam String prefijo,
+                                                         @RequestParam(defaultValue = "8") int limit) {
+    List<SugerenciaDTO> sugerencias = muebleService.sugerir(prefijo,
+        Math.min(limit, MuebleSugerenciasTrie.MAX_SUGERENCIAS));
+    return ResponseEntity.ok(sugerencias);
+  }
+
   @PostMapping
   public ResponseEntity<MuebleDTO> crear(@RequestBody MuebleRequestDTO request) {
     MuebleDTO creado = muebleService.crear(request);
     return ResponseEntity.status(HttpStatus.CREATED).body(creado);
   }
 
+  /**
+   * Importación masiva: cuerpo CSV (con encabezado) o NDJSON (un mueble por línea).
+   * Filas con idMueble actualizan, filas sin ID insertan.
+   */
+  @PostMapping(value = "/importar", consumes = {"text/csv", "application/x-ndjson"})
+  public ResponseEntity<?> importar(@RequestHeader("Content-Type") String contentType, InputStream cuerpo) {
+    FormatoImportacion formato = contentType.startsWith("text/csv")
+        ? FormatoImportacion.CSV
+        : FormatoImportacion.NDJSON;
+    try {
+      ResultadoImportacionDTO resultado = importacionService.importar(cuerpo, formato);
+      return ResponseEntity.ok(resultado);
+    } catch (IOException | RuntimeException e) {
+      return ResponseEntity.badRequest().body(e.getMessage());
+    }
+  }
+
+  /**
+   * Ajuste masivo de precios sobre los muebles que cumplen el filtro
+   */
+  @PostMapping("/precios/ajuste")
+  public ResponseEntity<?> ajustarPrecios(@RequestBody AjustePrecioRequestDTO request) {
+    try {
+      AjustePrecioResultadoDTO resultado = ajustePrecioService.ajustar(request);
+      return ResponseEntity.ok(resultado);
+    } catch (RuntimeException e) {
+      return ResponseEntity.badRequest().body(e.getMessage());
+    }
+  }
+
+  @GetMapping("/{id}/componentes")
+  public ResponseEntity<List<ComponenteKitDTO>> listarComponentes(@PathVariable Integer id) {
+    try {
+      return ResponseEntity.ok(kitService.listarComponentes(id));
+    } catch (RuntimeException e) {
+      return ResponseEntity.notFound().build();
+    }
+  }
+
+  /**
+   * Define la composición de un kit: [{"idComponente":1,"cantidad":1},{"idComponente":2,"cantidad":4}]
+   */
+  @PutMapping("/{id}/componentes")
+  public ResponseEntity<?> definirComponentes(@PathVariable Integer id,
+                                              @RequestBody List<ComponenteKitDTO> componentes) {
+    try {
+      return ResponseEntity.ok(kitService.definirComponentes(id, componentes));
+    } catch (RuntimeException e) {
+      return ResponseEntity.badRequest().body(e.getMessage());
+    }
+  }
+
+  @DeleteMapping("/{id}/componentes")
+  public ResponseEntity<?> quitarComponentes(@PathVariable Integer id) {
+    try {
+      kitService.quitarComponentes(id);
+      return ResponseEntity.noContent().build();
+    } catch (RuntimeException e) {
+      return ResponseEntity.badRequest().body(e.getMessage());
+    }
+  }
+
   @PutMapping("/{id}")
   public ResponseEntity<MuebleDTO> actualizar(@PathVariable Integer id,
                                                @RequestBody MuebleRequestDTO request) {
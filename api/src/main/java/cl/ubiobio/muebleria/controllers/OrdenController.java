@@ -1,14 +1,15 @@
 package cl.ubiobio.muebleria.controllers;
 
+import cl.ubiobio.muebleria.config.Mamparo;
 import cl.ubiobio.muebleria.dto.CrearOrdenRequestDTO;
 import cl.ubiobio.muebleria.dto.DetalleRequestDTO;
 import cl.ubiobio.muebleria.dto.OrdenDTO;
 import cl.ubiobio.muebleria.enums.EstadoOrden;
-import cl.ubiobio.muebleria.models.Usuario;
-import cl.ubiobio.muebleria.security.CustomUserDetailsService;
+import cl.ubiobio.muebleria.enums.TipoCarga;
+import cl.ubiobio.muebleria.security.UsuarioPrincipal;
 import cl.ubiobio.muebleria.services.OrdenService;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -26,41 +27,43 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/ordenes")
 @CrossOrigin(origins = "*")
+@Mamparo(TipoCarga.ORDENES)
 public class OrdenController {
 
   private final OrdenService ordenService;
 
-  @Autowired
-  private CustomUserDetailsService userDetailsService;
-
   public OrdenController(OrdenService ordenService) {
     this.ordenService = ordenService;
   }
 
-  private Usuario getAuthenticatedUser(Authentication authentication) {
-    return userDetailsService.getUserByUsername(authentication.getName());
+  // El principal se arma en JwtAuthenticationFilter desde los claims del token, sin consultar usuarios
+  private UsuarioPrincipal getAuthenticatedUser(Authentication authentication) {
+    return (UsuarioPrincipal) authentication.getPrincipal();
   }
 
   @GetMapping
   public ResponseEntity<List<OrdenDTO>> listar(Authentication authentication) {
-    Usuario usuario = getAuthenticatedUser(authentication);
+    UsuarioPrincipal usuario = getAuthenticatedUser(authentication);
     List<OrdenDTO> ordenes = ordenService.listarOrdenes(usuario);
     return ResponseEntity.ok(ordenes);
   }
 
   @GetMapping("/estado/{estado}")
   public ResponseEntity<List<OrdenDTO>> listarPorEstado(@PathVariable EstadoOrden estado, Authentication authentication) {
-    Usuario usuario = getAuthenticatedUser(authentication);
+    UsuarioPrincipal usuario = getAuthenticatedUser(authentication);
     List<OrdenDTO> ordenes = ordenService.listarPorEstado(estado, usuario);
     return ResponseEntity.ok(ordenes);
   }
 
+  /**
+   * Detalle de una orden; las órdenes cerradas se responden con el JSON ya serializado en caché
+   */
   @GetMapping("/{id}")
-  public ResponseEntity<OrdenDTO> obtenerPorId(@PathVariable Integer id, Authentication authentication) {
+  public ResponseEntity<byte[]> obtenerPorId(@PathVariable Integer id, Authentication authentication) {
     try {
-      Usuario usuario = getAuthenticatedUser(authentication);
-      OrdenDTO orden = ordenService.obtenerPorId(id, usuario);
-      return ResponseEntity.ok(orden);
+      UsuarioPrincipal usuario = getAuthenticatedUser(authentication);
+      byte[] orden = ordenService.obtenerSerializada(id, usuario);
+      return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(orden);
     } catch (RuntimeException e) {
       return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
     }
@@ -72,7 +75,7 @@ public class OrdenController {
   @PostMapping
   public ResponseEntity<?> crear(@RequestBody CrearOrdenRequestDTO request, Authentication authentication) {
     try {
-      Usuario usuario = getAuthenticatedUser(authentication);
+      UsuarioPrincipal usuario = getAuthenticatedUser(authentication);
       OrdenDTO creada = ordenService.crearOrden(request, usuario);
       return ResponseEntity.status(HttpStatus.CREATED).body(creada);
     } catch (RuntimeException e) {
@@ -90,7 +93,7 @@ public class OrdenController {
                                           @RequestBody DetalleRequestDTO request,
                                           Authentication authentication) {
     try {
-      Usuario usuario = getAuthenticatedUser(authentication);
+      UsuarioPrincipal usuario = getAuthenticatedUser(authentication);
       OrdenDTO actualizada = ordenService.agregarDetalle(id, request, usuario);
       return ResponseEntity.ok(actualizada);
     } catch (RuntimeException e) {
@@ -107,7 +110,7 @@ public class OrdenController {
                                            @PathVariable Integer idDetalle,
                                            Authentication authentication) {
     try {
-      Usuario usuario = getAuthenticatedUser(authentication);
+      UsuarioPrincipal usuario = getAuthenticatedUser(authentication);
       OrdenDTO actualizada = ordenService.eliminarDetalle(idOrden, idDetalle, usuario);
       return ResponseEntity.ok(actualizada);
     } catch (RuntimeException e) {
@@ -123,7 +126,7 @@ public class OrdenController {
   @PostMapping("/{id}/confirmar")
   public ResponseEntity<?> confirmar(@PathVariable Integer id, Authentication authentication) {
     try {
-      Usuario usuario = getAuthenticatedUser(authentication);
+      UsuarioPrincipal usuario = getAuthenticatedUser(authentication);
       OrdenDTO confirmada = ordenService.confirmarOrden(id, usuario);
       return ResponseEntity.ok(confirmada);
     } catch (RuntimeException e) {
@@ -138,7 +141,7 @@ public class OrdenController {
   @PostMapping("/{id}/cancelar")
   public ResponseEntity<?> cancelar(@PathVariable Integer id, Authentication authentication) {
     try {
-      Usuario usuario = getAuthenticatedUser(authentication);
+      UsuarioPrincipal usuario = getAuthenticatedUser(authentication);
       OrdenDTO cancelada = ordenService.cancelarOrden(id, usuario);
       return ResponseEntity.ok(cancelada);
     } catch (RuntimeException e) {
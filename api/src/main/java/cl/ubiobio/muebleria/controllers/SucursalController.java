@@ -0,0 +1,63 @@
+package cl.ubiobio.muebleria.controllers;
+
+import cl.ubiobio.muebleria.config.Mamparo;
+import cl.ubiobio.muebleria.dto.DisponibilidadSucursalDTO;
+import cl.ubiobio.muebleria.dto.SucursalDTO;
+import cl.ubiobio.muebleria.dto.SucursalRequestDTO;
+import cl.ubiobio.muebleria.enums.TipoCarga;
+import cl.ubiobio.muebleria.services.SucursalService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/sucursales")
+@CrossOrigin(origins = "*")
+@Mamparo(TipoCarga.CATALOGO)
+public class SucursalController {
+
+  private final SucursalService sucursalService;
+
+  public SucursalController(SucursalService sucursalService) {
+    this.sucursalService = sucursalService;
+  }
+
+  @GetMapping
+  public ResponseEntity<List<SucursalDTO>> listar() {
+    return ResponseEntity.ok(sucursalService.listarActivas());
+  }
+
+  /**
+   * Stock disponible de un mueble por sucursal (incluye la bodega central)
+   */
+  @GetMapping("/disponibilidad/{idMueble}")
+  public ResponseEntity<List<DisponibilidadSucursalDTO>> disponibilidad(@PathVariable Integer idMueble) {
+    try {
+      return ResponseEntity.ok(sucursalService.disponibilidad(idMueble));
+    } catch (RuntimeException e) {
+      return ResponseEntity.notFound().build();
+    }
+  }
+
+  @PostMapping
+  public ResponseEntity<?> crear(@RequestBody SucursalRequestDTO request) {
+    try {
+      SucursalDTO creada = sucursalService.crear(request);
+      return ResponseEntity.status(HttpStatus.CREATED).body(creada);
+    } catch (RuntimeException e) {
+      return ResponseEntity.badRequest().body(e.getMessage());
+    }
+  }
+
+  @DeleteMapping("/{id}")
+  public ResponseEntity<Void> desactivar(@PathVariable Integer id) {
+    try {
+      sucursalService.desactivar(id);
+      return ResponseEntity.noContent().build();
+    } catch (RuntimeException e) {
+      return ResponseEntity.notFound().build();
+    }
+  }
+}
@@ -1,10 +1,15 @@
 package cl.ubiobio.muebleria.controllers;
 
+import cl.ubiobio.muebleria.config.Mamparo;
 import cl.ubiobio.muebleria.dto.ActualizarRolRequestDTO;
 import cl.ubiobio.muebleria.dto.UsuarioDTO;
 import cl.ubiobio.muebleria.enums.Rol;
+import cl.ubiobio.muebleria.enums.TipoCarga;
 import cl.ubiobio.muebleria.models.Usuario;
 import cl.ubiobio.muebleria.repositories.UsuarioRepository;
+import cl.ubiobio.muebleria.security.CacheUsuarios;
+import cl.ubiobio.muebleria.security.TokensRefresco;
+import cl.ubiobio.muebleria.security.VersionesToken;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -19,11 +24,21 @@ import java.util.stream.Collectors;
 @RestController
 @RequestMapping("/api/usuarios")
 @CrossOrigin(origins = "*")
+@Mamparo(TipoCarga.ADMIN)
 public class UsuarioController {
 
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private VersionesToken versionesToken;
+
+    @Autowired
+    private CacheUsuarios cacheUsuarios;
+
+    @Autowired
+    private TokensRefresco tokensRefresco;
+
     /**
      * Listar todos los usuarios (solo ADMIN)
      */
@@ -51,7 +66,8 @@ public class UsuarioController {
         try {
             Rol nuevoRol = Rol.valueOf(request.getRol().toUpperCase());
             usuario.setRol(nuevoRol);
-            usuarioRepository.save(usuario);
+            // El rol viaja en el token: se revocan los emitidos con el rol anterior
+            revocar(usuario);
 
             Map<String, String> response = new HashMap<>();
             response.put("message", "Rol actualizado exitosamente");
@@ -76,7 +92,7 @@ public class UsuarioController {
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
         usuario.setActivo(!usuario.getActivo());
-        usuarioRepository.save(usuario);
+        revocar(usuario);
 
         Map<String, Object> response = new HashMap<>();
         response.put("message", usuario.getActivo() ? "Usuario activado" : "Usuario desactivado");
@@ -85,6 +101,21 @@ public class UsuarioController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Guarda el cambio incrementando la versión de tokens del usuario: revoca sus JWT y refresh tokens
+     * e invalida el caché de usuarios aquí; los demás nodos lo detectan en SincronizacionUsuarios
+     */
+    private void revocar(Usuario usuario) {
+        int version = (usuario.getVersionToken() != null ? usuario.getVersionToken() : 0) + 1;
+        usuario.setVersionToken(version);
+        usuarioRepository.save(usuario);
+        versionesToken.registrar(usuario.getId(), version);
+        versionesToken.registrarEstado(usuario.getId(), Boolean.TRUE.equals(usuario.getActivo()));
+        cacheUsuarios.invalidar(usuario);
+        // Sin esto un usuario desactivado o degradado podría seguir renovando su sesión
+        tokensRefresco.revocarUsuario(usuario.getId());
+    }
+
     private UsuarioDTO toDTO(Usuario usuario) {
         UsuarioDTO dto = new UsuarioDTO();
         dto.setId(usuario.getId());
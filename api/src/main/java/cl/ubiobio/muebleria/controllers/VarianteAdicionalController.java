@@ -1,7 +1,9 @@
 package cl.ubiobio.muebleria.controllers;
 
+import cl.ubiobio.muebleria.config.Mamparo;
 import cl.ubiobio.muebleria.dto.VarianteAdicionalDTO;
 import cl.ubiobio.muebleria.dto.VarianteAdicionalRequestDTO;
+import cl.ubiobio.muebleria.enums.TipoCarga;
 import cl.ubiobio.muebleria.services.VarianteAdicionalService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -12,6 +14,7 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/variantes")
 @CrossOrigin(origins = "*")
+@Mamparo(TipoCarga.CATALOGO)
 public class VarianteAdicionalController {
 
   private final VarianteAdicionalService varianteService;
@@ -0,0 +1,11 @@
+package cl.ubiobio.muebleria.dto;
+
+import cl.ubiobio.muebleria.enums.ReglaPrecio;
+import lombok.Data;
+
+@Data
+public class AjustePrecioRequestDTO {
+  private FiltroCatalogoDTO filtro; // Sin filtro se ajusta todo el catálogo activo
+  private ReglaPrecio regla;
+  private Integer valor;
+}
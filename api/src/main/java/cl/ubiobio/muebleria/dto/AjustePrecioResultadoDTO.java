@@ -0,0 +1,13 @@
+package cl.ubiobio.muebleria.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AjustePrecioResultadoDTO {
+  private Integer afectados;
+  private Long versionCatalogo;
+}
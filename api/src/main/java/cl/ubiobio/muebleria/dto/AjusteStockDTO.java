@@ -0,0 +1,10 @@
+package cl.ubiobio.muebleria.dto;
+
+import lombok.Data;
+
+@Data
+public class AjusteStockDTO {
+  private Integer idMueble;
+  private Integer idSucursal; // Opcional: null = bodega central
+  private Integer cantidad; // Positivo = recepción, negativo = ajuste/merma
+}
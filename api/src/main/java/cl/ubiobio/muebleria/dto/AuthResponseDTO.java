@@ -12,10 +12,16 @@ public class AuthResponseDTO {
     private String type = "Bearer";
     private String username;
     private String rol;
+    private String refreshToken;
 
     public AuthResponseDTO(String token, String username, String rol) {
         this.token = token;
         this.username = username;
         this.rol = rol;
     }
+
+    public AuthResponseDTO(String token, String refreshToken, String username, String rol) {
+        this(token, username, rol);
+        this.refreshToken = refreshToken;
+    }
 }
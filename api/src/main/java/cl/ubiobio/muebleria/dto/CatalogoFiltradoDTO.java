@@ -0,0 +1,13 @@
+package cl.ubiobio.muebleria.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class CatalogoFiltradoDTO {
+  private Integer total; // Total de muebles que cumplen el filtro
+  private List<MuebleDTO> muebles; // Página solicitada
+  private Map<String, Map<String, Integer>> facetas; // faceta -> valor -> cantidad
+}
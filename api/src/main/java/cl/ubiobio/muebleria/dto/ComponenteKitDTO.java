@@ -0,0 +1,10 @@
+package cl.ubiobio.muebleria.dto;
+
+import lombok.Data;
+
+@Data
+public class ComponenteKitDTO {
+  private Integer idComponente;
+  private String nombre; // Solo en respuestas
+  private Integer cantidad; // Unidades del componente por kit
+}
@@ -6,5 +6,6 @@ import java.util.List;
 
 @Data
 public class CrearOrdenRequestDTO {
+  private Integer idSucursal; // Opcional: sin sucursal se despacha desde la bodega central
   private List<DetalleRequestDTO> detalles;
 }
@@ -0,0 +1,15 @@
+package cl.ubiobio.muebleria.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DesviacionStockDTO {
+  private Integer idMueble;
+  private Integer stockActual;   // Valor en muebles.stock
+  private Integer stockEsperado; // Último checkpoint + movimientos del diario
+  private Integer diferencia;    // stockActual - stockEsperado
+}
@@ -0,0 +1,16 @@
+package cl.ubiobio.muebleria.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DisponibilidadSucursalDTO {
+  private Integer idSucursal; // null = bodega central
+  private String nombreSucursal;
+  private Integer stock;
+  private Integer reservado; // En cotizaciones abiertas
+  private Integer disponible;
+}
@@ -0,0 +1,13 @@
+package cl.ubiobio.muebleria.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErrorImportacionDTO {
+  private Integer linea;
+  private String mensaje;
+}
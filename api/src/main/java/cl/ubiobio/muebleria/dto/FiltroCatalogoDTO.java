@@ -0,0 +1,16 @@
+package cl.ubiobio.muebleria.dto;
+
+import cl.ubiobio.muebleria.enums.TamanoMueble;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class FiltroCatalogoDTO {
+  private List<String> tipo; // Valores combinados con OR
+  private List<String> material;
+  private List<TamanoMueble> tamano;
+  private Integer precioMin; // Inclusivo, en CLP
+  private Integer precioMax;
+  private Boolean enStock;
+}
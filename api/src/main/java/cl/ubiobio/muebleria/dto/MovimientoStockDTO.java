@@ -0,0 +1,17 @@
+package cl.ubiobio.muebleria.dto;
+
+import cl.ubiobio.muebleria.enums.MotivoMovimiento;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class MovimientoStockDTO {
+  private Long idMovimiento;
+  private Integer idMueble;
+  private Integer idSucursal; // null = bodega central
+  private Integer delta;
+  private MotivoMovimiento motivo;
+  private Integer idOrden;
+  private LocalDateTime fecha;
+}
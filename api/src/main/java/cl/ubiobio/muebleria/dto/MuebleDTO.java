@@ -9,7 +9,11 @@ public class MuebleDTO {
   private String nombre;
   private String tipo;
   private Integer precioBase;
-  private Integer stock;
+  private Integer stock; // Bodega central
+  private Integer shardsStock; // Modo hot item: cantidad de shards (null = fila única)
+  private Boolean esKit; // Stock derivado de sus componentes (ver /api/muebles/{id}/componentes)
+  // Stock físico de la bodega central y todas las sucursales, menos lo reservado en cotizaciones abiertas
+  private Integer stockDisponible;
   private TamanoMueble tamano;
   private String material;
   private Boolean estadoLogico;
@@ -0,0 +1,15 @@
+package cl.ubiobio.muebleria.dto;
+
+import cl.ubiobio.muebleria.enums.TamanoMueble;
+import lombok.Data;
+
+@Data
+public class MuebleImportacionDTO {
+  private Integer idMueble; // Con ID se actualiza, sin ID se inserta
+  private String nombre;
+  private String tipo;
+  private Integer precioBase;
+  private Integer stock;
+  private TamanoMueble tamano;
+  private String material;
+}
@@ -9,6 +9,8 @@ public class MuebleRequestDTO {
   private String tipo;
   private Integer precioBase;
   private Integer stock;
+  // Stock que mostraba el formulario al editar; si viene, el cambio se aplica como delta
+  private Integer stockAnterior;
   private TamanoMueble tamano;
   private String material;
 }
@@ -13,6 +13,8 @@ public class OrdenDTO {
   private LocalDateTime fechaConfirmacion;
   private EstadoOrden estadoOrden;
   private Long totalCalculado;
+  private Integer idSucursal; // null = bodega central
+  private String nombreSucursal;
   private Integer cantidadItems; // Número de items en la orden
   private List<DetalleOrdenDTO> detalles;
 }
@@ -0,0 +1,11 @@
+package cl.ubiobio.muebleria.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class PaginaMueblesDTO {
+  private List<MuebleDTO> muebles;
+  private String siguienteCursor; // null cuando no hay más páginas
+}
@@ -0,0 +1,12 @@
+package cl.ubiobio.muebleria.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshRequestDTO {
+    private String refreshToken;
+}
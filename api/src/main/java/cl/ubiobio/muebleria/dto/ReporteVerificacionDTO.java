@@ -0,0 +1,17 @@
+package cl.ubiobio.muebleria.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ReporteVerificacionDTO {
+  private LocalDateTime inicio;
+  private LocalDateTime fin; // null mientras la verificación está en curso
+  private int revisados;
+  private int conDesviacion;
+  private long desviacionAbsoluta; // Suma de |diferencia|
+  private List<DesviacionStockDTO> desviaciones = new ArrayList<>(); // Solo las primeras
+}
@@ -0,0 +1,15 @@
+package cl.ubiobio.muebleria.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ResultadoImportacionDTO {
+  private int procesadas;
+  private int insertadas;
+  private int actualizadas;
+  private int rechazadas;
+  private List<ErrorImportacionDTO> errores = new ArrayList<>(); // Solo los primeros errores
+}
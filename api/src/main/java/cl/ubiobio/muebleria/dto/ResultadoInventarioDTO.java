@@ -0,0 +1,14 @@
+package cl.ubiobio.muebleria.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ResultadoInventarioDTO {
+  private int procesados;
+  private int aplicados;
+  private int rechazados;
+  private List<ErrorImportacionDTO> errores = new ArrayList<>(); // linea = posición del ajuste
+}
@@ -0,0 +1,16 @@
+package cl.ubiobio.muebleria.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockHistoricoDTO {
+  private Integer idMueble;
+  private LocalDateTime instante;
+  private Integer stock;
+}
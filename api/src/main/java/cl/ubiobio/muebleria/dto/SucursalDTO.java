@@ -0,0 +1,11 @@
+package cl.ubiobio.muebleria.dto;
+
+import lombok.Data;
+
+@Data
+public class SucursalDTO {
+  private Integer idSucursal;
+  private String nombre;
+  private String direccion;
+  private Boolean activa;
+}
@@ -0,0 +1,9 @@
+package cl.ubiobio.muebleria.dto;
+
+import lombok.Data;
+
+@Data
+public class SucursalRequestDTO {
+  private String nombre;
+  private String direccion;
+}
@@ -1,10 +1,13 @@
 package cl.ubiobio.muebleria.dto;
 
+import cl.ubiobio.muebleria.enums.TipoAplicacion;
 import lombok.Data;
 
 @Data
 public class VarianteAplicadaDTO {
   private Integer idVariante;
   private String nombre;
+  private TipoAplicacion tipoAplicacion;
+  private Integer costoExtra;
   private Integer precioAplicadoSnapshot;
 }
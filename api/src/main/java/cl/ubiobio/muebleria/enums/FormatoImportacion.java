@@ -0,0 +1,5 @@
+package cl.ubiobio.muebleria.enums;
+
+public enum FormatoImportacion {
+  CSV, NDJSON
+}
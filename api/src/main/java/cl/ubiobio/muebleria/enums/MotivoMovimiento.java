@@ -0,0 +1,10 @@
+package cl.ubiobio.muebleria.enums;
+
+public enum MotivoMovimiento {
+  ALTA,        // Stock inicial al crear el mueble
+  EDICION,     // Cambio desde el formulario de administración
+  VENTA,       // Confirmación de una orden
+  CANCELACION, // Devolución al cancelar una venta
+  RECEPCION,   // Ingreso de mercadería
+  AJUSTE       // Merma o corrección manual
+}
@@ -0,0 +1,11 @@
+package cl.ubiobio.muebleria.enums;
+
+/**
+ * Orden del catálogo paginado.
+ * STOCK es aproximado: ordena por la columna muebles.stock, que para un hot item es solo el remanente
+ * fuera de los shards y para un kit no se usa (su stock se deriva de los componentes). Mantener el
+ * total en la fila volvería a serializar las ventas del hot item en ella, que es lo que los shards evitan.
+ */
+public enum OrdenCatalogo {
+  NOMBRE, PRECIO, STOCK, RECIENTES
+}
@@ -0,0 +1,7 @@
+package cl.ubiobio.muebleria.enums;
+
+public enum ReglaPrecio {
+  FIJO,       // Suma un monto en CLP (negativo para descontar)
+  PORCENTAJE, // Suma un porcentaje del precio base (ej: 7 = +7%)
+  REDONDEO    // Redondea al múltiplo más cercano (ej: 990)
+}
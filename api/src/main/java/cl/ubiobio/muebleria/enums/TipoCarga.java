@@ -0,0 +1,8 @@
+package cl.ubiobio.muebleria.enums;
+
+/**
+ * Clase de carga de una petición; cada una tiene su propio mamparo de hilos y de conexiones
+ */
+public enum TipoCarga {
+  CATALOGO, ORDENES, ADMIN
+}
@@ -0,0 +1,35 @@
+package cl.ubiobio.muebleria.models;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Saldo de stock de un mueble en un instante, junto con el último movimiento
+ * del diario que ya está incluido en ese saldo.
+ */
+@Entity
+@Data
+@Table(name = "checkpoints_stock", indexes = {
+    @Index(name = "idx_checkpoints_mueble_fecha", columnList = "id_mueble, fecha")
+})
+public class CheckpointStock {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id_checkpoint")
+  private Long idCheckpoint;
+
+  @Column(name = "id_mueble", nullable = false)
+  private Integer idMueble;
+
+  @Column(nullable = false)
+  private Integer stock;
+
+  @Column(nullable = false)
+  private LocalDateTime fecha;
+
+  @Column(name = "id_ultimo_movimiento", nullable = false)
+  private Long idUltimoMovimiento;
+}
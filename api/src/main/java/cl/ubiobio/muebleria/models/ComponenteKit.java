@@ -0,0 +1,30 @@
+package cl.ubiobio.muebleria.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Composición de un kit: cada fila indica cuántas unidades de un mueble componente lleva.
+ * El stock del kit no se guarda; se deriva del de sus componentes (ver IndiceKits).
+ */
+@Entity
+@Data
+@Table(name = "componentes_kit",
+    uniqueConstraints = @UniqueConstraint(name = "uk_componentes_kit", columnNames = {"id_kit", "id_componente"}),
+    indexes = @Index(name = "idx_componentes_kit_componente", columnList = "id_componente"))
+public class ComponenteKit {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id_componente_kit")
+  private Integer idComponenteKit;
+
+  @Column(name = "id_kit", nullable = false)
+  private Integer idKit;
+
+  @Column(name = "id_componente", nullable = false)
+  private Integer idComponente;
+
+  @Column(nullable = false)
+  private Integer cantidad;
+}
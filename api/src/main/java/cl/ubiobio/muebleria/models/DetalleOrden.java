@@ -29,7 +29,15 @@ public class DetalleOrden {
   @Column(name = "precio_unitario_final")
   private Integer precioUnitarioFinal;
 
+  // SNAPSHOT: Nombre del mueble al confirmar; la orden se muestra sin leer el catálogo
+  @Column(name = "nombre_mueble_snapshot", length = 100)
+  private String nombreMuebleSnapshot;
+
   // Relación con variantes aplicadas
   @OneToMany(mappedBy = "detalle", cascade = CascadeType.ALL, orphanRemoval = true)
   private List<DetalleOrdenVariante> variantesAplicadas = new ArrayList<>();
+
+  // SNAPSHOT: Componentes del kit al confirmar (vacío si la línea no es un kit)
+  @OneToMany(mappedBy = "detalle", cascade = CascadeType.ALL, orphanRemoval = true)
+  private List<DetalleOrdenComponente> componentesSnapshot = new ArrayList<>();
 }
@@ -0,0 +1,30 @@
+package cl.ubiobio.muebleria.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * SNAPSHOT: composición de un kit al confirmar la línea de la orden.
+ * Cancelar la venta devuelve exactamente estas unidades aunque el kit cambie después.
+ */
+@Entity
+@Data
+@Table(name = "detalles_orden_componentes")
+public class DetalleOrdenComponente {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Integer idDetalleComponente;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "id_detalle", nullable = false)
+  private DetalleOrden detalle;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "id_componente", nullable = false)
+  private Mueble componente;
+
+  // Unidades del componente por cada kit de la línea
+  @Column(nullable = false)
+  private Integer cantidad;
+}
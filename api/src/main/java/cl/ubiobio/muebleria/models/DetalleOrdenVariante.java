@@ -1,5 +1,7 @@
 package cl.ubiobio.muebleria.models;
 
+import cl.ubiobio.muebleria.enums.TipoAplicacion;
+
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -23,4 +25,15 @@ public class DetalleOrdenVariante {
   // SNAPSHOT: Precio específico de la variante en ese momento
   @Column(name = "precio_aplicado_snapshot")
   private Integer precioAplicadoSnapshot;
+
+  // SNAPSHOT: Datos de la variante al confirmar (sobreviven a renombres y bajas del catálogo)
+  @Column(name = "nombre_variante_snapshot", length = 100)
+  private String nombreVarianteSnapshot;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "tipo_aplicacion_snapshot", length = 20)
+  private TipoAplicacion tipoAplicacionSnapshot;
+
+  @Column(name = "costo_extra_snapshot")
+  private Integer costoExtraSnapshot;
 }
@@ -0,0 +1,47 @@
+package cl.ubiobio.muebleria.models;
+
+import cl.ubiobio.muebleria.enums.MotivoMovimiento;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Diario append-only de cambios de stock. Las filas se insertan por lote con JDBC
+ * y nunca se actualizan ni se borran; el índice (id_mueble, id_movimiento) permite leer
+ * solo el tramo posterior al último checkpoint.
+ */
+@Entity
+@Data
+@Table(name = "movimientos_stock", indexes = {
+    @Index(name = "idx_movimientos_mueble_fecha", columnList = "id_mueble, fecha"),
+    @Index(name = "idx_movimientos_mueble_id", columnList = "id_mueble, id_movimiento")
+})
+public class MovimientoStock {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id_movimiento")
+  private Long idMovimiento;
+
+  // Sin relación JPA: el diario no debe cargar ni bloquear el mueble
+  @Column(name = "id_mueble", nullable = false)
+  private Integer idMueble;
+
+  @Column(name = "id_sucursal")
+  private Integer idSucursal; // Nullable: null = bodega central (muebles.stock)
+
+  @Column(nullable = false)
+  private Integer delta;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  private MotivoMovimiento motivo;
+
+  @Column(name = "id_orden")
+  private Integer idOrden; // Nullable
+
+  @Column(nullable = false)
+  private LocalDateTime fecha;
+}
@@ -4,14 +4,25 @@ import cl.ubiobio.muebleria.enums.TamanoMueble;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Formula;
 
 @Entity
 @Data
-@Table(name = "muebles")
+// Solo se escriben las columnas modificadas: editar el nombre no reescribe el stock
+@DynamicUpdate
+// Índices para el listado paginado por keyset: (estado_logico, clave de orden, id)
+@Table(name = "muebles", indexes = {
+    @Index(name = "idx_muebles_activo_nombre", columnList = "estado_logico, nombre, id_mueble"),
+    @Index(name = "idx_muebles_activo_precio", columnList = "estado_logico, precio_base, id_mueble"),
+    @Index(name = "idx_muebles_activo_stock", columnList = "estado_logico, stock, id_mueble"),
+    @Index(name = "idx_muebles_activo_id", columnList = "estado_logico, id_mueble")
+})
 public class Mueble {
 
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id_mueble")
   private Integer idMueble;
 
   @Column(nullable = false, length = 100)
@@ -23,9 +34,27 @@ public class Mueble {
   @Column(name = "precio_base", nullable = false)
   private Integer precioBase;
 
+  // En modo hot item es solo el remanente fuera de los shards (ver getStockTotal)
   @Column(nullable = false)
   private Integer stock;
 
+  // Modo "hot item": N sub-contadores en stock_shards; null = fila única
+  @Column(name = "shards_stock")
+  private Integer shardsStock;
+
+  // Suma de los shards al cargar la entidad; la subconsulta solo corre para muebles en modo hot
+  @Formula("(CASE WHEN shards_stock IS NULL THEN 0 " +
+      "ELSE (SELECT COALESCE(SUM(s.stock), 0) FROM stock_shards s WHERE s.id_mueble = id_mueble) END)")
+  private Integer stockEnShards;
+
+  // Kit: su stock se deriva de componentes_kit y la columna stock no se usa
+  @Column(name = "es_kit")
+  private Boolean esKit;
+
+  // Stock derivado de un kit, asignado por IndiceKits al indexarlo
+  @Transient
+  private Integer stockDerivado;
+
   @Column(name = "estado_logico")
   private Boolean estadoLogico = true; // Soft Delete
 
@@ -34,4 +63,19 @@ public class Mueble {
   private TamanoMueble tamano;
 
   private String material;
+
+  public boolean isKit() {
+    return Boolean.TRUE.equals(esKit);
+  }
+
+  /**
+   * Stock físico de la bodega central: la fila del mueble más sus shards
+   * (para un kit, las unidades armables con sus componentes)
+   */
+  public int getStockTotal() {
+    if (isKit()) {
+      return stockDerivado != null ? stockDerivado : 0;
+    }
+    return (stock != null ? stock : 0) + (stockEnShards != null ? stockEnShards : 0);
+  }
 }
@@ -11,7 +11,11 @@ import lombok.Data;
 
 @Entity
 @Data
-@Table(name = "ordenes")
+// Las reservas de stock se agregan filtrando por estado (COTIZACION)
+@Table(name = "ordenes", indexes = {
+    @Index(name = "idx_ordenes_estado", columnList = "estado_orden"),
+    @Index(name = "idx_ordenes_sucursal_estado", columnList = "id_sucursal, estado_orden")
+})
 public class Orden {
 
   @Id
@@ -38,6 +42,11 @@ public class Orden {
   @JoinColumn(name = "id_usuario", nullable = false)
   private Usuario usuario;
 
+  // Sucursal que despacha la orden; null = bodega central (muebles.stock)
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "id_sucursal")
+  private Sucursal sucursal;
+
   // Relación con los detalles (Cascade para guardar todo junto)
   @OneToMany(mappedBy = "orden", cascade = CascadeType.ALL, orphanRemoval = true)
   private List<DetalleOrden> detalles = new ArrayList<>();
@@ -0,0 +1,29 @@
+package cl.ubiobio.muebleria.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Sub-contador de stock de un mueble en modo "hot item" (ver StockShardService).
+ * Las filas se leen y escriben con JDBC; la entidad solo define la tabla.
+ */
+@Entity
+@Data
+@Table(name = "stock_shards",
+    uniqueConstraints = @UniqueConstraint(name = "uk_stock_shards_mueble", columnNames = {"id_mueble", "shard"}))
+public class ShardStock {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id_shard_stock")
+  private Integer idShardStock;
+
+  @Column(name = "id_mueble", nullable = false)
+  private Integer idMueble;
+
+  @Column(nullable = false)
+  private Integer shard; // 0..N-1
+
+  @Column(nullable = false)
+  private Integer stock = 0;
+}
@@ -0,0 +1,31 @@
+package cl.ubiobio.muebleria.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Stock de un mueble en una sucursal. Cada sucursal descuenta sobre sus propias filas,
+ * así que las ventas de salas distintas no compiten por la misma fila de muebles.
+ */
+@Entity
+@Data
+@Table(name = "stock_sucursal",
+    uniqueConstraints = @UniqueConstraint(name = "uk_stock_sucursal_mueble", columnNames = {"id_sucursal", "id_mueble"}),
+    indexes = @Index(name = "idx_stock_sucursal_mueble", columnList = "id_mueble"))
+public class StockSucursal {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id_stock_sucursal")
+  private Integer idStockSucursal;
+
+  // Sin relaciones JPA: los descuentos son UPDATE directos sobre esta fila
+  @Column(name = "id_sucursal", nullable = false)
+  private Integer idSucursal;
+
+  @Column(name = "id_mueble", nullable = false)
+  private Integer idMueble;
+
+  @Column(nullable = false)
+  private Integer stock = 0;
+}
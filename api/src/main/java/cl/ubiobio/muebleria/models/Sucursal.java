@@ -0,0 +1,28 @@
+package cl.ubiobio.muebleria.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Sala de ventas con inventario propio (ver StockSucursal).
+ * Las órdenes sin sucursal siguen usando muebles.stock como bodega central.
+ */
+@Entity
+@Data
+@Table(name = "sucursales")
+public class Sucursal {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id_sucursal")
+  private Integer idSucursal;
+
+  @Column(nullable = false, unique = true, length = 100)
+  private String nombre;
+
+  @Column(length = 200)
+  private String direccion;
+
+  @Column(nullable = false)
+  private Boolean activa = true;
+}
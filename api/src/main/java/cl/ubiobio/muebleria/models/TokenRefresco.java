@@ -0,0 +1,41 @@
+package cl.ubiobio.muebleria.models;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Refresh token emitido a un usuario. Solo se guarda el SHA-256 del token; cada uso lo
+ * consume y emite otro de la misma familia. Reusar uno ya consumido revoca la familia entera.
+ */
+@Entity
+@Data
+@Table(name = "tokens_refresco", indexes = {
+    @Index(name = "idx_tokens_refresco_usuario", columnList = "id_usuario"),
+    @Index(name = "idx_tokens_refresco_familia", columnList = "familia")
+})
+public class TokenRefresco {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id_token")
+  private Long idToken;
+
+  @Column(name = "id_usuario", nullable = false)
+  private Long idUsuario;
+
+  // SHA-256 en hexadecimal
+  @Column(nullable = false, unique = true, length = 64)
+  private String hash;
+
+  @Column(nullable = false, length = 36)
+  private String familia;
+
+  @Column(nullable = false)
+  private LocalDateTime expira;
+
+  // null mientras no se haya usado ni revocado
+  @Column(name = "fecha_revocacion")
+  private LocalDateTime fechaRevocacion;
+}
@@ -0,0 +1,27 @@
+package cl.ubiobio.muebleria.models;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Access token revocado antes de expirar (logout), identificado por su jti.
+ * Se conserva hasta la expiración del token; los nodos lo cargan de forma incremental por id.
+ */
+@Entity
+@Data
+@Table(name = "tokens_revocados")
+public class TokenRevocado {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id_revocacion")
+  private Long idRevocacion;
+
+  @Column(nullable = false, unique = true, length = 36)
+  private String jti;
+
+  @Column(nullable = false)
+  private LocalDateTime expira;
+}
@@ -35,6 +35,10 @@ public class Usuario {
     @Column(nullable = false)
     private Boolean activo = true; // Soft delete flag
 
+    // Versión de sus tokens: se incrementa al cambiar rol o estado y revoca los JWT emitidos antes
+    @Column(name = "version_token")
+    private Integer versionToken = 0;
+
     @Column(name = "fecha_creacion", nullable = false, updatable = false)
     private LocalDateTime fechaCreacion;
 
@@ -47,5 +51,8 @@ public class Usuario {
         if (this.rol == null) {
             this.rol = Rol.USER; // Default role
         }
+        if (this.versionToken == null) {
+            this.versionToken = 0;
+        }
     }
 }
@@ -0,0 +1,46 @@
+package cl.ubiobio.muebleria.reactive;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Nodo de catálogo de solo lectura sobre WebFlux y R2DBC (perfil "reactivo").
+ * Registra solo este paquete: sin JPA, Hikari, Tomcat ni los filtros del path servlet, así que
+ * corre con los hilos del event loop de Netty. Las exclusiones de autoconfiguración de cada
+ * modo están en application.properties y application-reactivo.properties.
+ * No es @SpringBootConfiguration para que @SpringBootTest siga encontrando solo MuebleriaApplication.
+ */
+@RestController
+@Configuration(proxyBeanMethods = false)
+@EnableAutoConfiguration
+@ComponentScan(basePackageClasses = CatalogoReactivoApplication.class)
+@Profile(CatalogoReactivoApplication.PERFIL)
+public class CatalogoReactivoApplication {
+
+  public static final String PERFIL = "reactivo";
+
+  /**
+   * Netty explícito: con spring-boot-starter-web en el classpath la autoconfiguración elegiría Tomcat
+   * también para WebFlux, y el nodo correría sobre hilos de servlet
+   */
+  @Bean
+  public NettyReactiveWebServerFactory nettyReactiveWebServerFactory(ObjectProvider<NettyServerCustomizer> customizers) {
+    NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory();
+    customizers.orderedStream().forEach(factory::addServerCustomizers);
+    return factory;
+  }
+
+  @RequestMapping("/")
+  public Mono<String> healthCheck() {
+    return Mono.just("Healthy :D");
+  }
+}
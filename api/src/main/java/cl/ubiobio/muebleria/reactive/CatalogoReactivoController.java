@@ -0,0 +1,64 @@
+package cl.ubiobio.muebleria.reactive;
+
+import cl.ubiobio.muebleria.dto.MuebleDTO;
+import cl.ubiobio.muebleria.dto.VarianteAdicionalDTO;
+import cl.ubiobio.muebleria.enums.OrdenCatalogo;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Rutas públicas del catálogo en el nodo reactivo; mismas URLs, parámetros y JSON que
+ * MuebleController y VarianteAdicionalController. El resto de la API queda en los nodos servlet.
+ */
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "*")
+@Profile(CatalogoReactivoApplication.PERFIL)
+public class CatalogoReactivoController {
+
+  private static final int LIMITE_MAXIMO = 100;
+
+  private final CatalogoReactivoService catalogo;
+
+  public CatalogoReactivoController(CatalogoReactivoService catalogo) {
+    this.catalogo = catalogo;
+  }
+
+  /**
+   * Catálogo completo como arreglo JSON, o un mueble por línea con Accept: application/x-ndjson.
+   * Se escribe a medida que el cliente lo consume.
+   */
+  @GetMapping(value = "/muebles", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public Flux<MuebleDTO> listar(@RequestParam(defaultValue = "NOMBRE") OrdenCatalogo orden) {
+    return catalogo.recorrerActivos(orden);
+  }
+
+  /**
+   * Página del catálogo: ?limit=50&orden=PRECIO&cursor=<siguienteCursor de la página anterior>
+   */
+  @GetMapping(value = "/muebles", params = "limit")
+  public Mono<ResponseEntity<?>> listarPagina(@RequestParam int limit,
+                                              @RequestParam(defaultValue = "NOMBRE") OrdenCatalogo orden,
+                                              @RequestParam(required = false) String cursor) {
+    return catalogo.listarPagina(orden, cursor, Math.max(1, Math.min(limit, LIMITE_MAXIMO)))
+        .<ResponseEntity<?>>map(ResponseEntity::ok)
+        .onErrorResume(IllegalArgumentException.class,
+            e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
+  }
+
+  @GetMapping("/muebles/buscar")
+  public Flux<MuebleDTO> buscarPorNombre(@RequestParam String nombre,
+                                         @RequestParam(defaultValue = "20") int limit,
+                                         @RequestParam(defaultValue = "0") int offset) {
+    return catalogo.buscarPorNombre(nombre, Math.min(limit, LIMITE_MAXIMO), offset);
+  }
+
+  @GetMapping("/variantes")
+  public Flux<VarianteAdicionalDTO> listarVariantes() {
+    return catalogo.listarVariantesActivas();
+  }
+}
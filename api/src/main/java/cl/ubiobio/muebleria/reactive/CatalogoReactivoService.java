@@ -0,0 +1,260 @@
+package cl.ubiobio.muebleria.reactive;
+
+import cl.ubiobio.muebleria.dto.MuebleDTO;
+import cl.ubiobio.muebleria.dto.PaginaMueblesDTO;
+import cl.ubiobio.muebleria.dto.VarianteAdicionalDTO;
+import cl.ubiobio.muebleria.enums.EstadoOrden;
+import cl.ubiobio.muebleria.enums.OrdenCatalogo;
+import cl.ubiobio.muebleria.enums.TamanoMueble;
+import cl.ubiobio.muebleria.enums.TipoAplicacion;
+import cl.ubiobio.muebleria.search.NormalizadorTexto;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Lecturas del catálogo público sobre R2DBC, con los mismos DTOs que MuebleService.
+ * El stock de los kits y el disponible se calculan en la consulta (en el path servlet salen de
+ * IndiceKits y de consultas agrupadas por página): el nodo no mantiene índices en memoria y
+ * siempre ve lo que escribieron los nodos servlet.
+ */
+@Service
+@Profile(CatalogoReactivoApplication.PERFIL)
+public class CatalogoReactivoService {
+
+  // Acota el tamaño de la consulta de búsqueda (una condición LIKE por término)
+  static final int MAX_TERMINOS = 8;
+
+  static final String SELECT_MUEBLE =
+      "SELECT m.id_mueble, m.nombre, m.tipo, m.precio_base, m.stock AS stock_fila, m.shards_stock, m.es_kit, " +
+      "m.tamano, m.material, m.estado_logico, " +
+      "CAST(CASE WHEN m.es_kit THEN " + unidadesKit(false) + " ELSE " + central("m") + " END AS SIGNED) AS stock, " +
+      "CAST(CASE WHEN m.es_kit THEN " + unidadesKit(true) + " ELSE " + central("m") +
+      " + (SELECT COALESCE(SUM(ss.stock), 0) FROM stock_sucursal ss WHERE ss.id_mueble = m.id_mueble)" +
+      " - " + reservado("m.id_mueble") + " END AS SIGNED) AS stock_disponible " +
+      "FROM muebles m ";
+
+  // Posición del keyset: ID del último mueble entregado y el valor de su clave de orden
+  record Posicion(int idMueble, Object clave) {
+  }
+
+  // Mueble leído junto con el valor crudo de su clave de orden, para armar el cursor
+  private record Fila(MuebleDTO mueble, Object clave) {
+  }
+
+  private final DatabaseClient databaseClient;
+  private final int tamanoLote;
+
+  public CatalogoReactivoService(DatabaseClient databaseClient,
+                                 @Value("${catalogo.reactivo.tamano-lote:500}") int tamanoLote) {
+    this.databaseClient = databaseClient;
+    this.tamanoLote = tamanoLote;
+  }
+
+  /**
+   * Catálogo completo por lotes de keyset, a demanda del cliente: el lote siguiente se consulta
+   * cuando se consumió el anterior, así que un cliente lento no retiene una conexión ni acumula
+   * el catálogo en memoria.
+   */
+  public Flux<MuebleDTO> recorrerActivos(OrdenCatalogo orden) {
+    return lote(orden, null, tamanoLote)
+        .expand(filas -> filas.size() < tamanoLote
+            ? Mono.empty()
+            : lote(orden, posicionDe(orden, filas.get(filas.size() - 1)), tamanoLote))
+        // prefetch 1: a lo más un lote leído por delante de lo que se escribió al cliente
+        .flatMapIterable(filas -> filas, 1)
+        .map(Fila::mueble);
+  }
+
+  /**
+   * Página del catálogo con el mismo formato de cursor que MuebleService.listarPagina,
+   * así que un cliente puede continuar en cualquiera de los dos tipos de nodo
+   */
+  public Mono<PaginaMueblesDTO> listarPagina(OrdenCatalogo orden, String cursor, int limit) {
+    // Se lee uno de más para saber si hay página siguiente
+    return Mono.defer(() -> lote(orden, posicionDesde(orden, cursor), limit + 1))
+        .map(filas -> {
+          List<Fila> contenido = filas.subList(0, Math.min(limit, filas.size()));
+          PaginaMueblesDTO pagina = new PaginaMueblesDTO();
+          pagina.setMuebles(contenido.stream().map(Fila::mueble).collect(Collectors.toList()));
+          if (filas.size() > limit) {
+            pagina.setSiguienteCursor(cursorDe(posicionDe(orden, contenido.get(contenido.size() - 1))));
+          }
+          return pagina;
+        });
+  }
+
+  /**
+   * Búsqueda sobre nombre, tipo y material: cada término debe aparecer en alguno de ellos.
+   * Compara con la colación de la columna (utf8mb4_*_ci: sin tildes ni mayúsculas) y ordena
+   * por nombre; el ranking por puntaje queda en el índice en memoria del path servlet.
+   */
+  public Flux<MuebleDTO> buscarPorNombre(String nombre, int limit, int offset) {
+    List<String> terminos = NormalizadorTexto.tokenizar(nombre).stream()
+        .distinct()
+        .limit(MAX_TERMINOS)
+        .collect(Collectors.toList());
+    if (terminos.isEmpty() || limit <= 0) {
+      return Flux.empty();
+    }
+
+    DatabaseClient.GenericExecuteSpec consulta = databaseClient.sql(sqlBusqueda(terminos.size()))
+        .bind("limite", limit)
+        .bind("offset", Math.max(offset, 0));
+    for (int i = 0; i < terminos.size(); i++) {
+      // tokenizar solo deja alfanuméricos: no hay comodines de LIKE que escapar
+      consulta = consulta.bind("termino" + i, "%" + terminos.get(i) + "%");
+    }
+    return consulta.map(CatalogoReactivoService::toDTO).all();
+  }
+
+  public Flux<VarianteAdicionalDTO> listarVariantesActivas() {
+    return databaseClient.sql("SELECT id_variante, nombre, costo_extra, tipo_aplicacion, activo " +
+            "FROM variantes_adicionales WHERE activo = TRUE ORDER BY id_variante")
+        .map(fila -> {
+          VarianteAdicionalDTO dto = new VarianteAdicionalDTO();
+          dto.setIdVariante(fila.get("id_variante", Integer.class));
+          dto.setNombre(fila.get("nombre", String.class));
+          dto.setCostoExtra(fila.get("costo_extra", Integer.class));
+          dto.setTipoAplicacion(TipoAplicacion.valueOf(fila.get("tipo_aplicacion", String.class)));
+          dto.setActivo(fila.get("activo", Boolean.class));
+          return dto;
+        })
+        .all();
+  }
+
+  private Mono<List<Fila>> lote(OrdenCatalogo orden, Posicion desde, int limite) {
+    DatabaseClient.GenericExecuteSpec consulta = databaseClient.sql(sqlLote(orden, desde != null))
+        .bind("limite", limite);
+    if (desde != null) {
+      consulta = consulta.bind("id", desde.idMueble());
+      if (orden != OrdenCatalogo.RECIENTES) {
+        consulta = consulta.bind("clave", desde.clave());
+      }
+    }
+    return consulta.map(fila -> new Fila(toDTO(fila), claveDe(orden, fila)))
+        .all()
+        .collectList();
+  }
+
+  // ==================== SQL ====================
+
+  // Mismo orden que MuebleService.ordenamiento; el ID desempata
+  static String sqlLote(OrdenCatalogo orden, boolean conPosicion) {
+    String desde = !conPosicion ? "" : switch (orden) {
+      case NOMBRE -> "AND (m.nombre > :clave OR (m.nombre = :clave AND m.id_mueble > :id)) ";
+      case PRECIO -> "AND (m.precio_base > :clave OR (m.precio_base = :clave AND m.id_mueble > :id)) ";
+      case STOCK -> "AND (m.stock < :clave OR (m.stock = :clave AND m.id_mueble > :id)) ";
+      case RECIENTES -> "AND m.id_mueble < :id ";
+    };
+    String ordenamiento = switch (orden) {
+      case NOMBRE -> "ORDER BY m.nombre, m.id_mueble ";
+      case PRECIO -> "ORDER BY m.precio_base, m.id_mueble ";
+      case STOCK -> "ORDER BY m.stock DESC, m.id_mueble ";
+      case RECIENTES -> "ORDER BY m.id_mueble DESC ";
+    };
+    return SELECT_MUEBLE + "WHERE m.estado_logico = TRUE " + desde + ordenamiento + "LIMIT :limite";
+  }
+
+  static String sqlBusqueda(int terminos) {
+    StringBuilder sql = new StringBuilder(SELECT_MUEBLE).append("WHERE m.estado_logico = TRUE ");
+    for (int i = 0; i < terminos; i++) {
+      sql.append("AND CONCAT_WS(' ', m.nombre, m.tipo, m.material) LIKE :termino").append(i).append(' ');
+    }
+    return sql.append("ORDER BY m.nombre, m.id_mueble LIMIT :limite OFFSET :offset").toString();
+  }
+
+  // Stock físico de la bodega central: la fila más sus shards (igual que Mueble.getStockTotal)
+  private static String central(String alias) {
+    return "(COALESCE(" + alias + ".stock, 0) + CASE WHEN " + alias + ".shards_stock IS NULL THEN 0 " +
+        "ELSE (SELECT COALESCE(SUM(s.stock), 0) FROM stock_shards s WHERE s.id_mueble = " + alias + ".id_mueble) END)";
+  }
+
+  // Reservado en cotizaciones abiertas, directo y como componente de kits cotizados
+  private static String reservado(String idMueble) {
+    String cotizacion = "'" + EstadoOrden.COTIZACION.name() + "'";
+    return "((SELECT COALESCE(SUM(d.cantidad), 0) FROM detalles_orden d " +
+        "JOIN ordenes o ON o.id_orden = d.id_orden " +
+        "WHERE o.estado_orden = " + cotizacion + " AND d.id_mueble = " + idMueble + ") + " +
+        "(SELECT COALESCE(SUM(d.cantidad * ck.cantidad), 0) FROM detalles_orden d " +
+        "JOIN ordenes o ON o.id_orden = d.id_orden JOIN componentes_kit ck ON ck.id_kit = d.id_mueble " +
+        "WHERE o.estado_orden = " + cotizacion + " AND ck.id_componente = " + idMueble + "))";
+  }
+
+  // Unidades armables del kit m: su componente más escaso (igual que IndiceKits.disponible)
+  private static String unidadesKit(boolean descontarReservas) {
+    String libre = descontarReservas ? central("k") + " - " + reservado("c.id_componente") : central("k");
+    return "(SELECT COALESCE(MIN(FLOOR(GREATEST(0, " + libre + ") / c.cantidad)), 0) " +
+        "FROM componentes_kit c LEFT JOIN muebles k ON k.id_mueble = c.id_componente AND k.estado_logico = TRUE " +
+        "WHERE c.id_kit = m.id_mueble)";
+  }
+
+  // ==================== CURSOR ====================
+
+  private static Object claveDe(OrdenCatalogo orden, Readable fila) {
+    return switch (orden) {
+      case NOMBRE -> fila.get("nombre", String.class);
+      case PRECIO -> fila.get("precio_base", Integer.class);
+      case STOCK -> fila.get("stock_fila", Integer.class);
+      case RECIENTES -> fila.get("id_mueble", Integer.class);
+    };
+  }
+
+  private static Posicion posicionDe(OrdenCatalogo orden, Fila fila) {
+    return new Posicion(fila.mueble().getIdMueble(), orden == OrdenCatalogo.RECIENTES ? null : fila.clave());
+  }
+
+  // Formato del cursor (Base64 URL): "<idMueble>:<valor de la clave de orden>"
+  static String cursorDe(Posicion posicion) {
+    Object valor = posicion.clave() != null ? posicion.clave() : posicion.idMueble();
+    String crudo = posicion.idMueble() + ":" + valor;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(crudo.getBytes(StandardCharsets.UTF_8));
+  }
+
+  static Posicion posicionDesde(OrdenCatalogo orden, String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return null;
+    }
+    try {
+      String crudo = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separador = crudo.indexOf(':');
+      int id = Integer.parseInt(crudo.substring(0, separador));
+      String valor = crudo.substring(separador + 1);
+
+      return switch (orden) {
+        case RECIENTES -> new Posicion(id, null);
+        case NOMBRE -> new Posicion(id, valor);
+        case PRECIO, STOCK -> new Posicion(id, Integer.valueOf(valor));
+      };
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Cursor inválido: " + cursor);
+    }
+  }
+
+  // Mapper
+  private static MuebleDTO toDTO(Readable fila) {
+    MuebleDTO dto = new MuebleDTO();
+    dto.setIdMueble(fila.get("id_mueble", Integer.class));
+    dto.setNombre(fila.get("nombre", String.class));
+    dto.setTipo(fila.get("tipo", String.class));
+    dto.setPrecioBase(fila.get("precio_base", Integer.class));
+    dto.setStock(fila.get("stock", Long.class).intValue());
+    dto.setEsKit(Boolean.TRUE.equals(fila.get("es_kit", Boolean.class)));
+    dto.setShardsStock(fila.get("shards_stock", Integer.class));
+    dto.setStockDisponible(fila.get("stock_disponible", Long.class).intValue());
+    String tamano = fila.get("tamano", String.class);
+    dto.setTamano(tamano != null ? TamanoMueble.valueOf(tamano) : null);
+    dto.setMaterial(fila.get("material", String.class));
+    dto.setEstadoLogico(fila.get("estado_logico", Boolean.class));
+    return dto;
+  }
+}
@@ -0,0 +1,34 @@
+package cl.ubiobio.muebleria.reactive;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+/**
+ * El nodo reactivo solo sirve lecturas públicas: sin sesión ni JWT, y todo lo demás se rechaza
+ */
+@Configuration
+@EnableWebFluxSecurity
+@Profile(CatalogoReactivoApplication.PERFIL)
+public class SeguridadReactivaConfig {
+
+  @Bean
+  public SecurityWebFilterChain catalogoFilterChain(ServerHttpSecurity http) {
+    return http
+        .csrf(ServerHttpSecurity.CsrfSpec::disable)
+        .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+        .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+        .logout(ServerHttpSecurity.LogoutSpec::disable)
+        .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+        .authorizeExchange(exchange -> exchange
+            .pathMatchers(HttpMethod.GET, "/", "/actuator/health").permitAll()
+            .pathMatchers(HttpMethod.GET, "/api/muebles", "/api/muebles/buscar", "/api/variantes").permitAll()
+            .anyExchange().denyAll())
+        .build();
+  }
+}
@@ -0,0 +1,20 @@
+package cl.ubiobio.muebleria.repositories;
+
+import cl.ubiobio.muebleria.models.CheckpointStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface CheckpointStockRepository extends JpaRepository<CheckpointStock, Long> {
+
+  // Último checkpoint de un mueble hasta un instante
+  Optional<CheckpointStock> findFirstByIdMuebleAndFechaLessThanEqualOrderByFechaDesc(Integer idMueble,
+                                                                                      LocalDateTime fecha);
+
+  // Primer checkpoint de un mueble después de un instante (cota superior del diario a recorrer)
+  Optional<CheckpointStock> findFirstByIdMuebleAndFechaGreaterThanOrderByFechaAsc(Integer idMueble,
+                                                                                  LocalDateTime fecha);
+}
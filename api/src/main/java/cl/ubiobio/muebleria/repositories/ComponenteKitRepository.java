@@ -0,0 +1,19 @@
+package cl.ubiobio.muebleria.repositories;
+
+import cl.ubiobio.muebleria.models.ComponenteKit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ComponenteKitRepository extends JpaRepository<ComponenteKit, Integer> {
+
+  List<ComponenteKit> findByIdKitOrderByIdComponenteAsc(Integer idKit);
+
+  boolean existsByIdComponente(Integer idComponente);
+
+  @Modifying(flushAutomatically = true)
+  void deleteByIdKit(Integer idKit);
+}
@@ -1,9 +1,70 @@
 package cl.ubiobio.muebleria.repositories;
 
+import cl.ubiobio.muebleria.enums.EstadoOrden;
 import cl.ubiobio.muebleria.models.DetalleOrden;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface DetalleOrdenRepository extends JpaRepository<DetalleOrden, Integer> {
+
+  /**
+   * Cantidad reservada por mueble en órdenes del estado dado (una fila por mueble con reservas)
+   */
+  interface CantidadPorMueble {
+    Integer getIdMueble();
+
+    Long getCantidad();
+  }
+
+  // Reservas de una página completa de muebles en una sola consulta agrupada
+  @Query("SELECT d.mueble.idMueble AS idMueble, SUM(d.cantidad) AS cantidad FROM DetalleOrden d " +
+      "WHERE d.orden.estadoOrden = :estado AND d.mueble.idMueble IN :idsMueble " +
+      "GROUP BY d.mueble.idMueble")
+  List<CantidadPorMueble> sumarCantidadPorMueble(@Param("idsMueble") Collection<Integer> idsMueble,
+                                                 @Param("estado") EstadoOrden estado);
+
+  /**
+   * Cantidad reservada de un mueble por sucursal (idSucursal null = bodega central)
+   */
+  interface CantidadPorSucursal {
+    Integer getIdSucursal();
+
+    Long getCantidad();
+  }
+
+  // Reservas de la bodega central: órdenes sin sucursal
+  @Query("SELECT COALESCE(SUM(d.cantidad), 0) FROM DetalleOrden d " +
+      "WHERE d.orden.estadoOrden = :estado AND d.mueble.idMueble = :idMueble AND d.orden.sucursal IS NULL")
+  Long sumarCantidad(@Param("idMueble") Integer idMueble, @Param("estado") EstadoOrden estado);
+
+  @Query("SELECT COALESCE(SUM(d.cantidad), 0) FROM DetalleOrden d " +
+      "WHERE d.orden.estadoOrden = :estado AND d.mueble.idMueble = :idMueble " +
+      "AND d.orden.sucursal.idSucursal = :idSucursal")
+  Long sumarCantidadEnSucursal(@Param("idMueble") Integer idMueble,
+                               @Param("idSucursal") Integer idSucursal,
+                               @Param("estado") EstadoOrden estado);
+
+  @Query("SELECT s.idSucursal AS idSucursal, SUM(d.cantidad) AS cantidad FROM DetalleOrden d " +
+      "JOIN d.orden o LEFT JOIN o.sucursal s " +
+      "WHERE o.estadoOrden = :estado AND d.mueble.idMueble = :idMueble GROUP BY s.idSucursal")
+  List<CantidadPorSucursal> sumarCantidadPorSucursal(@Param("idMueble") Integer idMueble,
+                                                     @Param("estado") EstadoOrden estado);
+
+  // Reservas de componentes hechas a través de kits cotizados (cantidad del detalle x unidades por kit)
+  @Query("SELECT c.idComponente AS idMueble, SUM(d.cantidad * c.cantidad) AS cantidad " +
+      "FROM DetalleOrden d, ComponenteKit c " +
+      "WHERE c.idKit = d.mueble.idMueble AND d.orden.estadoOrden = :estado AND c.idComponente IN :idsMueble " +
+      "GROUP BY c.idComponente")
+  List<CantidadPorMueble> sumarCantidadViaKitsPorMueble(@Param("idsMueble") Collection<Integer> idsMueble,
+                                                        @Param("estado") EstadoOrden estado);
+
+  @Query("SELECT COALESCE(SUM(d.cantidad * c.cantidad), 0) FROM DetalleOrden d, ComponenteKit c " +
+      "WHERE c.idKit = d.mueble.idMueble AND d.orden.estadoOrden = :estado AND c.idComponente = :idMueble")
+  Long sumarCantidadViaKits(@Param("idMueble") Integer idMueble, @Param("estado") EstadoOrden estado);
 }
@@ -0,0 +1,28 @@
+package cl.ubiobio.muebleria.repositories;
+
+import cl.ubiobio.muebleria.models.MovimientoStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MovimientoStockRepository extends JpaRepository<MovimientoStock, Long> {
+
+  List<MovimientoStock> findByIdMuebleAndFechaBetweenOrderByIdMovimientoAsc(Integer idMueble,
+                                                                          LocalDateTime desde,
+                                                                          LocalDateTime hasta);
+
+  // Suma de los movimientos de la bodega central entre dos checkpoints, hasta el instante consultado.
+  // Los checkpoints se delimitan solo por ID: la fecha se toma antes del commit y puede ser anterior a él
+  @Query("SELECT COALESCE(SUM(m.delta), 0) FROM MovimientoStock m " +
+      "WHERE m.idMueble = :idMueble AND m.idSucursal IS NULL AND m.idMovimiento > :idUltimoMovimiento " +
+      "AND m.idMovimiento <= :hastaMovimiento AND m.fecha <= :hasta")
+  Long sumarDelta(@Param("idMueble") Integer idMueble,
+                  @Param("idUltimoMovimiento") Long idUltimoMovimiento,
+                  @Param("hastaMovimiento") Long hastaMovimiento,
+                  @Param("hasta") LocalDateTime hasta);
+}
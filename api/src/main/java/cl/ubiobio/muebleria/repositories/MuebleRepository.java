@@ -1,10 +1,21 @@
 package cl.ubiobio.muebleria.repositories;
 
 import cl.ubiobio.muebleria.models.Mueble;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MuebleRepository extends JpaRepository<Mueble, Integer> {
@@ -12,6 +23,16 @@ public interface MuebleRepository extends JpaRepository<Mueble, Integer> {
   // Soft delete: solo obtener muebles activos
   List<Mueble> findByEstadoLogicoTrue();
 
-  // Buscar por nombre
-  List<Mueble> findByNombreContainingIgnoreCaseAndEstadoLogicoTrue(String nombre);
+  // Paginación por keyset sobre los muebles activos
+  Window<Mueble> findByEstadoLogicoTrue(ScrollPosition position, Sort sort, Limit limit);
+
+  // Carga el mueble con su fila bloqueada (SELECT ... FOR UPDATE) hasta el fin de la transacción
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT m FROM Mueble m WHERE m.idMueble = :idMueble")
+  Optional<Mueble> findByIdParaActualizar(@Param("idMueble") Integer idMueble);
+
+  // Suma atómica sobre el stock actual; no actualiza si el resultado quedaría negativo
+  @Modifying(flushAutomatically = true)
+  @Query("UPDATE Mueble m SET m.stock = m.stock + :delta WHERE m.idMueble = :idMueble AND m.stock + :delta >= 0")
+  int sumarStock(@Param("idMueble") Integer idMueble, @Param("delta") int delta);
 }
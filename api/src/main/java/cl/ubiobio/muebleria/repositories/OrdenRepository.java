@@ -2,7 +2,6 @@ package cl.ubiobio.muebleria.repositories;
 
 import cl.ubiobio.muebleria.enums.EstadoOrden;
 import cl.ubiobio.muebleria.models.Orden;
-import cl.ubiobio.muebleria.models.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -17,9 +16,9 @@ public interface OrdenRepository extends JpaRepository<Orden, Integer> {
   // Obtener cotizaciones (órdenes en estado COTIZACION)
   List<Orden> findByEstadoOrdenOrderByFechaCreacionDesc(EstadoOrden estado);
 
-  // Buscar por usuario
-  List<Orden> findByUsuarioOrderByFechaCreacionDesc(Usuario usuario);
+  // Buscar por usuario (por ID: filtra por la FK sin cargar el usuario)
+  List<Orden> findByUsuarioIdOrderByFechaCreacionDesc(Long idUsuario);
 
   // Buscar por usuario y estado
-  List<Orden> findByUsuarioAndEstadoOrdenOrderByFechaCreacionDesc(Usuario usuario, EstadoOrden estado);
+  List<Orden> findByUsuarioIdAndEstadoOrdenOrderByFechaCreacionDesc(Long idUsuario, EstadoOrden estado);
 }
@@ -0,0 +1,39 @@
+package cl.ubiobio.muebleria.repositories;
+
+import cl.ubiobio.muebleria.models.StockSucursal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockSucursalRepository extends JpaRepository<StockSucursal, Integer> {
+
+  Optional<StockSucursal> findByIdSucursalAndIdMueble(Integer idSucursal, Integer idMueble);
+
+  List<StockSucursal> findByIdMueble(Integer idMueble);
+
+  // Igual que MuebleRepository.sumarStock, pero sobre la fila de la sucursal
+  @Modifying(flushAutomatically = true)
+  @Query("UPDATE StockSucursal s SET s.stock = s.stock + :delta " +
+      "WHERE s.idSucursal = :idSucursal AND s.idMueble = :idMueble AND s.stock + :delta >= 0")
+  int sumarStock(@Param("idSucursal") Integer idSucursal,
+                 @Param("idMueble") Integer idMueble,
+                 @Param("delta") int delta);
+
+  // Stock de todas las sucursales por mueble, para el agregado del catálogo
+  @Query("SELECT s.idMueble AS idMueble, SUM(s.stock) AS cantidad FROM StockSucursal s " +
+      "WHERE s.idMueble IN :idsMueble GROUP BY s.idMueble")
+  List<DetalleOrdenRepository.CantidadPorMueble> sumarStockPorMueble(@Param("idsMueble") Collection<Integer> idsMueble);
+
+  // Muebles con stock en alguna sucursal, para la faceta "con stock" del índice de bitmaps
+  @Query("SELECT DISTINCT s.idMueble FROM StockSucursal s WHERE s.stock > 0")
+  List<Integer> findIdsMuebleConStock();
+
+  boolean existsByIdMuebleAndStockGreaterThan(Integer idMueble, Integer stock);
+}
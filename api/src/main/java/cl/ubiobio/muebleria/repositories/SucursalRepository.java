@@ -0,0 +1,15 @@
+package cl.ubiobio.muebleria.repositories;
+
+import cl.ubiobio.muebleria.models.Sucursal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SucursalRepository extends JpaRepository<Sucursal, Integer> {
+
+  List<Sucursal> findByActivaTrueOrderByNombreAsc();
+
+  boolean existsByNombre(String nombre);
+}
@@ -0,0 +1,39 @@
+package cl.ubiobio.muebleria.repositories;
+
+import cl.ubiobio.muebleria.models.TokenRefresco;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface TokenRefrescoRepository extends JpaRepository<TokenRefresco, Long> {
+
+  Optional<TokenRefresco> findByHash(String hash);
+
+  // Consume el token solo si nadie lo usó antes: 0 filas significa reuso
+  @Transactional
+  @Modifying
+  @Query("UPDATE TokenRefresco t SET t.fechaRevocacion = :ahora WHERE t.idToken = :idToken AND t.fechaRevocacion IS NULL")
+  int consumir(@Param("idToken") Long idToken, @Param("ahora") LocalDateTime ahora);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE TokenRefresco t SET t.fechaRevocacion = :ahora WHERE t.familia = :familia AND t.fechaRevocacion IS NULL")
+  int revocarFamilia(@Param("familia") String familia, @Param("ahora") LocalDateTime ahora);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE TokenRefresco t SET t.fechaRevocacion = :ahora WHERE t.idUsuario = :idUsuario AND t.fechaRevocacion IS NULL")
+  int revocarPorUsuario(@Param("idUsuario") Long idUsuario, @Param("ahora") LocalDateTime ahora);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM TokenRefresco t WHERE t.expira < :ahora")
+  int eliminarExpirados(@Param("ahora") LocalDateTime ahora);
+}
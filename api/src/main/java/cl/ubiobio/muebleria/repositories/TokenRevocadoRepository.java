@@ -0,0 +1,27 @@
+package cl.ubiobio.muebleria.repositories;
+
+import cl.ubiobio.muebleria.models.TokenRevocado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TokenRevocadoRepository extends JpaRepository<TokenRevocado, Long> {
+
+  boolean existsByJti(String jti);
+
+  // Revocaciones vigentes posteriores a la última cargada
+  List<TokenRevocado> findByIdRevocacionGreaterThanAndExpiraAfterOrderByIdRevocacion(Long idRevocacion,
+                                                                                     LocalDateTime ahora);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM TokenRevocado t WHERE t.expira < :ahora")
+  int eliminarExpirados(@Param("ahora") LocalDateTime ahora);
+}
@@ -2,8 +2,10 @@ package cl.ubiobio.muebleria.repositories;
 
 import cl.ubiobio.muebleria.models.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -18,4 +20,26 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     Boolean existsByEmail(String email);
 
     Optional<Usuario> findByUsernameAndActivoTrue(String username);
+
+    Optional<Usuario> findByIdAndActivoTrue(Long id);
+
+    /**
+     * Versión de tokens vigente de un usuario (solo los que alguna vez fueron revocados)
+     */
+    interface VersionUsuario {
+        Long getId();
+
+        Integer getVersionToken();
+    }
+
+    @Query("SELECT u.id AS id, u.versionToken AS versionToken FROM Usuario u WHERE u.versionToken > 0")
+    List<VersionUsuario> findVersionesToken();
+
+    // Versión global de cambios: toda revocación incrementa version_token, así que la suma solo crece
+    @Query("SELECT COALESCE(SUM(u.versionToken), 0) FROM Usuario u")
+    Long sumarVersionesToken();
+
+    // Lista corta: se lee completa en cada sondeo para detectar altas y bajas hechas directo en la base
+    @Query("SELECT u.id FROM Usuario u WHERE u.activo = false")
+    List<Long> findIdsInactivos();
 }
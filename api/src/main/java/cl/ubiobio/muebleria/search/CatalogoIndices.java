@@ -0,0 +1,93 @@
+package cl.ubiobio.muebleria.search;
+
+import cl.ubiobio.muebleria.models.Mueble;
+import cl.ubiobio.muebleria.repositories.MuebleRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coordina todos los {@link IndiceCatalogo} registrados como beans.
+ * Los cambios se aplican después del commit para que una transacción
+ * revertida no deje el índice adelantado respecto a la base de datos.
+ * Cada cambio aplicado incrementa la versión del catálogo.
+ */
+@Component
+public class CatalogoIndices {
+
+  private final List<IndiceCatalogo> indices;
+  private final MuebleRepository muebleRepository;
+  private final AtomicLong version = new AtomicLong();
+
+  public CatalogoIndices(List<IndiceCatalogo> indices, MuebleRepository muebleRepository) {
+    this.indices = indices;
+    this.muebleRepository = muebleRepository;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void alIniciar() {
+    reconstruir();
+  }
+
+  /**
+   * Reconstruye todos los índices desde los muebles activos
+   */
+  public void reconstruir() {
+    List<Mueble> activos = muebleRepository.findByEstadoLogicoTrue();
+    for (IndiceCatalogo indice : indices) {
+      indice.reconstruir(activos);
+    }
+    version.incrementAndGet();
+  }
+
+  /**
+   * Refleja el estado actual de un mueble (alta, cambio o soft delete)
+   * y de los muebles que dependen de él
+   */
+  public void registrarCambio(Mueble mueble) {
+    despuesDelCommit(() -> {
+      for (IndiceCatalogo indice : indices) {
+        if (Boolean.TRUE.equals(mueble.getEstadoLogico())) {
+          indice.indexar(mueble);
+        } else {
+          indice.remover(mueble.getIdMueble());
+        }
+      }
+      for (IndiceCatalogo origen : indices) {
+        for (Mueble dependiente : origen.dependientes(mueble.getIdMueble())) {
+          for (IndiceCatalogo indice : indices) {
+            if (indice != origen) {
+              indice.indexar(dependiente);
+            }
+          }
+        }
+      }
+      version.incrementAndGet();
+    });
+  }
+
+  /**
+   * Versión del catálogo en memoria; cambia cada vez que los índices se actualizan
+   */
+  public long getVersion() {
+    return version.get();
+  }
+
+  private void despuesDelCommit(Runnable accion) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      accion.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        accion.run();
+      }
+    });
+  }
+}
@@ -0,0 +1,36 @@
+package cl.ubiobio.muebleria.search;
+
+import cl.ubiobio.muebleria.models.Mueble;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Índice en memoria sobre los muebles activos del catálogo.
+ * Las implementaciones se mantienen incrementalmente desde {@link CatalogoIndices}.
+ */
+public interface IndiceCatalogo {
+
+  /**
+   * Reemplaza el contenido completo del índice
+   */
+  void reconstruir(Collection<Mueble> mueblesActivos);
+
+  /**
+   * Agrega o actualiza un mueble activo
+   */
+  void indexar(Mueble mueble);
+
+  /**
+   * Quita un mueble (eliminado o desactivado)
+   */
+  void remover(Integer idMueble);
+
+  /**
+   * Muebles cuyo estado derivado en este índice depende del mueble dado (p. ej. los kits de un componente);
+   * {@link CatalogoIndices} los reindexa en los demás índices
+   */
+  default Collection<Mueble> dependientes(Integer idMueble) {
+    return List.of();
+  }
+}
@@ -0,0 +1,195 @@
+package cl.ubiobio.muebleria.search;
+
+import cl.ubiobio.muebleria.models.ComponenteKit;
+import cl.ubiobio.muebleria.models.Mueble;
+import cl.ubiobio.muebleria.repositories.ComponenteKitRepository;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Índice de dependencias componente -> kits con el stock derivado de cada kit precalculado.
+ * Un kit arma tantas unidades como permita su componente más escaso (stock / cantidad por kit).
+ * Cuando cambia el stock de un mueble solo se recalculan los kits que lo usan.
+ * Va primero entre los índices para que los demás (facetas, sugerencias) lean el stock derivado.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class IndiceKits implements IndiceCatalogo {
+
+  public record Componente(int idComponente, int cantidad) {
+  }
+
+  private final ComponenteKitRepository componenteKitRepository;
+
+  // Estado protegido por el monitor de esta instancia
+  private final Map<Integer, Integer> stockPorMueble = new HashMap<>();
+  private final Map<Integer, List<Componente>> componentesPorKit = new HashMap<>();
+  private final Map<Integer, Set<Integer>> kitsPorComponente = new HashMap<>();
+  private final Map<Integer, Mueble> kits = new HashMap<>();
+  private final Map<Integer, Integer> stockDerivado = new HashMap<>();
+
+  // Serializa leer componentes_kit y aplicarlo: una lectura más vieja no pisa a una más nueva.
+  // ReentrantLock y no synchronized porque se consulta la base con el lock tomado (hilos virtuales)
+  private final ReentrantLock composicion = new ReentrantLock();
+
+  public IndiceKits(ComponenteKitRepository componenteKitRepository) {
+    this.componenteKitRepository = componenteKitRepository;
+  }
+
+  // Las consultas a componentes_kit se hacen fuera del monitor: bloquear dentro de synchronized
+  // fija el hilo virtual a su carrier
+  @Override
+  public void reconstruir(Collection<Mueble> mueblesActivos) {
+    composicion.lock();
+    try {
+      Map<Integer, List<ComponenteKit>> porKit = componenteKitRepository.findAll().stream()
+          .collect(Collectors.groupingBy(ComponenteKit::getIdKit));
+
+      synchronized (this) {
+        stockPorMueble.clear();
+        componentesPorKit.clear();
+        kitsPorComponente.clear();
+        kits.clear();
+        stockDerivado.clear();
+
+        for (Mueble mueble : mueblesActivos) {
+          if (mueble.isKit()) {
+            kits.put(mueble.getIdMueble(), mueble);
+          } else {
+            stockPorMueble.put(mueble.getIdMueble(), mueble.getStockTotal());
+          }
+        }
+        for (Integer idKit : kits.keySet()) {
+          vincular(idKit, porKit.getOrDefault(idKit, List.of()));
+          recalcular(idKit);
+        }
+      }
+    } finally {
+      composicion.unlock();
+    }
+  }
+
+  @Override
+  public void indexar(Mueble mueble) {
+    Integer id = mueble.getIdMueble();
+    if (mueble.isKit()) {
+      composicion.lock();
+      try {
+        // La composición pudo cambiar: se vuelve a leer
+        List<ComponenteKit> filas = componenteKitRepository.findByIdKitOrderByIdComponenteAsc(id);
+        synchronized (this) {
+          kits.put(id, mueble);
+          desvincular(id);
+          vincular(id, filas);
+          recalcular(id);
+        }
+      } finally {
+        composicion.unlock();
+      }
+      return;
+    }
+    synchronized (this) {
+      // Dejó de ser kit (quitarComponentes): sin esto dependientes() seguiría devolviéndolo
+      if (kits.remove(id) != null) {
+        desvincular(id);
+        stockDerivado.remove(id);
+      }
+      stockPorMueble.put(id, mueble.getStockTotal());
+      for (Integer idKit : kitsPorComponente.getOrDefault(id, Set.of())) {
+        recalcular(idKit);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void remover(Integer idMueble) {
+    if (kits.remove(idMueble) != null) {
+      desvincular(idMueble);
+      stockDerivado.remove(idMueble);
+      return;
+    }
+    // Un componente dado de baja deja sus kits sin stock
+    stockPorMueble.remove(idMueble);
+    for (Integer idKit : kitsPorComponente.getOrDefault(idMueble, Set.of())) {
+      recalcular(idKit);
+    }
+  }
+
+  @Override
+  public synchronized Collection<Mueble> dependientes(Integer idMueble) {
+    return kitsPorComponente.getOrDefault(idMueble, Set.of()).stream()
+        .map(kits::get)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Unidades armables del kit con el stock físico actual de sus componentes
+   */
+  public synchronized int stockDerivado(Integer idKit) {
+    return stockDerivado.getOrDefault(idKit, 0);
+  }
+
+  public synchronized List<Componente> componentes(Integer idKit) {
+    return List.copyOf(componentesPorKit.getOrDefault(idKit, List.of()));
+  }
+
+  /**
+   * Unidades del kit disponibles descontando lo reservado de cada componente
+   * @param reservado cantidad reservada por ID de componente
+   */
+  public synchronized int disponible(Integer idKit, Map<Integer, Long> reservado) {
+    List<Componente> componentes = componentesPorKit.getOrDefault(idKit, List.of());
+    if (componentes.isEmpty()) {
+      return 0;
+    }
+    long minimo = Long.MAX_VALUE;
+    for (Componente componente : componentes) {
+      long libre = stockPorMueble.getOrDefault(componente.idComponente(), 0)
+          - reservado.getOrDefault(componente.idComponente(), 0L);
+      minimo = Math.min(minimo, Math.max(0, libre) / componente.cantidad());
+    }
+    return (int) minimo;
+  }
+
+  private void vincular(Integer idKit, List<ComponenteKit> filas) {
+    List<Componente> componentes = new ArrayList<>(filas.size());
+    for (ComponenteKit fila : filas) {
+      componentes.add(new Componente(fila.getIdComponente(), fila.getCantidad()));
+      kitsPorComponente.computeIfAbsent(fila.getIdComponente(), id -> new HashSet<>()).add(idKit);
+    }
+    componentesPorKit.put(idKit, componentes);
+  }
+
+  private void desvincular(Integer idKit) {
+    for (Componente componente : componentesPorKit.getOrDefault(idKit, List.of())) {
+      Set<Integer> kitsDelComponente = kitsPorComponente.get(componente.idComponente());
+      if (kitsDelComponente != null) {
+        kitsDelComponente.remove(idKit);
+        if (kitsDelComponente.isEmpty()) {
+          kitsPorComponente.remove(componente.idComponente());
+        }
+      }
+    }
+    componentesPorKit.remove(idKit);
+  }
+
+  private void recalcular(Integer idKit) {
+    int unidades = disponible(idKit, Map.of());
+    stockDerivado.put(idKit, unidades);
+    Mueble kit = kits.get(idKit);
+    if (kit != null) {
+      kit.setStockDerivado(unidades);
+    }
+  }
+}
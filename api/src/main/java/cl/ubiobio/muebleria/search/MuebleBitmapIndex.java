@@ -0,0 +1,316 @@
+package cl.ubiobio.muebleria.search;
+
+import cl.ubiobio.muebleria.dto.FiltroCatalogoDTO;
+import cl.ubiobio.muebleria.enums.TamanoMueble;
+import cl.ubiobio.muebleria.models.Mueble;
+import cl.ubiobio.muebleria.repositories.StockSucursalRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índices de bitmaps sobre los muebles activos para el filtrado facetado del catálogo.
+ * Cada valor de faceta (tipo, material, tamaño, con stock) es un BitSet indexado por idMueble;
+ * como los IDs son IDENTITY densos, un bit por mueble ya es una representación compacta.
+ * Filtrar y contar facetas se reduce a AND/OR y cardinalidades sobre esos bitmaps.
+ * "Con stock" cuenta el stock central y el de las sucursales.
+ */
+@Component
+public class MuebleBitmapIndex implements IndiceCatalogo {
+
+  public static final String FACETA_TIPO = "tipo";
+  public static final String FACETA_MATERIAL = "material";
+  public static final String FACETA_TAMANO = "tamano";
+  public static final String FACETA_STOCK = "enStock";
+
+  private final StockSucursalRepository stockSucursalRepository;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private Bitmaps bitmaps = new Bitmaps();
+
+  public MuebleBitmapIndex(StockSucursalRepository stockSucursalRepository) {
+    this.stockSucursalRepository = stockSucursalRepository;
+  }
+
+  /**
+   * Resultado de un filtrado: página de IDs, total y conteos por faceta
+   */
+  public record Resultado(List<Integer> ids, int total, Map<String, Map<String, Integer>> facetas) {
+  }
+
+  private record Atributos(String tipo, String material, TamanoMueble tamano, Integer precio) {
+  }
+
+  // Estado mutable del índice; se reemplaza completo al reconstruir
+  private static class Bitmaps {
+    final BitSet activos = new BitSet();
+    final BitSet conStock = new BitSet();
+    final Map<String, BitSet> porTipo = new HashMap<>();
+    final Map<String, BitSet> porMaterial = new HashMap<>();
+    final Map<TamanoMueble, BitSet> porTamano = new EnumMap<>(TamanoMueble.class);
+    final TreeMap<Integer, BitSet> porPrecio = new TreeMap<>();
+    // Etiqueta original (con tildes y mayúsculas) de cada valor plegado
+    final Map<String, String> etiquetas = new HashMap<>();
+    final Map<Integer, Atributos> atributos = new HashMap<>();
+  }
+
+  @Override
+  public void reconstruir(Collection<Mueble> mueblesActivos) {
+    Set<Integer> conStockEnSucursal = new HashSet<>(stockSucursalRepository.findIdsMuebleConStock());
+    Bitmaps nuevos = new Bitmaps();
+    for (Mueble mueble : mueblesActivos) {
+      agregar(nuevos, mueble, mueble.getStockTotal() > 0 || conStockEnSucursal.contains(mueble.getIdMueble()));
+    }
+
+    lock.writeLock().lock();
+    try {
+      bitmaps = nuevos;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void indexar(Mueble mueble) {
+    // La consulta va antes del lock para no bloquear las lecturas mientras espera a la base
+    boolean conStock = mueble.getStockTotal() > 0
+        || stockSucursalRepository.existsByIdMuebleAndStockGreaterThan(mueble.getIdMueble(), 0);
+    lock.writeLock().lock();
+    try {
+      quitar(bitmaps, mueble.getIdMueble());
+      agregar(bitmaps, mueble, conStock);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void remover(Integer idMueble) {
+    lock.writeLock().lock();
+    try {
+      quitar(bitmaps, idMueble);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Aplica el filtro (OR dentro de cada faceta, AND entre facetas) y calcula los conteos.
+   * El conteo de cada faceta ignora su propia selección, para que el cliente vea
+   * cuántos resultados obtendría al cambiar de valor dentro de esa faceta.
+   */
+  public Resultado filtrar(FiltroCatalogoDTO filtro, int limit, int offset) {
+    lock.readLock().lock();
+    try {
+      Bitmaps b = bitmaps;
+      BitSet tipo = unionPorEtiqueta(b.porTipo, filtro.getTipo());
+      BitSet material = unionPorEtiqueta(b.porMaterial, filtro.getMaterial());
+      BitSet tamano = unionPorTamano(b.porTamano, filtro.getTamano());
+      BitSet precio = rangoPrecio(b.porPrecio, filtro.getPrecioMin(), filtro.getPrecioMax());
+      BitSet stock = Boolean.TRUE.equals(filtro.getEnStock()) ? b.conStock : null;
+
+      BitSet seleccion = interseccion(b.activos, tipo, material, tamano, precio, stock);
+
+      Map<String, Map<String, Integer>> facetas = new LinkedHashMap<>();
+      facetas.put(FACETA_TIPO,
+          contarPorEtiqueta(FACETA_TIPO, b.porTipo, b.etiquetas, interseccion(b.activos, material, tamano, precio, stock)));
+      facetas.put(FACETA_MATERIAL,
+          contarPorEtiqueta(FACETA_MATERIAL, b.porMaterial, b.etiquetas, interseccion(b.activos, tipo, tamano, precio, stock)));
+      facetas.put(FACETA_TAMANO,
+          contarPorTamano(b.porTamano, interseccion(b.activos, tipo, material, precio, stock)));
+      Map<String, Integer> conteoStock = new LinkedHashMap<>();
+      conteoStock.put("true", contarInterseccion(b.conStock, interseccion(b.activos, tipo, material, tamano, precio)));
+      facetas.put(FACETA_STOCK, conteoStock);
+
+      return new Resultado(pagina(seleccion, limit, offset), seleccion.cardinality(), facetas);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // ==================== MANTENCIÓN ====================
+
+  private static void agregar(Bitmaps b, Mueble mueble, boolean conStock) {
+    int id = mueble.getIdMueble();
+    Atributos atributos = new Atributos(
+        NormalizadorTexto.plegar(mueble.getTipo()).trim(),
+        NormalizadorTexto.plegar(mueble.getMaterial()).trim(),
+        mueble.getTamano(),
+        mueble.getPrecioBase());
+
+    b.activos.set(id);
+    if (conStock) {
+      b.conStock.set(id);
+    }
+    if (!atributos.tipo().isEmpty()) {
+      b.porTipo.computeIfAbsent(atributos.tipo(), k -> new BitSet()).set(id);
+      b.etiquetas.putIfAbsent(FACETA_TIPO + ":" + atributos.tipo(), mueble.getTipo().trim());
+    }
+    if (!atributos.material().isEmpty()) {
+      b.porMaterial.computeIfAbsent(atributos.material(), k -> new BitSet()).set(id);
+      b.etiquetas.putIfAbsent(FACETA_MATERIAL + ":" + atributos.material(), mueble.getMaterial().trim());
+    }
+    if (atributos.tamano() != null) {
+      b.porTamano.computeIfAbsent(atributos.tamano(), k -> new BitSet()).set(id);
+    }
+    if (atributos.precio() != null) {
+      b.porPrecio.computeIfAbsent(atributos.precio(), k -> new BitSet()).set(id);
+    }
+    b.atributos.put(id, atributos);
+  }
+
+  private static void quitar(Bitmaps b, Integer idMueble) {
+    Atributos anterior = b.atributos.remove(idMueble);
+    if (anterior == null) {
+      return;
+    }
+    int id = idMueble;
+    b.activos.clear(id);
+    b.conStock.clear(id);
+    // Sin muebles con ese valor, la etiqueta se descarta para que el próximo tome la suya
+    if (limpiar(b.porTipo, anterior.tipo(), id)) {
+      b.etiquetas.remove(FACETA_TIPO + ":" + anterior.tipo());
+    }
+    if (limpiar(b.porMaterial, anterior.material(), id)) {
+      b.etiquetas.remove(FACETA_MATERIAL + ":" + anterior.material());
+    }
+    limpiar(b.porTamano, anterior.tamano(), id);
+    limpiar(b.porPrecio, anterior.precio(), id);
+  }
+
+  // Devuelve true si el bitmap del valor quedó vacío y se eliminó
+  private static <K> boolean limpiar(Map<K, BitSet> porValor, K valor, int id) {
+    if (valor == null) {
+      return false;
+    }
+    BitSet bitmap = porValor.get(valor);
+    if (bitmap != null) {
+      bitmap.clear(id);
+      if (bitmap.isEmpty()) {
+        porValor.remove(valor);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // ==================== CONSULTA ====================
+
+  // null significa "faceta sin filtro"
+  private static BitSet unionPorEtiqueta(Map<String, BitSet> porValor, List<String> valores) {
+    if (valores == null || valores.isEmpty()) {
+      return null;
+    }
+    BitSet union = new BitSet();
+    for (String valor : valores) {
+      BitSet bitmap = porValor.get(NormalizadorTexto.plegar(valor).trim());
+      if (bitmap != null) {
+        union.or(bitmap);
+      }
+    }
+    return union;
+  }
+
+  private static BitSet unionPorTamano(Map<TamanoMueble, BitSet> porTamano, List<TamanoMueble> tamanos) {
+    if (tamanos == null || tamanos.isEmpty()) {
+      return null;
+    }
+    BitSet union = new BitSet();
+    for (TamanoMueble tamano : tamanos) {
+      BitSet bitmap = porTamano.get(tamano);
+      if (bitmap != null) {
+        union.or(bitmap);
+      }
+    }
+    return union;
+  }
+
+  private static BitSet rangoPrecio(TreeMap<Integer, BitSet> porPrecio, Integer min, Integer max) {
+    if (min == null && max == null) {
+      return null;
+    }
+    int desde = min != null ? min : Integer.MIN_VALUE;
+    int hasta = max != null ? max : Integer.MAX_VALUE;
+    BitSet union = new BitSet();
+    if (desde > hasta) {
+      return union;
+    }
+    for (BitSet bitmap : porPrecio.subMap(desde, true, hasta, true).values()) {
+      union.or(bitmap);
+    }
+    return union;
+  }
+
+  private static BitSet interseccion(BitSet base, BitSet... filtros) {
+    BitSet resultado = (BitSet) base.clone();
+    for (BitSet filtro : filtros) {
+      if (filtro != null) {
+        resultado.and(filtro);
+      }
+    }
+    return resultado;
+  }
+
+  private static int contarInterseccion(BitSet a, BitSet b) {
+    BitSet copia = (BitSet) a.clone();
+    copia.and(b);
+    return copia.cardinality();
+  }
+
+  private static Map<String, Integer> contarPorEtiqueta(String faceta,
+                                                        Map<String, BitSet> porValor,
+                                                        Map<String, String> etiquetas,
+                                                        BitSet contexto) {
+    List<Map.Entry<String, Integer>> conteos = new ArrayList<>();
+    for (Map.Entry<String, BitSet> entry : porValor.entrySet()) {
+      int conteo = contarInterseccion(entry.getValue(), contexto);
+      if (conteo > 0) {
+        conteos.add(Map.entry(entry.getKey(), conteo));
+      }
+    }
+    conteos.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+        .thenComparing(Map.Entry.comparingByKey()));
+
+    Map<String, Integer> resultado = new LinkedHashMap<>();
+    for (Map.Entry<String, Integer> entry : conteos) {
+      String etiqueta = etiquetas.getOrDefault(faceta + ":" + entry.getKey(), entry.getKey());
+      resultado.put(etiqueta, entry.getValue());
+    }
+    return resultado;
+  }
+
+  private static Map<String, Integer> contarPorTamano(Map<TamanoMueble, BitSet> porTamano, BitSet contexto) {
+    Map<String, Integer> resultado = new LinkedHashMap<>();
+    for (Map.Entry<TamanoMueble, BitSet> entry : porTamano.entrySet()) {
+      int conteo = contarInterseccion(entry.getValue(), contexto);
+      if (conteo > 0) {
+        resultado.put(entry.getKey().name(), conteo);
+      }
+    }
+    return resultado;
+  }
+
+  private static List<Integer> pagina(BitSet seleccion, int limit, int offset) {
+    List<Integer> ids = new ArrayList<>(Math.max(0, Math.min(limit, 100)));
+    int saltados = 0;
+    for (int id = seleccion.nextSetBit(0); id >= 0 && ids.size() < limit; id = seleccion.nextSetBit(id + 1)) {
+      if (saltados++ < offset) {
+        continue;
+      }
+      ids.add(id);
+    }
+    return ids;
+  }
+}
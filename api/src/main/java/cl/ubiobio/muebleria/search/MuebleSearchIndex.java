@@ -0,0 +1,182 @@
+package cl.ubiobio.muebleria.search;
+
+import cl.ubiobio.muebleria.models.Mueble;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido en memoria sobre nombre, tipo y material.
+ * Cada término de la consulta se resuelve por prefijo en el diccionario ordenado,
+ * por lo que el costo depende de los términos coincidentes y no del tamaño del catálogo.
+ */
+@Component
+public class MuebleSearchIndex implements IndiceCatalogo {
+
+  // Peso de cada campo en el ranking
+  static final int PESO_NOMBRE = 3;
+  static final int PESO_TIPO = 2;
+  static final int PESO_MATERIAL = 1;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  // término -> (idMueble -> peso acumulado del término en ese mueble)
+  private TreeMap<String, Map<Integer, Integer>> postings = new TreeMap<>();
+
+  // idMueble -> documento indexado (para remover y desempatar)
+  private Map<Integer, Documento> documentos = new HashMap<>();
+
+  private record Documento(String nombrePlegado, Set<String> terminos) {
+  }
+
+  private record Resultado(Integer idMueble, int puntaje, String nombrePlegado) {
+  }
+
+  @Override
+  public void reconstruir(Collection<Mueble> mueblesActivos) {
+    TreeMap<String, Map<Integer, Integer>> nuevosPostings = new TreeMap<>();
+    Map<Integer, Documento> nuevosDocumentos = new HashMap<>();
+    for (Mueble mueble : mueblesActivos) {
+      agregar(mueble, nuevosPostings, nuevosDocumentos);
+    }
+
+    lock.writeLock().lock();
+    try {
+      postings = nuevosPostings;
+      documentos = nuevosDocumentos;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void indexar(Mueble mueble) {
+    lock.writeLock().lock();
+    try {
+      quitar(mueble.getIdMueble());
+      agregar(mueble, postings, documentos);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void remover(Integer idMueble) {
+    lock.writeLock().lock();
+    try {
+      quitar(idMueble);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Busca muebles cuyos términos comiencen con cada término de la consulta (AND).
+   * Coincidencias exactas pesan el doble que las de prefijo.
+   * @return IDs ordenados por puntaje descendente y luego por nombre
+   */
+  public List<Integer> buscar(String consulta, int limit, int offset) {
+    List<String> terminos = NormalizadorTexto.tokenizar(consulta);
+    if (terminos.isEmpty() || limit <= 0) {
+      return Collections.emptyList();
+    }
+
+    List<Resultado> resultados = new ArrayList<>();
+    lock.readLock().lock();
+    try {
+      Map<Integer, Integer> acumulado = null;
+      for (String termino : new HashSet<>(terminos)) {
+        Map<Integer, Integer> puntajes = puntajesPorPrefijo(termino);
+        if (acumulado == null) {
+          acumulado = puntajes;
+        } else {
+          acumulado.keySet().retainAll(puntajes.keySet());
+          acumulado.replaceAll((id, puntaje) -> puntaje + puntajes.get(id));
+        }
+        if (acumulado.isEmpty()) {
+          return Collections.emptyList();
+        }
+      }
+      for (Map.Entry<Integer, Integer> entry : acumulado.entrySet()) {
+        Documento documento = documentos.get(entry.getKey());
+        resultados.add(new Resultado(entry.getKey(), entry.getValue(), documento.nombrePlegado()));
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    resultados.sort(Comparator.comparingInt(Resultado::puntaje).reversed()
+        .thenComparing(Resultado::nombrePlegado)
+        .thenComparing(Resultado::idMueble));
+
+    int desde = Math.min(Math.max(offset, 0), resultados.size());
+    int hasta = (int) Math.min((long) desde + limit, resultados.size());
+    return resultados.subList(desde, hasta).stream()
+        .map(Resultado::idMueble)
+        .toList();
+  }
+
+  // Debe llamarse con el read lock tomado
+  private Map<Integer, Integer> puntajesPorPrefijo(String prefijo) {
+    Map<Integer, Integer> puntajes = new HashMap<>();
+    NavigableMap<String, Map<Integer, Integer>> coincidencias =
+        postings.subMap(prefijo, true, prefijo + Character.MAX_VALUE, false);
+    for (Map.Entry<String, Map<Integer, Integer>> entry : coincidencias.entrySet()) {
+      int factor = entry.getKey().equals(prefijo) ? 2 : 1;
+      for (Map.Entry<Integer, Integer> posting : entry.getValue().entrySet()) {
+        puntajes.merge(posting.getKey(), posting.getValue() * factor, Math::max);
+      }
+    }
+    return puntajes;
+  }
+
+  private static void agregar(Mueble mueble,
+                              Map<String, Map<Integer, Integer>> postings,
+                              Map<Integer, Documento> documentos) {
+    Map<String, Integer> pesos = new HashMap<>();
+    sumarPesos(pesos, mueble.getNombre(), PESO_NOMBRE);
+    sumarPesos(pesos, mueble.getTipo(), PESO_TIPO);
+    sumarPesos(pesos, mueble.getMaterial(), PESO_MATERIAL);
+
+    Integer id = mueble.getIdMueble();
+    for (Map.Entry<String, Integer> entry : pesos.entrySet()) {
+      postings.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(id, entry.getValue());
+    }
+    documentos.put(id, new Documento(NormalizadorTexto.plegar(mueble.getNombre()), pesos.keySet()));
+  }
+
+  private static void sumarPesos(Map<String, Integer> pesos, String campo, int peso) {
+    // Un término repetido dentro del mismo campo no suma dos veces
+    for (String termino : new HashSet<>(NormalizadorTexto.tokenizar(campo))) {
+      pesos.merge(termino, peso, Integer::sum);
+    }
+  }
+
+  // Debe llamarse con el write lock tomado
+  private void quitar(Integer idMueble) {
+    Documento anterior = documentos.remove(idMueble);
+    if (anterior == null) {
+      return;
+    }
+    for (String termino : anterior.terminos()) {
+      Map<Integer, Integer> lista = postings.get(termino);
+      if (lista != null) {
+        lista.remove(idMueble);
+        if (lista.isEmpty()) {
+          postings.remove(termino);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,287 @@
+package cl.ubiobio.muebleria.search;
+
+import cl.ubiobio.muebleria.dto.SugerenciaDTO;
+import cl.ubiobio.muebleria.models.Mueble;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trie de prefijos sobre los nombres plegados de los muebles activos (typeahead).
+ * Se indexa el nombre completo y cada sufijo que empieza en una palabra,
+ * así "rob" sugiere "Silla de Roble". Cada nodo guarda precalculados los
+ * {@link #MAX_SUGERENCIAS} muebles de mayor peso (stock) de su subárbol,
+ * por lo que una consulta solo recorre el prefijo.
+ */
+@Component
+public class MuebleSugerenciasTrie implements IndiceCatalogo {
+
+  public static final int MAX_SUGERENCIAS = 10;
+
+  private static final int[] VACIO = new int[0];
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private Nodo raiz = new Nodo();
+  private Map<Integer, Entrada> entradas = new HashMap<>();
+
+  private record Entrada(String nombre, int peso, List<String> claves) {
+  }
+
+  // Hijos en arreglos ordenados por carácter para mantener el trie compacto
+  private static final class Nodo {
+    char[] caracteres = new char[0];
+    Nodo[] hijos = new Nodo[0];
+    int[] terminales = VACIO; // IDs cuya clave termina en este nodo
+    int[] top = VACIO; // Mejores IDs del subárbol, por peso descendente
+
+    Nodo hijo(char c) {
+      int i = Arrays.binarySearch(caracteres, c);
+      return i >= 0 ? hijos[i] : null;
+    }
+
+    Nodo hijoOCrear(char c) {
+      int i = Arrays.binarySearch(caracteres, c);
+      if (i >= 0) {
+        return hijos[i];
+      }
+      int pos = -i - 1;
+      Nodo nuevo = new Nodo();
+      char[] nuevosCaracteres = new char[caracteres.length + 1];
+      Nodo[] nuevosHijos = new Nodo[hijos.length + 1];
+      System.arraycopy(caracteres, 0, nuevosCaracteres, 0, pos);
+      System.arraycopy(hijos, 0, nuevosHijos, 0, pos);
+      nuevosCaracteres[pos] = c;
+      nuevosHijos[pos] = nuevo;
+      System.arraycopy(caracteres, pos, nuevosCaracteres, pos + 1, caracteres.length - pos);
+      System.arraycopy(hijos, pos, nuevosHijos, pos + 1, hijos.length - pos);
+      caracteres = nuevosCaracteres;
+      hijos = nuevosHijos;
+      return nuevo;
+    }
+
+    void quitarHijo(char c) {
+      int i = Arrays.binarySearch(caracteres, c);
+      if (i < 0) {
+        return;
+      }
+      char[] nuevosCaracteres = new char[caracteres.length - 1];
+      Nodo[] nuevosHijos = new Nodo[hijos.length - 1];
+      System.arraycopy(caracteres, 0, nuevosCaracteres, 0, i);
+      System.arraycopy(hijos, 0, nuevosHijos, 0, i);
+      System.arraycopy(caracteres, i + 1, nuevosCaracteres, i, caracteres.length - i - 1);
+      System.arraycopy(hijos, i + 1, nuevosHijos, i, hijos.length - i - 1);
+      caracteres = nuevosCaracteres;
+      hijos = nuevosHijos;
+    }
+
+    boolean vacio() {
+      return terminales.length == 0 && hijos.length == 0;
+    }
+  }
+
+  @Override
+  public void reconstruir(Collection<Mueble> mueblesActivos) {
+    Nodo nuevaRaiz = new Nodo();
+    Map<Integer, Entrada> nuevasEntradas = new HashMap<>();
+    for (Mueble mueble : mueblesActivos) {
+      agregar(nuevaRaiz, nuevasEntradas, mueble, false);
+    }
+    // En la carga masiva los top se calculan una sola vez, en post-orden
+    calcularSubarbol(nuevaRaiz, nuevasEntradas);
+
+    lock.writeLock().lock();
+    try {
+      raiz = nuevaRaiz;
+      entradas = nuevasEntradas;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void indexar(Mueble mueble) {
+    lock.writeLock().lock();
+    try {
+      quitar(mueble.getIdMueble());
+      agregar(raiz, entradas, mueble, true);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void remover(Integer idMueble) {
+    lock.writeLock().lock();
+    try {
+      quitar(idMueble);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Sugerencias para un prefijo, ordenadas por stock descendente
+   */
+  public List<SugerenciaDTO> sugerir(String prefijo, int limit) {
+    String clave = NormalizadorTexto.plegar(prefijo).strip();
+    if (clave.isEmpty() || limit <= 0) {
+      return Collections.emptyList();
+    }
+
+    lock.readLock().lock();
+    try {
+      Nodo nodo = raiz;
+      for (int i = 0; i < clave.length() && nodo != null; i++) {
+        nodo = nodo.hijo(clave.charAt(i));
+      }
+      if (nodo == null) {
+        return Collections.emptyList();
+      }
+      int cantidad = Math.min(limit, nodo.top.length);
+      List<SugerenciaDTO> sugerencias = new ArrayList<>(cantidad);
+      for (int i = 0; i < cantidad; i++) {
+        int id = nodo.top[i];
+        sugerencias.add(new SugerenciaDTO(id, entradas.get(id).nombre()));
+      }
+      return sugerencias;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // ==================== MANTENCIÓN ====================
+
+  private static void agregar(Nodo raiz, Map<Integer, Entrada> entradas, Mueble mueble,
+                              boolean recalcularCamino) {
+    int id = mueble.getIdMueble();
+    int peso = mueble.getStockTotal();
+    List<String> claves = clavesDe(mueble.getNombre());
+    entradas.put(id, new Entrada(mueble.getNombre(), peso, claves));
+
+    for (String clave : claves) {
+      List<Nodo> camino = new ArrayList<>(clave.length() + 1);
+      Nodo nodo = raiz;
+      camino.add(nodo);
+      for (int i = 0; i < clave.length(); i++) {
+        nodo = nodo.hijoOCrear(clave.charAt(i));
+        camino.add(nodo);
+      }
+      nodo.terminales = agregarId(nodo.terminales, id);
+      if (recalcularCamino) {
+        recalcular(camino, entradas);
+      }
+    }
+  }
+
+  private void quitar(Integer idMueble) {
+    // Sin entrada, el ID deja de ser candidato al recalcular los top
+    Entrada anterior = entradas.remove(idMueble);
+    if (anterior == null) {
+      return;
+    }
+    for (String clave : anterior.claves()) {
+      List<Nodo> camino = new ArrayList<>(clave.length() + 1);
+      Nodo nodo = raiz;
+      camino.add(nodo);
+      for (int i = 0; i < clave.length() && nodo != null; i++) {
+        nodo = nodo.hijo(clave.charAt(i));
+        camino.add(nodo);
+      }
+      if (nodo == null) {
+        continue;
+      }
+      nodo.terminales = quitarId(nodo.terminales, idMueble);
+
+      // Podar nodos que quedaron sin claves
+      for (int i = camino.size() - 1; i > 0 && camino.get(i).vacio(); i--) {
+        camino.get(i - 1).quitarHijo(clave.charAt(i - 1));
+        camino.remove(i);
+      }
+      recalcular(camino, entradas);
+    }
+  }
+
+  // Recalcula el top de abajo hacia arriba sobre el camino modificado
+  private static void recalcular(List<Nodo> camino, Map<Integer, Entrada> entradas) {
+    for (int i = camino.size() - 1; i >= 0; i--) {
+      calcularTop(camino.get(i), entradas);
+    }
+  }
+
+  private static void calcularSubarbol(Nodo nodo, Map<Integer, Entrada> entradas) {
+    for (Nodo hijo : nodo.hijos) {
+      calcularSubarbol(hijo, entradas);
+    }
+    calcularTop(nodo, entradas);
+  }
+
+  // Combina los terminales del nodo con el top de cada hijo
+  private static void calcularTop(Nodo nodo, Map<Integer, Entrada> entradas) {
+    // Un mismo mueble puede llegar por varias claves (nombre completo y cada palabra)
+    Set<Integer> candidatos = new HashSet<>();
+    for (int id : nodo.terminales) {
+      candidatos.add(id);
+    }
+    for (Nodo hijo : nodo.hijos) {
+      for (int id : hijo.top) {
+        candidatos.add(id);
+      }
+    }
+    candidatos.retainAll(entradas.keySet());
+
+    List<Integer> ordenados = new ArrayList<>(candidatos);
+    ordenados.sort((a, b) -> {
+      int comparacion = Integer.compare(entradas.get(b).peso(), entradas.get(a).peso());
+      return comparacion != 0 ? comparacion : Integer.compare(a, b);
+    });
+    int cantidad = Math.min(MAX_SUGERENCIAS, ordenados.size());
+    int[] top = new int[cantidad];
+    for (int j = 0; j < cantidad; j++) {
+      top[j] = ordenados.get(j);
+    }
+    nodo.top = top;
+  }
+
+  // Nombre completo plegado y cada sufijo que comienza en una palabra
+  static List<String> clavesDe(String nombre) {
+    List<String> palabras = NormalizadorTexto.tokenizar(nombre);
+    List<String> claves = new ArrayList<>(palabras.size());
+    for (int i = 0; i < palabras.size(); i++) {
+      claves.add(String.join(" ", palabras.subList(i, palabras.size())));
+    }
+    return claves;
+  }
+
+  private static int[] agregarId(int[] ids, int id) {
+    for (int existente : ids) {
+      if (existente == id) {
+        return ids;
+      }
+    }
+    int[] nuevos = Arrays.copyOf(ids, ids.length + 1);
+    nuevos[ids.length] = id;
+    return nuevos;
+  }
+
+  private static int[] quitarId(int[] ids, int id) {
+    for (int i = 0; i < ids.length; i++) {
+      if (ids[i] == id) {
+        int[] nuevos = new int[ids.length - 1];
+        System.arraycopy(ids, 0, nuevos, 0, i);
+        System.arraycopy(ids, i + 1, nuevos, i, ids.length - i - 1);
+        return nuevos;
+      }
+    }
+    return ids;
+  }
+}
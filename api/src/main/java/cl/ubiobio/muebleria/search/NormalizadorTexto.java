@@ -0,0 +1,44 @@
+package cl.ubiobio.muebleria.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Plegado de acentos y mayúsculas para los índices del catálogo.
+ * "Cómoda" y "COMODA" producen el mismo término: "comoda".
+ */
+public final class NormalizadorTexto {
+
+  private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+  private static final Pattern SEPARADORES = Pattern.compile("[^\\p{Alnum}]+");
+
+  private NormalizadorTexto() {
+  }
+
+  /**
+   * Elimina tildes/diéresis y pasa a minúsculas (la ñ queda como n)
+   */
+  public static String plegar(String texto) {
+    if (texto == null) {
+      return "";
+    }
+    String descompuesto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+    return MARCAS_DIACRITICAS.matcher(descompuesto).replaceAll("").toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Separa el texto plegado en términos alfanuméricos
+   */
+  public static List<String> tokenizar(String texto) {
+    List<String> tokens = new ArrayList<>();
+    for (String token : SEPARADORES.split(plegar(texto))) {
+      if (!token.isEmpty()) {
+        tokens.add(token);
+      }
+    }
+    return tokens;
+  }
+}
@@ -0,0 +1,86 @@
+package cl.ubiobio.muebleria.security;
+
+import cl.ubiobio.muebleria.models.Usuario;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Caché acotado y con TTL de usuarios activos, por username y por ID.
+ * Lo comparten CustomUserDetailsService y AuthController. Se invalida al cambiar el rol o el
+ * estado de un usuario en este nodo, y por completo cuando SincronizacionUsuarios detecta un
+ * cambio hecho en otro nodo. Los usuarios cacheados son de solo lectura.
+ */
+@Component
+public class CacheUsuarios {
+
+    private record Entrada(Usuario usuario, long expiraMs) {
+    }
+
+    private final long ttlMs;
+    private final Map<String, Entrada> porUsername;
+    private final Map<Long, String> usernamePorId = new HashMap<>();
+
+    public CacheUsuarios(@Value("${usuarios.cache.ttl-ms:60000}") long ttlMs,
+                         @Value("${usuarios.cache.capacidad:1000}") int capacidad) {
+        this.ttlMs = ttlMs;
+        this.porUsername = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                if (size() > capacidad) {
+                    usernamePorId.remove(eldest.getValue().usuario().getId());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Optional<Usuario> porUsername(String username, Supplier<Optional<Usuario>> cargar) {
+        Usuario usuario = vigente(username);
+        return usuario != null ? Optional.of(usuario) : cargar.get().map(this::guardar);
+    }
+
+    public Optional<Usuario> porId(Long id, Supplier<Optional<Usuario>> cargar) {
+        String username;
+        synchronized (this) {
+            username = usernamePorId.get(id);
+        }
+        Usuario usuario = username != null ? vigente(username) : null;
+        return usuario != null ? Optional.of(usuario) : cargar.get().map(this::guardar);
+    }
+
+    public synchronized void invalidar(Usuario usuario) {
+        porUsername.remove(usuario.getUsername());
+        usernamePorId.remove(usuario.getId());
+    }
+
+    public synchronized void invalidarTodo() {
+        porUsername.clear();
+        usernamePorId.clear();
+    }
+
+    private synchronized Usuario vigente(String username) {
+        Entrada entrada = porUsername.get(username);
+        if (entrada == null) {
+            return null;
+        }
+        if (entrada.expiraMs() <= System.currentTimeMillis()) {
+            porUsername.remove(username);
+            usernamePorId.remove(entrada.usuario().getId());
+            return null;
+        }
+        return entrada.usuario();
+    }
+
+    private synchronized Usuario guardar(Usuario usuario) {
+        porUsername.put(usuario.getUsername(), new Entrada(usuario, System.currentTimeMillis() + ttlMs));
+        usernamePorId.put(usuario.getId(), usuario.getUsername());
+        return usuario;
+    }
+}
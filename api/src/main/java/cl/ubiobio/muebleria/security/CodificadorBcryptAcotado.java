@@ -0,0 +1,105 @@
+package cl.ubiobio.muebleria.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PasswordEncoder BCrypt que hashea y verifica en un pool propio, acotado en hilos y en cola.
+ * Una ráfaga de logins ocupa solo ese pool y no deja sin CPU a los hilos de Tomcat que atienden
+ * catálogo y órdenes. Con el pool y la cola llenos se rechaza de inmediato con
+ * RejectedExecutionException (AuthController responde 503).
+ * upgradeEncoding detecta hashes con menos rondas que la fuerza configurada: DaoAuthenticationProvider
+ * los vuelve a hashear al hacer login (ver CustomUserDetailsService.updatePassword).
+ */
+public class CodificadorBcryptAcotado implements PasswordEncoder {
+
+    private final BCryptPasswordEncoder bcrypt;
+    private final ThreadPoolExecutor ejecutor;
+
+    // Métricas (auth.bcrypt.*)
+    private final Timer espera;
+    private final Timer hasheo;
+    private final Counter rechazos;
+
+    public CodificadorBcryptAcotado(int fuerza, int hilos, int capacidadCola, MeterRegistry meterRegistry) {
+        this.bcrypt = new BCryptPasswordEncoder(fuerza);
+        AtomicInteger contador = new AtomicInteger();
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola), tarea -> {
+                    Thread hilo = new Thread(tarea, "bcrypt-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        this.espera = meterRegistry.timer("auth.bcrypt.espera");
+        this.hasheo = meterRegistry.timer("auth.bcrypt.hash");
+        this.rechazos = meterRegistry.counter("auth.bcrypt.rechazos");
+        meterRegistry.gauge("auth.bcrypt.cola", ejecutor, pool -> pool.getQueue().size());
+        meterRegistry.gauge("auth.bcrypt.activos", ejecutor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return ejecutar(() -> bcrypt.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return ejecutar(() -> bcrypt.matches(rawPassword, encodedPassword));
+    }
+
+    // Solo lee el costo del hash: no necesita el pool
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return bcrypt.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T ejecutar(Callable<T> trabajo) {
+        long encolado = System.nanoTime();
+        Future<T> resultado;
+        try {
+            resultado = ejecutor.submit(() -> {
+                long inicio = System.nanoTime();
+                espera.record(inicio - encolado, TimeUnit.NANOSECONDS);
+                try {
+                    return trabajo.call();
+                } finally {
+                    hasheo.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rechazos.increment();
+            throw new RejectedExecutionException("Servicio de autenticación saturado, intente nuevamente", e);
+        }
+        try {
+            return resultado.get();
+        } catch (InterruptedException e) {
+            resultado.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Hasheo interrumpido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,89 @@
+package cl.ubiobio.muebleria.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets por clave (grupo de rutas + usuario o IP), sin locks.
+ * Cada cubeta es un solo AtomicLong con el instante teórico en que vuelve a estar llena
+ * (formulación GCRA del token bucket): consumir un token es un CAS, sin reservar memoria.
+ * El mapa se divide en franjas para que el barrido de cubetas inactivas recorra una franja a la vez
+ * sin competir con las peticiones de las demás.
+ */
+class CubetasTokens {
+
+    /**
+     * Presupuesto de un grupo de rutas: ráfaga máxima y tokens repuestos por segundo
+     */
+    record Presupuesto(int capacidad, double porSegundo) {
+
+        long intervaloNanos() {
+            return (long) (TimeUnit.SECONDS.toNanos(1) / porSegundo);
+        }
+
+        long toleranciaNanos() {
+            return (capacidad - 1) * intervaloNanos();
+        }
+    }
+
+    private final ConcurrentHashMap<String, AtomicLong>[] franjas;
+
+    @SuppressWarnings("unchecked")
+    CubetasTokens(int numFranjas) {
+        this.franjas = new ConcurrentHashMap[numFranjas];
+        for (int i = 0; i < numFranjas; i++) {
+            franjas[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Consume un token de la cubeta
+     * @return 0 si se concedió; si no, los nanosegundos hasta que haya un token disponible
+     */
+    long consumir(String clave, Presupuesto presupuesto, long ahoraNanos) {
+        AtomicLong llena = franja(clave).computeIfAbsent(clave, k -> new AtomicLong(ahoraNanos));
+        long intervalo = presupuesto.intervaloNanos();
+        long tolerancia = presupuesto.toleranciaNanos();
+        while (true) {
+            long actual = llena.get();
+            long base = Math.max(actual, ahoraNanos);
+            long espera = base - tolerancia - ahoraNanos;
+            if (espera > 0) {
+                return espera;
+            }
+            if (llena.compareAndSet(actual, base + intervalo)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Descarta las cubetas que ya se rellenaron por completo hace más de inactividadNanos:
+     * volver a crearlas da el mismo resultado. Una petición concurrente con el barrido puede
+     * consumir de la cubeta descartada: a lo sumo se concede un token de más.
+     * @return cantidad de cubetas eliminadas
+     */
+    int barrer(long ahoraNanos, long inactividadNanos) {
+        int eliminadas = 0;
+        for (ConcurrentHashMap<String, AtomicLong> franja : franjas) {
+            int antes = franja.size();
+            franja.values().removeIf(llena -> llena.get() + inactividadNanos < ahoraNanos);
+            eliminadas += antes - franja.size();
+        }
+        return eliminadas;
+    }
+
+    int tamano() {
+        int total = 0;
+        for (ConcurrentHashMap<String, AtomicLong> franja : franjas) {
+            total += franja.size();
+        }
+        return total;
+    }
+
+    private ConcurrentHashMap<String, AtomicLong> franja(String clave) {
+        int hash = clave.hashCode();
+        return franjas[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % franjas.length];
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -15,15 +16,17 @@ import java.util.Collection;
 import java.util.Collections;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private CacheUsuarios cacheUsuarios;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Usuario usuario = usuarioRepository.findByUsernameAndActivoTrue(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + username));
+        Usuario usuario = getUserByUsername(username);
 
         return User.builder()
                 .username(usuario.getUsername())
@@ -36,12 +39,31 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .build();
     }
 
+    /**
+     * Guarda el hash recalculado con la fuerza BCrypt vigente (lo invoca DaoAuthenticationProvider
+     * tras un login correcto con un hash antiguo)
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Usuario usuario = usuarioRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + user.getUsername()));
+        usuario.setPassword(newPassword);
+        usuarioRepository.save(usuario);
+        cacheUsuarios.invalidar(usuario);
+        return User.withUserDetails(user).password(newPassword).build();
+    }
+
     private Collection<? extends GrantedAuthority> getAuthorities(Usuario usuario) {
         return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + usuario.getRol().name()));
     }
 
     public Usuario getUserByUsername(String username) {
-        return usuarioRepository.findByUsernameAndActivoTrue(username)
+        return cacheUsuarios.porUsername(username, () -> usuarioRepository.findByUsernameAndActivoTrue(username))
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + username));
     }
+
+    public Usuario getUserById(Long id) {
+        return cacheUsuarios.porId(id, () -> usuarioRepository.findByIdAndActivoTrue(id))
+                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + id));
+    }
 }
@@ -0,0 +1,88 @@
+package cl.ubiobio.muebleria.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom sobre cadenas. puedeContener nunca da falsos negativos y no reserva memoria:
+ * los hashes se calculan recorriendo los caracteres, sin pasar por bytes ni objetos intermedios.
+ * Admite inserciones concurrentes con lecturas.
+ */
+class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final int numBits;
+    private final int numHashes;
+
+    /**
+     * Dimensiona el filtro para la cantidad esperada de elementos y la tasa de falsos positivos buscada
+     */
+    FiltroBloom(int elementosEsperados, double tasaFalsosPositivos) {
+        int n = Math.max(1, elementosEsperados);
+        long m = (long) Math.ceil(-n * Math.log(tasaFalsosPositivos) / (Math.log(2) * Math.log(2)));
+        this.numBits = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, m));
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+        this.bits = new AtomicLongArray((numBits + 63) / 64);
+    }
+
+    void agregar(CharSequence valor) {
+        long h1 = hash1(valor);
+        long h2 = hash2(valor);
+        for (int i = 0; i < numHashes; i++) {
+            int bit = indice(h1 + i * h2);
+            long mascara = 1L << bit;
+            int palabra = bit >>> 6;
+            long actual;
+            do {
+                actual = bits.get(palabra);
+            } while ((actual & mascara) == 0 && !bits.compareAndSet(palabra, actual, actual | mascara));
+        }
+    }
+
+    boolean puedeContener(CharSequence valor) {
+        long h1 = hash1(valor);
+        long h2 = hash2(valor);
+        for (int i = 0; i < numHashes; i++) {
+            int bit = indice(h1 + i * h2);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int getNumBits() {
+        return numBits;
+    }
+
+    int getNumHashes() {
+        return numHashes;
+    }
+
+    private int indice(long hash) {
+        return (int) ((hash & Long.MAX_VALUE) % numBits);
+    }
+
+    // FNV-1a de 64 bits
+    private static long hash1(CharSequence valor) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    // Polinomial con mezcla final (murmur3 fmix64), independiente del anterior; siempre impar
+    private static long hash2(CharSequence valor) {
+        long h = 0x9e3779b97f4a7c15L;
+        for (int i = 0; i < valor.length(); i++) {
+            h = h * 31 + valor.charAt(i);
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53e87d3L;
+        h ^= h >>> 33;
+        return h | 1;
+    }
+}
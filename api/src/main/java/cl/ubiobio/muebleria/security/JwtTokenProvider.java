@@ -1,62 +1,170 @@
 package cl.ubiobio.muebleria.security;
 
+import cl.ubiobio.muebleria.enums.Rol;
+import cl.ubiobio.muebleria.models.Usuario;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
 
 @Component
 public class JwtTokenProvider {
 
-    @Value("${jwt.secret:mySecretKeyForJwtTokenGenerationMustBeLongEnoughForHS256AlgorithmToWork}")
-    private String jwtSecret;
+    // Claims propios: con ellos el filtro arma el principal sin consultar usuarios
+    static final String CLAIM_ID_USUARIO = "uid";
+    static final String CLAIM_ROL = "rol";
+    static final String CLAIM_VERSION = "ver";
 
-    @Value("${jwt.expiration:86400000}") // 24 hours in milliseconds
-    private long jwtExpirationMs;
+    // Token ya verificado: sus claims y hasta cuándo se pueden reutilizar
+    private record Verificado(Claims claims, long expiraMs) {
+    }
+
+    private final long jwtExpirationMs;
+    private final VersionesToken versionesToken;
+    private final RevocacionesToken revocacionesToken;
+
+    // La clave y el parser son inmutables y thread-safe: se construyen una sola vez
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+
+    // LRU de tokens verificados, indexado por SHA-256 del token (no se guarda el token en claro)
+    private final Map<ByteBuffer, Verificado> verificados;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    public JwtTokenProvider(
+            @Value("${jwt.secret:mySecretKeyForJwtTokenGenerationMustBeLongEnoughForHS256AlgorithmToWork}") String jwtSecret,
+            @Value("${jwt.expiration:900000}") long jwtExpirationMs, // 15 minutes; se renueva con el refresh token
+            @Value("${jwt.cache.capacidad:10000}") int capacidadCache,
+            VersionesToken versionesToken,
+            RevocacionesToken revocacionesToken) {
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.versionesToken = versionesToken;
+        this.revocacionesToken = revocacionesToken;
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.verificados = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Verificado> eldest) {
+                return size() > capacidadCache;
+            }
+        };
     }
 
-    public String generateToken(Authentication authentication) {
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+    public String generateToken(Usuario usuario) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
 
         return Jwts.builder()
-                .subject(userDetails.getUsername())
+                .id(UUID.randomUUID().toString())
+                .subject(usuario.getUsername())
+                .claim(CLAIM_ID_USUARIO, usuario.getId())
+                .claim(CLAIM_ROL, usuario.getRol().name())
+                .claim(CLAIM_VERSION, usuario.getVersionToken() != null ? usuario.getVersionToken() : 0)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * Verifica firma y expiración en una sola pasada y devuelve los claims, o null si el token no es válido.
+     * Un token verificado hace poco se responde desde el caché sin volver a calcular el HMAC,
+     * hasta su propio exp.
+     */
+    public Claims verificar(String token) {
+        ByteBuffer clave = ByteBuffer.wrap(sha256(token));
+        long ahora = System.currentTimeMillis();
+
+        Verificado verificado;
+        synchronized (verificados) {
+            verificado = verificados.get(clave);
+            if (verificado != null && verificado.expiraMs() <= ahora) {
+                verificados.remove(clave);
+                verificado = null;
+            }
+        }
+        if (verificado != null) {
+            return verificado.claims();
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        // Sin exp no se cachea: se verifica cada vez
+        if (claims.getExpiration() != null) {
+            synchronized (verificados) {
+                verificados.put(clave, new Verificado(claims, claims.getExpiration().getTime()));
+            }
+        }
+        return claims;
+    }
 
+    /**
+     * Principal del token si su versión sigue vigente y su jti no fue revocado; null si fue revocado
+     * o no trae los claims propios.
+     * Una versión mayor a la conocida es válida: el token se emitió en otro nodo que ya vio el cambio.
+     */
+    public UsuarioPrincipal principal(Claims claims) {
+        Number idUsuario = claims.get(CLAIM_ID_USUARIO, Number.class);
+        String rol = claims.get(CLAIM_ROL, String.class);
+        Number version = claims.get(CLAIM_VERSION, Number.class);
+        if (idUsuario == null || rol == null || version == null) {
+            return null;
+        }
+        if (version.intValue() < versionesToken.actual(idUsuario.longValue())) {
+            return null;
+        }
+        if (claims.getId() != null && revocacionesToken.revocado(claims.getId())) {
+            return null;
+        }
+        return new UsuarioPrincipal(idUsuario.longValue(), claims.getSubject(), Rol.valueOf(rol));
+    }
+
+    /**
+     * Revoca el access token hasta su expiración (logout); no hace nada si el token ya no es válido
+     */
+    public void revocar(String token) {
+        Claims claims = verificar(token);
+        if (claims == null || claims.getId() == null) {
+            return;
+        }
+        Date expiracion = claims.getExpiration() != null
+                ? claims.getExpiration() : new Date(System.currentTimeMillis() + jwtExpirationMs);
+        LocalDateTime expira = LocalDateTime.ofInstant(expiracion.toInstant(), ZoneId.systemDefault());
+        revocacionesToken.revocar(claims.getId(), expira);
+    }
+
+    public String getUsernameFromToken(String token) {
+        Claims claims = verificar(token);
+        if (claims == null) {
+            throw new JwtException("Token inválido");
+        }
         return claims.getSubject();
     }
 
     public boolean validateToken(String token) {
+        return verificar(token) != null;
+    }
+
+    private static byte[] sha256(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            // Log the exception if needed
-            return false;
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 }
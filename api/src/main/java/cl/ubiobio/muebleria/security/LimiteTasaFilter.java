@@ -0,0 +1,119 @@
+package cl.ubiobio.muebleria.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita la tasa de peticiones con token buckets por grupo de rutas (catálogo, auth, órdenes).
+ * Corre después de JwtAuthenticationFilter: una petición autenticada consume primero de la cubeta de su
+ * usuario y, si pasa, de la de su IP (con presupuesto limite.factor-ip veces mayor, por NAT); así un usuario
+ * que agota su cubeta no gasta la de otros detrás de la misma IP. Una anónima consume solo de la de su IP.
+ * La IP es la del cliente según X-Forwarded-For cuando la petición llega de un proxy de confianza
+ * (server.tomcat.remoteip.internal-proxies). Sin tokens responde 429 con Retry-After.
+ */
+@Component
+public class LimiteTasaFilter extends OncePerRequestFilter {
+
+    enum GrupoRuta {
+        CATALOGO, AUTH, ORDENES
+    }
+
+    private final CubetasTokens cubetas;
+    private final boolean habilitado;
+    private final long inactividadNanos;
+    private final CubetasTokens.Presupuesto[] porUsuario = new CubetasTokens.Presupuesto[GrupoRuta.values().length];
+    private final CubetasTokens.Presupuesto[] porIp = new CubetasTokens.Presupuesto[GrupoRuta.values().length];
+
+    public LimiteTasaFilter(@Value("${limite.habilitado:true}") boolean habilitado,
+                            @Value("${limite.franjas:16}") int franjas,
+                            @Value("${limite.inactividad-ms:300000}") long inactividadMs,
+                            @Value("${limite.factor-ip:4}") int factorIp,
+                            @Value("${limite.catalogo.capacidad:100}") int capacidadCatalogo,
+                            @Value("${limite.catalogo.por-segundo:20}") double tasaCatalogo,
+                            @Value("${limite.auth.capacidad:5}") int capacidadAuth,
+                            @Value("${limite.auth.por-segundo:0.1}") double tasaAuth,
+                            @Value("${limite.ordenes.capacidad:20}") int capacidadOrdenes,
+                            @Value("${limite.ordenes.por-segundo:1}") double tasaOrdenes) {
+        this.cubetas = new CubetasTokens(franjas);
+        this.habilitado = habilitado;
+        this.inactividadNanos = TimeUnit.MILLISECONDS.toNanos(inactividadMs);
+        presupuesto(GrupoRuta.CATALOGO, capacidadCatalogo, tasaCatalogo, factorIp);
+        presupuesto(GrupoRuta.AUTH, capacidadAuth, tasaAuth, factorIp);
+        presupuesto(GrupoRuta.ORDENES, capacidadOrdenes, tasaOrdenes, factorIp);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        GrupoRuta grupo = habilitado ? grupo(request) : null;
+        if (grupo == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long ahora = System.nanoTime();
+        long espera = 0;
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UsuarioPrincipal principal) {
+            espera = cubetas.consumir(grupo.name() + "|u:" + principal.getId(), porUsuario[grupo.ordinal()], ahora);
+        }
+        if (espera == 0) {
+            espera = cubetas.consumir(grupo.name() + "|ip:" + request.getRemoteAddr(), porIp[grupo.ordinal()], ahora);
+        }
+        if (espera > 0) {
+            rechazar(response, espera);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelayString = "${limite.barrido-ms:60000}", initialDelayString = "${limite.barrido-ms:60000}")
+    public void barrer() {
+        cubetas.barrer(System.nanoTime(), inactividadNanos);
+    }
+
+    // null para rutas sin límite. AUTH cubre solo las rutas que prueban credenciales; refresh, me y
+    // logout usan un token ya emitido y no deben agotar el presupuesto de login
+    static GrupoRuta grupo(HttpServletRequest request) {
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        if (ruta.equals("/api/auth/login") || ruta.equals("/api/auth/register")) {
+            return GrupoRuta.AUTH;
+        }
+        if (ruta.startsWith("/api/ordenes")) {
+            return GrupoRuta.ORDENES;
+        }
+        if (ruta.startsWith("/api/muebles") || ruta.startsWith("/api/variantes") || ruta.startsWith("/api/sucursales")) {
+            return GrupoRuta.CATALOGO;
+        }
+        return null;
+    }
+
+    private void presupuesto(GrupoRuta grupo, int capacidad, double porSegundo, int factorIp) {
+        porUsuario[grupo.ordinal()] = new CubetasTokens.Presupuesto(capacidad, porSegundo);
+        porIp[grupo.ordinal()] = new CubetasTokens.Presupuesto(capacidad * factorIp, porSegundo * factorIp);
+    }
+
+    private static void rechazar(HttpServletResponse response, long esperaNanos) throws IOException {
+        long segundos = Math.max(1, (esperaNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"error\":\"Demasiadas solicitudes, intente nuevamente en " + segundos + " s\"}");
+    }
+}
@@ -0,0 +1,132 @@
+package cl.ubiobio.muebleria.security;
+
+import cl.ubiobio.muebleria.models.TokenRevocado;
+import cl.ubiobio.muebleria.repositories.TokenRevocadoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Access tokens revocados antes de expirar, por jti. El camino caliente consulta solo un filtro de
+ * Bloom en memoria: un token no revocado (el caso normal) se descarta en O(1) sin tocar la base ni
+ * reservar memoria; solo un positivo del filtro se confirma contra tokens_revocados.
+ * El filtro se completa de forma incremental y se reconstruye periódicamente para descartar
+ * revocaciones de tokens ya expirados. Los ids se asignan al insertar pero se confirman en otro
+ * orden, así que cada recarga vuelve a leer una ventana de ids bajo el último cargado.
+ */
+@Component
+public class RevocacionesToken {
+
+    private final TokenRevocadoRepository tokenRevocadoRepository;
+    private final int capacidadMinima;
+    private final double tasaFalsosPositivos;
+    private final int ventanaIds;
+
+    private volatile FiltroBloom filtro;
+
+    // Estado de la carga incremental; protegido por lock. ReentrantLock y no synchronized porque
+    // se consulta la base con el lock tomado y un hilo virtual no debe quedar fijo a su carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private long ultimoId = 0;
+    private int cargados = 0;
+    private int capacidad;
+
+    public RevocacionesToken(TokenRevocadoRepository tokenRevocadoRepository,
+                             @Value("${auth.revocacion.capacidad:10000}") int capacidadMinima,
+                             @Value("${auth.revocacion.falsos-positivos:0.01}") double tasaFalsosPositivos,
+                             @Value("${auth.revocacion.ventana-ids:1000}") int ventanaIds) {
+        this.tokenRevocadoRepository = tokenRevocadoRepository;
+        this.capacidadMinima = capacidadMinima;
+        this.tasaFalsosPositivos = tasaFalsosPositivos;
+        this.ventanaIds = ventanaIds;
+        this.capacidad = capacidadMinima;
+        this.filtro = new FiltroBloom(capacidadMinima, tasaFalsosPositivos);
+    }
+
+    public boolean revocado(String jti) {
+        return filtro.puedeContener(jti) && tokenRevocadoRepository.existsByJti(jti);
+    }
+
+    /**
+     * Registra la revocación y la aplica de inmediato en este nodo; los demás la cargan en su próxima recarga
+     */
+    public void revocar(String jti, LocalDateTime expira) {
+        lock.lock();
+        try {
+            if (!tokenRevocadoRepository.existsByJti(jti)) {
+                TokenRevocado revocado = new TokenRevocado();
+                revocado.setJti(jti);
+                revocado.setExpira(expira);
+                tokenRevocadoRepository.save(revocado);
+            }
+            filtro.agregar(jti);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        reconstruir();
+    }
+
+    // Agrega al filtro vigente las revocaciones nuevas de cualquier nodo. La ventana bajo ultimoId
+    // recoge las que se confirmaron después de otra con id mayor; las ya cargadas no se cuentan de nuevo
+    @Scheduled(fixedDelayString = "${auth.revocacion.intervalo-ms:5000}",
+            initialDelayString = "${auth.revocacion.intervalo-ms:5000}")
+    public void recargar() {
+        lock.lock();
+        try {
+            List<TokenRevocado> leidos = tokenRevocadoRepository.findByIdRevocacionGreaterThanAndExpiraAfterOrderByIdRevocacion(
+                    Math.max(0, ultimoId - ventanaIds), LocalDateTime.now());
+            FiltroBloom actual = filtro;
+            for (TokenRevocado revocado : leidos) {
+                if (!actual.puedeContener(revocado.getJti())) {
+                    actual.agregar(revocado.getJti());
+                    cargados++;
+                }
+                ultimoId = Math.max(ultimoId, revocado.getIdRevocacion());
+            }
+            // Pasada la capacidad los falsos positivos crecen: se reconstruye más grande
+            if (cargados > capacidad) {
+                reconstruir();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Elimina las revocaciones expiradas y arma un filtro nuevo con las vigentes. También cubre
+     * revocaciones confirmadas tan tarde que quedaron fuera de la ventana de la carga incremental.
+     */
+    @Scheduled(fixedDelayString = "${auth.revocacion.reconstruccion-ms:3600000}",
+            initialDelayString = "${auth.revocacion.reconstruccion-ms:3600000}")
+    public void reconstruir() {
+        lock.lock();
+        try {
+            LocalDateTime ahora = LocalDateTime.now();
+            tokenRevocadoRepository.eliminarExpirados(ahora);
+            List<TokenRevocado> vigentes = tokenRevocadoRepository
+                    .findByIdRevocacionGreaterThanAndExpiraAfterOrderByIdRevocacion(0L, ahora);
+
+            int nuevaCapacidad = Math.max(capacidadMinima, vigentes.size() * 2);
+            FiltroBloom nuevo = new FiltroBloom(nuevaCapacidad, tasaFalsosPositivos);
+            for (TokenRevocado revocado : vigentes) {
+                nuevo.agregar(revocado.getJti());
+                ultimoId = Math.max(ultimoId, revocado.getIdRevocacion());
+            }
+            capacidad = nuevaCapacidad;
+            cargados = vigentes.size();
+            filtro = nuevo;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package cl.ubiobio.muebleria.security;
+
+import cl.ubiobio.muebleria.repositories.UsuarioRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Propaga entre nodos los cambios de rol y estado de usuarios. Cada cambio incrementa
+ * usuarios.version_token, así que basta con sondear la suma de versiones (una consulta liviana):
+ * si cambió, se recargan las versiones de tokens y se vacía el caché de usuarios. Los IDs inactivos
+ * son pocos y se leen completos en cada sondeo: una suma o un conteo no distinguen, por ejemplo,
+ * reactivar un usuario y desactivar otro al mismo tiempo, y un cambio directo en la base no sube la versión.
+ */
+@Component
+public class SincronizacionUsuarios {
+
+    private final UsuarioRepository usuarioRepository;
+    private final VersionesToken versionesToken;
+    private final CacheUsuarios cacheUsuarios;
+
+    // ReentrantLock y no synchronized: se consulta la base con el lock tomado (hilos virtuales)
+    private final ReentrantLock lock = new ReentrantLock();
+    private long ultimaVersion = -1;
+    private Set<Long> ultimosInactivos = null;
+
+    public SincronizacionUsuarios(UsuarioRepository usuarioRepository,
+                                  VersionesToken versionesToken,
+                                  CacheUsuarios cacheUsuarios) {
+        this.usuarioRepository = usuarioRepository;
+        this.versionesToken = versionesToken;
+        this.cacheUsuarios = cacheUsuarios;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        sincronizar();
+    }
+
+    @Scheduled(fixedDelayString = "${usuarios.sincronizacion.intervalo-ms:5000}",
+            initialDelayString = "${usuarios.sincronizacion.intervalo-ms:5000}")
+    public void sincronizar() {
+        lock.lock();
+        try {
+            long version = usuarioRepository.sumarVersionesToken();
+            Set<Long> inactivos = new HashSet<>(usuarioRepository.findIdsInactivos());
+            if (version == ultimaVersion && inactivos.equals(ultimosInactivos)) {
+                return;
+            }
+            versionesToken.recargar(usuarioRepository.findVersionesToken().stream()
+                            .collect(Collectors.toMap(UsuarioRepository.VersionUsuario::getId,
+                                    UsuarioRepository.VersionUsuario::getVersionToken)),
+                    inactivos);
+            cacheUsuarios.invalidarTodo();
+            ultimaVersion = version;
+            ultimosInactivos = inactivos;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
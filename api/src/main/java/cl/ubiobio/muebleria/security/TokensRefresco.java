@@ -0,0 +1,123 @@
+package cl.ubiobio.muebleria.security;
+
+import cl.ubiobio.muebleria.models.TokenRefresco;
+import cl.ubiobio.muebleria.models.Usuario;
+import cl.ubiobio.muebleria.repositories.TokenRefrescoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Refresh tokens rotativos. El cliente recibe un valor aleatorio opaco; en tokens_refresco solo
+ * queda su SHA-256. Cada rotación consume el token y emite otro de la misma familia; presentar
+ * uno ya consumido revoca la familia completa (el token fue copiado).
+ */
+@Component
+public class TokensRefresco {
+
+    // Resultado de una rotación: el usuario vigente y su nuevo refresh token
+    public record Rotacion(Usuario usuario, String token) {
+    }
+
+    // Reuso de un token ya consumido: la revocación de la familia debe confirmarse igual
+    static class RefrescoReutilizado extends RuntimeException {
+        RefrescoReutilizado() {
+            super("Refresh token revocado");
+        }
+    }
+
+    private final TokenRefrescoRepository tokenRefrescoRepository;
+    private final CustomUserDetailsService userDetailsService;
+    private final long duracionMs;
+    private final SecureRandom aleatorio = new SecureRandom();
+
+    public TokensRefresco(TokenRefrescoRepository tokenRefrescoRepository,
+                          CustomUserDetailsService userDetailsService,
+                          @Value("${jwt.refresh.expiration:2592000000}") long duracionMs) { // 30 días
+        this.tokenRefrescoRepository = tokenRefrescoRepository;
+        this.userDetailsService = userDetailsService;
+        this.duracionMs = duracionMs;
+    }
+
+    /**
+     * Emite el primer refresh token de una sesión (familia nueva)
+     */
+    public String emitir(Usuario usuario) {
+        return guardar(usuario.getId(), UUID.randomUUID().toString());
+    }
+
+    /**
+     * Consume el refresh token y emite su reemplazo
+     * Consumir el token y guardar su reemplazo van en una transacción: si falla el guardado o el
+     * usuario no está activo, el token sigue vigente
+     * @throws RuntimeException si el token no existe, expiró, ya fue usado o el usuario no está activo
+     */
+    @Transactional(noRollbackFor = RefrescoReutilizado.class)
+    public Rotacion rotar(String token) {
+        TokenRefresco actual = tokenRefrescoRepository.findByHash(hash(token))
+                .orElseThrow(() -> new RuntimeException("Refresh token inválido"));
+        LocalDateTime ahora = LocalDateTime.now();
+        if (!actual.getExpira().isAfter(ahora)) {
+            throw new RuntimeException("Refresh token expirado");
+        }
+        // El UPDATE condicional decide entre dos usos concurrentes: solo uno consume el token
+        if (tokenRefrescoRepository.consumir(actual.getIdToken(), ahora) == 0) {
+            tokenRefrescoRepository.revocarFamilia(actual.getFamilia(), ahora);
+            throw new RefrescoReutilizado();
+        }
+        Usuario usuario = userDetailsService.getUserById(actual.getIdUsuario());
+        return new Rotacion(usuario, guardar(usuario.getId(), actual.getFamilia()));
+    }
+
+    /**
+     * Cierra la sesión del refresh token (toda su familia)
+     */
+    public void revocar(String token) {
+        tokenRefrescoRepository.findByHash(hash(token))
+                .ifPresent(actual -> tokenRefrescoRepository.revocarFamilia(actual.getFamilia(), LocalDateTime.now()));
+    }
+
+    public void revocarUsuario(Long idUsuario) {
+        tokenRefrescoRepository.revocarPorUsuario(idUsuario, LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh.limpieza-ms:86400000}",
+            initialDelayString = "${jwt.refresh.limpieza-ms:86400000}")
+    public void limpiar() {
+        tokenRefrescoRepository.eliminarExpirados(LocalDateTime.now());
+    }
+
+    private String guardar(Long idUsuario, String familia) {
+        byte[] bytes = new byte[32];
+        aleatorio.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        TokenRefresco refresco = new TokenRefresco();
+        refresco.setIdUsuario(idUsuario);
+        refresco.setHash(hash(token));
+        refresco.setFamilia(familia);
+        refresco.setExpira(LocalDateTime.now().plus(duracionMs, ChronoUnit.MILLIS));
+        tokenRefrescoRepository.save(refresco);
+        return token;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
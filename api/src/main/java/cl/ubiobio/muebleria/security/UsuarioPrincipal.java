@@ -0,0 +1,28 @@
+package cl.ubiobio.muebleria.security;
+
+import cl.ubiobio.muebleria.enums.Rol;
+import cl.ubiobio.muebleria.models.Usuario;
+import lombok.Value;
+
+import java.security.Principal;
+
+/**
+ * Usuario autenticado armado desde los claims del JWT (uid, sub, rol), sin consultar la tabla usuarios.
+ * Es el principal del SecurityContext; authentication.getName() devuelve el username.
+ */
+@Value
+public class UsuarioPrincipal implements Principal {
+
+    Long id;
+    String username;
+    Rol rol;
+
+    public static UsuarioPrincipal de(Usuario usuario) {
+        return new UsuarioPrincipal(usuario.getId(), usuario.getUsername(), usuario.getRol());
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
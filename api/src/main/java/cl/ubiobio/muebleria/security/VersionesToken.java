@@ -0,0 +1,62 @@
+package cl.ubiobio.muebleria.security;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Versión vigente de los tokens de cada usuario (copia en memoria de usuarios.version_token).
+ * El token lleva la versión con que se emitió (claim ver) y deja de aceptarse cuando la versión
+ * del usuario la supera: así se revocan los tokens al cambiar el rol o desactivar la cuenta,
+ * sin consultar la base de datos en cada petición. También guarda qué usuarios están desactivados
+ * (usuarios.activo), que el filtro JWT rechaza aunque su token siga vigente.
+ * SincronizacionUsuarios recarga ambas cosas desde la base.
+ */
+@Component
+public class VersionesToken {
+
+    private volatile Map<Long, Integer> versiones = new ConcurrentHashMap<>();
+    private volatile Set<Long> inactivos = ConcurrentHashMap.newKeySet();
+
+    public int actual(Long idUsuario) {
+        return versiones.getOrDefault(idUsuario, 0);
+    }
+
+    public boolean activo(Long idUsuario) {
+        return !inactivos.contains(idUsuario);
+    }
+
+    /**
+     * Registra una activación o desactivación hecha en este nodo
+     */
+    public void registrarEstado(Long idUsuario, boolean activo) {
+        if (activo) {
+            inactivos.remove(idUsuario);
+        } else {
+            inactivos.add(idUsuario);
+        }
+    }
+
+    /**
+     * Registra una revocación hecha en este nodo; los demás la ven en su próxima sincronización
+     */
+    public void registrar(Long idUsuario, int version) {
+        versiones.merge(idUsuario, version, Math::max);
+    }
+
+    /**
+     * Reemplaza la tabla con lo leído de la base de datos. Las versiones solo crecen, así que se
+     * conserva el máximo: una revocación local posterior a la lectura no se pierde.
+     * Los inactivos se toman tal cual de la base.
+     */
+    public void recargar(Map<Long, Integer> leidas, Set<Long> inactivosLeidos) {
+        Map<Long, Integer> nuevas = new ConcurrentHashMap<>(leidas);
+        versiones.forEach((idUsuario, version) -> nuevas.merge(idUsuario, version, Math::max));
+        versiones = nuevas;
+        Set<Long> nuevosInactivos = ConcurrentHashMap.newKeySet();
+        nuevosInactivos.addAll(inactivosLeidos);
+        inactivos = nuevosInactivos;
+    }
+}
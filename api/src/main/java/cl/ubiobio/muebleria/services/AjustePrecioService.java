@@ -0,0 +1,153 @@
+package cl.ubiobio.muebleria.services;
+
+import cl.ubiobio.muebleria.dto.AjustePrecioRequestDTO;
+import cl.ubiobio.muebleria.dto.AjustePrecioResultadoDTO;
+import cl.ubiobio.muebleria.dto.FiltroCatalogoDTO;
+import cl.ubiobio.muebleria.enums.ReglaPrecio;
+import cl.ubiobio.muebleria.enums.TamanoMueble;
+import cl.ubiobio.muebleria.search.CatalogoIndices;
+import cl.ubiobio.muebleria.search.NormalizadorTexto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Ajuste masivo de precios del catálogo con un único UPDATE por conjunto.
+ * El cálculo replica la aritmética entera de las estrategias de precio:
+ * PORCENTAJE trunca hacia cero igual que (precioBase * porcentaje) / 100 en Java.
+ */
+@Service
+public class AjustePrecioService {
+
+  // Evita que un porcentaje grande desborde la columna INT
+  static final int PORCENTAJE_MINIMO = -100;
+  static final int PORCENTAJE_MAXIMO = 1000;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final CatalogoIndices catalogoIndices;
+
+  public AjustePrecioService(JdbcTemplate jdbcTemplate, CatalogoIndices catalogoIndices) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.catalogoIndices = catalogoIndices;
+  }
+
+  public AjustePrecioResultadoDTO ajustar(AjustePrecioRequestDTO request) {
+    validar(request);
+
+    List<Object> parametros = new ArrayList<>();
+    String nuevoPrecio = expresionPrecio(request.getRegla(), request.getValor(), parametros);
+    String condicion = condicionFiltro(request.getFiltro(), parametros);
+
+    int afectados = jdbcTemplate.update(
+        "UPDATE muebles SET precio_base = GREATEST(" + nuevoPrecio + ", 0) WHERE " + condicion,
+        parametros.toArray());
+
+    // Los índices (rango de precios) se reconstruyen una sola vez para todo el ajuste
+    if (afectados > 0) {
+      catalogoIndices.reconstruir();
+    }
+    return new AjustePrecioResultadoDTO(afectados, catalogoIndices.getVersion());
+  }
+
+  private static void validar(AjustePrecioRequestDTO request) {
+    if (request.getRegla() == null || request.getValor() == null) {
+      throw new RuntimeException("La regla y el valor son obligatorios");
+    }
+    if (request.getRegla() == ReglaPrecio.PORCENTAJE
+        && (request.getValor() < PORCENTAJE_MINIMO || request.getValor() > PORCENTAJE_MAXIMO)) {
+      throw new RuntimeException(String.format("El porcentaje debe estar entre %d y %d",
+          PORCENTAJE_MINIMO, PORCENTAJE_MAXIMO));
+    }
+    if (request.getRegla() == ReglaPrecio.REDONDEO && request.getValor() <= 0) {
+      throw new RuntimeException("El múltiplo de redondeo debe ser mayor que cero");
+    }
+  }
+
+  static String expresionPrecio(ReglaPrecio regla, Integer valor, List<Object> parametros) {
+    return switch (regla) {
+      case FIJO -> {
+        parametros.add(valor);
+        yield "precio_base + ?";
+      }
+      case PORCENTAJE -> {
+        // FLOOR/CEILING según el signo = truncar hacia cero, como la división entera de Java
+        parametros.add(valor);
+        parametros.add(valor);
+        parametros.add(valor);
+        yield "precio_base + CASE WHEN precio_base * ? >= 0 "
+            + "THEN FLOOR(precio_base * ? / 100) ELSE CEILING(precio_base * ? / 100) END";
+      }
+      case REDONDEO -> {
+        // Múltiplo más cercano, las mitades hacia arriba (precio_base nunca es negativo)
+        parametros.add(valor);
+        parametros.add(valor);
+        parametros.add(valor);
+        yield "FLOOR((precio_base + ? / 2) / ?) * ?";
+      }
+    };
+  }
+
+  String condicionFiltro(FiltroCatalogoDTO filtro, List<Object> parametros) {
+    StringBuilder condicion = new StringBuilder("estado_logico = TRUE");
+    if (filtro == null) {
+      return condicion.toString();
+    }
+    agregarPlegado(condicion, "tipo", filtro.getTipo(), parametros);
+    agregarPlegado(condicion, "material", filtro.getMaterial(), parametros);
+    agregarIn(condicion, "tamano", filtro.getTamano() == null ? null
+        : filtro.getTamano().stream().map(TamanoMueble::name).toList(), parametros);
+    if (filtro.getPrecioMin() != null) {
+      condicion.append(" AND precio_base >= ?");
+      parametros.add(filtro.getPrecioMin());
+    }
+    if (filtro.getPrecioMax() != null) {
+      condicion.append(" AND precio_base <= ?");
+      parametros.add(filtro.getPrecioMax());
+    }
+    if (Boolean.TRUE.equals(filtro.getEnStock())) {
+      condicion.append(" AND stock > 0");
+    }
+    return condicion.toString();
+  }
+
+  private static void agregarIn(StringBuilder condicion, String columna, List<String> valores,
+                                List<Object> parametros) {
+    if (valores == null || valores.isEmpty()) {
+      return;
+    }
+    condicion.append(" AND ").append(columna).append(" IN (")
+        .append(String.join(", ", Collections.nCopies(valores.size(), "?")))
+        .append(")");
+    parametros.addAll(valores);
+  }
+
+  /**
+   * Tipo y material se comparan plegados con NormalizadorTexto, igual que en /filtrar:
+   * los valores guardados que coinciden se resuelven aquí y el UPDATE los compara tal cual,
+   * sin depender de la collation de la columna
+   */
+  private void agregarPlegado(StringBuilder condicion, String columna, List<String> solicitados,
+                              List<Object> parametros) {
+    if (solicitados == null || solicitados.isEmpty()) {
+      return;
+    }
+    Set<String> claves = solicitados.stream()
+        .map(valor -> NormalizadorTexto.plegar(valor).trim())
+        .collect(Collectors.toSet());
+    List<String> almacenados = jdbcTemplate.queryForList(
+            "SELECT DISTINCT " + columna + " FROM muebles WHERE " + columna + " IS NOT NULL", String.class)
+        .stream()
+        .filter(valor -> claves.contains(NormalizadorTexto.plegar(valor).trim()))
+        .toList();
+    if (almacenados.isEmpty()) {
+      condicion.append(" AND FALSE");
+      return;
+    }
+    agregarIn(condicion, columna, almacenados, parametros);
+  }
+}
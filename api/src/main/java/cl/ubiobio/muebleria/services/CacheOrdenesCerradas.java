@@ -0,0 +1,119 @@
+package cl.ubiobio.muebleria.services;
+
+import cl.ubiobio.muebleria.dto.OrdenDTO;
+import cl.ubiobio.muebleria.enums.EstadoOrden;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU acotado con el JSON ya serializado de órdenes cerradas (VENTA o CANCELADA).
+ * Una orden cerrada no cambia salvo por la transición VENTA -> CANCELADA, que invalida su entrada.
+ * Cada entrada guarda el dueño de la orden para validar el acceso sin tocar la base de datos.
+ * Una generación por orden (en franjas de tamaño fijo) descarta lo leído antes de una invalidación.
+ */
+@Component
+public class CacheOrdenesCerradas {
+
+  record Clave(Integer idOrden, EstadoOrden estado) {
+  }
+
+  public record Entrada(Long idUsuario, byte[] json) {
+  }
+
+  private static final int FRANJAS = 1024;
+
+  private final ObjectMapper objectMapper;
+  private final Map<Clave, Entrada> entradas;
+  // Sube con cada invalidación; órdenes en la misma franja solo se pierden un guardado
+  private final long[] generaciones = new long[FRANJAS];
+
+  public CacheOrdenesCerradas(ObjectMapper objectMapper,
+                              @Value("${ordenes.cache.capacidad:2000}") int capacidad) {
+    this.objectMapper = objectMapper;
+    // accessOrder = true: cada lectura mueve la entrada al final y se descarta la menos usada
+    this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Clave, Entrada> eldest) {
+        return size() > capacidad;
+      }
+    };
+  }
+
+  public static boolean esCerrada(EstadoOrden estado) {
+    return estado == EstadoOrden.VENTA || estado == EstadoOrden.CANCELADA;
+  }
+
+  /**
+   * Entrada de la orden, o null si no está en caché. CANCELADA va primero porque es el estado final.
+   */
+  public synchronized Entrada buscar(Integer idOrden) {
+    Entrada entrada = entradas.get(new Clave(idOrden, EstadoOrden.CANCELADA));
+    return entrada != null ? entrada : entradas.get(new Clave(idOrden, EstadoOrden.VENTA));
+  }
+
+  /**
+   * Generación actual de la orden; se toma antes de leerla de la base de datos
+   */
+  public synchronized long generacion(Integer idOrden) {
+    return generaciones[franja(idOrden)];
+  }
+
+  /**
+   * Serializa la orden y, si está cerrada y nadie la invalidó desde que se tomó la generación,
+   * la deja en caché
+   */
+  public byte[] serializar(OrdenDTO orden, Long idUsuario, long generacion) {
+    byte[] json;
+    try {
+      json = objectMapper.writeValueAsBytes(orden);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (esCerrada(orden.getEstadoOrden())) {
+      synchronized (this) {
+        if (generaciones[franja(orden.getIdOrden())] == generacion) {
+          entradas.put(new Clave(orden.getIdOrden(), orden.getEstadoOrden()), new Entrada(idUsuario, json));
+        }
+      }
+    }
+    return json;
+  }
+
+  /**
+   * Quita la orden de la caché y sube su generación ahora y otra vez al terminar la transacción:
+   * una lectura concurrente que vio el estado anterior ya no puede guardarlo
+   */
+  public void invalidar(Integer idOrden) {
+    quitar(idOrden);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          quitar(idOrden);
+        }
+      });
+    }
+  }
+
+  public synchronized int tamano() {
+    return entradas.size();
+  }
+
+  private synchronized void quitar(Integer idOrden) {
+    generaciones[franja(idOrden)]++;
+    entradas.remove(new Clave(idOrden, EstadoOrden.VENTA));
+    entradas.remove(new Clave(idOrden, EstadoOrden.CANCELADA));
+  }
+
+  private static int franja(Integer idOrden) {
+    return Math.floorMod(idOrden, FRANJAS);
+  }
+}
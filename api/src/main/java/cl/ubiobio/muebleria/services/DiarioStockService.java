@@ -0,0 +1,225 @@
+package cl.ubiobio.muebleria.services;
+
+import cl.ubiobio.muebleria.dto.MovimientoStockDTO;
+import cl.ubiobio.muebleria.dto.StockHistoricoDTO;
+import cl.ubiobio.muebleria.enums.MotivoMovimiento;
+import cl.ubiobio.muebleria.models.CheckpointStock;
+import cl.ubiobio.muebleria.models.MovimientoStock;
+import cl.ubiobio.muebleria.repositories.CheckpointStockRepository;
+import cl.ubiobio.muebleria.repositories.MovimientoStockRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Diario de movimientos de stock con checkpoints periódicos.
+ * Los movimientos de una transacción se acumulan y se insertan en un solo batch
+ * justo antes del commit, así quedan en la misma transacción que el cambio de stock.
+ * El stock en un instante = último checkpoint anterior + movimientos posteriores a él.
+ * Cada checkpoint se deriva del anterior más el diario; muebles.stock solo se lee para el primero.
+ */
+@Service
+public class DiarioStockService {
+
+  private static final String SQL_INSERTAR =
+      "INSERT INTO movimientos_stock (id_mueble, id_sucursal, delta, motivo, id_orden, fecha) VALUES (?, ?, ?, ?, ?, ?)";
+
+  // Nuevo saldo de cada mueble = su último checkpoint + los movimientos del diario hasta el ancla.
+  // Así un checkpoint nunca absorbe una desviación entre muebles.stock y el diario (el verificador la sigue viendo).
+  // Solo un mueble sin checkpoint se ancla a su saldo real (bodega central + shards de hot item).
+  // Lectura consistente sin bloqueos: no compite con las ventas por las filas de muebles
+  private static final String SQL_SALDOS =
+      "SELECT m.id_mueble, CASE WHEN c.id_checkpoint IS NULL " +
+      "THEN m.stock + COALESCE((SELECT SUM(s.stock) FROM stock_shards s WHERE s.id_mueble = m.id_mueble), 0) " +
+      "ELSE c.stock + COALESCE((SELECT SUM(mv.delta) FROM movimientos_stock mv " +
+      "WHERE mv.id_mueble = m.id_mueble AND mv.id_sucursal IS NULL " +
+      "AND mv.id_movimiento > c.id_ultimo_movimiento AND mv.id_movimiento <= ?), 0) END " +
+      "FROM muebles m LEFT JOIN checkpoints_stock c ON c.id_checkpoint = " +
+      "(SELECT MAX(c2.id_checkpoint) FROM checkpoints_stock c2 WHERE c2.id_mueble = m.id_mueble)";
+
+  private static final String SQL_INSERTAR_CHECKPOINT =
+      "INSERT INTO checkpoints_stock (id_mueble, stock, fecha, id_ultimo_movimiento) VALUES (?, ?, ?, ?)";
+
+  // Pasada la retención, cada mueble conserva su primer checkpoint y el último de cada día:
+  // el primero ancla el stock previo al diario, y con uno diario cualquier consulta histórica
+  // recorre a lo más un día de movimientos
+  private static final String SQL_PODAR =
+      "DELETE FROM checkpoints_stock WHERE fecha < ? AND id_checkpoint NOT IN (" +
+      "SELECT id FROM (SELECT MIN(id_checkpoint) AS id FROM checkpoints_stock GROUP BY id_mueble " +
+      "UNION SELECT MAX(id_checkpoint) FROM checkpoints_stock GROUP BY id_mueble, CAST(fecha AS DATE)) conservados)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final MovimientoStockRepository movimientoRepository;
+  private final CheckpointStockRepository checkpointRepository;
+  private final TransactionTemplate instantanea;
+  private final int retencionDias;
+
+  public DiarioStockService(JdbcTemplate jdbcTemplate,
+                            MovimientoStockRepository movimientoRepository,
+                            CheckpointStockRepository checkpointRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${inventario.checkpoint.retencion-dias:90}") int retencionDias) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.movimientoRepository = movimientoRepository;
+    this.checkpointRepository = checkpointRepository;
+    this.retencionDias = retencionDias;
+
+    // El ancla y los saldos salen de la misma instantánea (la primera lectura la fija)
+    this.instantanea = new TransactionTemplate(transactionManager);
+    this.instantanea.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+  }
+
+  private record Pendiente(Integer idMueble, Integer idSucursal, int delta, MotivoMovimiento motivo, Integer idOrden,
+                           LocalDateTime fecha) {
+  }
+
+  /**
+   * Registra un movimiento de la bodega central. Dentro de una transacción se difiere hasta
+   * antes del commit (y se descarta si hay rollback); sin transacción se escribe de inmediato.
+   */
+  public void registrar(Integer idMueble, int delta, MotivoMovimiento motivo, Integer idOrden) {
+    registrar(idMueble, null, delta, motivo, idOrden);
+  }
+
+  /**
+   * Registra un movimiento del stock de una sucursal (idSucursal null = bodega central)
+   */
+  public void registrar(Integer idMueble, Integer idSucursal, int delta, MotivoMovimiento motivo, Integer idOrden) {
+    if (delta == 0) {
+      return;
+    }
+    Pendiente movimiento = new Pendiente(idMueble, idSucursal, delta, motivo, idOrden, LocalDateTime.now());
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      escribir(List.of(movimiento));
+      return;
+    }
+    pendientesDeLaTransaccion().add(movimiento);
+  }
+
+  // Se busca entre las sincronizaciones y no con bindResource: una transacción REQUIRES_NEW suspende
+  // las sincronizaciones de la exterior pero no los recursos ligados por clave, y sus movimientos
+  // acabarían en el commit de la otra
+  private List<Pendiente> pendientesDeLaTransaccion() {
+    for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+      if (sincronizacion instanceof Acumulador acumulador && acumulador.diario == this) {
+        return acumulador.pendientes;
+      }
+    }
+    Acumulador acumulador = new Acumulador(this);
+    TransactionSynchronizationManager.registerSynchronization(acumulador);
+    return acumulador.pendientes;
+  }
+
+  // Movimientos de una transacción, escritos justo antes de su commit
+  private static final class Acumulador implements TransactionSynchronization {
+
+    private final DiarioStockService diario;
+    private final List<Pendiente> pendientes = new ArrayList<>();
+
+    private Acumulador(DiarioStockService diario) {
+      this.diario = diario;
+    }
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+      diario.escribir(pendientes);
+    }
+  }
+
+  private void escribir(List<Pendiente> movimientos) {
+    if (movimientos.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.batchUpdate(SQL_INSERTAR, movimientos.stream()
+        .map(m -> new Object[]{m.idMueble(), m.idSucursal(), m.delta(), m.motivo().name(), m.idOrden(), Timestamp.valueOf(m.fecha())})
+        .toList());
+  }
+
+  // ==================== CHECKPOINTS ====================
+
+  /**
+   * Guarda el saldo de todos los muebles según el diario, anclado al último movimiento visible en la
+   * misma instantánea, y poda los checkpoints que ya no hacen falta
+   */
+  @Scheduled(fixedDelayString = "${inventario.checkpoint.intervalo-ms:3600000}",
+      initialDelayString = "${inventario.checkpoint.intervalo-ms:3600000}")
+  public void checkpoint() {
+    Timestamp fecha = Timestamp.valueOf(LocalDateTime.now());
+    instantanea.executeWithoutResult(status -> {
+      Long ultimoMovimiento = jdbcTemplate.queryForObject(
+          "SELECT COALESCE(MAX(id_movimiento), 0) FROM movimientos_stock", Long.class);
+      List<Object[]> saldos = jdbcTemplate.query(SQL_SALDOS, (fila, i) ->
+          new Object[]{fila.getInt(1), fila.getInt(2), fecha, ultimoMovimiento}, ultimoMovimiento);
+      if (!saldos.isEmpty()) {
+        jdbcTemplate.batchUpdate(SQL_INSERTAR_CHECKPOINT, saldos);
+      }
+    });
+    jdbcTemplate.update(SQL_PODAR, Timestamp.valueOf(LocalDateTime.now().minusDays(retencionDias)));
+  }
+
+  // Sin checkpoints, el stock previo al diario no se podría reconstruir: se ancla al saldo real al iniciar
+  @EventListener(ApplicationReadyEvent.class)
+  public void checkpointInicialSiFalta() {
+    if (checkpointRepository.count() == 0) {
+      checkpoint();
+    }
+  }
+
+  // ==================== CONSULTAS ====================
+
+  /**
+   * Stock de un mueble en un instante: último checkpoint + rango corto del diario.
+   * El rango se corta en el checkpoint siguiente: lo que viene después de él no es anterior al instante
+   */
+  @Transactional(readOnly = true)
+  public StockHistoricoDTO stockEn(Integer idMueble, LocalDateTime instante) {
+    CheckpointStock checkpoint = checkpointRepository
+        .findFirstByIdMuebleAndFechaLessThanEqualOrderByFechaDesc(idMueble, instante)
+        .orElse(null);
+    Long hastaMovimiento = checkpointRepository
+        .findFirstByIdMuebleAndFechaGreaterThanOrderByFechaAsc(idMueble, instante)
+        .map(CheckpointStock::getIdUltimoMovimiento)
+        .orElse(Long.MAX_VALUE);
+
+    int base = checkpoint != null ? checkpoint.getStock() : 0;
+    Long ultimoIncluido = checkpoint != null ? checkpoint.getIdUltimoMovimiento() : 0L;
+
+    Long delta = movimientoRepository.sumarDelta(idMueble, ultimoIncluido, hastaMovimiento, instante);
+    return new StockHistoricoDTO(idMueble, instante, base + delta.intValue());
+  }
+
+  @Transactional(readOnly = true)
+  public List<MovimientoStockDTO> movimientos(Integer idMueble, LocalDateTime desde, LocalDateTime hasta) {
+    return movimientoRepository.findByIdMuebleAndFechaBetweenOrderByIdMovimientoAsc(idMueble, desde, hasta)
+        .stream()
+        .map(this::toDTO)
+        .collect(Collectors.toList());
+  }
+
+  private MovimientoStockDTO toDTO(MovimientoStock movimiento) {
+    MovimientoStockDTO dto = new MovimientoStockDTO();
+    dto.setIdMovimiento(movimiento.getIdMovimiento());
+    dto.setIdMueble(movimiento.getIdMueble());
+    dto.setIdSucursal(movimiento.getIdSucursal());
+    dto.setDelta(movimiento.getDelta());
+    dto.setMotivo(movimiento.getMotivo());
+    dto.setIdOrden(movimiento.getIdOrden());
+    dto.setFecha(movimiento.getFecha());
+    return dto;
+  }
+}
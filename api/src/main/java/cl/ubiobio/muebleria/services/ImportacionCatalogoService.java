@@ -0,0 +1,352 @@
+package cl.ubiobio.muebleria.services;
+
+import cl.ubiobio.muebleria.dto.ErrorImportacionDTO;
+import cl.ubiobio.muebleria.dto.MuebleImportacionDTO;
+import cl.ubiobio.muebleria.dto.ResultadoImportacionDTO;
+import cl.ubiobio.muebleria.enums.FormatoImportacion;
+import cl.ubiobio.muebleria.enums.MotivoMovimiento;
+import cl.ubiobio.muebleria.enums.TamanoMueble;
+import cl.ubiobio.muebleria.search.CatalogoIndices;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Importación masiva del catálogo desde CSV o NDJSON.
+ * El cuerpo se lee fila a fila y se escribe en lotes con JDBC, confirmando cada lote
+ * en su propia transacción, así que la memoria usada no depende del tamaño del archivo.
+ * Los índices del catálogo se reconstruyen una sola vez al terminar, también si la importación se corta.
+ */
+@Service
+public class ImportacionCatalogoService {
+
+  static final int TAMANO_LOTE = 500;
+  static final int MAX_ERRORES = 100;
+
+  private static final String SQL_INSERTAR =
+      "INSERT INTO muebles (nombre, tipo, precio_base, stock, tamano, material, estado_logico) " +
+      "VALUES (?, ?, ?, ?, ?, ?, TRUE)";
+
+  // Los campos ausentes en la fila conservan su valor actual; el stock de muebles
+  // en modo hot item (repartido en shards) no se sobrescribe. Igual que en InventarioService,
+  // los kits (sin stock propio) y los muebles dados de baja no se tocan
+  private static final String SQL_ACTUALIZAR =
+      "UPDATE muebles SET nombre = COALESCE(?, nombre), tipo = COALESCE(?, tipo), " +
+      "precio_base = COALESCE(?, precio_base), " +
+      "stock = CASE WHEN shards_stock IS NULL THEN COALESCE(?, stock) ELSE stock END, " +
+      "tamano = COALESCE(?, tamano), material = COALESCE(?, material) " +
+      "WHERE id_mueble = ? AND estado_logico = TRUE AND (es_kit IS NULL OR es_kit = FALSE)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+  private final CatalogoIndices catalogoIndices;
+  private final DiarioStockService diarioStock;
+
+  public ImportacionCatalogoService(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper,
+                                    CatalogoIndices catalogoIndices,
+                                    DiarioStockService diarioStock) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.objectMapper = objectMapper;
+    this.catalogoIndices = catalogoIndices;
+    this.diarioStock = diarioStock;
+  }
+
+  private record Fila(int linea, MuebleImportacionDTO mueble) {
+  }
+
+  public ResultadoImportacionDTO importar(InputStream cuerpo, FormatoImportacion formato) throws IOException {
+    ResultadoImportacionDTO resultado = new ResultadoImportacionDTO();
+    List<Fila> lote = new ArrayList<>(TAMANO_LOTE);
+
+    try {
+      try (BufferedReader lector = new BufferedReader(new InputStreamReader(cuerpo, StandardCharsets.UTF_8))) {
+        Map<String, Integer> columnas = null;
+        int linea = 0;
+        String texto;
+        while ((texto = lector.readLine()) != null) {
+          linea++;
+          if (texto.isBlank()) {
+            continue;
+          }
+          if (formato == FormatoImportacion.CSV && columnas == null) {
+            columnas = leerEncabezado(texto);
+            continue;
+          }
+
+          resultado.setProcesadas(resultado.getProcesadas() + 1);
+          try {
+            MuebleImportacionDTO mueble = formato == FormatoImportacion.CSV
+                ? desdeCsv(texto, columnas)
+                : desdeJson(texto);
+            validar(mueble);
+            lote.add(new Fila(linea, mueble));
+          } catch (RuntimeException e) {
+            rechazar(resultado, linea, e.getMessage());
+          }
+
+          if (lote.size() >= TAMANO_LOTE) {
+            escribirLote(lote, resultado);
+            lote.clear();
+          }
+        }
+      }
+      if (!lote.isEmpty()) {
+        escribirLote(lote, resultado);
+      }
+    } finally {
+      // Los lotes ya confirmados quedan aunque falle un lote posterior o la lectura del cuerpo
+      if (resultado.getInsertadas() + resultado.getActualizadas() > 0) {
+        catalogoIndices.reconstruir();
+        // Los muebles nuevos no tienen movimientos en el diario: el checkpoint los ancla a su saldo
+        diarioStock.checkpoint();
+      }
+    }
+    return resultado;
+  }
+
+  // ==================== ESCRITURA ====================
+
+  // Cada intento cuenta en un resultado propio que se suma solo si su transacción confirmó:
+  // si el lote se revierte (también en el commit), el reintento fila a fila no cuenta dos veces
+  private void escribirLote(List<Fila> lote, ResultadoImportacionDTO resultado) {
+    try {
+      acumular(resultado, transactionTemplate.execute(status -> ejecutar(lote)));
+    } catch (DataAccessException e) {
+      // El lote se revirtió completo: se reintenta fila a fila para aislar las que fallan
+      for (Fila fila : lote) {
+        try {
+          acumular(resultado, transactionTemplate.execute(status -> ejecutar(List.of(fila))));
+        } catch (DataAccessException errorFila) {
+          rechazar(resultado, fila.linea(), "Error al guardar: " + errorFila.getMostSpecificCause().getMessage());
+        }
+      }
+    }
+  }
+
+  private ResultadoImportacionDTO ejecutar(List<Fila> filas) {
+    ResultadoImportacionDTO parcial = new ResultadoImportacionDTO();
+    List<Fila> nuevas = new ArrayList<>();
+    List<Fila> existentes = new ArrayList<>();
+    for (Fila fila : filas) {
+      (fila.mueble().getIdMueble() == null ? nuevas : existentes).add(fila);
+    }
+
+    if (!nuevas.isEmpty()) {
+      jdbcTemplate.batchUpdate(SQL_INSERTAR, nuevas.stream()
+          .map(fila -> parametros(fila.mueble(), false))
+          .toList());
+    }
+
+    Map<Integer, Integer> stockPrevio = bloquearStockPrevio(existentes);
+    int[] actualizadas = existentes.isEmpty()
+        ? new int[0]
+        : jdbcTemplate.batchUpdate(SQL_ACTUALIZAR, existentes.stream()
+            .map(fila -> parametros(fila.mueble(), true))
+            .toList());
+
+    parcial.setInsertadas(nuevas.size());
+    for (int i = 0; i < existentes.size(); i++) {
+      // El driver puede informar SUCCESS_NO_INFO (-2) en lotes; solo 0 significa que no se aplicó
+      if (actualizadas[i] == 0) {
+        Fila fila = existentes.get(i);
+        rechazar(parcial, fila.linea(), "Mueble " + fila.mueble().getIdMueble() + " inexistente, inactivo o kit");
+      } else {
+        parcial.setActualizadas(parcial.getActualizadas() + 1);
+        registrarCambioStock(existentes.get(i).mueble(), stockPrevio);
+      }
+    }
+    return parcial;
+  }
+
+  private static void acumular(ResultadoImportacionDTO resultado, ResultadoImportacionDTO parcial) {
+    resultado.setInsertadas(resultado.getInsertadas() + parcial.getInsertadas());
+    resultado.setActualizadas(resultado.getActualizadas() + parcial.getActualizadas());
+    resultado.setRechazadas(resultado.getRechazadas() + parcial.getRechazadas());
+    for (ErrorImportacionDTO error : parcial.getErrores()) {
+      if (resultado.getErrores().size() < MAX_ERRORES) {
+        resultado.getErrores().add(error);
+      }
+    }
+  }
+
+  // Stock actual de las filas que lo sobrescriben, con la fila bloqueada hasta el commit del lote
+  // (los muebles en modo hot item no se sobrescriben y quedan fuera)
+  private Map<Integer, Integer> bloquearStockPrevio(List<Fila> existentes) {
+    List<Integer> ids = existentes.stream()
+        .filter(fila -> fila.mueble().getStock() != null)
+        .map(fila -> fila.mueble().getIdMueble())
+        .distinct()
+        .toList();
+    Map<Integer, Integer> stockPrevio = new HashMap<>();
+    if (!ids.isEmpty()) {
+      jdbcTemplate.query("SELECT id_mueble, stock FROM muebles WHERE shards_stock IS NULL AND id_mueble IN ("
+              + String.join(", ", Collections.nCopies(ids.size(), "?")) + ") FOR UPDATE",
+          (RowCallbackHandler) fila -> stockPrevio.put(fila.getInt(1), fila.getInt(2)), ids.toArray());
+    }
+    return stockPrevio;
+  }
+
+  // La sobrescritura absoluta entra al diario como la diferencia con el saldo previo,
+  // así el checkpoint derivado del diario sigue cuadrando con muebles.stock
+  private void registrarCambioStock(MuebleImportacionDTO mueble, Map<Integer, Integer> stockPrevio) {
+    Integer anterior = stockPrevio.get(mueble.getIdMueble());
+    if (anterior == null || mueble.getStock() == null) {
+      return;
+    }
+    diarioStock.registrar(mueble.getIdMueble(), mueble.getStock() - anterior, MotivoMovimiento.EDICION, null);
+    // Si el mueble se repite en el lote, la siguiente fila parte de este saldo
+    stockPrevio.put(mueble.getIdMueble(), mueble.getStock());
+  }
+
+  private static Object[] parametros(MuebleImportacionDTO mueble, boolean conId) {
+    String tamano = mueble.getTamano() != null ? mueble.getTamano().name() : null;
+    Integer stock = mueble.getStock() == null && !conId ? Integer.valueOf(0) : mueble.getStock();
+    if (conId) {
+      return new Object[]{mueble.getNombre(), mueble.getTipo(), mueble.getPrecioBase(), stock,
+          tamano, mueble.getMaterial(), mueble.getIdMueble()};
+    }
+    return new Object[]{mueble.getNombre(), mueble.getTipo(), mueble.getPrecioBase(), stock,
+        tamano, mueble.getMaterial()};
+  }
+
+  private static void rechazar(ResultadoImportacionDTO resultado, int linea, String mensaje) {
+    resultado.setRechazadas(resultado.getRechazadas() + 1);
+    if (resultado.getErrores().size() < MAX_ERRORES) {
+      resultado.getErrores().add(new ErrorImportacionDTO(linea, mensaje));
+    }
+  }
+
+  // ==================== LECTURA ====================
+
+  private static void validar(MuebleImportacionDTO mueble) {
+    boolean nuevo = mueble.getIdMueble() == null;
+    if (nuevo && (mueble.getNombre() == null || mueble.getNombre().isBlank())) {
+      throw new RuntimeException("El nombre es obligatorio");
+    }
+    if (mueble.getNombre() != null && mueble.getNombre().length() > 100) {
+      throw new RuntimeException("El nombre supera los 100 caracteres");
+    }
+    if (nuevo && mueble.getPrecioBase() == null) {
+      throw new RuntimeException("El precio base es obligatorio");
+    }
+    if (mueble.getPrecioBase() != null && mueble.getPrecioBase() < 0) {
+      throw new RuntimeException("El precio base no puede ser negativo");
+    }
+    if (mueble.getStock() != null && mueble.getStock() < 0) {
+      throw new RuntimeException("El stock no puede ser negativo");
+    }
+  }
+
+  private MuebleImportacionDTO desdeJson(String texto) {
+    try {
+      return objectMapper.readValue(texto, MuebleImportacionDTO.class);
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException("JSON inválido: " + e.getOriginalMessage());
+    }
+  }
+
+  private static Map<String, Integer> leerEncabezado(String texto) {
+    // Excel suele anteponer un BOM al exportar en UTF-8
+    List<String> nombres = separarCsv(texto.replace("\uFEFF", ""));
+    Map<String, Integer> columnas = new HashMap<>();
+    for (int i = 0; i < nombres.size(); i++) {
+      // Acepta "precio_base", "precioBase" o "PRECIO BASE"
+      String clave = nombres.get(i).replaceAll("[\\s_]", "").toLowerCase(Locale.ROOT);
+      columnas.put(clave.equals("id") ? "idmueble" : clave, i);
+    }
+    if (!columnas.containsKey("nombre") && !columnas.containsKey("idmueble")) {
+      throw new RuntimeException("El encabezado CSV debe incluir la columna nombre o id_mueble");
+    }
+    return columnas;
+  }
+
+  private static MuebleImportacionDTO desdeCsv(String texto, Map<String, Integer> columnas) {
+    List<String> valores = separarCsv(texto);
+    MuebleImportacionDTO mueble = new MuebleImportacionDTO();
+    mueble.setIdMueble(entero(valor(valores, columnas, "idmueble"), "id_mueble"));
+    mueble.setNombre(valor(valores, columnas, "nombre"));
+    mueble.setTipo(valor(valores, columnas, "tipo"));
+    mueble.setPrecioBase(entero(valor(valores, columnas, "preciobase"), "precio_base"));
+    mueble.setStock(entero(valor(valores, columnas, "stock"), "stock"));
+    mueble.setMaterial(valor(valores, columnas, "material"));
+    String tamano = valor(valores, columnas, "tamano");
+    if (tamano != null) {
+      try {
+        mueble.setTamano(TamanoMueble.valueOf(tamano.toUpperCase(Locale.ROOT)));
+      } catch (IllegalArgumentException e) {
+        throw new RuntimeException("Tamaño inválido: " + tamano);
+      }
+    }
+    return mueble;
+  }
+
+  private static String valor(List<String> valores, Map<String, Integer> columnas, String columna) {
+    Integer indice = columnas.get(columna);
+    if (indice == null || indice >= valores.size()) {
+      return null;
+    }
+    String valor = valores.get(indice).trim();
+    return valor.isEmpty() ? null : valor;
+  }
+
+  private static Integer entero(String valor, String columna) {
+    if (valor == null) {
+      return null;
+    }
+    try {
+      return Integer.valueOf(valor);
+    } catch (NumberFormatException e) {
+      throw new RuntimeException("Valor numérico inválido en " + columna + ": " + valor);
+    }
+  }
+
+  // Campos separados por coma; las comillas dobles permiten comas y "" escapa una comilla
+  static List<String> separarCsv(String linea) {
+    List<String> campos = new ArrayList<>();
+    StringBuilder actual = new StringBuilder();
+    boolean entreComillas = false;
+    for (int i = 0; i < linea.length(); i++) {
+      char c = linea.charAt(i);
+      if (entreComillas) {
+        if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+          actual.append('"');
+          i++;
+        } else if (c == '"') {
+          entreComillas = false;
+        } else {
+          actual.append(c);
+        }
+      } else if (c == '"') {
+        entreComillas = true;
+      } else if (c == ',') {
+        campos.add(actual.toString());
+        actual.setLength(0);
+      } else {
+        actual.append(c);
+      }
+    }
+    campos.add(actual.toString());
+    return campos;
+  }
+}
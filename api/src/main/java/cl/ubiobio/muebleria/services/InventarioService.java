@@ -0,0 +1,300 @@
+package cl.ubiobio.muebleria.services;
+
+import cl.ubiobio.muebleria.dto.AjusteStockDTO;
+import cl.ubiobio.muebleria.dto.ErrorImportacionDTO;
+import cl.ubiobio.muebleria.dto.ResultadoInventarioDTO;
+import cl.ubiobio.muebleria.enums.MotivoMovimiento;
+import cl.ubiobio.muebleria.models.Mueble;
+import cl.ubiobio.muebleria.repositories.MuebleRepository;
+import cl.ubiobio.muebleria.repositories.StockSucursalRepository;
+import cl.ubiobio.muebleria.search.CatalogoIndices;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Movimientos de stock como deltas atómicos (stock = stock + n).
+ * Nunca se escribe un valor absoluto leído antes, así que un formulario
+ * desactualizado no puede pisar descuentos hechos por otras transacciones.
+ * Los ajustes con sucursal van a stock_sucursal; sin sucursal, a muebles.stock (bodega central).
+ */
+@Service
+public class InventarioService {
+
+  static final int TAMANO_LOTE = 500;
+
+  private static final String SQL_DELTA =
+      "UPDATE muebles SET stock = stock + ? WHERE id_mueble = ? AND estado_logico = TRUE " +
+      "AND (es_kit IS NULL OR es_kit = FALSE) AND stock + ? >= 0";
+
+  private static final String SQL_DELTA_SUCURSAL =
+      "UPDATE stock_sucursal SET stock = stock + ? WHERE id_sucursal = ? AND id_mueble = ? AND stock + ? >= 0";
+
+  // Primera recepción de un mueble en una sucursal: crea la fila si el mueble y la sucursal existen
+  private static final String SQL_ALTA_SUCURSAL =
+      "INSERT INTO stock_sucursal (id_sucursal, id_mueble, stock) " +
+      "SELECT s.id_sucursal, m.id_mueble, ? FROM sucursales s, muebles m " +
+      "WHERE s.id_sucursal = ? AND s.activa = TRUE AND m.id_mueble = ? AND m.estado_logico = TRUE " +
+      "AND NOT EXISTS (SELECT 1 FROM stock_sucursal x WHERE x.id_sucursal = s.id_sucursal AND x.id_mueble = m.id_mueble)";
+
+  private final MuebleRepository muebleRepository;
+  private final StockSucursalRepository stockSucursalRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+  private final CatalogoIndices catalogoIndices;
+  private final EntityManager entityManager;
+  private final DiarioStockService diarioStock;
+  private final StockShardService stockShards;
+
+  public InventarioService(MuebleRepository muebleRepository,
+                           StockSucursalRepository stockSucursalRepository,
+                           JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           ObjectMapper objectMapper,
+                           CatalogoIndices catalogoIndices,
+                           EntityManager entityManager,
+                           DiarioStockService diarioStock,
+                           StockShardService stockShards) {
+    this.muebleRepository = muebleRepository;
+    this.stockSucursalRepository = stockSucursalRepository;
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.objectMapper = objectMapper;
+    this.catalogoIndices = catalogoIndices;
+    this.entityManager = entityManager;
+    this.diarioStock = diarioStock;
+    this.stockShards = stockShards;
+  }
+
+  private record Fila(int linea, AjusteStockDTO ajuste) {
+  }
+
+  /**
+   * Aplica un delta a un mueble ya cargado y lo refresca con el stock resultante.
+   * Falla si el stock quedaría negativo (la condición se evalúa en la misma sentencia).
+   * El movimiento queda en el diario dentro de la misma transacción.
+   * Los muebles en modo hot item descuentan de uno de sus shards (ver StockShardService).
+   * Un kit no tiene stock propio: se ajustan sus componentes.
+   */
+  @Transactional(isolation = Isolation.READ_COMMITTED)
+  public void ajustar(Mueble mueble, int delta, MotivoMovimiento motivo, Integer idOrden) {
+    exigirNoKit(mueble);
+    boolean aplicado = mueble.getShardsStock() != null
+        ? stockShards.ajustar(mueble.getIdMueble(), mueble.getShardsStock(), delta)
+        : muebleRepository.sumarStock(mueble.getIdMueble(), delta) > 0;
+    entityManager.refresh(mueble);
+    if (!aplicado) {
+      throw new RuntimeException(
+          String.format("Stock insuficiente para mueble '%s'. Stock físico: %d, Ajuste: %d",
+              mueble.getNombre(), mueble.getStockTotal(), delta));
+    }
+    diarioStock.registrar(mueble.getIdMueble(), delta, motivo, idOrden);
+    catalogoIndices.registrarCambio(mueble);
+  }
+
+  /**
+   * Aplica un delta al stock de un mueble en una sucursal. Solo toca la fila
+   * (sucursal, mueble), así que no compite con ventas de otras sucursales.
+   */
+  @Transactional
+  public void ajustarEnSucursal(Integer idSucursal, Mueble mueble, int delta, MotivoMovimiento motivo, Integer idOrden) {
+    exigirNoKit(mueble);
+    int filas = stockSucursalRepository.sumarStock(idSucursal, mueble.getIdMueble(), delta);
+    if (filas == 0 && (delta < 0 || !altaEnSucursal(idSucursal, mueble.getIdMueble(), delta))) {
+      int stock = stockSucursalRepository.findByIdSucursalAndIdMueble(idSucursal, mueble.getIdMueble())
+          .map(fila -> fila.getStock())
+          .orElse(0);
+      throw new RuntimeException(
+          String.format("Stock insuficiente para mueble '%s' en la sucursal %d. Stock físico: %d, Ajuste: %d",
+              mueble.getNombre(), idSucursal, stock, delta));
+    }
+    diarioStock.registrar(mueble.getIdMueble(), idSucursal, delta, motivo, idOrden);
+    catalogoIndices.registrarCambio(mueble);
+  }
+
+  private static void exigirNoKit(Mueble mueble) {
+    if (mueble.isKit()) {
+      throw new RuntimeException("El mueble '" + mueble.getNombre() + "' es un kit; su stock se deriva de sus componentes");
+    }
+  }
+
+  private boolean altaEnSucursal(Integer idSucursal, Integer idMueble, int cantidad) {
+    return jdbcTemplate.update(SQL_ALTA_SUCURSAL, cantidad, idSucursal, idMueble) > 0;
+  }
+
+  /**
+   * Activa el modo hot item de un mueble con N shards
+   */
+  @Transactional
+  public void activarShards(Integer idMueble, int shards) {
+    stockShards.activar(idMueble, shards);
+    registrarCambio(idMueble);
+  }
+
+  @Transactional
+  public void desactivarShards(Integer idMueble) {
+    stockShards.desactivar(idMueble);
+    registrarCambio(idMueble);
+  }
+
+  private void registrarCambio(Integer idMueble) {
+    muebleRepository.findById(idMueble).ifPresent(catalogoIndices::registrarCambio);
+  }
+
+  /**
+   * Aplica varios ajustes en una sola transacción con un batch de UPDATE.
+   * Los ajustes que dejarían stock negativo o apuntan a un mueble inexistente se informan y se omiten.
+   */
+  @Transactional
+  public ResultadoInventarioDTO aplicar(List<AjusteStockDTO> ajustes) {
+    ResultadoInventarioDTO resultado = new ResultadoInventarioDTO();
+    List<Fila> filas = new ArrayList<>(ajustes.size());
+    for (int i = 0; i < ajustes.size(); i++) {
+      resultado.setProcesados(resultado.getProcesados() + 1);
+      agregarSiValido(filas, new Fila(i + 1, ajustes.get(i)), resultado);
+    }
+
+    List<Integer> aplicados = aplicarLote(filas, resultado);
+    for (Mueble mueble : muebleRepository.findAllById(aplicados)) {
+      catalogoIndices.registrarCambio(mueble);
+    }
+    return resultado;
+  }
+
+  /**
+   * Recepción de un envío completo en NDJSON ({"idMueble":1,"cantidad":20} por línea).
+   * Se lee en streaming y cada lote se confirma por separado; los índices se reconstruyen al final,
+   * también si la recepción se corta a mitad.
+   */
+  public ResultadoInventarioDTO recibir(InputStream cuerpo) throws IOException {
+    ResultadoInventarioDTO resultado = new ResultadoInventarioDTO();
+    List<Fila> lote = new ArrayList<>(TAMANO_LOTE);
+
+    try {
+      try (BufferedReader lector = new BufferedReader(new InputStreamReader(cuerpo, StandardCharsets.UTF_8))) {
+        int linea = 0;
+        String texto;
+        while ((texto = lector.readLine()) != null) {
+          linea++;
+          if (texto.isBlank()) {
+            continue;
+          }
+          resultado.setProcesados(resultado.getProcesados() + 1);
+          try {
+            agregarSiValido(lote, new Fila(linea, objectMapper.readValue(texto, AjusteStockDTO.class)), resultado);
+          } catch (JsonProcessingException e) {
+            rechazar(resultado, linea, "JSON inválido: " + e.getOriginalMessage());
+          }
+
+          if (lote.size() >= TAMANO_LOTE) {
+            escribirLote(lote, resultado);
+            lote.clear();
+          }
+        }
+      }
+      if (!lote.isEmpty()) {
+        escribirLote(lote, resultado);
+      }
+    } finally {
+      // Los lotes ya confirmados quedan aunque falle un lote posterior o la lectura del cuerpo
+      if (resultado.getAplicados() > 0) {
+        catalogoIndices.reconstruir();
+      }
+    }
+    return resultado;
+  }
+
+  private void escribirLote(List<Fila> lote, ResultadoInventarioDTO resultado) {
+    transactionTemplate.executeWithoutResult(status -> aplicarLote(lote, resultado));
+  }
+
+  // Un batch de UPDATE para la bodega central y otro para las sucursales;
+  // devuelve los IDs de muebles cuyo stock cambió, central o en sucursal (los que afectan al catálogo)
+  private List<Integer> aplicarLote(List<Fila> filas, ResultadoInventarioDTO resultado) {
+    if (filas.isEmpty()) {
+      return List.of();
+    }
+    Map<Boolean, List<Fila>> porDestino = filas.stream()
+        .collect(Collectors.partitioningBy(fila -> fila.ajuste().getIdSucursal() != null));
+    List<Fila> central = porDestino.get(false);
+    List<Fila> enSucursal = porDestino.get(true);
+
+    List<Integer> aplicados = new ArrayList<>(filas.size());
+    if (!central.isEmpty()) {
+      int[] actualizadas = jdbcTemplate.batchUpdate(SQL_DELTA, central.stream()
+          .map(fila -> new Object[]{fila.ajuste().getCantidad(), fila.ajuste().getIdMueble(), fila.ajuste().getCantidad()})
+          .toList());
+      for (int i = 0; i < central.size(); i++) {
+        if (registrarResultado(central.get(i), actualizadas[i] != 0, resultado)) {
+          aplicados.add(central.get(i).ajuste().getIdMueble());
+        }
+      }
+    }
+    if (!enSucursal.isEmpty()) {
+      int[] actualizadas = jdbcTemplate.batchUpdate(SQL_DELTA_SUCURSAL, enSucursal.stream()
+          .map(fila -> new Object[]{fila.ajuste().getCantidad(), fila.ajuste().getIdSucursal(),
+              fila.ajuste().getIdMueble(), fila.ajuste().getCantidad()})
+          .toList());
+      for (int i = 0; i < enSucursal.size(); i++) {
+        AjusteStockDTO ajuste = enSucursal.get(i).ajuste();
+        boolean aplicado = actualizadas[i] != 0
+            || (ajuste.getCantidad() > 0 && altaEnSucursal(ajuste.getIdSucursal(), ajuste.getIdMueble(), ajuste.getCantidad()));
+        if (registrarResultado(enSucursal.get(i), aplicado, resultado)) {
+          aplicados.add(ajuste.getIdMueble());
+        }
+      }
+    }
+    return aplicados;
+  }
+
+  // El driver puede informar SUCCESS_NO_INFO (-2) en lotes; solo 0 significa que no se aplicó
+  private boolean registrarResultado(Fila fila, boolean aplicado, ResultadoInventarioDTO resultado) {
+    AjusteStockDTO ajuste = fila.ajuste();
+    if (!aplicado) {
+      rechazar(resultado, fila.linea(), "Mueble " + ajuste.getIdMueble()
+          + (ajuste.getIdSucursal() != null ? " en la sucursal " + ajuste.getIdSucursal() : "")
+          + " inexistente, inactivo o sin stock suficiente para " + ajuste.getCantidad());
+      return false;
+    }
+    resultado.setAplicados(resultado.getAplicados() + 1);
+    int cantidad = ajuste.getCantidad();
+    diarioStock.registrar(ajuste.getIdMueble(), ajuste.getIdSucursal(), cantidad,
+        cantidad > 0 ? MotivoMovimiento.RECEPCION : MotivoMovimiento.AJUSTE, null);
+    return true;
+  }
+
+  private static void agregarSiValido(List<Fila> filas, Fila fila, ResultadoInventarioDTO resultado) {
+    AjusteStockDTO ajuste = fila.ajuste();
+    if (ajuste == null || ajuste.getIdMueble() == null || ajuste.getCantidad() == null) {
+      rechazar(resultado, fila.linea(), "idMueble y cantidad son obligatorios");
+    } else if (ajuste.getCantidad() == 0) {
+      rechazar(resultado, fila.linea(), "La cantidad no puede ser cero");
+    } else {
+      filas.add(fila);
+    }
+  }
+
+  private static void rechazar(ResultadoInventarioDTO resultado, int linea, String mensaje) {
+    resultado.setRechazados(resultado.getRechazados() + 1);
+    if (resultado.getErrores().size() < ImportacionCatalogoService.MAX_ERRORES) {
+      resultado.getErrores().add(new ErrorImportacionDTO(linea, mensaje));
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package cl.ubiobio.muebleria.services;
+
+import cl.ubiobio.muebleria.dto.ComponenteKitDTO;
+import cl.ubiobio.muebleria.enums.EstadoOrden;
+import cl.ubiobio.muebleria.models.ComponenteKit;
+import cl.ubiobio.muebleria.models.Mueble;
+import cl.ubiobio.muebleria.repositories.ComponenteKitRepository;
+import cl.ubiobio.muebleria.repositories.DetalleOrdenRepository;
+import cl.ubiobio.muebleria.repositories.MuebleRepository;
+import cl.ubiobio.muebleria.search.CatalogoIndices;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Kits (p. ej. comedor = mesa + N sillas): muebles sin stock propio cuyo stock
+ * se deriva del de sus componentes. Los kits se venden solo desde la bodega central.
+ */
+@Service
+public class KitService {
+
+  /**
+   * Componente de un kit con las unidades que lleva cada kit
+   */
+  public record Unidad(Mueble componente, int cantidad) {
+  }
+
+  private final ComponenteKitRepository componenteKitRepository;
+  private final MuebleRepository muebleRepository;
+  private final DetalleOrdenRepository detalleOrdenRepository;
+  private final CatalogoIndices catalogoIndices;
+
+  public KitService(ComponenteKitRepository componenteKitRepository,
+                    MuebleRepository muebleRepository,
+                    DetalleOrdenRepository detalleOrdenRepository,
+                    CatalogoIndices catalogoIndices) {
+    this.componenteKitRepository = componenteKitRepository;
+    this.muebleRepository = muebleRepository;
+    this.detalleOrdenRepository = detalleOrdenRepository;
+    this.catalogoIndices = catalogoIndices;
+  }
+
+  @Transactional(readOnly = true)
+  public List<ComponenteKitDTO> listarComponentes(Integer idKit) {
+    Mueble kit = buscar(idKit);
+    return cargarComponentes(kit).stream()
+        .map(KitService::toDTO)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Define (o reemplaza) la composición de un kit y lo marca como kit
+   */
+  @Transactional
+  public List<ComponenteKitDTO> definirComponentes(Integer idKit, List<ComponenteKitDTO> componentes) {
+    Mueble kit = buscar(idKit);
+    if (componentes == null || componentes.isEmpty()) {
+      throw new RuntimeException("Un kit debe tener al menos un componente");
+    }
+    if (!kit.isKit() && kit.getStockTotal() > 0) {
+      throw new RuntimeException("El mueble '" + kit.getNombre() + "' tiene stock propio; déjelo en 0 antes de convertirlo en kit");
+    }
+
+    if (componenteKitRepository.existsByIdComponente(idKit)) {
+      throw new RuntimeException("El mueble '" + kit.getNombre() + "' es componente de otro kit");
+    }
+
+    Set<Integer> vistos = new HashSet<>();
+    for (ComponenteKitDTO componente : componentes) {
+      if (componente.getIdComponente() == null || componente.getCantidad() == null || componente.getCantidad() <= 0) {
+        throw new RuntimeException("Cada componente requiere idComponente y una cantidad mayor a 0");
+      }
+      if (componente.getIdComponente().equals(idKit)) {
+        throw new RuntimeException("Un kit no puede contenerse a sí mismo");
+      }
+      if (!vistos.add(componente.getIdComponente())) {
+        throw new RuntimeException("Componente repetido: " + componente.getIdComponente());
+      }
+    }
+    Map<Integer, Mueble> porId = muebleRepository.findAllById(vistos).stream()
+        .collect(Collectors.toMap(Mueble::getIdMueble, Function.identity()));
+    for (Integer idComponente : vistos) {
+      Mueble componente = porId.get(idComponente);
+      if (componente == null || !Boolean.TRUE.equals(componente.getEstadoLogico())) {
+        throw new RuntimeException("Mueble no encontrado con ID: " + idComponente);
+      }
+      if (componente.isKit()) {
+        throw new RuntimeException("Un kit no puede ser componente de otro kit: " + componente.getNombre());
+      }
+    }
+
+    componenteKitRepository.deleteByIdKit(idKit);
+    List<ComponenteKit> filas = new ArrayList<>();
+    for (ComponenteKitDTO componente : componentes) {
+      ComponenteKit fila = new ComponenteKit();
+      fila.setIdKit(idKit);
+      fila.setIdComponente(componente.getIdComponente());
+      fila.setCantidad(componente.getCantidad());
+      filas.add(fila);
+    }
+    componenteKitRepository.saveAll(filas);
+
+    kit.setEsKit(true);
+    muebleRepository.save(kit);
+    catalogoIndices.registrarCambio(kit);
+    return cargarComponentes(kit).stream().map(KitService::toDTO).collect(Collectors.toList());
+  }
+
+  /**
+   * Vuelve a convertir el kit en un mueble normal (con stock propio en 0)
+   */
+  @Transactional
+  public void quitarComponentes(Integer idKit) {
+    Mueble kit = buscar(idKit);
+    componenteKitRepository.deleteByIdKit(idKit);
+    kit.setEsKit(false);
+    kit.setStock(0);
+    muebleRepository.save(kit);
+    catalogoIndices.registrarCambio(kit);
+  }
+
+  /**
+   * Componentes de un kit ordenados por ID, el mismo orden en que se bloquean al descontar
+   */
+  public List<Unidad> cargarComponentes(Mueble kit) {
+    List<ComponenteKit> filas = componenteKitRepository.findByIdKitOrderByIdComponenteAsc(kit.getIdMueble());
+    Map<Integer, Mueble> porId = muebleRepository.findAllById(
+            filas.stream().map(ComponenteKit::getIdComponente).collect(Collectors.toList())).stream()
+        .collect(Collectors.toMap(Mueble::getIdMueble, Function.identity()));
+    return filas.stream()
+        .filter(fila -> porId.containsKey(fila.getIdComponente()))
+        .map(fila -> new Unidad(porId.get(fila.getIdComponente()), fila.getCantidad()))
+        .sorted(Comparator.comparing(unidad -> unidad.componente().getIdMueble()))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Unidades del kit con el stock físico actual de sus componentes en la bodega central
+   */
+  public int armables(Mueble kit) {
+    return minimo(kit, unidad -> (long) unidad.componente().getStockTotal());
+  }
+
+  /**
+   * Unidades del kit disponibles para cotizar: para cada componente se descuenta lo reservado
+   * directamente y lo reservado a través de kits cotizados (incluido este)
+   */
+  public int disponible(Mueble kit) {
+    return minimo(kit, unidad -> {
+      Integer idComponente = unidad.componente().getIdMueble();
+      long reservado = detalleOrdenRepository.sumarCantidad(idComponente, EstadoOrden.COTIZACION)
+          + detalleOrdenRepository.sumarCantidadViaKits(idComponente, EstadoOrden.COTIZACION);
+      return unidad.componente().getStockTotal() - reservado;
+    });
+  }
+
+  private int minimo(Mueble kit, Function<Unidad, Long> libre) {
+    List<Unidad> unidades = cargarComponentes(kit);
+    if (unidades.isEmpty()) {
+      return 0;
+    }
+    long minimo = Long.MAX_VALUE;
+    for (Unidad unidad : unidades) {
+      minimo = Math.min(minimo, Math.max(0, libre.apply(unidad)) / unidad.cantidad());
+    }
+    return (int) minimo;
+  }
+
+  private Mueble buscar(Integer idKit) {
+    return muebleRepository.findById(idKit)
+        .orElseThrow(() -> new RuntimeException("Mueble no encontrado con ID: " + idKit));
+  }
+
+  private static ComponenteKitDTO toDTO(Unidad unidad) {
+    ComponenteKitDTO dto = new ComponenteKitDTO();
+    dto.setIdComponente(unidad.componente().getIdMueble());
+    dto.setNombre(unidad.componente().getNombre());
+    dto.setCantidad(unidad.cantidad());
+    return dto;
+  }
+}
@@ -1,36 +1,125 @@
 package cl.ubiobio.muebleria.services;
 
+import cl.ubiobio.muebleria.dto.CatalogoFiltradoDTO;
+import cl.ubiobio.muebleria.dto.FiltroCatalogoDTO;
 import cl.ubiobio.muebleria.dto.MuebleDTO;
 import cl.ubiobio.muebleria.dto.MuebleRequestDTO;
+import cl.ubiobio.muebleria.dto.PaginaMueblesDTO;
+import cl.ubiobio.muebleria.dto.SugerenciaDTO;
+import cl.ubiobio.muebleria.enums.EstadoOrden;
+import cl.ubiobio.muebleria.enums.MotivoMovimiento;
+import cl.ubiobio.muebleria.enums.OrdenCatalogo;
 import cl.ubiobio.muebleria.models.Mueble;
+import cl.ubiobio.muebleria.repositories.DetalleOrdenRepository;
 import cl.ubiobio.muebleria.repositories.MuebleRepository;
+import cl.ubiobio.muebleria.repositories.StockSucursalRepository;
+import cl.ubiobio.muebleria.search.CatalogoIndices;
+import cl.ubiobio.muebleria.search.IndiceKits;
+import cl.ubiobio.muebleria.search.MuebleBitmapIndex;
+import cl.ubiobio.muebleria.search.MuebleSearchIndex;
+import cl.ubiobio.muebleria.search.MuebleSugerenciasTrie;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class MuebleService {
 
+  // Tamaño de cada lote al recorrer el catálogo completo
+  private static final int TAMANO_LOTE = 500;
+
   private final MuebleRepository muebleRepository;
+  private final DetalleOrdenRepository detalleOrdenRepository;
+  private final MuebleSearchIndex searchIndex;
+  private final MuebleBitmapIndex bitmapIndex;
+  private final MuebleSugerenciasTrie sugerenciasTrie;
+  private final CatalogoIndices catalogoIndices;
+  private final InventarioService inventarioService;
+  private final DiarioStockService diarioStock;
+  private final StockSucursalRepository stockSucursalRepository;
+  private final IndiceKits indiceKits;
+  private final TransactionTemplate loteLectura;
 
-  public MuebleService(MuebleRepository muebleRepository) {
+  public MuebleService(MuebleRepository muebleRepository,
+                       DetalleOrdenRepository detalleOrdenRepository,
+                       MuebleSearchIndex searchIndex,
+                       MuebleBitmapIndex bitmapIndex,
+                       MuebleSugerenciasTrie sugerenciasTrie,
+                       CatalogoIndices catalogoIndices,
+                       InventarioService inventarioService,
+                       DiarioStockService diarioStock,
+                       StockSucursalRepository stockSucursalRepository,
+                       IndiceKits indiceKits,
+                       PlatformTransactionManager transactionManager) {
     this.muebleRepository = muebleRepository;
+    this.detalleOrdenRepository = detalleOrdenRepository;
+    this.searchIndex = searchIndex;
+    this.bitmapIndex = bitmapIndex;
+    this.sugerenciasTrie = sugerenciasTrie;
+    this.catalogoIndices = catalogoIndices;
+    this.inventarioService = inventarioService;
+    this.diarioStock = diarioStock;
+    this.stockSucursalRepository = stockSucursalRepository;
+    this.indiceKits = indiceKits;
+    this.loteLectura = new TransactionTemplate(transactionManager);
+    this.loteLectura.setReadOnly(true);
   }
 
+  /**
+   * Página del catálogo por keyset: el cursor codifica la clave de orden y el ID
+   * del último mueble entregado, así que cada página cuesta lo mismo a cualquier profundidad
+   */
   @Transactional(readOnly = true)
-  public List<MuebleDTO> listarMueblesActivos() {
-    return muebleRepository.findByEstadoLogicoTrue().stream()
-        .map(this::toDTO)
-        .collect(Collectors.toList());
+  public PaginaMueblesDTO listarPagina(OrdenCatalogo orden, String cursor, int limit) {
+    Window<Mueble> ventana = muebleRepository.findByEstadoLogicoTrue(
+        posicionDesde(orden, cursor), ordenamiento(orden), Limit.of(limit));
+
+    List<Mueble> contenido = ventana.getContent();
+    PaginaMueblesDTO pagina = new PaginaMueblesDTO();
+    pagina.setMuebles(toDTOsConDisponibilidad(contenido));
+    if (ventana.hasNext() && !contenido.isEmpty()) {
+      pagina.setSiguienteCursor(cursorDe(orden, contenido.get(contenido.size() - 1)));
+    }
+    return pagina;
+  }
+
+  /**
+   * Recorre todos los muebles activos en lotes, sin cargar la tabla completa en memoria.
+   * Cada lote usa su propia transacción corta (la llamada interna a listarPagina no pasa por el proxy).
+   */
+  public void recorrerActivos(OrdenCatalogo orden, Consumer<MuebleDTO> consumidor) {
+    String cursor = null;
+    do {
+      String desde = cursor;
+      PaginaMueblesDTO pagina = loteLectura.execute(status -> listarPagina(orden, desde, TAMANO_LOTE));
+      pagina.getMuebles().forEach(consumidor);
+      cursor = pagina.getSiguienteCursor();
+    } while (cursor != null);
   }
 
   @Transactional(readOnly = true)
   public MuebleDTO obtenerPorId(Integer id) {
     Mueble mueble = muebleRepository.findById(id)
         .orElseThrow(() -> new RuntimeException("Mueble no encontrado con ID: " + id));
-    return toDTO(mueble);
+    return toDTOsConDisponibilidad(List.of(mueble)).get(0);
   }
 
   @Transactional
@@ -45,22 +134,52 @@ public class MuebleService {
     mueble.setEstadoLogico(true);
 
     Mueble guardado = muebleRepository.save(mueble);
+    if (guardado.getStock() != null) {
+      diarioStock.registrar(guardado.getIdMueble(), guardado.getStock(), MotivoMovimiento.ALTA, null);
+    }
+    catalogoIndices.registrarCambio(guardado);
     return toDTO(guardado);
   }
 
-  @Transactional
+  @Transactional(isolation = Isolation.READ_COMMITTED)
   public MuebleDTO actualizar(Integer id, MuebleRequestDTO request) {
-    Mueble mueble = muebleRepository.findById(id)
+    // Una sobrescritura absoluta del stock bloquea la fila desde la lectura: la diferencia que
+    // queda en el diario es la real, sin perder ventas confirmadas entre la lectura y el commit
+    boolean absoluto = request.getStockAnterior() == null && request.getStock() != null;
+    Mueble mueble = (absoluto ? muebleRepository.findByIdParaActualizar(id) : muebleRepository.findById(id))
         .orElseThrow(() -> new RuntimeException("Mueble no encontrado con ID: " + id));
 
     mueble.setNombre(request.getNombre());
     mueble.setTipo(request.getTipo());
     mueble.setPrecioBase(request.getPrecioBase());
-    mueble.setStock(request.getStock());
     mueble.setTamano(request.getTamano());
     mueble.setMaterial(request.getMaterial());
+    if (mueble.isKit()) {
+      // El stock de un kit se deriva de sus componentes: no se edita
+      Mueble actualizado = muebleRepository.save(mueble);
+      catalogoIndices.registrarCambio(actualizado);
+      return toDTO(actualizado);
+    }
+    // En modo hot item el stock está repartido en shards: nunca se sobrescribe, siempre es delta
+    Integer stockAnterior = request.getStockAnterior() == null && mueble.getShardsStock() != null
+        ? Integer.valueOf(mueble.getStockTotal())
+        : request.getStockAnterior();
+    if (stockAnterior == null && request.getStock() != null) {
+      // Sobrescritura absoluta (clientes sin stockAnterior); se registra la diferencia observada
+      diarioStock.registrar(id, request.getStock() - mueble.getStock(), MotivoMovimiento.EDICION, null);
+      mueble.setStock(request.getStock());
+    }
 
     Mueble actualizado = muebleRepository.save(mueble);
+    // Con stockAnterior se aplica solo la diferencia editada, sin pisar descuentos concurrentes
+    int delta = stockAnterior != null && request.getStock() != null
+        ? request.getStock() - stockAnterior
+        : 0;
+    if (delta != 0) {
+      inventarioService.ajustar(actualizado, delta, MotivoMovimiento.EDICION, null);
+    } else {
+      catalogoIndices.registrarCambio(actualizado);
+    }
     return toDTO(actualizado);
   }
 
@@ -72,15 +191,152 @@ public class MuebleService {
     // Soft delete
     mueble.setEstadoLogico(false);
     muebleRepository.save(mueble);
+    catalogoIndices.registrarCambio(mueble);
   }
 
+  /**
+   * Búsqueda de texto sobre nombre, tipo y material (sin tildes ni mayúsculas).
+   * El índice en memoria entrega los IDs ya ordenados; solo se carga la página pedida.
+   */
   @Transactional(readOnly = true)
-  public List<MuebleDTO> buscarPorNombre(String nombre) {
-    return muebleRepository.findByNombreContainingIgnoreCaseAndEstadoLogicoTrue(nombre).stream()
-        .map(this::toDTO)
+  public List<MuebleDTO> buscarPorNombre(String nombre, int limit, int offset) {
+    return cargarEnOrden(searchIndex.buscar(nombre, limit, offset));
+  }
+
+  /**
+   * Filtrado facetado del catálogo resuelto con los bitmaps en memoria
+   */
+  @Transactional(readOnly = true)
+  public CatalogoFiltradoDTO filtrar(FiltroCatalogoDTO filtro, int limit, int offset) {
+    MuebleBitmapIndex.Resultado resultado = bitmapIndex.filtrar(filtro, limit, offset);
+
+    CatalogoFiltradoDTO dto = new CatalogoFiltradoDTO();
+    dto.setTotal(resultado.total());
+    dto.setMuebles(cargarEnOrden(resultado.ids()));
+    dto.setFacetas(resultado.facetas());
+    return dto;
+  }
+
+  /**
+   * Typeahead: nombres que comienzan con el prefijo (o con alguna de sus palabras).
+   * Se responde completo desde el trie en memoria, sin tocar la base de datos.
+   */
+  public List<SugerenciaDTO> sugerir(String prefijo, int limit) {
+    return sugerenciasTrie.sugerir(prefijo, limit);
+  }
+
+  // Carga una página de IDs con una sola consulta, respetando el orden recibido
+  private List<MuebleDTO> cargarEnOrden(List<Integer> ids) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    Map<Integer, Mueble> porId = muebleRepository.findAllById(ids).stream()
+        .collect(Collectors.toMap(Mueble::getIdMueble, Function.identity()));
+    return toDTOsConDisponibilidad(ids.stream()
+        .map(porId::get)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList()));
+  }
+
+  /**
+   * Mapea una página de muebles incluyendo el stock disponible. Las reservas en
+   * cotizaciones abiertas se obtienen con una sola consulta agrupada para toda la página.
+   * Las reservas hechas como componente de un kit cuentan para el componente, y la
+   * disponibilidad de un kit sale de la de sus componentes (ver IndiceKits).
+   */
+  private List<MuebleDTO> toDTOsConDisponibilidad(List<Mueble> muebles) {
+    if (muebles.isEmpty()) {
+      return List.of();
+    }
+    List<Integer> ids = muebles.stream().map(Mueble::getIdMueble).collect(Collectors.toList());
+    Set<Integer> componentes = new LinkedHashSet<>();
+    muebles.stream()
+        .filter(Mueble::isKit)
+        .forEach(kit -> indiceKits.componentes(kit.getIdMueble())
+            .forEach(componente -> componentes.add(componente.idComponente())));
+    componentes.removeAll(ids);
+    List<Integer> conComponentes = new ArrayList<>(ids);
+    conComponentes.addAll(componentes);
+    Map<Integer, Long> reservado = porMueble(
+        detalleOrdenRepository.sumarCantidadPorMueble(conComponentes, EstadoOrden.COTIZACION));
+    porMueble(detalleOrdenRepository.sumarCantidadViaKitsPorMueble(conComponentes, EstadoOrden.COTIZACION))
+        .forEach((idMueble, cantidad) -> reservado.merge(idMueble, cantidad, Long::sum));
+    Map<Integer, Long> enSucursales = porMueble(stockSucursalRepository.sumarStockPorMueble(ids));
+
+    // Agregado de todas las sucursales: bodega central + sucursales - reservas de cualquier sucursal
+    return muebles.stream()
+        .map(mueble -> {
+          MuebleDTO dto = toDTO(mueble);
+          if (mueble.isKit()) {
+            dto.setStockDisponible(indiceKits.disponible(mueble.getIdMueble(), reservado));
+            return dto;
+          }
+          long total = mueble.getStockTotal() + enSucursales.getOrDefault(mueble.getIdMueble(), 0L);
+          dto.setStockDisponible((int) (total - reservado.getOrDefault(mueble.getIdMueble(), 0L)));
+          return dto;
+        })
         .collect(Collectors.toList());
   }
 
+  private static Map<Integer, Long> porMueble(List<DetalleOrdenRepository.CantidadPorMueble> filas) {
+    return filas.stream().collect(Collectors.toMap(DetalleOrdenRepository.CantidadPorMueble::getIdMueble,
+        DetalleOrdenRepository.CantidadPorMueble::getCantidad));
+  }
+
+  // ==================== KEYSET ====================
+
+  // El ID siempre desempata para que la clave de orden sea única.
+  // STOCK usa la columna y no getStockTotal(): hot items y kits quedan fuera de lugar (ver OrdenCatalogo)
+  private static Sort ordenamiento(OrdenCatalogo orden) {
+    return switch (orden) {
+      case NOMBRE -> Sort.by("nombre").ascending().and(Sort.by("idMueble").ascending());
+      case PRECIO -> Sort.by("precioBase").ascending().and(Sort.by("idMueble").ascending());
+      case STOCK -> Sort.by("stock").descending().and(Sort.by("idMueble").ascending());
+      case RECIENTES -> Sort.by("idMueble").descending();
+    };
+  }
+
+  private static String propiedadDeOrden(OrdenCatalogo orden) {
+    return switch (orden) {
+      case NOMBRE -> "nombre";
+      case PRECIO -> "precioBase";
+      case STOCK -> "stock";
+      case RECIENTES -> "idMueble";
+    };
+  }
+
+  // Formato del cursor (Base64 URL): "<idMueble>:<valor de la clave de orden>"
+  private static String cursorDe(OrdenCatalogo orden, Mueble ultimo) {
+    Object valor = switch (orden) {
+      case NOMBRE -> ultimo.getNombre();
+      case PRECIO -> ultimo.getPrecioBase();
+      case STOCK -> ultimo.getStock();
+      case RECIENTES -> ultimo.getIdMueble();
+    };
+    String crudo = ultimo.getIdMueble() + ":" + valor;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(crudo.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static ScrollPosition posicionDesde(OrdenCatalogo orden, String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return ScrollPosition.keyset();
+    }
+    try {
+      String crudo = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separador = crudo.indexOf(':');
+      Integer id = Integer.valueOf(crudo.substring(0, separador));
+      String valor = crudo.substring(separador + 1);
+
+      if (orden == OrdenCatalogo.RECIENTES) {
+        return ScrollPosition.forward(Map.of("idMueble", id));
+      }
+      Object clave = orden == OrdenCatalogo.NOMBRE ? valor : Integer.valueOf(valor);
+      return ScrollPosition.forward(Map.of(propiedadDeOrden(orden), clave, "idMueble", id));
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Cursor inválido: " + cursor);
+    }
+  }
+
   // Mapper
   private MuebleDTO toDTO(Mueble mueble) {
     MuebleDTO dto = new MuebleDTO();
@@ -88,7 +344,9 @@ public class MuebleService {
     dto.setNombre(mueble.getNombre());
     dto.setTipo(mueble.getTipo());
     dto.setPrecioBase(mueble.getPrecioBase());
-    dto.setStock(mueble.getStock());
+    dto.setStock(mueble.isKit() ? indiceKits.stockDerivado(mueble.getIdMueble()) : mueble.getStockTotal());
+    dto.setEsKit(mueble.isKit());
+    dto.setShardsStock(mueble.getShardsStock());
     dto.setTamano(mueble.getTamano());
     dto.setMaterial(mueble.getMaterial());
     dto.setEstadoLogico(mueble.getEstadoLogico());
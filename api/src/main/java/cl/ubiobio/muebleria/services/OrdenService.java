@@ -2,18 +2,30 @@ package cl.ubiobio.muebleria.services;
 
 import cl.ubiobio.muebleria.dto.*;
 import cl.ubiobio.muebleria.enums.EstadoOrden;
+import cl.ubiobio.muebleria.enums.MotivoMovimiento;
 import cl.ubiobio.muebleria.enums.Rol;
 import cl.ubiobio.muebleria.models.*;
+import cl.ubiobio.muebleria.repositories.DetalleOrdenRepository;
 import cl.ubiobio.muebleria.repositories.MuebleRepository;
 import cl.ubiobio.muebleria.repositories.OrdenRepository;
+import cl.ubiobio.muebleria.repositories.StockSucursalRepository;
+import cl.ubiobio.muebleria.repositories.SucursalRepository;
+import cl.ubiobio.muebleria.repositories.UsuarioRepository;
 import cl.ubiobio.muebleria.repositories.VarianteAdicionalRepository;
+import cl.ubiobio.muebleria.security.UsuarioPrincipal;
 import cl.ubiobio.muebleria.strategy.PrecioStrategy;
 import cl.ubiobio.muebleria.strategy.PrecioStrategyFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 /**
@@ -22,6 +34,8 @@ import java.util.stream.Collectors;
  * - Decorator Pattern: Aplicación de variantes a muebles
  * - Strategy Pattern: Cálculo de precios según tipo de aplicación
  * - Snapshot Pattern: Congelación de precios al confirmar venta
+ * Cada orden descuenta del stock de su sucursal, o de la bodega central si no tiene.
+ * Un kit descuenta sus componentes (solo desde la bodega central).
  */
 @Service
 public class OrdenService {
@@ -30,24 +44,49 @@ public class OrdenService {
   private final MuebleRepository muebleRepository;
   private final VarianteAdicionalRepository varianteRepository;
   private final PrecioStrategyFactory precioStrategyFactory;
+  private final DetalleOrdenRepository detalleOrdenRepository;
+  private final InventarioService inventarioService;
+  private final SucursalRepository sucursalRepository;
+  private final StockSucursalRepository stockSucursalRepository;
+  private final KitService kitService;
+  private final CacheOrdenesCerradas cacheOrdenes;
+  private final TransactionTemplate lectura;
+  private final UsuarioRepository usuarioRepository;
 
   public OrdenService(OrdenRepository ordenRepository,
       MuebleRepository muebleRepository,
       VarianteAdicionalRepository varianteRepository,
-      PrecioStrategyFactory precioStrategyFactory) {
+      PrecioStrategyFactory precioStrategyFactory,
+      DetalleOrdenRepository detalleOrdenRepository,
+      InventarioService inventarioService,
+      SucursalRepository sucursalRepository,
+      StockSucursalRepository stockSucursalRepository,
+      KitService kitService,
+      CacheOrdenesCerradas cacheOrdenes,
+      PlatformTransactionManager transactionManager,
+      UsuarioRepository usuarioRepository) {
     this.ordenRepository = ordenRepository;
     this.muebleRepository = muebleRepository;
     this.varianteRepository = varianteRepository;
     this.precioStrategyFactory = precioStrategyFactory;
+    this.detalleOrdenRepository = detalleOrdenRepository;
+    this.inventarioService = inventarioService;
+    this.sucursalRepository = sucursalRepository;
+    this.stockSucursalRepository = stockSucursalRepository;
+    this.kitService = kitService;
+    this.cacheOrdenes = cacheOrdenes;
+    this.lectura = new TransactionTemplate(transactionManager);
+    this.lectura.setReadOnly(true);
+    this.usuarioRepository = usuarioRepository;
   }
 
   @Transactional(readOnly = true)
-  public List<OrdenDTO> listarOrdenes(Usuario usuario) {
+  public List<OrdenDTO> listarOrdenes(UsuarioPrincipal usuario) {
     List<Orden> ordenes;
     if (usuario.getRol() == Rol.ADMIN) {
       ordenes = ordenRepository.findAll();
     } else {
-      ordenes = ordenRepository.findByUsuarioOrderByFechaCreacionDesc(usuario);
+      ordenes = ordenRepository.findByUsuarioIdOrderByFechaCreacionDesc(usuario.getId());
     }
     return ordenes.stream()
         .map(this::toDTO)
@@ -55,29 +94,41 @@ public class OrdenService {
   }
 
   @Transactional(readOnly = true)
-  public List<OrdenDTO> listarPorEstado(EstadoOrden estado, Usuario usuario) {
+  public List<OrdenDTO> listarPorEstado(EstadoOrden estado, UsuarioPrincipal usuario) {
     List<Orden> ordenes;
     if (usuario.getRol() == Rol.ADMIN) {
       ordenes = ordenRepository.findByEstadoOrdenOrderByFechaCreacionDesc(estado);
     } else {
-      ordenes = ordenRepository.findByUsuarioAndEstadoOrdenOrderByFechaCreacionDesc(usuario, estado);
+      ordenes = ordenRepository.findByUsuarioIdAndEstadoOrdenOrderByFechaCreacionDesc(usuario.getId(), estado);
     }
     return ordenes.stream()
         .map(this::toDTO)
         .collect(Collectors.toList());
   }
 
-  @Transactional(readOnly = true)
-  public OrdenDTO obtenerPorId(Integer id, Usuario usuario) {
-    Orden orden = ordenRepository.findById(id)
-        .orElseThrow(() -> new RuntimeException("Orden no encontrada con ID: " + id));
-
-    // Validar que el usuario tenga acceso a esta orden
-    if (usuario.getRol() != Rol.ADMIN && !orden.getUsuario().getId().equals(usuario.getId())) {
-      throw new RuntimeException("No tienes permiso para ver esta orden");
+  /**
+   * Orden serializada como JSON. Las órdenes cerradas (VENTA, CANCELADA) se sirven desde
+   * CacheOrdenesCerradas: un acierto valida el dueño guardado en la entrada y no abre
+   * transacción ni vuelve a mapear la orden.
+   */
+  public byte[] obtenerSerializada(Integer id, UsuarioPrincipal usuario) {
+    CacheOrdenesCerradas.Entrada entrada = cacheOrdenes.buscar(id);
+    if (entrada != null) {
+      if (usuario.getRol() != Rol.ADMIN && !entrada.idUsuario().equals(usuario.getId())) {
+        throw new RuntimeException("No tienes permiso para ver esta orden");
+      }
+      return entrada.json();
     }
-
-    return toDTO(orden);
+    // Antes de abrir la transacción: si una cancelación invalida mientras leemos, no se guarda
+    long generacion = cacheOrdenes.generacion(id);
+    return lectura.execute(status -> {
+      Orden orden = ordenRepository.findById(id)
+          .orElseThrow(() -> new RuntimeException("Orden no encontrada con ID: " + id));
+      if (usuario.getRol() != Rol.ADMIN && !orden.getUsuario().getId().equals(usuario.getId())) {
+        throw new RuntimeException("No tienes permiso para ver esta orden");
+      }
+      return cacheOrdenes.serializar(toDTO(orden), orden.getUsuario().getId(), generacion);
+    });
   }
 
   /**
@@ -85,11 +136,20 @@ public class OrdenService {
    * Calcula precios en tiempo real pero NO los congela (aún son editables)
    */
   @Transactional
-  public OrdenDTO crearOrden(CrearOrdenRequestDTO request, Usuario usuario) {
+  public OrdenDTO crearOrden(CrearOrdenRequestDTO request, UsuarioPrincipal usuario) {
     Orden orden = new Orden();
     orden.setEstadoOrden(EstadoOrden.COTIZACION);
     orden.setFechaCreacion(LocalDateTime.now());
-    orden.setUsuario(usuario);
+    // Referencia sin consulta: solo se necesita la FK
+    orden.setUsuario(usuarioRepository.getReferenceById(usuario.getId()));
+
+    // Sucursal que despacha (opcional); las reservas y descuentos quedan acotados a ella
+    if (request.getIdSucursal() != null) {
+      Sucursal sucursal = sucursalRepository.findById(request.getIdSucursal())
+          .filter(Sucursal::getActiva)
+          .orElseThrow(() -> new RuntimeException("Sucursal no encontrada con ID: " + request.getIdSucursal()));
+      orden.setSucursal(sucursal);
+    }
 
     // Procesar detalles
     for (DetalleRequestDTO detalleReq : request.getDetalles()) {
@@ -110,7 +170,7 @@ public class OrdenService {
    * STATE PATTERN: Solo permitido si la orden está en COTIZACION
    */
   @Transactional
-  public OrdenDTO agregarDetalle(Integer idOrden, DetalleRequestDTO detalleRequest, Usuario usuario) {
+  public OrdenDTO agregarDetalle(Integer idOrden, DetalleRequestDTO detalleRequest, UsuarioPrincipal usuario) {
     Orden orden = ordenRepository.findById(idOrden)
         .orElseThrow(() -> new RuntimeException("Orden no encontrada con ID: " + idOrden));
 
@@ -139,10 +199,10 @@ public class OrdenService {
    * Confirma una orden (transición COTIZACION -> VENTA)
    * STATE PATTERN: Transición de estado
    * SNAPSHOT PATTERN: Congela precios al momento de la confirmación
-   * Descuenta el stock de los muebles
+   * Descuenta el stock de los muebles (en READ COMMITTED, como pide StockShardService)
    */
-  @Transactional
-  public OrdenDTO confirmarOrden(Integer idOrden, Usuario usuario) {
+  @Transactional(isolation = Isolation.READ_COMMITTED)
+  public OrdenDTO confirmarOrden(Integer idOrden, UsuarioPrincipal usuario) {
     Orden orden = ordenRepository.findById(idOrden)
         .orElseThrow(() -> new RuntimeException("Orden no encontrada con ID: " + idOrden));
 
@@ -156,10 +216,10 @@ public class OrdenService {
       throw new RuntimeException("Solo se puede confirmar una orden en estado COTIZACION");
     }
 
-    // Validar stock disponible antes de confirmar
-    validarStockDisponible(orden);
+    // SNAPSHOT PATTERN: Congelar la composición de los kits; la cancelación devuelve lo mismo
+    congelarComponentes(orden);
 
-    // Descontar stock de cada mueble
+    // Descontar stock de cada mueble; falla (y revierte todo) si alguno no alcanza
     descontarStock(orden);
 
     // SNAPSHOT PATTERN: Congelar precios
@@ -183,7 +243,7 @@ public class OrdenService {
    * Si la orden estaba en VENTA, devuelve el stock
    */
   @Transactional
-  public OrdenDTO cancelarOrden(Integer idOrden, Usuario usuario) {
+  public OrdenDTO cancelarOrden(Integer idOrden, UsuarioPrincipal usuario) {
     Orden orden = ordenRepository.findById(idOrden)
         .orElseThrow(() -> new RuntimeException("Orden no encontrada con ID: " + idOrden));
 
@@ -196,6 +256,8 @@ public class OrdenService {
     if (orden.getEstadoOrden() == EstadoOrden.VENTA) {
       devolverStock(orden);
     }
+    // Única transición de una orden cerrada: su JSON en caché deja de ser válido
+    cacheOrdenes.invalidar(idOrden);
 
     orden.setEstadoOrden(EstadoOrden.CANCELADA);
 
@@ -208,7 +270,7 @@ public class OrdenService {
    * STATE PATTERN: Solo permitido en COTIZACION
    */
   @Transactional
-  public OrdenDTO eliminarDetalle(Integer idOrden, Integer idDetalle, Usuario usuario) {
+  public OrdenDTO eliminarDetalle(Integer idOrden, Integer idDetalle, UsuarioPrincipal usuario) {
     Orden orden = ordenRepository.findById(idOrden)
         .orElseThrow(() -> new RuntimeException("Orden no encontrada con ID: " + idOrden));
 
@@ -242,15 +304,19 @@ public class OrdenService {
   private DetalleOrden crearDetalle(Orden orden, DetalleRequestDTO request) {
     Mueble mueble = muebleRepository.findById(request.getIdMueble())
         .orElseThrow(() -> new RuntimeException("Mueble no encontrado con ID: " + request.getIdMueble()));
+    if (mueble.isKit() && orden.getSucursal() != null) {
+      throw new RuntimeException("Los kits solo se venden desde la bodega central: " + mueble.getNombre());
+    }
 
-    // Calcular stock disponible (físico - reservado en cotizaciones activas)
-    Integer stockDisponible = calcularStockDisponible(mueble);
+    // Calcular stock disponible en la sucursal de la orden (físico - reservado en cotizaciones activas)
+    int stockFisico = calcularStockFisico(mueble, orden.getSucursal());
+    Integer stockDisponible = calcularStockDisponible(mueble, orden.getSucursal(), stockFisico);
 
     if (stockDisponible < request.getCantidad()) {
       throw new RuntimeException(
           String.format("Stock insuficiente para mueble '%s'. Disponible: %d, Solicitado: %d (Stock físico: %d, Reservado en cotizaciones: %d)",
               mueble.getNombre(), stockDisponible, request.getCantidad(),
-              mueble.getStock(), mueble.getStock() - stockDisponible));
+              stockFisico, stockFisico - stockDisponible));
     }
 
     DetalleOrden detalle = new DetalleOrden();
@@ -277,10 +343,12 @@ public class OrdenService {
 
   /**
    * SNAPSHOT PATTERN: Congela los precios de todos los detalles
-   * Calcula y persiste el precio final al momento de la confirmación
+   * Calcula y persiste el precio final al momento de la confirmación,
+   * junto con los nombres y parámetros de mueble y variantes
    */
   private void congelarPrecios(Orden orden) {
     for (DetalleOrden detalle : orden.getDetalles()) {
+      detalle.setNombreMuebleSnapshot(detalle.getMueble().getNombre());
       Integer precioBase = detalle.getMueble().getPrecioBase();
       Integer precioConVariantes = precioBase;
 
@@ -294,6 +362,9 @@ public class OrdenService {
 
         // SNAPSHOT: Guardar el costo calculado en este momento
         detalleVariante.setPrecioAplicadoSnapshot(costoVariante);
+        detalleVariante.setNombreVarianteSnapshot(variante.getNombre());
+        detalleVariante.setTipoAplicacionSnapshot(variante.getTipoAplicacion());
+        detalleVariante.setCostoExtraSnapshot(variante.getCostoExtra());
 
         // DECORATOR: Agregar el costo al precio total
         precioConVariantes += costoVariante;
@@ -344,64 +415,113 @@ public class OrdenService {
   }
 
   /**
-   * Valida que haya stock físico suficiente para todos los items de la orden
-   * Solo valida stock físico real, no considera otras cotizaciones
-   * (al confirmar, la cotización actual libera su reserva y consume stock físico)
+   * Descuenta el stock de los muebles al confirmar una orden.
+   * El descuento es atómico y condicionado a que el stock no quede negativo,
+   * así que la validación y la escritura no pueden intercalarse con otra confirmación.
    */
-  private void validarStockDisponible(Orden orden) {
-    for (DetalleOrden detalle : orden.getDetalles()) {
-      Mueble mueble = detalle.getMueble();
-      if (mueble.getStock() < detalle.getCantidad()) {
-        throw new RuntimeException(
-            String.format("Stock insuficiente para confirmar orden. Mueble '%s': Stock físico=%d, Requerido=%d",
-                mueble.getNombre(), mueble.getStock(), detalle.getCantidad()));
-      }
-    }
+  private void descontarStock(Orden orden) {
+    ajustarStock(orden, -1, MotivoMovimiento.VENTA);
   }
 
   /**
-   * Descuenta el stock de los muebles al confirmar una orden
+   * Devuelve el stock de los muebles al cancelar una orden confirmada
    */
-  private void descontarStock(Orden orden) {
+  private void devolverStock(Orden orden) {
+    ajustarStock(orden, 1, MotivoMovimiento.CANCELACION);
+  }
+
+  /**
+   * Copia en cada línea de kit sus componentes vigentes
+   */
+  private void congelarComponentes(Orden orden) {
     for (DetalleOrden detalle : orden.getDetalles()) {
-      Mueble mueble = detalle.getMueble();
-      Integer nuevoStock = mueble.getStock() - detalle.getCantidad();
-      mueble.setStock(nuevoStock);
-      muebleRepository.save(mueble);
+      detalle.getComponentesSnapshot().clear();
+      if (!detalle.getMueble().isKit()) {
+        continue;
+      }
+      for (KitService.Unidad unidad : kitService.cargarComponentes(detalle.getMueble())) {
+        DetalleOrdenComponente componente = new DetalleOrdenComponente();
+        componente.setDetalle(detalle);
+        componente.setComponente(unidad.componente());
+        componente.setCantidad(unidad.cantidad());
+        detalle.getComponentesSnapshot().add(componente);
+      }
     }
   }
 
+  // Componentes congelados al confirmar, aunque el kit haya cambiado o ya no sea kit.
+  // Sin snapshot (ventas anteriores a él) se usa la composición vigente; null si la línea no es un kit
+  private List<KitService.Unidad> componentesDe(DetalleOrden detalle) {
+    if (!detalle.getComponentesSnapshot().isEmpty()) {
+      return detalle.getComponentesSnapshot().stream()
+          .map(componente -> new KitService.Unidad(componente.getComponente(), componente.getCantidad()))
+          .toList();
+    }
+    return detalle.getMueble().isKit() ? kitService.cargarComponentes(detalle.getMueble()) : null;
+  }
+
   /**
-   * Devuelve el stock de los muebles al cancelar una orden confirmada
+   * Ajusta todas las líneas por el mismo camino atómico, dentro de la transacción de la orden:
+   * si un mueble no alcanza, se revierte todo. Las cantidades se suman por mueble (un kit aporta
+   * cada componente, siempre de la bodega central) y se aplican una vez por mueble en orden de ID:
+   * dos confirmaciones concurrentes toman los bloqueos de fila en el mismo orden y ninguna vuelve
+   * sobre un mueble, o sus shards, que ya bloqueó.
    */
-  private void devolverStock(Orden orden) {
+  private void ajustarStock(Orden orden, int signo, MotivoMovimiento motivo) {
+    Map<Integer, Mueble> muebles = new HashMap<>();
+    Map<Integer, Integer> central = new TreeMap<>();
+    Map<Integer, Integer> enSucursal = new TreeMap<>();
     for (DetalleOrden detalle : orden.getDetalles()) {
       Mueble mueble = detalle.getMueble();
-      Integer nuevoStock = mueble.getStock() + detalle.getCantidad();
-      mueble.setStock(nuevoStock);
-      muebleRepository.save(mueble);
+      List<KitService.Unidad> componentes = componentesDe(detalle);
+      if (componentes != null) {
+        for (KitService.Unidad unidad : componentes) {
+          muebles.putIfAbsent(unidad.componente().getIdMueble(), unidad.componente());
+          central.merge(unidad.componente().getIdMueble(), detalle.getCantidad() * unidad.cantidad(), Integer::sum);
+        }
+      } else {
+        muebles.putIfAbsent(mueble.getIdMueble(), mueble);
+        (orden.getSucursal() == null ? central : enSucursal)
+            .merge(mueble.getIdMueble(), detalle.getCantidad(), Integer::sum);
+      }
     }
+
+    central.forEach((idMueble, cantidad) ->
+        inventarioService.ajustar(muebles.get(idMueble), signo * cantidad, motivo, orden.getIdOrden()));
+    enSucursal.forEach((idMueble, cantidad) ->
+        inventarioService.ajustarEnSucursal(orden.getSucursal().getIdSucursal(), muebles.get(idMueble),
+            signo * cantidad, motivo, orden.getIdOrden()));
+  }
+
+  // Stock físico de la sucursal, o de la bodega central si la orden no tiene sucursal
+  private int calcularStockFisico(Mueble mueble, Sucursal sucursal) {
+    if (mueble.isKit()) {
+      return kitService.armables(mueble);
+    }
+    if (sucursal == null) {
+      return mueble.getStockTotal();
+    }
+    return stockSucursalRepository.findByIdSucursalAndIdMueble(sucursal.getIdSucursal(), mueble.getIdMueble())
+        .map(StockSucursal::getStock)
+        .orElse(0);
   }
 
   /**
    * Calcula el stock realmente disponible considerando reservas en cotizaciones
-   * Stock Disponible = Stock Físico - Stock Reservado en COTIZACIONES activas
+   * Stock Disponible = Stock Físico - Stock Reservado en COTIZACIONES activas de la misma sucursal
    */
-  private Integer calcularStockDisponible(Mueble mueble) {
-    // Obtener todas las órdenes en estado COTIZACION
-    List<Orden> cotizacionesActivas = ordenRepository.findByEstadoOrdenOrderByFechaCreacionDesc(EstadoOrden.COTIZACION);
-
-    // Calcular cuánto stock está reservado en cotizaciones
-    int stockReservado = 0;
-    for (Orden cotizacion : cotizacionesActivas) {
-      for (DetalleOrden detalle : cotizacion.getDetalles()) {
-        if (detalle.getMueble().getIdMueble().equals(mueble.getIdMueble())) {
-          stockReservado += detalle.getCantidad();
-        }
-      }
+  private Integer calcularStockDisponible(Mueble mueble, Sucursal sucursal, int stockFisico) {
+    if (mueble.isKit()) {
+      return kitService.disponible(mueble);
     }
-
-    return mueble.getStock() - stockReservado;
+    // Suma en la base de datos lo reservado en cotizaciones, sin recorrer cada orden
+    // En la bodega central también cuenta lo reservado como componente de kits cotizados
+    Long stockReservado = sucursal == null
+        ? detalleOrdenRepository.sumarCantidad(mueble.getIdMueble(), EstadoOrden.COTIZACION)
+            + detalleOrdenRepository.sumarCantidadViaKits(mueble.getIdMueble(), EstadoOrden.COTIZACION)
+        : detalleOrdenRepository.sumarCantidadEnSucursal(mueble.getIdMueble(), sucursal.getIdSucursal(),
+            EstadoOrden.COTIZACION);
+    return stockFisico - stockReservado.intValue();
   }
 
   // ==================== MAPPERS ====================
@@ -413,6 +533,10 @@ public class OrdenService {
     dto.setFechaConfirmacion(orden.getFechaConfirmacion());
     dto.setEstadoOrden(orden.getEstadoOrden());
     dto.setTotalCalculado(orden.getTotalCalculado());
+    if (orden.getSucursal() != null) {
+      dto.setIdSucursal(orden.getSucursal().getIdSucursal());
+      dto.setNombreSucursal(orden.getSucursal().getNombre());
+    }
 
     List<DetalleOrdenDTO> detallesDTO = orden.getDetalles().stream()
         .map(this::detalleToDTO)
@@ -425,11 +549,15 @@ public class OrdenService {
     return dto;
   }
 
+  // Con snapshot (orden confirmada) solo se leen las tablas de la orden; el ID del mueble
+  // sale de la FK sin inicializar el proxy. Sin snapshot se lee el catálogo vigente.
   private DetalleOrdenDTO detalleToDTO(DetalleOrden detalle) {
     DetalleOrdenDTO dto = new DetalleOrdenDTO();
     dto.setIdDetalle(detalle.getIdDetalle());
     dto.setIdMueble(detalle.getMueble().getIdMueble());
-    dto.setNombreMueble(detalle.getMueble().getNombre());
+    dto.setNombreMueble(detalle.getNombreMuebleSnapshot() != null
+        ? detalle.getNombreMuebleSnapshot()
+        : detalle.getMueble().getNombre());
     dto.setCantidad(detalle.getCantidad());
     dto.setPrecioUnitarioFinal(detalle.getPrecioUnitarioFinal());
 
@@ -444,7 +572,16 @@ public class OrdenService {
   private VarianteAplicadaDTO varianteAplicadaToDTO(DetalleOrdenVariante detalleVariante) {
     VarianteAplicadaDTO dto = new VarianteAplicadaDTO();
     dto.setIdVariante(detalleVariante.getVariante().getIdVariante());
-    dto.setNombre(detalleVariante.getVariante().getNombre());
+    if (detalleVariante.getNombreVarianteSnapshot() != null) {
+      dto.setNombre(detalleVariante.getNombreVarianteSnapshot());
+      dto.setTipoAplicacion(detalleVariante.getTipoAplicacionSnapshot());
+      dto.setCostoExtra(detalleVariante.getCostoExtraSnapshot());
+    } else {
+      VarianteAdicional variante = detalleVariante.getVariante();
+      dto.setNombre(variante.getNombre());
+      dto.setTipoAplicacion(variante.getTipoAplicacion());
+      dto.setCostoExtra(variante.getCostoExtra());
+    }
     dto.setPrecioAplicadoSnapshot(detalleVariante.getPrecioAplicadoSnapshot());
     return dto;
   }
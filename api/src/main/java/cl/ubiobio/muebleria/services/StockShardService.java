@@ -0,0 +1,166 @@
+package cl.ubiobio.muebleria.services;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Modo "hot item": el stock de un mueble se reparte en N filas de stock_shards para que
+ * las confirmaciones concurrentes bloqueen filas distintas en vez de serializarse en una.
+ * Cada descuento sigue siendo un UPDATE condicionado (stock >= cantidad), así que ningún
+ * shard queda negativo; si ningún shard alcanza solo, se bloquean todos y se reparte.
+ * Orden de bloqueo en todos los caminos: fila del mueble antes que sus shards, shards por número ascendente.
+ * Solo se informa falta de stock cuando el total bloqueado no alcanza, y nunca se sobrevende.
+ */
+@Service
+public class StockShardService {
+
+  static final int MIN_SHARDS = 2;
+  static final int MAX_SHARDS = 64;
+
+  private static final String SQL_DESCONTAR =
+      "UPDATE stock_shards SET stock = stock - ? WHERE id_mueble = ? AND shard = ? AND stock >= ?";
+
+  // Primer shard que alcance, sin esperar a los que otra transacción tiene bloqueados
+  private static final String SQL_CANDIDATO_DESDE =
+      "SELECT shard FROM stock_shards WHERE id_mueble = ? AND stock >= ? AND shard >= ? " +
+      "ORDER BY shard LIMIT 1 FOR UPDATE SKIP LOCKED";
+
+  private static final String SQL_CANDIDATO_ANTES =
+      "SELECT shard FROM stock_shards WHERE id_mueble = ? AND stock >= ? AND shard < ? " +
+      "ORDER BY shard LIMIT 1 FOR UPDATE SKIP LOCKED";
+
+  private static final String SQL_SUMAR =
+      "UPDATE stock_shards SET stock = stock + ? WHERE id_mueble = ? AND shard = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public StockShardService(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  private record Shard(int shard, int stock) {
+  }
+
+  /**
+   * Aplica un delta a un mueble en modo hot. Debe correr dentro de la transacción del llamador;
+   * los descuentos, en READ COMMITTED: en REPEATABLE READ InnoDB retiene los bloqueos de las filas
+   * que la búsqueda del candidato examina y descarta, y el camino rápido fallido dejaría de ser neutro.
+   * @return false si no hay stock suficiente entre todos los shards y la fila del mueble
+   */
+  public boolean ajustar(Integer idMueble, int shards, int delta) {
+    if (delta >= 0) {
+      // Los ingresos van a un shard al azar para no concentrar el bloqueo
+      int shard = ThreadLocalRandom.current().nextInt(shards);
+      return jdbcTemplate.update(SQL_SUMAR, delta, idMueble, shard) > 0;
+    }
+    int cantidad = -delta;
+
+    // Se parte de un shard al azar para repartir la carga y se da la vuelta por los de abajo.
+    // SKIP LOCKED nunca espera: si el camino rápido no encuentra shard, llega a repartir() sin
+    // haber esperado bloqueo alguno, y el único orden de espera sigue siendo el de repartir()
+    int inicio = ThreadLocalRandom.current().nextInt(shards);
+    Integer shard = bloquearCandidato(idMueble, cantidad, SQL_CANDIDATO_DESDE, inicio);
+    if (shard == null) {
+      shard = bloquearCandidato(idMueble, cantidad, SQL_CANDIDATO_ANTES, inicio);
+    }
+    if (shard != null && jdbcTemplate.update(SQL_DESCONTAR, cantidad, idMueble, shard, cantidad) > 0) {
+      return true;
+    }
+    // Ningún shard libre alcanza solo: se decide con el total bloqueado
+    return repartir(idMueble, cantidad);
+  }
+
+  private Integer bloquearCandidato(Integer idMueble, int cantidad, String sql, int inicio) {
+    List<Integer> shard = jdbcTemplate.queryForList(sql, Integer.class, idMueble, cantidad, inicio);
+    return shard.isEmpty() ? null : shard.get(0);
+  }
+
+  // Camino lento: ningún shard alcanza solo. Bloquea la fila del mueble y luego sus shards
+  // (siempre en ese orden) y descuenta de cada uno lo que tenga. Ningún camino retiene un shard
+  // y después pide la fila del mueble: el camino rápido fallido no deja bloqueos (ver ajustar) y
+  // OrdenService ajusta cada mueble una sola vez por transacción
+  private boolean repartir(Integer idMueble, int cantidad) {
+    Integer enFila = jdbcTemplate.queryForObject(
+        "SELECT stock FROM muebles WHERE id_mueble = ? FOR UPDATE", Integer.class, idMueble);
+    List<Shard> bloqueados = jdbcTemplate.query(
+        "SELECT shard, stock FROM stock_shards WHERE id_mueble = ? ORDER BY shard FOR UPDATE",
+        (rs, i) -> new Shard(rs.getInt("shard"), rs.getInt("stock")), idMueble);
+
+    int total = (enFila != null ? enFila : 0) + bloqueados.stream().mapToInt(Shard::stock).sum();
+    if (total < cantidad) {
+      return false;
+    }
+
+    int pendiente = cantidad;
+    int deFila = Math.min(pendiente, enFila != null ? enFila : 0);
+    if (deFila > 0) {
+      jdbcTemplate.update("UPDATE muebles SET stock = stock - ? WHERE id_mueble = ?", deFila, idMueble);
+      pendiente -= deFila;
+    }
+    List<Object[]> descuentos = new ArrayList<>();
+    for (Shard shard : bloqueados) {
+      if (pendiente == 0) {
+        break;
+      }
+      int parte = Math.min(pendiente, shard.stock());
+      if (parte > 0) {
+        descuentos.add(new Object[]{parte, idMueble, shard.shard(), parte});
+        pendiente -= parte;
+      }
+    }
+    jdbcTemplate.batchUpdate(SQL_DESCONTAR, descuentos);
+    return true;
+  }
+
+  /**
+   * Activa el modo hot: reparte el stock actual del mueble en N shards y deja la fila en 0.
+   * El stock total no cambia, así que no se registra en el diario.
+   */
+  @Transactional
+  public void activar(Integer idMueble, int shards) {
+    if (shards < MIN_SHARDS || shards > MAX_SHARDS) {
+      throw new IllegalArgumentException(
+          String.format("La cantidad de shards debe estar entre %d y %d", MIN_SHARDS, MAX_SHARDS));
+    }
+    List<Integer> fila = jdbcTemplate.query(
+        "SELECT stock FROM muebles WHERE id_mueble = ? AND shards_stock IS NULL FOR UPDATE",
+        (rs, i) -> rs.getInt("stock"), idMueble);
+    if (fila.isEmpty()) {
+      throw new RuntimeException("Mueble " + idMueble + " inexistente o ya en modo hot item");
+    }
+
+    int stock = fila.get(0);
+    List<Object[]> filas = new ArrayList<>(shards);
+    for (int shard = 0; shard < shards; shard++) {
+      // El resto de la división va a los primeros shards
+      int parte = stock / shards + (shard < stock % shards ? 1 : 0);
+      filas.add(new Object[]{idMueble, shard, parte});
+    }
+    jdbcTemplate.batchUpdate("INSERT INTO stock_shards (id_mueble, shard, stock) VALUES (?, ?, ?)", filas);
+    jdbcTemplate.update("UPDATE muebles SET stock = 0, shards_stock = ? WHERE id_mueble = ?", shards, idMueble);
+  }
+
+  /**
+   * Vuelve a la fila única: suma los shards a muebles.stock y los elimina
+   */
+  @Transactional
+  public void desactivar(Integer idMueble) {
+    List<Integer> fila = jdbcTemplate.query(
+        "SELECT stock FROM muebles WHERE id_mueble = ? AND shards_stock IS NOT NULL FOR UPDATE",
+        (rs, i) -> rs.getInt("stock"), idMueble);
+    if (fila.isEmpty()) {
+      throw new RuntimeException("Mueble " + idMueble + " inexistente o no está en modo hot item");
+    }
+    int enShards = jdbcTemplate.query(
+        "SELECT stock FROM stock_shards WHERE id_mueble = ? ORDER BY shard FOR UPDATE",
+        (rs, i) -> rs.getInt("stock"), idMueble).stream().mapToInt(Integer::intValue).sum();
+    jdbcTemplate.update("DELETE FROM stock_shards WHERE id_mueble = ?", idMueble);
+    jdbcTemplate.update("UPDATE muebles SET stock = stock + ?, shards_stock = NULL WHERE id_mueble = ?",
+        enShards, idMueble);
+  }
+}
@@ -0,0 +1,116 @@
+package cl.ubiobio.muebleria.services;
+
+import cl.ubiobio.muebleria.dto.DisponibilidadSucursalDTO;
+import cl.ubiobio.muebleria.dto.SucursalDTO;
+import cl.ubiobio.muebleria.dto.SucursalRequestDTO;
+import cl.ubiobio.muebleria.enums.EstadoOrden;
+import cl.ubiobio.muebleria.models.Mueble;
+import cl.ubiobio.muebleria.models.StockSucursal;
+import cl.ubiobio.muebleria.models.Sucursal;
+import cl.ubiobio.muebleria.repositories.DetalleOrdenRepository;
+import cl.ubiobio.muebleria.repositories.MuebleRepository;
+import cl.ubiobio.muebleria.repositories.StockSucursalRepository;
+import cl.ubiobio.muebleria.repositories.SucursalRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class SucursalService {
+
+  static final String BODEGA_CENTRAL = "Bodega central";
+
+  private final SucursalRepository sucursalRepository;
+  private final StockSucursalRepository stockSucursalRepository;
+  private final MuebleRepository muebleRepository;
+  private final DetalleOrdenRepository detalleOrdenRepository;
+
+  public SucursalService(SucursalRepository sucursalRepository,
+                         StockSucursalRepository stockSucursalRepository,
+                         MuebleRepository muebleRepository,
+                         DetalleOrdenRepository detalleOrdenRepository) {
+    this.sucursalRepository = sucursalRepository;
+    this.stockSucursalRepository = stockSucursalRepository;
+    this.muebleRepository = muebleRepository;
+    this.detalleOrdenRepository = detalleOrdenRepository;
+  }
+
+  @Transactional(readOnly = true)
+  public List<SucursalDTO> listarActivas() {
+    return sucursalRepository.findByActivaTrueOrderByNombreAsc().stream()
+        .map(this::toDTO)
+        .collect(Collectors.toList());
+  }
+
+  @Transactional
+  public SucursalDTO crear(SucursalRequestDTO request) {
+    if (request.getNombre() == null || request.getNombre().isBlank()) {
+      throw new RuntimeException("El nombre de la sucursal es obligatorio");
+    }
+    if (sucursalRepository.existsByNombre(request.getNombre())) {
+      throw new RuntimeException("Ya existe una sucursal con el nombre: " + request.getNombre());
+    }
+    Sucursal sucursal = new Sucursal();
+    sucursal.setNombre(request.getNombre());
+    sucursal.setDireccion(request.getDireccion());
+    sucursal.setActiva(true);
+    return toDTO(sucursalRepository.save(sucursal));
+  }
+
+  /**
+   * Desactiva una sucursal: no acepta nuevas órdenes, pero conserva su stock y su historial
+   */
+  @Transactional
+  public void desactivar(Integer id) {
+    Sucursal sucursal = sucursalRepository.findById(id)
+        .orElseThrow(() -> new RuntimeException("Sucursal no encontrada con ID: " + id));
+    sucursal.setActiva(false);
+    sucursalRepository.save(sucursal);
+  }
+
+  /**
+   * Disponibilidad de un mueble en la bodega central y en cada sucursal activa
+   */
+  @Transactional(readOnly = true)
+  public List<DisponibilidadSucursalDTO> disponibilidad(Integer idMueble) {
+    Mueble mueble = muebleRepository.findById(idMueble)
+        .orElseThrow(() -> new RuntimeException("Mueble no encontrado con ID: " + idMueble));
+
+    // Una consulta agrupada para las reservas; la clave null corresponde a la bodega central
+    Map<Integer, Long> reservado = new HashMap<>();
+    for (DetalleOrdenRepository.CantidadPorSucursal fila
+        : detalleOrdenRepository.sumarCantidadPorSucursal(idMueble, EstadoOrden.COTIZACION)) {
+      reservado.put(fila.getIdSucursal(), fila.getCantidad());
+    }
+    Map<Integer, Integer> stockPorSucursal = stockSucursalRepository.findByIdMueble(idMueble).stream()
+        .collect(Collectors.toMap(StockSucursal::getIdSucursal, StockSucursal::getStock));
+
+    List<DisponibilidadSucursalDTO> resultado = new ArrayList<>();
+    int stockCentral = mueble.getStockTotal();
+    resultado.add(disponibilidad(null, BODEGA_CENTRAL, stockCentral, reservado.getOrDefault(null, 0L)));
+    for (Sucursal sucursal : sucursalRepository.findByActivaTrueOrderByNombreAsc()) {
+      resultado.add(disponibilidad(sucursal.getIdSucursal(), sucursal.getNombre(),
+          stockPorSucursal.getOrDefault(sucursal.getIdSucursal(), 0),
+          reservado.getOrDefault(sucursal.getIdSucursal(), 0L)));
+    }
+    return resultado;
+  }
+
+  private static DisponibilidadSucursalDTO disponibilidad(Integer idSucursal, String nombre, int stock, long reservado) {
+    return new DisponibilidadSucursalDTO(idSucursal, nombre, stock, (int) reservado, stock - (int) reservado);
+  }
+
+  private SucursalDTO toDTO(Sucursal sucursal) {
+    SucursalDTO dto = new SucursalDTO();
+    dto.setIdSucursal(sucursal.getIdSucursal());
+    dto.setNombre(sucursal.getNombre());
+    dto.setDireccion(sucursal.getDireccion());
+    dto.setActiva(sucursal.getActiva());
+    return dto;
+  }
+}
@@ -0,0 +1,188 @@
+package cl.ubiobio.muebleria.services;
+
+import cl.ubiobio.muebleria.dto.DesviacionStockDTO;
+import cl.ubiobio.muebleria.dto.ReporteVerificacionDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verificador en segundo plano de la consistencia del stock.
+ * Recorre muebles por keyset en lotes pequeños y compara muebles.stock con lo que implica
+ * el diario (último checkpoint + movimientos posteriores). Como cada checkpoint se deriva del
+ * anterior más el diario, una desviación sigue visible aunque sea anterior al último.
+ * Cada lote es una lectura consistente de solo lectura, sin SELECT ... FOR UPDATE, así que
+ * nunca bloquea a confirmarOrden. Entre lotes espera proporcionalmente a la latencia observada.
+ */
+@Service
+public class VerificadorStockService {
+
+  static final int MAX_DESVIACIONES = 200;
+
+  // Pausa = FACTOR_PAUSA x latencia del lote: la verificación ocupa ~1/5 del tiempo
+  static final int FACTOR_PAUSA = 4;
+  static final long PAUSA_MINIMA_MS = 50;
+
+  // Stock esperado = saldo del último checkpoint + deltas del diario posteriores a él
+  private static final String SQL_LOTE =
+      "SELECT m.id_mueble, m.stock + COALESCE((SELECT SUM(s.stock) FROM stock_shards s " +
+      "  WHERE s.id_mueble = m.id_mueble), 0) AS stock, " +
+      "COALESCE(c.stock, 0) + COALESCE((SELECT SUM(mv.delta) FROM movimientos_stock mv " +
+      "  WHERE mv.id_mueble = m.id_mueble AND mv.id_sucursal IS NULL " +
+      "  AND mv.id_movimiento > COALESCE(c.id_ultimo_movimiento, 0)), 0) AS esperado " +
+      "FROM muebles m " +
+      "LEFT JOIN checkpoints_stock c ON c.id_checkpoint = " +
+      "  (SELECT MAX(c2.id_checkpoint) FROM checkpoints_stock c2 WHERE c2.id_mueble = m.id_mueble) " +
+      "WHERE m.id_mueble > ? ORDER BY m.id_mueble LIMIT ?";
+
+  record Lectura(int idMueble, int stock, long esperado) {
+  }
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate lecturaConsistente;
+  private final int tamanoLote;
+
+  // Un solo hilo de baja prioridad; no compite con el pool de peticiones ni con @Scheduled
+  private final ExecutorService ejecutor = Executors.newSingleThreadExecutor(tarea -> {
+    Thread hilo = new Thread(tarea, "verificador-stock");
+    hilo.setDaemon(true);
+    hilo.setPriority(Thread.MIN_PRIORITY);
+    return hilo;
+  });
+  private final AtomicBoolean enCurso = new AtomicBoolean();
+  private volatile ReporteVerificacionDTO ultimoReporte;
+
+  // Métricas (inventario.verificador.*)
+  private final AtomicInteger conDesviacion = new AtomicInteger();
+  private final AtomicLong desviacionAbsoluta = new AtomicLong();
+  private final Counter revisados;
+  private final Timer latenciaLote;
+
+  public VerificadorStockService(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${inventario.verificador.tamano-lote:200}") int tamanoLote) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.tamanoLote = tamanoLote;
+
+    this.lecturaConsistente = new TransactionTemplate(transactionManager);
+    this.lecturaConsistente.setReadOnly(true);
+    this.lecturaConsistente.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+    meterRegistry.gauge("inventario.verificador.desviaciones", conDesviacion);
+    meterRegistry.gauge("inventario.verificador.desviacion.absoluta", desviacionAbsoluta);
+    this.revisados = meterRegistry.counter("inventario.verificador.revisados");
+    this.latenciaLote = meterRegistry.timer("inventario.verificador.lote");
+  }
+
+  /**
+   * Lanza una verificación en el hilo de fondo si no hay otra en curso
+   * @return false si ya había una verificación corriendo
+   */
+  @Scheduled(fixedDelayString = "${inventario.verificador.intervalo-ms:21600000}",
+      initialDelayString = "${inventario.verificador.intervalo-ms:21600000}")
+  public boolean iniciar() {
+    if (!enCurso.compareAndSet(false, true)) {
+      return false;
+    }
+    ejecutor.execute(() -> {
+      try {
+        verificar();
+      } finally {
+        enCurso.set(false);
+      }
+    });
+    return true;
+  }
+
+  public ReporteVerificacionDTO getUltimoReporte() {
+    return ultimoReporte;
+  }
+
+  public boolean isEnCurso() {
+    return enCurso.get();
+  }
+
+  ReporteVerificacionDTO verificar() {
+    ReporteVerificacionDTO reporte = new ReporteVerificacionDTO();
+    reporte.setInicio(LocalDateTime.now());
+
+    int ultimoId = 0;
+    while (true) {
+      final int desde = ultimoId;
+      long inicioLote = System.nanoTime();
+      List<Lectura> lote = lecturaConsistente.execute(status -> jdbcTemplate.query(SQL_LOTE,
+          (rs, i) -> new Lectura(rs.getInt("id_mueble"), rs.getInt("stock"), rs.getLong("esperado")),
+          desde, tamanoLote));
+      long latencia = System.nanoTime() - inicioLote;
+      latenciaLote.record(latencia, TimeUnit.NANOSECONDS);
+
+      if (lote == null || lote.isEmpty()) {
+        break;
+      }
+      for (Lectura lectura : lote) {
+        comparar(lectura, reporte);
+      }
+      revisados.increment(lote.size());
+      ultimoId = lote.get(lote.size() - 1).idMueble();
+
+      if (lote.size() < tamanoLote || !pausar(latencia)) {
+        break;
+      }
+    }
+
+    reporte.setFin(LocalDateTime.now());
+    conDesviacion.set(reporte.getConDesviacion());
+    desviacionAbsoluta.set(reporte.getDesviacionAbsoluta());
+    ultimoReporte = reporte;
+    return reporte;
+  }
+
+  private static void comparar(Lectura lectura, ReporteVerificacionDTO reporte) {
+    reporte.setRevisados(reporte.getRevisados() + 1);
+    long diferencia = lectura.stock() - lectura.esperado();
+    if (diferencia == 0) {
+      return;
+    }
+    reporte.setConDesviacion(reporte.getConDesviacion() + 1);
+    reporte.setDesviacionAbsoluta(reporte.getDesviacionAbsoluta() + Math.abs(diferencia));
+    if (reporte.getDesviaciones().size() < MAX_DESVIACIONES) {
+      reporte.getDesviaciones().add(new DesviacionStockDTO(lectura.idMueble(), lectura.stock(),
+          (int) lectura.esperado(), (int) diferencia));
+    }
+  }
+
+  // Devuelve false si el hilo fue interrumpido (apagado de la aplicación)
+  private static boolean pausar(long latenciaNanos) {
+    long pausa = Math.max(PAUSA_MINIMA_MS, TimeUnit.NANOSECONDS.toMillis(latenciaNanos) * FACTOR_PAUSA);
+    try {
+      Thread.sleep(pausa);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  @PreDestroy
+  public void detener() {
+    ejecutor.shutdownNow();
+  }
+}
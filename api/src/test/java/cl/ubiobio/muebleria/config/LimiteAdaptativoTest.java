@@ -0,0 +1,125 @@
+package cl.ubiobio.muebleria.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LimiteAdaptativo Tests")
+class LimiteAdaptativoTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    @DisplayName("Should shed requests beyond the current limit")
+    void testRechazarExceso() {
+        // Given
+        LimiteAdaptativo limite = new LimiteAdaptativo(2, 1, 10, 2.0, 100);
+
+        // When & Then
+        assertTrue(limite.adquirir());
+        assertTrue(limite.adquirir());
+        assertFalse(limite.adquirir());
+        limite.liberar(10 * MS, false);
+        assertTrue(limite.adquirir());
+    }
+
+    @Test
+    @DisplayName("Should shrink the limit once per window when latency rises above the baseline")
+    void testReducirConLatencia() {
+        // Given: una ventana sana fija la latencia base
+        LimiteAdaptativo limite = new LimiteAdaptativo(20, 2, 100, 2.0, 100);
+        liberarVentana(limite, 20, 10 * MS, false);
+        assertEquals(20, limite.getLimite());
+
+        // When: una ventana entera lenta
+        liberarVentana(limite, 20, 50 * MS, false);
+
+        // Then: una sola reducción, no una por muestra
+        assertEquals(18, limite.getLimite());
+        assertEquals(0, limite.getEnCurso());
+    }
+
+    @Test
+    @DisplayName("Should shrink on server errors at most once per window and never go below the minimum")
+    void testReducirConFallos() {
+        // Given
+        LimiteAdaptativo limite = new LimiteAdaptativo(10, 3, 100, 2.0, 100);
+
+        // When & Then
+        liberarVentana(limite, 9, MS, true);
+        assertEquals(10, limite.getLimite());
+        liberarVentana(limite, 1, MS, true);
+        assertEquals(9, limite.getLimite());
+        liberarVentana(limite, 200, MS, true);
+        assertEquals(3, limite.getLimite());
+    }
+
+    @Test
+    @DisplayName("Should not shed capacity under a steady but long-tailed latency distribution")
+    void testLatenciaRealistaEstable() {
+        // Given: log-normal con mediana de 10 ms y p99 cercano a 40 ms, como una escritura en MariaDB
+        LimiteAdaptativo limite = new LimiteAdaptativo(20, 2, 100, 2.0, 100);
+        Random aleatorio = new Random(42);
+
+        // When
+        liberarEnRondas(limite, 3000, () -> (long) (10 * MS * Math.exp(0.6 * aleatorio.nextGaussian())));
+
+        // Then: la cola normal no se confunde con congestión
+        assertTrue(limite.getLimite() >= 20, "límite: " + limite.getLimite());
+
+        // When: la base de datos se pone cuatro veces más lenta
+        int antes = limite.getLimite();
+        liberarEnRondas(limite, 300, () -> (long) (40 * MS * Math.exp(0.6 * aleatorio.nextGaussian())));
+
+        // Then
+        assertTrue(limite.getLimite() < antes, "límite: " + limite.getLimite() + " antes: " + antes);
+    }
+
+    @Test
+    @DisplayName("Should grow additively while the limit is in use and latency is healthy")
+    void testCrecerConCarga() {
+        // Given
+        LimiteAdaptativo limite = new LimiteAdaptativo(4, 1, 100, 2.0, 100);
+
+        // When: cuatro peticiones concurrentes, todas rápidas, varias rondas
+        for (int ronda = 0; ronda < 20; ronda++) {
+            int adquiridos = 0;
+            while (limite.adquirir()) {
+                adquiridos++;
+            }
+            for (int i = 0; i < adquiridos; i++) {
+                limite.liberar(10 * MS, false);
+            }
+        }
+
+        // Then
+        assertTrue(limite.getLimite() > 4, "límite: " + limite.getLimite());
+    }
+
+    // Adquiere y libera de a una; la petición no estaba en uso concurrente
+    private static void liberarVentana(LimiteAdaptativo limite, int muestras, long latenciaNanos, boolean fallo) {
+        for (int i = 0; i < muestras; i++) {
+            limite.adquirir();
+            limite.liberar(latenciaNanos, fallo);
+        }
+    }
+
+    // Llena el límite y libera todo, ronda tras ronda, como bajo carga sostenida
+    private static void liberarEnRondas(LimiteAdaptativo limite, int total, LongSupplier latencia) {
+        int liberadas = 0;
+        while (liberadas < total) {
+            int adquiridos = 0;
+            while (limite.adquirir()) {
+                adquiridos++;
+            }
+            for (int i = 0; i < adquiridos; i++) {
+                limite.liberar(latencia.getAsLong(), false);
+            }
+            liberadas += adquiridos;
+        }
+    }
+}
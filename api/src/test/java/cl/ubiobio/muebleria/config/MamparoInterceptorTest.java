@@ -0,0 +1,92 @@
+package cl.ubiobio.muebleria.config;
+
+import cl.ubiobio.muebleria.controllers.MuebleController;
+import cl.ubiobio.muebleria.controllers.OrdenController;
+import cl.ubiobio.muebleria.enums.Rol;
+import cl.ubiobio.muebleria.enums.TipoCarga;
+import cl.ubiobio.muebleria.security.UsuarioPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("MamparoInterceptor Tests")
+class MamparoInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void limpiar() {
+        SecurityContextHolder.clearContext();
+        DataSourcePorCarga.limpiar();
+    }
+
+    @Test
+    @DisplayName("Should route by the controller annotation and send admins to the admin bulkhead")
+    void testCarga() throws Exception {
+        // Given
+        HandlerMethod catalogo = handler(MuebleController.class, "listarPagina");
+        HandlerMethod ordenes = handler(OrdenController.class, "listar");
+
+        // When & Then
+        assertEquals(TipoCarga.CATALOGO, MamparoInterceptor.carga(catalogo));
+        assertEquals(TipoCarga.ORDENES, MamparoInterceptor.carga(ordenes));
+
+        autenticar(Rol.ADMIN);
+        assertEquals(TipoCarga.ADMIN, MamparoInterceptor.carga(ordenes));
+        assertEquals(TipoCarga.ADMIN, MamparoInterceptor.carga(new Object()));
+    }
+
+    @Test
+    @DisplayName("Should reject with 503 when the bulkhead is full and free the permit on completion")
+    void testRechazoYLiberacion() throws Exception {
+        // Given
+        MamparoInterceptor interceptor = new MamparoInterceptor(
+                Map.of(TipoCarga.CATALOGO, 1, TipoCarga.ORDENES, 1, TipoCarga.ADMIN, 1), 0, meterRegistry);
+        HandlerMethod ordenes = handler(OrdenController.class, "listar");
+        autenticar(Rol.USER);
+        MockHttpServletRequest primera = new MockHttpServletRequest();
+        MockHttpServletRequest segunda = new MockHttpServletRequest();
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+
+        // When
+        assertTrue(interceptor.preHandle(primera, new MockHttpServletResponse(), ordenes));
+        TipoCarga cargaDelHilo = DataSourcePorCarga.actual();
+        boolean segundaAceptada = interceptor.preHandle(segunda, respuesta, ordenes);
+
+        // Then
+        assertEquals(TipoCarga.ORDENES, cargaDelHilo);
+        assertFalse(segundaAceptada);
+        assertEquals(503, respuesta.getStatus());
+        assertEquals(1, meterRegistry.counter("mamparos.rechazos", "carga", "ORDENES").count());
+
+        interceptor.afterCompletion(primera, new MockHttpServletResponse(), ordenes, null);
+        assertNull(DataSourcePorCarga.actual());
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), ordenes));
+    }
+
+    private static HandlerMethod handler(Class<?> controlador, String nombre) {
+        return new HandlerMethod(mock(controlador), Arrays.stream(controlador.getMethods())
+                .filter(metodo -> metodo.getName().equals(nombre))
+                .findFirst()
+                .orElseThrow());
+    }
+
+    private static void autenticar(Rol rol) {
+        UsuarioPrincipal principal = new UsuarioPrincipal(5L, "ana", rol);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+}
@@ -0,0 +1,45 @@
+package cl.ubiobio.muebleria.reactive;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Smoke test for the reactive catalog node
+ * Starts the "reactivo" profile on a random port; no database is needed until a catalog query runs
+ */
+@SpringBootTest(classes = CatalogoReactivoApplication.class,
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "spring.profiles.active=reactivo")
+@DisplayName("CatalogoReactivoApplication Smoke Tests")
+class CatalogoReactivoApplicationTests {
+
+    @Autowired
+    private ReactiveWebServerApplicationContext context;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    @DisplayName("Should run the reactive node on Netty, not Tomcat")
+    void testCorreSobreNetty() {
+        assertInstanceOf(NettyWebServer.class, context.getWebServer());
+    }
+
+    @Test
+    @DisplayName("Should answer the health check and deny routes outside the public catalog")
+    void testRutas() {
+        webTestClient.get().uri("/").exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class).isEqualTo("Healthy :D");
+
+        webTestClient.get().uri("/api/ordenes").exchange()
+            .expectStatus().isUnauthorized();
+    }
+}
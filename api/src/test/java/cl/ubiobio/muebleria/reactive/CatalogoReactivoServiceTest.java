@@ -0,0 +1,98 @@
+package cl.ubiobio.muebleria.reactive;
+
+import cl.ubiobio.muebleria.enums.OrdenCatalogo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for CatalogoReactivoService
+ * Tests keyset SQL, cursor compatibility with the servlet path and search term handling
+ */
+@DisplayName("CatalogoReactivoService Tests")
+class CatalogoReactivoServiceTest {
+
+    private DatabaseClient databaseClient;
+    private CatalogoReactivoService catalogo;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient = mock(DatabaseClient.class);
+        catalogo = new CatalogoReactivoService(databaseClient, 500);
+    }
+
+    @Test
+    @DisplayName("Should use the same cursor format as MuebleService")
+    void testCursorCompatible() {
+        // Given
+        String cursorServlet = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString("7:Silla Roble".getBytes(StandardCharsets.UTF_8));
+
+        // When
+        CatalogoReactivoService.Posicion posicion = CatalogoReactivoService.posicionDesde(OrdenCatalogo.NOMBRE, cursorServlet);
+
+        // Then
+        assertEquals(new CatalogoReactivoService.Posicion(7, "Silla Roble"), posicion);
+        assertEquals(cursorServlet, CatalogoReactivoService.cursorDe(posicion));
+    }
+
+    @Test
+    @DisplayName("Should encode the ID as the sort key when ordering by most recent")
+    void testCursorRecientes() {
+        // When
+        String cursor = CatalogoReactivoService.cursorDe(new CatalogoReactivoService.Posicion(42, null));
+
+        // Then
+        assertEquals("42:42", new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        assertEquals(new CatalogoReactivoService.Posicion(42, null),
+            CatalogoReactivoService.posicionDesde(OrdenCatalogo.RECIENTES, cursor));
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed cursor")
+    void testCursorInvalido() {
+        assertThrows(IllegalArgumentException.class,
+            () -> CatalogoReactivoService.posicionDesde(OrdenCatalogo.PRECIO, "no-es-un-cursor"));
+        assertNull(CatalogoReactivoService.posicionDesde(OrdenCatalogo.PRECIO, null));
+    }
+
+    @Test
+    @DisplayName("Should continue after the last key with the same ordering as the servlet path")
+    void testSqlLote() {
+        // When
+        String primera = CatalogoReactivoService.sqlLote(OrdenCatalogo.STOCK, false);
+        String siguiente = CatalogoReactivoService.sqlLote(OrdenCatalogo.STOCK, true);
+
+        // Then
+        assertFalse(primera.contains(":clave"));
+        assertTrue(siguiente.contains("(m.stock < :clave OR (m.stock = :clave AND m.id_mueble > :id))"));
+        assertTrue(siguiente.endsWith("ORDER BY m.stock DESC, m.id_mueble LIMIT :limite"));
+    }
+
+    @Test
+    @DisplayName("Should require every search term")
+    void testSqlBusqueda() {
+        // When
+        String sql = CatalogoReactivoService.sqlBusqueda(2);
+
+        // Then
+        assertTrue(sql.contains("LIKE :termino0"));
+        assertTrue(sql.contains("LIKE :termino1"));
+        assertFalse(sql.contains(":termino2"));
+    }
+
+    @Test
+    @DisplayName("Should not query the database when the search has no terms")
+    void testBuscarSinTerminos() {
+        // When & Then
+        assertTrue(catalogo.buscarPorNombre(" ¿? ", 20, 0).collectList().block().isEmpty());
+        verifyNoInteractions(databaseClient);
+    }
+}
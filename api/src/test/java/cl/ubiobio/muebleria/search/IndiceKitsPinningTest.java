@@ -0,0 +1,137 @@
+package cl.ubiobio.muebleria.search;
+
+import cl.ubiobio.muebleria.models.ComponenteKit;
+import cl.ubiobio.muebleria.models.Mueble;
+import cl.ubiobio.muebleria.repositories.ComponenteKitRepository;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for virtual-thread pinning in IndiceKits, the index whose monitor sits next to a query
+ * Runs each path on a virtual thread with a repository that blocks like a JDBC round-trip
+ * and fails if JFR reports a jdk.VirtualThreadPinned event (a monitor held across the wait)
+ */
+@DisplayName("IndiceKits - Virtual Thread Pinning Tests")
+class IndiceKitsPinningTest {
+
+    // Suficiente para que un monitor retenido durante la espera genere el evento
+    private static final long LATENCIA_JDBC_MS = 5;
+
+    private ComponenteKitRepository componenteKitRepository;
+    private IndiceKits indice;
+    private Mueble silla;
+    private Mueble kit;
+    private ComponenteKit componente;
+
+    @BeforeEach
+    void setUp() {
+        componenteKitRepository = mock(ComponenteKitRepository.class);
+        indice = new IndiceKits(componenteKitRepository);
+
+        silla = new Mueble();
+        silla.setIdMueble(1);
+        silla.setNombre("Silla");
+        silla.setStock(10);
+
+        kit = new Mueble();
+        kit.setIdMueble(9);
+        kit.setStock(0);
+        kit.setEsKit(true);
+
+        componente = new ComponenteKit();
+        componente.setIdKit(9);
+        componente.setIdComponente(1);
+        componente.setCantidad(2);
+    }
+
+    @Test
+    @DisplayName("Should reindex a kit without holding the index monitor during the query")
+    void testIndexarKitSinPinning() throws Exception {
+        // Given
+        when(componenteKitRepository.findAll()).thenReturn(List.of(componente));
+        indice.reconstruir(List.of(silla, kit));
+        when(componenteKitRepository.findByIdKitOrderByIdComponenteAsc(9))
+            .thenAnswer(bloqueante(invocation -> List.of(componente)));
+
+        // When
+        List<RecordedEvent> pinned = pinnedDurante(() -> indice.indexar(kit));
+
+        // Then
+        assertTrue(pinned.isEmpty(), describir(pinned));
+        assertEquals(5, indice.stockDerivado(9));
+    }
+
+    @Test
+    @DisplayName("Should rebuild the index without holding the index monitor during the query")
+    void testReconstruirSinPinning() throws Exception {
+        // Given
+        when(componenteKitRepository.findAll()).thenAnswer(bloqueante(invocation -> List.of(componente)));
+
+        // When
+        List<RecordedEvent> pinned = pinnedDurante(() -> indice.reconstruir(List.of(silla, kit)));
+
+        // Then
+        assertTrue(pinned.isEmpty(), describir(pinned));
+        assertEquals(5, indice.stockDerivado(9));
+    }
+
+    // Respuesta que espera como un round-trip JDBC antes de contestar
+    private static <T> Answer<T> bloqueante(Answer<T> respuesta) {
+        return invocation -> {
+            Thread.sleep(LATENCIA_JDBC_MS);
+            return respuesta.answer(invocation);
+        };
+    }
+
+    // Ejecuta el flujo en un hilo virtual y devuelve los eventos de pinning registrados mientras corría
+    private static List<RecordedEvent> pinnedDurante(Runnable flujo) throws Exception {
+        List<RecordedEvent> eventos = new CopyOnWriteArrayList<>();
+        AtomicReference<Throwable> fallo = new AtomicReference<>();
+
+        try (RecordingStream stream = new RecordingStream()) {
+            stream.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            stream.onEvent("jdk.VirtualThreadPinned", eventos::add);
+            stream.startAsync();
+
+            Thread hilo = Thread.ofVirtual().name("indice-virtual").start(() -> {
+                try {
+                    flujo.run();
+                } catch (Throwable e) {
+                    fallo.set(e);
+                }
+            });
+            hilo.join();
+            // stop() vacía los eventos pendientes antes de volver
+            stream.stop();
+        }
+
+        if (fallo.get() != null) {
+            fail("El flujo falló en el hilo virtual", fallo.get());
+        }
+        return eventos;
+    }
+
+    private static String describir(List<RecordedEvent> eventos) {
+        return "Hilo virtual fijado a su carrier:\n" + eventos.stream()
+            .map(evento -> evento.getStackTrace() == null ? "(sin stack)" : evento.getStackTrace().getFrames().stream()
+                .limit(8)
+                .map(RecordedFrame::getMethod)
+                .map(metodo -> "  " + metodo.getType().getName() + "." + metodo.getName())
+                .collect(Collectors.joining("\n")))
+            .collect(Collectors.joining("\n---\n"));
+    }
+}
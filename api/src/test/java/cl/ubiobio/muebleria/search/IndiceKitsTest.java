@@ -0,0 +1,168 @@
+package cl.ubiobio.muebleria.search;
+
+import cl.ubiobio.muebleria.models.ComponenteKit;
+import cl.ubiobio.muebleria.models.Mueble;
+import cl.ubiobio.muebleria.repositories.ComponenteKitRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for IndiceKits
+ * Tests derived stock, the component -> kit dependency index and incremental updates
+ */
+@DisplayName("IndiceKits Tests")
+class IndiceKitsTest {
+
+    private ComponenteKitRepository componenteKitRepository;
+    private IndiceKits indice;
+
+    private Mueble silla;
+    private Mueble mesa;
+    private Mueble lampara;
+    private Mueble comedor;
+
+    @BeforeEach
+    void setUp() {
+        componenteKitRepository = mock(ComponenteKitRepository.class);
+        indice = new IndiceKits(componenteKitRepository);
+
+        silla = mueble(1, 10);
+        mesa = mueble(2, 3);
+        lampara = mueble(3, 7);
+        comedor = mueble(9, 0);
+        comedor.setEsKit(true);
+
+        when(componenteKitRepository.findAll()).thenReturn(List.of(componente(9, 1, 4), componente(9, 2, 1)));
+        indice.reconstruir(Arrays.asList(silla, mesa, lampara, comedor));
+    }
+
+    @Test
+    @DisplayName("Should derive kit stock from its scarcest component")
+    void testStockDerivado() {
+        assertEquals(2, indice.stockDerivado(9)); // 10 sillas / 4 = 2, 3 mesas / 1 = 3
+        assertEquals(2, comedor.getStockTotal());
+    }
+
+    @Test
+    @DisplayName("Should recompute only the kits that depend on a changed component")
+    void testIndexarComponente() {
+        // Given
+        silla.setStock(16);
+
+        // When
+        indice.indexar(silla);
+
+        // Then
+        assertEquals(3, indice.stockDerivado(9));
+        assertEquals(List.of(comedor), List.copyOf(indice.dependientes(1)));
+        assertTrue(indice.dependientes(3).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should subtract component reservations from kit availability")
+    void testDisponible() {
+        assertEquals(1, indice.disponible(9, Map.of(1, 5L)));
+        assertEquals(0, indice.disponible(9, Map.of(2, 3L)));
+    }
+
+    @Test
+    @DisplayName("Should reload the composition when the kit itself is reindexed")
+    void testIndexarKit() {
+        // Given
+        when(componenteKitRepository.findByIdKitOrderByIdComponenteAsc(9))
+            .thenReturn(List.of(componente(9, 3, 2)));
+
+        // When
+        indice.indexar(comedor);
+
+        // Then
+        assertEquals(3, indice.stockDerivado(9));
+        assertTrue(indice.dependientes(1).isEmpty());
+        assertEquals(List.of(comedor), List.copyOf(indice.dependientes(3)));
+    }
+
+    @Test
+    @DisplayName("Should not let a rebuild that read earlier overwrite a newer composition")
+    void testReconstruirNoPisaComposicionNueva() throws Exception {
+        // Given: la reconstrucción lee la composición vieja y se detiene antes de aplicarla
+        CountDownLatch leyendo = new CountDownLatch(1);
+        CountDownLatch seguir = new CountDownLatch(1);
+        when(componenteKitRepository.findAll()).thenAnswer(invocation -> {
+            leyendo.countDown();
+            seguir.await(5, TimeUnit.SECONDS);
+            return List.of(componente(9, 1, 4), componente(9, 2, 1));
+        });
+        when(componenteKitRepository.findByIdKitOrderByIdComponenteAsc(9))
+            .thenReturn(List.of(componente(9, 3, 2)));
+        Thread reconstruccion = Thread.ofVirtual()
+            .start(() -> indice.reconstruir(Arrays.asList(silla, mesa, lampara, comedor)));
+        assertTrue(leyendo.await(5, TimeUnit.SECONDS));
+
+        // When: el kit cambia de composición mientras tanto
+        Thread indexacion = Thread.ofVirtual().start(() -> indice.indexar(comedor));
+        while (indexacion.getState() != Thread.State.WAITING && indexacion.isAlive()) {
+            Thread.onSpinWait();
+        }
+        seguir.countDown();
+        reconstruccion.join();
+        indexacion.join();
+
+        // Then: queda la composición leída después (7 lámparas / 2)
+        assertEquals(3, indice.stockDerivado(9));
+        assertEquals(List.of(comedor), List.copyOf(indice.dependientes(3)));
+    }
+
+    @Test
+    @DisplayName("Should forget a kit turned back into a regular piece")
+    void testKitConvertidoEnMueble() {
+        // Given: quitarComponentes deja el comedor como mueble normal
+        Mueble exKit = mueble(9, 0);
+        exKit.setEsKit(false);
+
+        // When
+        indice.indexar(exKit);
+        silla.setStock(20);
+        indice.indexar(silla);
+
+        // Then
+        assertTrue(indice.dependientes(1).isEmpty());
+        assertTrue(indice.dependientes(2).isEmpty());
+        assertTrue(indice.componentes(9).isEmpty());
+        assertEquals(0, indice.stockDerivado(9));
+    }
+
+    @Test
+    @DisplayName("Should leave a kit without stock when one of its components is removed")
+    void testRemoverComponente() {
+        indice.remover(2);
+
+        assertEquals(0, indice.stockDerivado(9));
+    }
+
+    private static Mueble mueble(int id, int stock) {
+        Mueble mueble = new Mueble();
+        mueble.setIdMueble(id);
+        mueble.setNombre("Mueble " + id);
+        mueble.setStock(stock);
+        mueble.setEstadoLogico(true);
+        return mueble;
+    }
+
+    private static ComponenteKit componente(int idKit, int idComponente, int cantidad) {
+        ComponenteKit fila = new ComponenteKit();
+        fila.setIdKit(idKit);
+        fila.setIdComponente(idComponente);
+        fila.setCantidad(cantidad);
+        return fila;
+    }
+}
@@ -0,0 +1,183 @@
+package cl.ubiobio.muebleria.search;
+
+import cl.ubiobio.muebleria.dto.FiltroCatalogoDTO;
+import cl.ubiobio.muebleria.enums.TamanoMueble;
+import cl.ubiobio.muebleria.models.Mueble;
+import cl.ubiobio.muebleria.repositories.StockSucursalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for MuebleBitmapIndex
+ * Tests combinable filters, disjunctive facet counts and incremental updates
+ */
+@DisplayName("MuebleBitmapIndex Tests")
+class MuebleBitmapIndexTest {
+
+    private StockSucursalRepository stockSucursalRepository;
+    private MuebleBitmapIndex index;
+
+    @BeforeEach
+    void setUp() {
+        stockSucursalRepository = mock(StockSucursalRepository.class);
+        index = new MuebleBitmapIndex(stockSucursalRepository);
+        index.reconstruir(Arrays.asList(
+            mueble(1, "Silla", "Roble", TamanoMueble.PEQUENO, 15000, 10),
+            mueble(2, "Silla", "Pino", TamanoMueble.PEQUENO, 9000, 0),
+            mueble(3, "Mesa", "Roble", TamanoMueble.GRANDE, 80000, 3),
+            mueble(4, "Cómoda", "Pino", TamanoMueble.MEDIANO, 45000, 1)
+        ));
+    }
+
+    @Test
+    @DisplayName("Should return every active mueble without filters")
+    void testSinFiltros() {
+        MuebleBitmapIndex.Resultado resultado = index.filtrar(new FiltroCatalogoDTO(), 10, 0);
+
+        assertEquals(4, resultado.total());
+        assertEquals(List.of(1, 2, 3, 4), resultado.ids());
+    }
+
+    @Test
+    @DisplayName("Should AND across facets and OR within a facet")
+    void testCombinarFiltros() {
+        FiltroCatalogoDTO filtro = new FiltroCatalogoDTO();
+        filtro.setTipo(List.of("silla", "COMODA"));
+        filtro.setMaterial(List.of("Pino"));
+
+        MuebleBitmapIndex.Resultado resultado = index.filtrar(filtro, 10, 0);
+
+        assertEquals(List.of(2, 4), resultado.ids());
+    }
+
+    @Test
+    @DisplayName("Should filter by price range and stock")
+    void testPrecioYStock() {
+        FiltroCatalogoDTO filtro = new FiltroCatalogoDTO();
+        filtro.setPrecioMin(10000);
+        filtro.setPrecioMax(50000);
+        filtro.setEnStock(true);
+
+        assertEquals(List.of(1, 4), index.filtrar(filtro, 10, 0).ids());
+    }
+
+    @Test
+    @DisplayName("Should count each facet ignoring its own selection")
+    void testFacetasDisyuntivas() {
+        FiltroCatalogoDTO filtro = new FiltroCatalogoDTO();
+        filtro.setTipo(List.of("Silla"));
+
+        Map<String, Map<String, Integer>> facetas = index.filtrar(filtro, 10, 0).facetas();
+
+        // La faceta tipo no se restringe por su propio filtro
+        assertEquals(2, facetas.get(MuebleBitmapIndex.FACETA_TIPO).get("Silla"));
+        assertEquals(1, facetas.get(MuebleBitmapIndex.FACETA_TIPO).get("Mesa"));
+        assertEquals(1, facetas.get(MuebleBitmapIndex.FACETA_TIPO).get("Cómoda"));
+        // Las demás facetas sí se restringen a las sillas
+        assertEquals(1, facetas.get(MuebleBitmapIndex.FACETA_MATERIAL).get("Roble"));
+        assertEquals(1, facetas.get(MuebleBitmapIndex.FACETA_MATERIAL).get("Pino"));
+        assertEquals(2, facetas.get(MuebleBitmapIndex.FACETA_TAMANO).get("PEQUENO"));
+        assertEquals(1, facetas.get(MuebleBitmapIndex.FACETA_STOCK).get("true"));
+    }
+
+    @Test
+    @DisplayName("Should page with limit and offset")
+    void testPaginacion() {
+        MuebleBitmapIndex.Resultado resultado = index.filtrar(new FiltroCatalogoDTO(), 2, 1);
+
+        assertEquals(4, resultado.total());
+        assertEquals(List.of(2, 3), resultado.ids());
+    }
+
+    @Test
+    @DisplayName("Should update bitmaps incrementally")
+    void testMantenimientoIncremental() {
+        // When - La silla de pino recibe stock y la mesa se elimina
+        index.indexar(mueble(2, "Silla", "Pino", TamanoMueble.PEQUENO, 9000, 5));
+        index.remover(3);
+
+        FiltroCatalogoDTO filtro = new FiltroCatalogoDTO();
+        filtro.setEnStock(true);
+        MuebleBitmapIndex.Resultado resultado = index.filtrar(filtro, 10, 0);
+
+        // Then
+        assertEquals(List.of(1, 2, 4), resultado.ids());
+        assertNull(resultado.facetas().get(MuebleBitmapIndex.FACETA_TIPO).get("Mesa"));
+    }
+
+    @Test
+    @DisplayName("Should drop a facet label once no mueble uses it")
+    void testEtiquetaPodada() {
+        // Given - Se van los dos muebles de roble
+        index.remover(1);
+        index.remover(3);
+
+        // When - Llega uno nuevo escrito de otra forma
+        index.indexar(mueble(5, "Mesa", "ROBLE", TamanoMueble.GRANDE, 70000, 2));
+        Map<String, Integer> materiales = index.filtrar(new FiltroCatalogoDTO(), 10, 0)
+            .facetas().get(MuebleBitmapIndex.FACETA_MATERIAL);
+
+        // Then
+        assertEquals(1, materiales.get("ROBLE"));
+        assertNull(materiales.get("Roble"));
+    }
+
+    @Test
+    @DisplayName("Should count branch stock as in stock when rebuilding")
+    void testStockSucursalAlReconstruir() {
+        // Given - La silla de pino no tiene stock central, pero sí en una sucursal
+        when(stockSucursalRepository.findIdsMuebleConStock()).thenReturn(List.of(2));
+
+        // When
+        index.reconstruir(Arrays.asList(
+            mueble(1, "Silla", "Roble", TamanoMueble.PEQUENO, 15000, 10),
+            mueble(2, "Silla", "Pino", TamanoMueble.PEQUENO, 9000, 0)
+        ));
+        FiltroCatalogoDTO filtro = new FiltroCatalogoDTO();
+        filtro.setEnStock(true);
+        MuebleBitmapIndex.Resultado resultado = index.filtrar(filtro, 10, 0);
+
+        // Then
+        assertEquals(List.of(1, 2), resultado.ids());
+        assertEquals(2, resultado.facetas().get(MuebleBitmapIndex.FACETA_STOCK).get("true"));
+    }
+
+    @Test
+    @DisplayName("Should count branch stock as in stock when indexing one mueble")
+    void testStockSucursalAlIndexar() {
+        // Given
+        when(stockSucursalRepository.existsByIdMuebleAndStockGreaterThan(2, 0)).thenReturn(true);
+
+        // When - Cambia el precio; el stock sigue solo en la sucursal
+        index.indexar(mueble(2, "Silla", "Pino", TamanoMueble.PEQUENO, 8500, 0));
+        FiltroCatalogoDTO filtro = new FiltroCatalogoDTO();
+        filtro.setEnStock(true);
+        MuebleBitmapIndex.Resultado resultado = index.filtrar(filtro, 10, 0);
+
+        // Then
+        assertEquals(List.of(1, 2, 3, 4), resultado.ids());
+    }
+
+    private static Mueble mueble(Integer id, String tipo, String material, TamanoMueble tamano,
+                                 Integer precio, Integer stock) {
+        Mueble mueble = new Mueble();
+        mueble.setIdMueble(id);
+        mueble.setNombre(tipo + " " + id);
+        mueble.setTipo(tipo);
+        mueble.setMaterial(material);
+        mueble.setTamano(tamano);
+        mueble.setPrecioBase(precio);
+        mueble.setStock(stock);
+        mueble.setEstadoLogico(true);
+        return mueble;
+    }
+}
@@ -0,0 +1,97 @@
+package cl.ubiobio.muebleria.search;
+
+import cl.ubiobio.muebleria.models.Mueble;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for MuebleSearchIndex
+ * Tests accent folding, ranking, paging and incremental maintenance
+ */
+@DisplayName("MuebleSearchIndex Tests")
+class MuebleSearchIndexTest {
+
+    private MuebleSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new MuebleSearchIndex();
+        index.reconstruir(Arrays.asList(
+            mueble(1, "Cómoda Nórdica", "Dormitorio", "Pino"),
+            mueble(2, "Silla de Roble", "Comedor", "Roble"),
+            mueble(3, "Mesa de Comedor", "Comedor", "Roble"),
+            mueble(4, "Sofá Cama", "Living", "Tela")
+        ));
+    }
+
+    @Test
+    @DisplayName("Should match ignoring accents and case")
+    void testPlegadoDeAcentos() {
+        assertEquals(List.of(1), index.buscar("comoda", 10, 0));
+        assertEquals(List.of(1), index.buscar("CÓMODA", 10, 0));
+        assertEquals(List.of(4), index.buscar("sofa", 10, 0));
+    }
+
+    @Test
+    @DisplayName("Should match by prefix and require every term")
+    void testPrefijoYTodosLosTerminos() {
+        assertEquals(List.of(3), index.buscar("mesa come", 10, 0));
+        assertTrue(index.buscar("mesa pino", 10, 0).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should rank name matches above tipo matches")
+    void testRanking() {
+        // "comedor" es nombre+tipo en la mesa y solo tipo en la silla
+        assertEquals(List.of(3, 2), index.buscar("comedor", 10, 0));
+    }
+
+    @Test
+    @DisplayName("Should apply limit and offset")
+    void testLimitOffset() {
+        // La silla tiene "roble" en nombre y material, la mesa solo en material
+        assertEquals(List.of(2), index.buscar("roble", 1, 0));
+        assertEquals(List.of(3), index.buscar("roble", 1, 1));
+        assertTrue(index.buscar("roble", 10, 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should update incrementally on indexar and remover")
+    void testMantenimientoIncremental() {
+        // When - Renombrar y luego eliminar
+        index.indexar(mueble(2, "Banqueta Alta", "Comedor", "Roble"));
+
+        // Then
+        assertTrue(index.buscar("silla", 10, 0).isEmpty());
+        assertEquals(List.of(2), index.buscar("banqueta", 10, 0));
+
+        index.remover(2);
+        assertTrue(index.buscar("banqueta", 10, 0).isEmpty());
+        assertEquals(List.of(3), index.buscar("roble", 10, 0));
+    }
+
+    @Test
+    @DisplayName("Should return nothing for blank queries")
+    void testConsultaVacia() {
+        assertTrue(index.buscar("  ", 10, 0).isEmpty());
+        assertTrue(index.buscar(null, 10, 0).isEmpty());
+    }
+
+    private static Mueble mueble(Integer id, String nombre, String tipo, String material) {
+        Mueble mueble = new Mueble();
+        mueble.setIdMueble(id);
+        mueble.setNombre(nombre);
+        mueble.setTipo(tipo);
+        mueble.setMaterial(material);
+        mueble.setPrecioBase(10000);
+        mueble.setStock(5);
+        mueble.setEstadoLogico(true);
+        return mueble;
+    }
+}
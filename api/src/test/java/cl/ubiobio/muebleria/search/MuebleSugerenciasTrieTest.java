@@ -0,0 +1,100 @@
+package cl.ubiobio.muebleria.search;
+
+import cl.ubiobio.muebleria.dto.SugerenciaDTO;
+import cl.ubiobio.muebleria.models.Mueble;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for MuebleSugerenciasTrie
+ * Tests prefix lookup, stock-weighted ordering and incremental maintenance
+ */
+@DisplayName("MuebleSugerenciasTrie Tests")
+class MuebleSugerenciasTrieTest {
+
+    private MuebleSugerenciasTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new MuebleSugerenciasTrie();
+        trie.reconstruir(Arrays.asList(
+            mueble(1, "Silla de Roble", 5),
+            mueble(2, "Silla Gamer", 40),
+            mueble(3, "Sillón Reclinable", 12),
+            mueble(4, "Mesa de Roble", 1)
+        ));
+    }
+
+    @Test
+    @DisplayName("Should suggest by folded prefix ordered by stock")
+    void testPrefijoOrdenadoPorStock() {
+        assertEquals(List.of(2, 3, 1), ids(trie.sugerir("SIL", 10)));
+        assertEquals(List.of(3), ids(trie.sugerir("sillon", 10)));
+    }
+
+    @Test
+    @DisplayName("Should match words inside the name")
+    void testPalabrasInternas() {
+        assertEquals(List.of(1, 4), ids(trie.sugerir("rob", 10)));
+        assertEquals("Mesa de Roble", trie.sugerir("roble", 10).get(1).getNombre());
+    }
+
+    @Test
+    @DisplayName("Should respect limit and return nothing for unknown prefixes")
+    void testLimiteYSinCoincidencias() {
+        assertEquals(List.of(2), ids(trie.sugerir("s", 1)));
+        assertTrue(trie.sugerir("xyz", 10).isEmpty());
+        assertTrue(trie.sugerir(" ", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reorder and remove incrementally")
+    void testMantenimientoIncremental() {
+        // When - La silla de roble recibe stock y la silla gamer se elimina
+        trie.indexar(mueble(1, "Silla de Roble", 100));
+        trie.remover(2);
+
+        // Then
+        assertEquals(List.of(1, 3), ids(trie.sugerir("sil", 10)));
+        assertTrue(trie.sugerir("gamer", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep only the best entries per node")
+    void testTopAcotado() {
+        List<Mueble> muebles = new ArrayList<>();
+        for (int i = 1; i <= 30; i++) {
+            muebles.add(mueble(i, "Banca " + i, i));
+        }
+        trie.reconstruir(muebles);
+
+        List<Integer> sugeridos = ids(trie.sugerir("banca", 50));
+        assertEquals(MuebleSugerenciasTrie.MAX_SUGERENCIAS, sugeridos.size());
+        assertEquals(30, sugeridos.get(0));
+
+        // Al eliminar el primero entra el siguiente del subárbol
+        trie.remover(30);
+        assertEquals(20, ids(trie.sugerir("banca", 50)).get(9));
+    }
+
+    private static List<Integer> ids(List<SugerenciaDTO> sugerencias) {
+        return sugerencias.stream().map(SugerenciaDTO::getIdMueble).toList();
+    }
+
+    private static Mueble mueble(Integer id, String nombre, Integer stock) {
+        Mueble mueble = new Mueble();
+        mueble.setIdMueble(id);
+        mueble.setNombre(nombre);
+        mueble.setStock(stock);
+        mueble.setPrecioBase(10000);
+        mueble.setEstadoLogico(true);
+        return mueble;
+    }
+}
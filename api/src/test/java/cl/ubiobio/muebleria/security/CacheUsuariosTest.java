@@ -0,0 +1,82 @@
+package cl.ubiobio.muebleria.security;
+
+import cl.ubiobio.muebleria.enums.Rol;
+import cl.ubiobio.muebleria.models.Usuario;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CacheUsuarios Tests")
+class CacheUsuariosTest {
+
+    @Test
+    @DisplayName("Should load a user once and serve it by username and by id")
+    void testCargarUnaVez() {
+        // Given
+        CacheUsuarios cache = new CacheUsuarios(60_000, 10);
+        AtomicInteger consultas = new AtomicInteger();
+        Usuario ana = usuario(5L, "ana");
+
+        // When
+        cache.porUsername("ana", () -> cargar(consultas, ana));
+        Optional<Usuario> porUsername = cache.porUsername("ana", () -> cargar(consultas, ana));
+        Optional<Usuario> porId = cache.porId(5L, () -> cargar(consultas, ana));
+
+        // Then
+        assertEquals(1, consultas.get());
+        assertSame(ana, porUsername.orElseThrow());
+        assertSame(ana, porId.orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Should reload after the TTL expires")
+    void testTtl() {
+        // Given
+        CacheUsuarios cache = new CacheUsuarios(0, 10);
+        AtomicInteger consultas = new AtomicInteger();
+        Usuario ana = usuario(5L, "ana");
+
+        // When
+        cache.porUsername("ana", () -> cargar(consultas, ana));
+        cache.porUsername("ana", () -> cargar(consultas, ana));
+
+        // Then
+        assertEquals(2, consultas.get());
+    }
+
+    @Test
+    @DisplayName("Should reload after an invalidation and never cache a missing user")
+    void testInvalidar() {
+        // Given
+        CacheUsuarios cache = new CacheUsuarios(60_000, 10);
+        AtomicInteger consultas = new AtomicInteger();
+        Usuario ana = usuario(5L, "ana");
+        cache.porUsername("ana", () -> cargar(consultas, ana));
+
+        // When
+        cache.invalidar(ana);
+        cache.porId(5L, () -> cargar(consultas, ana));
+        Optional<Usuario> inexistente = cache.porUsername("nadie", Optional::empty);
+
+        // Then
+        assertEquals(2, consultas.get());
+        assertTrue(inexistente.isEmpty());
+    }
+
+    private static Optional<Usuario> cargar(AtomicInteger consultas, Usuario usuario) {
+        consultas.incrementAndGet();
+        return Optional.of(usuario);
+    }
+
+    private static Usuario usuario(Long id, String username) {
+        Usuario usuario = new Usuario();
+        usuario.setId(id);
+        usuario.setUsername(username);
+        usuario.setRol(Rol.USER);
+        return usuario;
+    }
+}
@@ -0,0 +1,112 @@
+package cl.ubiobio.muebleria.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CodificadorBcryptAcotado Tests")
+class CodificadorBcryptAcotadoTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CodificadorBcryptAcotado codificador;
+
+    @AfterEach
+    void detener() {
+        if (codificador != null) {
+            codificador.detener();
+        }
+    }
+
+    @Test
+    @DisplayName("Should hash and verify on the pool and record both timers")
+    void testCodificarYVerificar() {
+        // Given
+        codificador = new CodificadorBcryptAcotado(4, 1, 4, meterRegistry);
+
+        // When
+        String hash = codificador.encode("secreta");
+
+        // Then
+        assertTrue(codificador.matches("secreta", hash));
+        assertFalse(codificador.matches("otra", hash));
+        assertEquals(3, meterRegistry.timer("auth.bcrypt.hash").count());
+        assertEquals(3, meterRegistry.timer("auth.bcrypt.espera").count());
+    }
+
+    @Test
+    @DisplayName("Should ask for a rehash when the stored hash is weaker than the configured strength")
+    void testUpgradeEncoding() {
+        // Given
+        codificador = new CodificadorBcryptAcotado(5, 1, 4, meterRegistry);
+        String debil = new BCryptPasswordEncoder(4).encode("secreta");
+        String vigente = new BCryptPasswordEncoder(5).encode("secreta");
+
+        // When & Then
+        assertTrue(codificador.upgradeEncoding(debil));
+        assertFalse(codificador.upgradeEncoding(vigente));
+    }
+
+    @Test
+    @DisplayName("Should reject immediately when the pool and its queue are full")
+    void testRechazoSaturado() throws Exception {
+        // Given: un hilo ocupado y un lugar de cola ocupado por contraseñas que bloquean hasta liberar
+        codificador = new CodificadorBcryptAcotado(4, 1, 1, meterRegistry);
+        String hash = new BCryptPasswordEncoder(4).encode("secreta");
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<Boolean> enCurso = CompletableFuture.supplyAsync(
+                () -> codificador.matches(bloqueante("secreta", liberar), hash));
+        CompletableFuture<Boolean> encolada = CompletableFuture.supplyAsync(
+                () -> codificador.matches(bloqueante("secreta", liberar), hash));
+        long limite = System.currentTimeMillis() + 5_000;
+        while (meterRegistry.get("auth.bcrypt.cola").gauge().value() < 1 && System.currentTimeMillis() < limite) {
+            Thread.sleep(5);
+        }
+
+        // When & Then
+        assertThrows(RejectedExecutionException.class, () -> codificador.matches("secreta", hash));
+        assertEquals(1, meterRegistry.counter("auth.bcrypt.rechazos").count());
+
+        liberar.countDown();
+        assertTrue(enCurso.get(5, TimeUnit.SECONDS));
+        assertTrue(encolada.get(5, TimeUnit.SECONDS));
+    }
+
+    // Contraseña cuyo toString espera al latch: mantiene ocupado el hilo de BCrypt
+    private static CharSequence bloqueante(String valor, CountDownLatch liberar) {
+        return new CharSequence() {
+            @Override
+            public int length() {
+                return valor.length();
+            }
+
+            @Override
+            public char charAt(int index) {
+                return valor.charAt(index);
+            }
+
+            @Override
+            public CharSequence subSequence(int start, int end) {
+                return valor.subSequence(start, end);
+            }
+
+            @Override
+            public String toString() {
+                try {
+                    liberar.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return valor;
+            }
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package cl.ubiobio.muebleria.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CubetasTokens Tests")
+class CubetasTokensTest {
+
+    private static final long SEGUNDO = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("Should allow a burst up to the capacity and then ask to wait")
+    void testRafaga() {
+        // Given
+        CubetasTokens cubetas = new CubetasTokens(4);
+        CubetasTokens.Presupuesto presupuesto = new CubetasTokens.Presupuesto(3, 1);
+
+        // When & Then
+        assertEquals(0, cubetas.consumir("ORDENES|u:5", presupuesto, 0));
+        assertEquals(0, cubetas.consumir("ORDENES|u:5", presupuesto, 0));
+        assertEquals(0, cubetas.consumir("ORDENES|u:5", presupuesto, 0));
+        assertEquals(SEGUNDO, cubetas.consumir("ORDENES|u:5", presupuesto, 0));
+    }
+
+    @Test
+    @DisplayName("Should refill tokens at the configured rate")
+    void testRecarga() {
+        // Given
+        CubetasTokens cubetas = new CubetasTokens(4);
+        CubetasTokens.Presupuesto presupuesto = new CubetasTokens.Presupuesto(1, 2);
+        cubetas.consumir("AUTH|ip:1.2.3.4", presupuesto, 0);
+
+        // When & Then
+        assertTrue(cubetas.consumir("AUTH|ip:1.2.3.4", presupuesto, SEGUNDO / 4) > 0);
+        assertEquals(0, cubetas.consumir("AUTH|ip:1.2.3.4", presupuesto, SEGUNDO / 2));
+    }
+
+    @Test
+    @DisplayName("Should keep separate buckets per key")
+    void testClavesIndependientes() {
+        // Given
+        CubetasTokens cubetas = new CubetasTokens(4);
+        CubetasTokens.Presupuesto presupuesto = new CubetasTokens.Presupuesto(1, 1);
+
+        // When
+        cubetas.consumir("ORDENES|u:5", presupuesto, 0);
+
+        // Then
+        assertEquals(0, cubetas.consumir("ORDENES|u:6", presupuesto, 0));
+        assertEquals(0, cubetas.consumir("CATALOGO|u:5", presupuesto, 0));
+    }
+
+    @Test
+    @DisplayName("Should evict only buckets that have been full for the idle period")
+    void testBarrer() {
+        // Given
+        CubetasTokens cubetas = new CubetasTokens(4);
+        CubetasTokens.Presupuesto presupuesto = new CubetasTokens.Presupuesto(1, 1);
+        cubetas.consumir("inactiva", presupuesto, 0);
+        cubetas.consumir("activa", presupuesto, 10 * SEGUNDO);
+
+        // When
+        int eliminadas = cubetas.barrer(11 * SEGUNDO, 5 * SEGUNDO);
+
+        // Then
+        assertEquals(1, eliminadas);
+        assertEquals(1, cubetas.tamano());
+    }
+}
@@ -0,0 +1,53 @@
+package cl.ubiobio.muebleria.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FiltroBloom Tests")
+class FiltroBloomTest {
+
+    @Test
+    @DisplayName("Should never miss an added value")
+    void testSinFalsosNegativos() {
+        // Given
+        FiltroBloom filtro = new FiltroBloom(1_000, 0.01);
+        List<String> agregados = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            agregados.add(UUID.randomUUID().toString());
+        }
+
+        // When
+        agregados.forEach(filtro::agregar);
+
+        // Then
+        assertTrue(agregados.stream().allMatch(filtro::puedeContener));
+    }
+
+    @Test
+    @DisplayName("Should keep false positives near the configured rate")
+    void testTasaFalsosPositivos() {
+        // Given
+        FiltroBloom filtro = new FiltroBloom(1_000, 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            filtro.agregar(UUID.randomUUID().toString());
+        }
+
+        // When
+        int falsosPositivos = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filtro.puedeContener(UUID.randomUUID().toString())) {
+                falsosPositivos++;
+            }
+        }
+
+        // Then: 1% esperado; holgura para la variación aleatoria
+        assertTrue(falsosPositivos < 300, "falsos positivos: " + falsosPositivos);
+        assertEquals(7, filtro.getNumHashes());
+    }
+}
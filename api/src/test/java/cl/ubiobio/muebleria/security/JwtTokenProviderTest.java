@@ -0,0 +1,134 @@
+package cl.ubiobio.muebleria.security;
+
+import cl.ubiobio.muebleria.enums.Rol;
+import cl.ubiobio.muebleria.models.TokenRevocado;
+import cl.ubiobio.muebleria.models.Usuario;
+import cl.ubiobio.muebleria.repositories.TokenRevocadoRepository;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("JwtTokenProvider Tests")
+class JwtTokenProviderTest {
+
+    private static final String SECRETO = "claveDePruebaSuficientementeLargaParaFirmarConHS256";
+
+    private VersionesToken versiones;
+    private TokenRevocadoRepository tokenRevocadoRepository;
+    private RevocacionesToken revocaciones;
+
+    @BeforeEach
+    void setUp() {
+        versiones = new VersionesToken();
+        tokenRevocadoRepository = mock(TokenRevocadoRepository.class);
+        revocaciones = new RevocacionesToken(tokenRevocadoRepository, 100, 0.01, 1000);
+    }
+
+    @Test
+    @DisplayName("Should verify a token once and serve later checks from the cache")
+    void testVerificarConCache() {
+        // Given
+        JwtTokenProvider provider = new JwtTokenProvider(SECRETO, 60_000, 10, versiones, revocaciones);
+        String token = provider.generateToken(usuario(5L, "ana", Rol.USER));
+
+        // When
+        Claims primera = provider.verificar(token);
+        Claims segunda = provider.verificar(token);
+
+        // Then
+        assertEquals("ana", primera.getSubject());
+        assertSame(primera, segunda);
+        assertEquals("ana", provider.getUsernameFromToken(token));
+    }
+
+    @Test
+    @DisplayName("Should reject tampered tokens and tokens signed with another key")
+    void testRechazarFirmaInvalida() {
+        // Given
+        JwtTokenProvider provider = new JwtTokenProvider(SECRETO, 60_000, 10, versiones, revocaciones);
+        JwtTokenProvider otro = new JwtTokenProvider(SECRETO + "-otro", 60_000, 10, versiones, revocaciones);
+        String token = provider.generateToken(usuario(5L, "ana", Rol.USER));
+        String alterado = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        // Then
+        assertNull(provider.verificar(alterado));
+        assertNull(otro.verificar(token));
+        assertFalse(provider.validateToken("no-es-un-jwt"));
+    }
+
+    @Test
+    @DisplayName("Should reject expired tokens")
+    void testRechazarExpirado() {
+        // Given
+        JwtTokenProvider provider = new JwtTokenProvider(SECRETO, -1_000, 10, versiones, revocaciones);
+        String token = provider.generateToken(usuario(5L, "ana", Rol.USER));
+
+        // Then
+        assertNull(provider.verificar(token));
+    }
+
+    @Test
+    @DisplayName("Should build the principal from the token claims")
+    void testPrincipal() {
+        // Given
+        JwtTokenProvider provider = new JwtTokenProvider(SECRETO, 60_000, 10, versiones, revocaciones);
+        String token = provider.generateToken(usuario(5L, "ana", Rol.ADMIN));
+
+        // When
+        UsuarioPrincipal principal = provider.principal(provider.verificar(token));
+
+        // Then
+        assertEquals(new UsuarioPrincipal(5L, "ana", Rol.ADMIN), principal);
+        assertEquals("ana", principal.getName());
+    }
+
+    @Test
+    @DisplayName("Should revoke tokens issued before the user's version was bumped")
+    void testRevocarPorVersion() {
+        // Given
+        JwtTokenProvider provider = new JwtTokenProvider(SECRETO, 60_000, 10, versiones, revocaciones);
+        String anterior = provider.generateToken(usuario(5L, "ana", Rol.ADMIN));
+
+        // When
+        versiones.registrar(5L, 1);
+        Usuario degradado = usuario(5L, "ana", Rol.USER);
+        degradado.setVersionToken(1);
+        String nuevo = provider.generateToken(degradado);
+
+        // Then
+        assertNull(provider.principal(provider.verificar(anterior)));
+        assertEquals(Rol.USER, provider.principal(provider.verificar(nuevo)).getRol());
+    }
+
+    @Test
+    @DisplayName("Should reject a token after it is revoked by its jti")
+    void testRevocarPorJti() {
+        // Given
+        JwtTokenProvider provider = new JwtTokenProvider(SECRETO, 60_000, 10, versiones, revocaciones);
+        String revocado = provider.generateToken(usuario(5L, "ana", Rol.USER));
+        String vigente = provider.generateToken(usuario(5L, "ana", Rol.USER));
+        String jti = provider.verificar(revocado).getId();
+
+        // When
+        provider.revocar(revocado);
+        when(tokenRevocadoRepository.existsByJti(jti)).thenReturn(true);
+
+        // Then
+        verify(tokenRevocadoRepository).save(any(TokenRevocado.class));
+        assertNull(provider.principal(provider.verificar(revocado)));
+        assertNotNull(provider.principal(provider.verificar(vigente)));
+    }
+
+    private static Usuario usuario(Long id, String username, Rol rol) {
+        Usuario usuario = new Usuario();
+        usuario.setId(id);
+        usuario.setUsername(username);
+        usuario.setRol(rol);
+        return usuario;
+    }
+}
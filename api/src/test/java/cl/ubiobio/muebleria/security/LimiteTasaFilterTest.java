@@ -0,0 +1,72 @@
+package cl.ubiobio.muebleria.security;
+
+import cl.ubiobio.muebleria.enums.Rol;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LimiteTasaFilter Tests")
+class LimiteTasaFilterTest {
+
+    private LimiteTasaFilter filtro;
+
+    @BeforeEach
+    void setUp() {
+        // Órdenes: 1 por usuario y 2 por IP, sin recarga apreciable durante el test
+        filtro = new LimiteTasaFilter(true, 4, 300_000, 2, 100, 20, 5, 0.1, 1, 0.001);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should limit only credential routes in the auth group")
+    void testGrupoAuth() {
+        assertEquals(LimiteTasaFilter.GrupoRuta.AUTH, LimiteTasaFilter.grupo(peticion("/api/auth/login")));
+        assertEquals(LimiteTasaFilter.GrupoRuta.AUTH, LimiteTasaFilter.grupo(peticion("/api/auth/register")));
+        assertNull(LimiteTasaFilter.grupo(peticion("/api/auth/refresh")));
+        assertNull(LimiteTasaFilter.grupo(peticion("/api/auth/me")));
+        assertNull(LimiteTasaFilter.grupo(peticion("/api/auth/logout")));
+    }
+
+    @Test
+    @DisplayName("Should not charge the shared IP bucket for a user over their own limit")
+    void testUsuarioRechazadoNoGastaIp() throws Exception {
+        // Given: el usuario 1 agota su cubeta; su segundo intento no debe gastar la de la IP
+        assertEquals(200, filtrar(1L));
+        assertEquals(429, filtrar(1L));
+
+        // When: otro usuario detrás de la misma IP
+        int estado = filtrar(2L);
+
+        // Then
+        assertEquals(200, estado);
+    }
+
+    private int filtrar(Long idUsuario) throws Exception {
+        UsuarioPrincipal principal = new UsuarioPrincipal(idUsuario, "u" + idUsuario, Rol.USER);
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(peticion("/api/ordenes"), response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    private static MockHttpServletRequest peticion(String ruta) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", ruta);
+        request.setRemoteAddr("10.0.0.7");
+        return request;
+    }
+}
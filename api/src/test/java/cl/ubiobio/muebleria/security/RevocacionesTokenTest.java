@@ -0,0 +1,74 @@
+package cl.ubiobio.muebleria.security;
+
+import cl.ubiobio.muebleria.models.TokenRevocado;
+import cl.ubiobio.muebleria.repositories.TokenRevocadoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RevocacionesToken Tests")
+class RevocacionesTokenTest {
+
+    @Mock
+    private TokenRevocadoRepository tokenRevocadoRepository;
+
+    private RevocacionesToken revocaciones;
+
+    @BeforeEach
+    void setUp() {
+        revocaciones = new RevocacionesToken(tokenRevocadoRepository, 100, 0.01, 10);
+    }
+
+    @Test
+    @DisplayName("Should pick up a revocation committed after one with a higher id")
+    void testRecargarFueraDeOrden() {
+        // Given: la 8 se confirmó antes que la 7, que seguía en su transacción
+        TokenRevocado siete = revocado(7L, "jti-7");
+        TokenRevocado ocho = revocado(8L, "jti-8");
+        when(tokenRevocadoRepository.findByIdRevocacionGreaterThanAndExpiraAfterOrderByIdRevocacion(eq(0L), any()))
+            .thenReturn(List.of(ocho), List.of(siete, ocho));
+        when(tokenRevocadoRepository.existsByJti("jti-7")).thenReturn(true);
+
+        // When
+        revocaciones.recargar();
+        revocaciones.recargar();
+
+        // Then
+        assertTrue(revocaciones.revocado("jti-7"));
+    }
+
+    @Test
+    @DisplayName("Should re-read only a window of ids below the last one loaded")
+    void testRecargarVentana() {
+        // Given
+        when(tokenRevocadoRepository.findByIdRevocacionGreaterThanAndExpiraAfterOrderByIdRevocacion(eq(0L), any()))
+            .thenReturn(List.of(revocado(50L, "jti-50")));
+
+        // When
+        revocaciones.recargar();
+        revocaciones.recargar();
+
+        // Then
+        verify(tokenRevocadoRepository).findByIdRevocacionGreaterThanAndExpiraAfterOrderByIdRevocacion(eq(40L), any());
+    }
+
+    private static TokenRevocado revocado(Long id, String jti) {
+        TokenRevocado revocado = new TokenRevocado();
+        revocado.setIdRevocacion(id);
+        revocado.setJti(jti);
+        revocado.setExpira(LocalDateTime.now().plusMinutes(15));
+        return revocado;
+    }
+}
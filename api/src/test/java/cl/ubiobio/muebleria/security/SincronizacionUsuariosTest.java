@@ -0,0 +1,106 @@
+package cl.ubiobio.muebleria.security;
+
+import cl.ubiobio.muebleria.repositories.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SincronizacionUsuarios Tests")
+class SincronizacionUsuariosTest {
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private CacheUsuarios cacheUsuarios;
+
+    private VersionesToken versionesToken;
+    private SincronizacionUsuarios sincronizacion;
+
+    @BeforeEach
+    void setUp() {
+        versionesToken = new VersionesToken();
+        sincronizacion = new SincronizacionUsuarios(usuarioRepository, versionesToken, cacheUsuarios);
+    }
+
+    @Test
+    @DisplayName("Should reload token versions and flush the user cache only when the change version moves")
+    void testSincronizar() {
+        // Given
+        UsuarioRepository.VersionUsuario version = mock(UsuarioRepository.VersionUsuario.class);
+        when(version.getId()).thenReturn(5L);
+        when(version.getVersionToken()).thenReturn(2);
+        when(usuarioRepository.sumarVersionesToken()).thenReturn(2L, 2L);
+        when(usuarioRepository.findVersionesToken()).thenReturn(List.of(version));
+
+        // When
+        sincronizacion.sincronizar();
+        sincronizacion.sincronizar();
+
+        // Then
+        assertEquals(2, versionesToken.actual(5L));
+        verify(usuarioRepository, times(1)).findVersionesToken();
+        verify(cacheUsuarios, times(1)).invalidarTodo();
+    }
+
+    @Test
+    @DisplayName("Should keep a newer local revocation over an older database read")
+    void testConservarRevocacionLocal() {
+        // Given
+        versionesToken.registrar(5L, 3);
+        when(usuarioRepository.sumarVersionesToken()).thenReturn(2L);
+        when(usuarioRepository.findVersionesToken()).thenReturn(List.of());
+
+        // When
+        sincronizacion.sincronizar();
+
+        // Then
+        assertEquals(3, versionesToken.actual(5L));
+    }
+
+    @Test
+    @DisplayName("Should pick up a user deactivated in the database without a version bump")
+    void testSincronizarInactivos() {
+        // Given
+        when(usuarioRepository.sumarVersionesToken()).thenReturn(0L, 0L);
+        when(usuarioRepository.findVersionesToken()).thenReturn(List.of());
+        when(usuarioRepository.findIdsInactivos()).thenReturn(List.of(), List.of(5L));
+
+        // When
+        sincronizacion.sincronizar();
+        boolean antes = versionesToken.activo(5L);
+        sincronizacion.sincronizar();
+
+        // Then
+        assertTrue(antes);
+        assertFalse(versionesToken.activo(5L));
+        verify(cacheUsuarios, times(2)).invalidarTodo();
+    }
+
+    @Test
+    @DisplayName("Should notice a swap of inactive users that keeps their count and id sum")
+    void testSincronizarIntercambioInactivos() {
+        // Given: se reactivan 1 y 4 y se desactivan 2 y 3 (mismo conteo, misma suma)
+        when(usuarioRepository.sumarVersionesToken()).thenReturn(0L, 0L);
+        when(usuarioRepository.findVersionesToken()).thenReturn(List.of());
+        when(usuarioRepository.findIdsInactivos()).thenReturn(List.of(1L, 4L), List.of(2L, 3L));
+
+        // When
+        sincronizacion.sincronizar();
+        sincronizacion.sincronizar();
+
+        // Then
+        assertTrue(versionesToken.activo(1L));
+        assertFalse(versionesToken.activo(2L));
+        verify(cacheUsuarios, times(2)).invalidarTodo();
+    }
+}
@@ -0,0 +1,117 @@
+package cl.ubiobio.muebleria.security;
+
+import cl.ubiobio.muebleria.enums.Rol;
+import cl.ubiobio.muebleria.models.TokenRefresco;
+import cl.ubiobio.muebleria.models.Usuario;
+import cl.ubiobio.muebleria.repositories.TokenRefrescoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TokensRefresco Tests")
+class TokensRefrescoTest {
+
+    @Mock
+    private TokenRefrescoRepository tokenRefrescoRepository;
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    private TokensRefresco tokensRefresco;
+
+    private Usuario usuario;
+
+    @BeforeEach
+    void setUp() {
+        tokensRefresco = new TokensRefresco(tokenRefrescoRepository, userDetailsService, 60_000);
+
+        usuario = new Usuario();
+        usuario.setId(5L);
+        usuario.setUsername("ana");
+        usuario.setRol(Rol.USER);
+    }
+
+    @Test
+    @DisplayName("Should store only the hash of an issued token")
+    void testEmitir() {
+        // When
+        String token = tokensRefresco.emitir(usuario);
+
+        // Then
+        ArgumentCaptor<TokenRefresco> guardado = ArgumentCaptor.forClass(TokenRefresco.class);
+        verify(tokenRefrescoRepository).save(guardado.capture());
+        assertEquals(5L, guardado.getValue().getIdUsuario());
+        assertEquals(64, guardado.getValue().getHash().length());
+        assertNotEquals(token, guardado.getValue().getHash());
+    }
+
+    @Test
+    @DisplayName("Should consume the token and issue the next one in the same family")
+    void testRotar() {
+        // Given
+        TokenRefresco actual = token(1L, "familia-1", LocalDateTime.now().plusDays(1));
+        when(tokenRefrescoRepository.findByHash(anyString())).thenReturn(Optional.of(actual));
+        when(tokenRefrescoRepository.consumir(eq(1L), any(LocalDateTime.class))).thenReturn(1);
+        when(userDetailsService.getUserById(5L)).thenReturn(usuario);
+
+        // When
+        TokensRefresco.Rotacion rotacion = tokensRefresco.rotar("valor");
+
+        // Then
+        assertSame(usuario, rotacion.usuario());
+        assertNotNull(rotacion.token());
+        ArgumentCaptor<TokenRefresco> guardado = ArgumentCaptor.forClass(TokenRefresco.class);
+        verify(tokenRefrescoRepository).save(guardado.capture());
+        assertEquals("familia-1", guardado.getValue().getFamilia());
+        verify(tokenRefrescoRepository, never()).revocarFamilia(anyString(), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Should revoke the whole family when a consumed token is reused")
+    void testRotarReusado() {
+        // Given
+        TokenRefresco actual = token(1L, "familia-1", LocalDateTime.now().plusDays(1));
+        when(tokenRefrescoRepository.findByHash(anyString())).thenReturn(Optional.of(actual));
+        when(tokenRefrescoRepository.consumir(eq(1L), any(LocalDateTime.class))).thenReturn(0);
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> tokensRefresco.rotar("valor"));
+        verify(tokenRefrescoRepository).revocarFamilia(eq("familia-1"), any(LocalDateTime.class));
+        verify(tokenRefrescoRepository, never()).save(any(TokenRefresco.class));
+    }
+
+    @Test
+    @DisplayName("Should reject an expired token without consuming it")
+    void testRotarExpirado() {
+        // Given
+        TokenRefresco actual = token(1L, "familia-1", LocalDateTime.now().minusMinutes(1));
+        when(tokenRefrescoRepository.findByHash(anyString())).thenReturn(Optional.of(actual));
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> tokensRefresco.rotar("valor"));
+        verify(tokenRefrescoRepository, never()).consumir(any(), any());
+    }
+
+    private static TokenRefresco token(Long id, String familia, LocalDateTime expira) {
+        TokenRefresco token = new TokenRefresco();
+        token.setIdToken(id);
+        token.setIdUsuario(5L);
+        token.setFamilia(familia);
+        token.setExpira(expira);
+        return token;
+    }
+}
@@ -0,0 +1,143 @@
+package cl.ubiobio.muebleria.services;
+
+import cl.ubiobio.muebleria.dto.AjustePrecioRequestDTO;
+import cl.ubiobio.muebleria.dto.AjustePrecioResultadoDTO;
+import cl.ubiobio.muebleria.dto.FiltroCatalogoDTO;
+import cl.ubiobio.muebleria.enums.ReglaPrecio;
+import cl.ubiobio.muebleria.enums.TamanoMueble;
+import cl.ubiobio.muebleria.search.CatalogoIndices;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AjustePrecioService Tests")
+class AjustePrecioServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private CatalogoIndices catalogoIndices;
+
+    @InjectMocks
+    private AjustePrecioService ajustePrecioService;
+
+    @Test
+    @DisplayName("Should apply a percentage to the filtered set with a single UPDATE")
+    void testAjustarPorcentaje() {
+        // Given
+        FiltroCatalogoDTO filtro = new FiltroCatalogoDTO();
+        filtro.setTipo(List.of(" Comedor "));
+        filtro.setMaterial(List.of("ROBLE", "Raulí"));
+        AjustePrecioRequestDTO request = new AjustePrecioRequestDTO();
+        request.setFiltro(filtro);
+        request.setRegla(ReglaPrecio.PORCENTAJE);
+        request.setValor(7);
+
+        when(jdbcTemplate.queryForList("SELECT DISTINCT tipo FROM muebles WHERE tipo IS NOT NULL", String.class))
+            .thenReturn(List.of("comedor", "Cocina"));
+        when(jdbcTemplate.queryForList("SELECT DISTINCT material FROM muebles WHERE material IS NOT NULL", String.class))
+            .thenReturn(List.of("Róble ", "Pino", "RAULI"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(12);
+        when(catalogoIndices.getVersion()).thenReturn(5L);
+
+        // When
+        AjustePrecioResultadoDTO resultado = ajustePrecioService.ajustar(request);
+
+        // Then
+        assertEquals(12, resultado.getAfectados());
+        assertEquals(5L, resultado.getVersionCatalogo());
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> parametros = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(1)).update(sql.capture(), parametros.capture());
+        assertTrue(sql.getValue().startsWith("UPDATE muebles SET precio_base = GREATEST("));
+        assertTrue(sql.getValue().endsWith(
+            "WHERE estado_logico = TRUE AND tipo IN (?) AND material IN (?, ?)"));
+        // Mismo plegado que /filtrar: sin mayúsculas, espacios ni tildes
+        assertArrayEquals(new Object[]{7, 7, 7, "comedor", "Róble ", "RAULI"}, parametros.getValue());
+        verify(catalogoIndices, times(1)).reconstruir();
+    }
+
+    @Test
+    @DisplayName("Should build the filter with sizes, price range and stock")
+    void testCondicionFiltro() {
+        // Given
+        FiltroCatalogoDTO filtro = new FiltroCatalogoDTO();
+        filtro.setTamano(List.of(TamanoMueble.PEQUENO, TamanoMueble.GRANDE));
+        filtro.setPrecioMin(1000);
+        filtro.setPrecioMax(5000);
+        filtro.setEnStock(true);
+        List<Object> parametros = new ArrayList<>();
+
+        // When
+        String condicion = ajustePrecioService.condicionFiltro(filtro, parametros);
+
+        // Then
+        assertEquals("estado_logico = TRUE AND tamano IN (?, ?) AND precio_base >= ? AND precio_base <= ? AND stock > 0",
+            condicion);
+        assertEquals(List.of("PEQUENO", "GRANDE", 1000, 5000), parametros);
+    }
+
+    @Test
+    @DisplayName("Should match nothing when no stored type folds to the requested one")
+    void testCondicionFiltroSinTipo() {
+        // Given
+        FiltroCatalogoDTO filtro = new FiltroCatalogoDTO();
+        filtro.setTipo(List.of("Escritorio"));
+        when(jdbcTemplate.queryForList("SELECT DISTINCT tipo FROM muebles WHERE tipo IS NOT NULL", String.class))
+            .thenReturn(List.of("Comedor"));
+        List<Object> parametros = new ArrayList<>();
+
+        // When
+        String condicion = ajustePrecioService.condicionFiltro(filtro, parametros);
+
+        // Then
+        assertEquals("estado_logico = TRUE AND FALSE", condicion);
+        assertTrue(parametros.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject an out of range percentage without touching the database")
+    void testAjustarPorcentajeInvalido() {
+        // Given
+        AjustePrecioRequestDTO request = new AjustePrecioRequestDTO();
+        request.setRegla(ReglaPrecio.PORCENTAJE);
+        request.setValor(-150);
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> ajustePrecioService.ajustar(request));
+        verifyNoInteractions(jdbcTemplate, catalogoIndices);
+    }
+
+    @Test
+    @DisplayName("Should not rebuild indexes when no row matched")
+    void testAjustarSinCoincidencias() {
+        // Given
+        AjustePrecioRequestDTO request = new AjustePrecioRequestDTO();
+        request.setRegla(ReglaPrecio.REDONDEO);
+        request.setValor(990);
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(0);
+
+        // When
+        AjustePrecioResultadoDTO resultado = ajustePrecioService.ajustar(request);
+
+        // Then
+        assertEquals(0, resultado.getAfectados());
+        verify(catalogoIndices, never()).reconstruir();
+    }
+}
@@ -0,0 +1,92 @@
+package cl.ubiobio.muebleria.services;
+
+import cl.ubiobio.muebleria.dto.OrdenDTO;
+import cl.ubiobio.muebleria.enums.EstadoOrden;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CacheOrdenesCerradas Tests")
+class CacheOrdenesCerradasTest {
+
+    private CacheOrdenesCerradas cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CacheOrdenesCerradas(new ObjectMapper().findAndRegisterModules(), 2);
+    }
+
+    @Test
+    @DisplayName("Should keep closed orders only")
+    void testSoloCerradas() {
+        // When
+        byte[] json = cache.serializar(orden(1, EstadoOrden.VENTA), 7L, cache.generacion(1));
+        cache.serializar(orden(2, EstadoOrden.COTIZACION), 7L, cache.generacion(2));
+
+        // Then
+        assertTrue(new String(json, StandardCharsets.UTF_8).contains("\"idOrden\":1"));
+        assertSame(json, cache.buscar(1).json());
+        assertEquals(7L, cache.buscar(1).idUsuario());
+        assertNull(cache.buscar(2));
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used order when full")
+    void testLru() {
+        // Given
+        cache.serializar(orden(1, EstadoOrden.VENTA), 7L, cache.generacion(1));
+        cache.serializar(orden(2, EstadoOrden.VENTA), 7L, cache.generacion(2));
+        cache.buscar(1);
+
+        // When
+        cache.serializar(orden(3, EstadoOrden.CANCELADA), 7L, cache.generacion(3));
+
+        // Then
+        assertEquals(2, cache.tamano());
+        assertNotNull(cache.buscar(1));
+        assertNull(cache.buscar(2));
+        assertNotNull(cache.buscar(3));
+    }
+
+    @Test
+    @DisplayName("Should drop every state of an order when invalidated")
+    void testInvalidar() {
+        // Given
+        cache.serializar(orden(1, EstadoOrden.VENTA), 7L, cache.generacion(1));
+
+        // When
+        cache.invalidar(1);
+
+        // Then
+        assertNull(cache.buscar(1));
+    }
+
+    @Test
+    @DisplayName("Should not store an order read before a concurrent invalidation")
+    void testNoGuardaLecturaAnteriorAInvalidar() {
+        // Given: una lectura toma la generación y lee la orden aún en VENTA
+        long generacion = cache.generacion(1);
+
+        // When: la cancelación invalida antes de que la lectura guarde
+        cache.invalidar(1);
+        byte[] json = cache.serializar(orden(1, EstadoOrden.VENTA), 7L, generacion);
+
+        // Then
+        assertNotNull(json);
+        assertNull(cache.buscar(1));
+        cache.serializar(orden(1, EstadoOrden.CANCELADA), 7L, cache.generacion(1));
+        assertNotNull(cache.buscar(1));
+    }
+
+    private static OrdenDTO orden(Integer id, EstadoOrden estado) {
+        OrdenDTO orden = new OrdenDTO();
+        orden.setIdOrden(id);
+        orden.setEstadoOrden(estado);
+        return orden;
+    }
+}
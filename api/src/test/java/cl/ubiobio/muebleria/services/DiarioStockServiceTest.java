@@ -0,0 +1,267 @@
+package cl.ubiobio.muebleria.services;
+
+import cl.ubiobio.muebleria.dto.StockHistoricoDTO;
+import cl.ubiobio.muebleria.enums.MotivoMovimiento;
+import cl.ubiobio.muebleria.models.CheckpointStock;
+import cl.ubiobio.muebleria.repositories.CheckpointStockRepository;
+import cl.ubiobio.muebleria.repositories.MovimientoStockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DiarioStockService Tests")
+class DiarioStockServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private MovimientoStockRepository movimientoRepository;
+
+    @Mock
+    private CheckpointStockRepository checkpointRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DiarioStockService diarioStock;
+
+    @BeforeEach
+    void setUp() {
+        diarioStock = new DiarioStockService(jdbcTemplate, movimientoRepository, checkpointRepository,
+            transactionManager, 90);
+    }
+
+    @AfterEach
+    void limpiarSincronizacion() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should compute stock at an instant from the latest checkpoint plus later movements")
+    void testStockEn() {
+        // Given
+        LocalDateTime instante = LocalDateTime.of(2025, 3, 1, 12, 0);
+        CheckpointStock checkpoint = new CheckpointStock();
+        checkpoint.setIdMueble(1);
+        checkpoint.setStock(40);
+        checkpoint.setFecha(LocalDateTime.of(2025, 3, 1, 10, 0));
+        checkpoint.setIdUltimoMovimiento(900L);
+
+        when(checkpointRepository.findFirstByIdMuebleAndFechaLessThanEqualOrderByFechaDesc(1, instante))
+            .thenReturn(Optional.of(checkpoint));
+        when(movimientoRepository.sumarDelta(1, 900L, Long.MAX_VALUE, instante)).thenReturn(-7L);
+
+        // When
+        StockHistoricoDTO resultado = diarioStock.stockEn(1, instante);
+
+        // Then
+        assertEquals(33, resultado.getStock());
+    }
+
+    @Test
+    @DisplayName("Should stop the journal scan at the next checkpoint")
+    void testStockEnAcotadoPorCheckpointSiguiente() {
+        // Given
+        LocalDateTime instante = LocalDateTime.of(2025, 3, 1, 12, 0);
+        CheckpointStock anterior = new CheckpointStock();
+        anterior.setStock(40);
+        anterior.setIdUltimoMovimiento(900L);
+        CheckpointStock siguiente = new CheckpointStock();
+        siguiente.setStock(31);
+        siguiente.setIdUltimoMovimiento(1200L);
+
+        when(checkpointRepository.findFirstByIdMuebleAndFechaLessThanEqualOrderByFechaDesc(1, instante))
+            .thenReturn(Optional.of(anterior));
+        when(checkpointRepository.findFirstByIdMuebleAndFechaGreaterThanOrderByFechaAsc(1, instante))
+            .thenReturn(Optional.of(siguiente));
+        when(movimientoRepository.sumarDelta(1, 900L, 1200L, instante)).thenReturn(-4L);
+
+        // When
+        StockHistoricoDTO resultado = diarioStock.stockEn(1, instante);
+
+        // Then
+        assertEquals(36, resultado.getStock());
+    }
+
+    @Test
+    @DisplayName("Should replay the journal from zero when there is no checkpoint yet")
+    void testStockEnSinCheckpoint() {
+        // Given
+        LocalDateTime instante = LocalDateTime.of(2025, 3, 1, 12, 0);
+        when(checkpointRepository.findFirstByIdMuebleAndFechaLessThanEqualOrderByFechaDesc(5, instante))
+            .thenReturn(Optional.empty());
+        when(movimientoRepository.sumarDelta(5, 0L, Long.MAX_VALUE, instante)).thenReturn(12L);
+
+        // When
+        StockHistoricoDTO resultado = diarioStock.stockEn(5, instante);
+
+        // Then
+        assertEquals(12, resultado.getStock());
+    }
+
+    @Test
+    @DisplayName("Should buffer movements of a transaction and insert them in one batch before commit")
+    void testRegistrarEnTransaccion() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        diarioStock.registrar(1, -2, MotivoMovimiento.VENTA, 10);
+        diarioStock.registrar(2, -1, MotivoMovimiento.VENTA, 10);
+        diarioStock.registrar(3, 0, MotivoMovimiento.VENTA, 10);
+
+        // Then
+        verifyNoInteractions(jdbcTemplate);
+        for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+            sincronizacion.beforeCommit(false);
+        }
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), argThat((List<Object[]> filas) -> filas.size() == 2));
+    }
+
+    @Test
+    @DisplayName("Should keep the movements of a REQUIRES_NEW transaction out of the suspended one")
+    void testRegistrarEnTransaccionAnidada() {
+        // Given: la exterior ya registró un movimiento
+        TransactionSynchronizationManager.initSynchronization();
+        diarioStock.registrar(1, -2, MotivoMovimiento.VENTA, 10);
+
+        // When: REQUIRES_NEW suspende las sincronizaciones de la exterior y abre las suyas
+        List<TransactionSynchronization> exterior = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        diarioStock.registrar(2, 5, MotivoMovimiento.RECEPCION, null);
+        for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+            sincronizacion.beforeCommit(false);
+        }
+
+        // Then: la interior escribe solo lo suyo y lo de la exterior sigue pendiente
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(),
+            argThat((List<Object[]> filas) -> filas.size() == 1 && filas.get(0)[0].equals(2)));
+        for (TransactionSynchronization sincronizacion : exterior) {
+            sincronizacion.beforeCommit(false);
+        }
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(),
+            argThat((List<Object[]> filas) -> filas.size() == 1 && filas.get(0)[0].equals(1)));
+    }
+
+    @Test
+    @DisplayName("Should derive balances up to the anchor from one repeatable-read snapshot without locking reads")
+    @SuppressWarnings("unchecked")
+    void testCheckpoint() {
+        // Given
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(900L);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(900L)))
+            .thenReturn(List.of(new Object[]{1, 40, null, 900L}, new Object[]{2, 3, null, 900L}));
+
+        // When
+        diarioStock.checkpoint();
+
+        // Then
+        InOrder orden = inOrder(transactionManager, jdbcTemplate);
+        orden.verify(transactionManager).getTransaction(argThat(definicion ->
+            definicion.getIsolationLevel() == TransactionDefinition.ISOLATION_REPEATABLE_READ));
+        orden.verify(jdbcTemplate).queryForObject(startsWith("SELECT COALESCE(MAX(id_movimiento)"), eq(Long.class));
+        orden.verify(jdbcTemplate).query(argThat((String sql) -> sql.startsWith("SELECT") && !sql.contains("FOR UPDATE")),
+            any(RowMapper.class), eq(900L));
+        orden.verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO checkpoints_stock"),
+            argThat((List<Object[]> filas) -> filas.size() == 2));
+        orden.verify(transactionManager).commit(any());
+        orden.verify(jdbcTemplate).update(startsWith("DELETE FROM checkpoints_stock"), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Should keep the first checkpoint and one per day once past the retention")
+    void testPodarDejaUnoPorDia() {
+        // Given: H2 real; checkpoints cada 12 horas desde hace 100 días (retención: 90)
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:diario;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate h2 = new JdbcTemplate(dataSource);
+        h2.execute("CREATE TABLE muebles (id_mueble INT PRIMARY KEY, stock INT NOT NULL)");
+        h2.execute("CREATE TABLE stock_shards (id_mueble INT NOT NULL, stock INT NOT NULL)");
+        h2.execute("CREATE TABLE movimientos_stock (id_movimiento BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+            "id_mueble INT NOT NULL, id_sucursal INT, delta INT NOT NULL)");
+        h2.execute("CREATE TABLE checkpoints_stock (id_checkpoint BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+            "id_mueble INT NOT NULL, stock INT NOT NULL, fecha TIMESTAMP NOT NULL, id_ultimo_movimiento BIGINT NOT NULL)");
+        LocalDateTime inicio = LocalDateTime.now().minusDays(100).withHour(6).truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime limite = LocalDateTime.now().minusDays(90);
+        for (int i = 0; i < 200; i++) {
+            h2.update("INSERT INTO checkpoints_stock (id_mueble, stock, fecha, id_ultimo_movimiento) VALUES (1, 0, ?, 0)",
+                Timestamp.valueOf(inicio.plusHours(12L * i)));
+        }
+        DiarioStockService conH2 = new DiarioStockService(h2, movimientoRepository, checkpointRepository,
+            new DataSourceTransactionManager(dataSource), 90);
+
+        String sqlVigentes = "SELECT COUNT(*) FROM checkpoints_stock WHERE fecha >= ?";
+        Integer vigentes = h2.queryForObject(sqlVigentes, Integer.class, Timestamp.valueOf(limite));
+
+        try {
+            // When
+            conH2.checkpoint();
+
+            // Then: el primero, el último de cada uno de los ~10 días vencidos y todos los de la retención
+            List<LocalDateTime> vencidos = h2.queryForList(
+                "SELECT fecha FROM checkpoints_stock WHERE fecha < ? ORDER BY fecha",
+                LocalDateTime.class, Timestamp.valueOf(limite));
+            assertEquals(inicio, vencidos.get(0));
+            assertEquals(vencidos.size() - 1, vencidos.stream().skip(1).map(LocalDateTime::toLocalDate).distinct().count());
+            assertTrue(vencidos.size() >= 11 && vencidos.size() <= 12, () -> "Vencidos: " + vencidos);
+            assertEquals(vigentes, h2.queryForObject(sqlVigentes, Integer.class, Timestamp.valueOf(limite)));
+        } finally {
+            h2.execute("DROP ALL OBJECTS");
+        }
+    }
+
+    @Test
+    @DisplayName("Should take the initial checkpoint in its own transaction when none exists")
+    void testCheckpointInicial() {
+        // Given
+        when(checkpointRepository.count()).thenReturn(0L);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(0L);
+
+        // When
+        diarioStock.checkpointInicialSiFalta();
+
+        // Then
+        verify(transactionManager, times(1)).getTransaction(any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should write immediately outside a transaction")
+    void testRegistrarSinTransaccion() {
+        // When
+        diarioStock.registrar(1, 5, MotivoMovimiento.RECEPCION, null);
+
+        // Then
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+}
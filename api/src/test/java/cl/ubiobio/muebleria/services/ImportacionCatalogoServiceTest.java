@@ -0,0 +1,247 @@
+package cl.ubiobio.muebleria.services;
+
+import cl.ubiobio.muebleria.dto.ResultadoImportacionDTO;
+import cl.ubiobio.muebleria.enums.FormatoImportacion;
+import cl.ubiobio.muebleria.enums.MotivoMovimiento;
+import cl.ubiobio.muebleria.search.CatalogoIndices;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ImportacionCatalogoService Tests")
+class ImportacionCatalogoServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private CatalogoIndices catalogoIndices;
+
+    @Mock
+    private DiarioStockService diarioStock;
+
+    private ImportacionCatalogoService importacionService;
+
+    @BeforeEach
+    void setUp() {
+        importacionService = new ImportacionCatalogoService(
+            jdbcTemplate, transactionManager, new ObjectMapper(), catalogoIndices, diarioStock);
+    }
+
+    @Test
+    @DisplayName("Should insert and update CSV rows in batches and rebuild indexes once")
+    @SuppressWarnings("unchecked")
+    void testImportarCsv() throws IOException {
+        // Given
+        String csv = """
+            id_mueble,nombre,tipo,precio_base,stock,tamano,material
+            ,"Mesa, extensible",Mesa,80000,4,grande,Roble
+            ,Silla Nórdica,Silla,25000,,MEDIANO,Pino
+            7,,,30000,,,
+            """;
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyList())).thenReturn(new int[]{1, 1});
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList())).thenReturn(new int[]{1});
+
+        // When
+        ResultadoImportacionDTO resultado = importacionService.importar(cuerpo(csv), FormatoImportacion.CSV);
+
+        // Then
+        assertEquals(3, resultado.getProcesadas());
+        assertEquals(2, resultado.getInsertadas());
+        assertEquals(1, resultado.getActualizadas());
+        assertTrue(resultado.getErrores().isEmpty());
+
+        ArgumentCaptor<List<Object[]>> inserciones = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT"), inserciones.capture());
+        assertArrayEquals(new Object[]{"Mesa, extensible", "Mesa", 80000, 4, "GRANDE", "Roble"},
+            inserciones.getValue().get(0));
+        assertEquals(0, inserciones.getValue().get(1)[3]); // Stock vacío en alta -> 0
+        verify(catalogoIndices, times(1)).reconstruir();
+        verify(diarioStock, times(1)).checkpoint();
+    }
+
+    @Test
+    @DisplayName("Should report invalid rows with their line number and keep the valid ones")
+    void testImportarConErrores() throws IOException {
+        // Given
+        String ndjson = """
+            {"nombre":"Repisa","precioBase":9000,"stock":3}
+            {"nombre":"Sin precio"}
+            {"nombre":"Cómoda","precioBase":-1}
+            no es json
+            {"idMueble":99,"precioBase":5000}
+            """;
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyList())).thenReturn(new int[]{1});
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList())).thenReturn(new int[]{0});
+
+        // When
+        ResultadoImportacionDTO resultado = importacionService.importar(cuerpo(ndjson), FormatoImportacion.NDJSON);
+
+        // Then
+        assertEquals(5, resultado.getProcesadas());
+        assertEquals(1, resultado.getInsertadas());
+        assertEquals(0, resultado.getActualizadas());
+        assertEquals(4, resultado.getRechazadas());
+        assertEquals(List.of(2, 3, 4, 5), resultado.getErrores().stream().map(e -> e.getLinea()).toList());
+        assertTrue(resultado.getErrores().get(3).getMensaje().contains("99"));
+    }
+
+    @Test
+    @DisplayName("Should journal an absolute stock overwrite as the difference with the locked previous stock")
+    void testImportarStockAlDiario() throws IOException {
+        // Given
+        String csv = """
+            id_mueble,stock
+            7,12
+            7,15
+            8,
+            """;
+        doAnswer(invocation -> {
+            ResultSet fila = mock(ResultSet.class);
+            when(fila.getInt(1)).thenReturn(7);
+            when(fila.getInt(2)).thenReturn(20);
+            invocation.<RowCallbackHandler>getArgument(1).processRow(fila);
+            return null;
+        }).when(jdbcTemplate).query(argThat((String sql) -> sql.endsWith("FOR UPDATE")), any(RowCallbackHandler.class), eq(7));
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList())).thenReturn(new int[]{1, 1, 1});
+
+        // When
+        ResultadoImportacionDTO resultado = importacionService.importar(cuerpo(csv), FormatoImportacion.CSV);
+
+        // Then
+        assertEquals(3, resultado.getActualizadas());
+        verify(diarioStock).registrar(7, -8, MotivoMovimiento.EDICION, null);
+        verify(diarioStock).registrar(7, 3, MotivoMovimiento.EDICION, null);
+        verify(diarioStock, never()).registrar(eq(8), anyInt(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should count a batch that failed on commit only once, after the row-by-row retry")
+    void testImportarReintentoNoCuentaDoble() throws IOException {
+        // Given: el lote completo falla al confirmar y cada fila por separado confirma bien
+        String csv = """
+            id_mueble,nombre,precio_base
+            ,Repisa,9000
+            7,,5000
+            """;
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyList())).thenReturn(new int[]{1});
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList())).thenReturn(new int[]{1});
+        doThrow(new CannotAcquireLockException("Deadlock al confirmar")).doNothing()
+            .when(transactionManager).commit(any());
+
+        // When
+        ResultadoImportacionDTO resultado = importacionService.importar(cuerpo(csv), FormatoImportacion.CSV);
+
+        // Then
+        assertEquals(1, resultado.getInsertadas());
+        assertEquals(1, resultado.getActualizadas());
+        assertEquals(0, resultado.getRechazadas());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should leave kits and soft-deleted furniture untouched, as inventory adjustments do")
+    void testImportarNoActualizaKitsNiInactivos() throws IOException {
+        // Given
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList())).thenReturn(new int[]{0});
+
+        // When
+        ResultadoImportacionDTO resultado = importacionService.importar(
+            cuerpo("id_mueble,precio_base\n9,1000\n"), FormatoImportacion.CSV);
+
+        // Then
+        verify(jdbcTemplate).batchUpdate(argThat((String sql) -> sql.startsWith("UPDATE")
+            && sql.contains("estado_logico = TRUE") && sql.contains("es_kit = FALSE")), anyList());
+        assertEquals(1, resultado.getRechazadas());
+        verify(catalogoIndices, never()).reconstruir();
+    }
+
+    @Test
+    @DisplayName("Should write one batch per chunk of rows")
+    void testImportarPorLotes() throws IOException {
+        // Given
+        StringBuilder csv = new StringBuilder("nombre,precio_base\n");
+        int filas = ImportacionCatalogoService.TAMANO_LOTE * 2 + 1;
+        for (int i = 0; i < filas; i++) {
+            csv.append("Mueble ").append(i).append(",1000\n");
+        }
+
+        // When
+        ResultadoImportacionDTO resultado = importacionService.importar(cuerpo(csv.toString()), FormatoImportacion.CSV);
+
+        // Then
+        assertEquals(filas, resultado.getInsertadas());
+        verify(jdbcTemplate, times(3)).batchUpdate(startsWith("INSERT"), anyList());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should rebuild indexes for committed batches when reading the body fails")
+    void testImportarCortadaReconstruyeIndices() {
+        // Given
+        StringBuilder csv = new StringBuilder("nombre,precio_base\n");
+        for (int i = 0; i < ImportacionCatalogoService.TAMANO_LOTE; i++) {
+            csv.append("Mueble ").append(i).append(",1000\n");
+        }
+        byte[] bytes = csv.append("Mueble final,1000\n").toString().getBytes(StandardCharsets.UTF_8);
+        InputStream cortado = new SequenceInputStream(new ByteArrayInputStream(bytes), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Conexión cerrada");
+            }
+        });
+
+        // When
+        assertThrows(IOException.class, () -> importacionService.importar(cortado, FormatoImportacion.CSV));
+
+        // Then
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("INSERT"), anyList());
+        verify(catalogoIndices, times(1)).reconstruir();
+        verify(diarioStock, times(1)).checkpoint();
+    }
+
+    @Test
+    @DisplayName("Should not rebuild indexes when nothing was written")
+    void testImportarSinCambios() throws IOException {
+        // When
+        ResultadoImportacionDTO resultado = importacionService.importar(
+            cuerpo("nombre,precio_base\n,1000\n"), FormatoImportacion.CSV);
+
+        // Then
+        assertEquals(1, resultado.getRechazadas());
+        verify(catalogoIndices, never()).reconstruir();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private static InputStream cuerpo(String texto) {
+        return new ByteArrayInputStream(texto.getBytes(StandardCharsets.UTF_8));
+    }
+}
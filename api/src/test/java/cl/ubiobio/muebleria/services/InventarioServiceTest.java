@@ -0,0 +1,257 @@
+package cl.ubiobio.muebleria.services;
+
+import cl.ubiobio.muebleria.dto.AjusteStockDTO;
+import cl.ubiobio.muebleria.dto.ErrorImportacionDTO;
+import cl.ubiobio.muebleria.dto.ResultadoInventarioDTO;
+import cl.ubiobio.muebleria.enums.MotivoMovimiento;
+import cl.ubiobio.muebleria.models.Mueble;
+import cl.ubiobio.muebleria.repositories.MuebleRepository;
+import cl.ubiobio.muebleria.repositories.StockSucursalRepository;
+import cl.ubiobio.muebleria.search.CatalogoIndices;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InventarioService Tests")
+class InventarioServiceTest {
+
+    @Mock
+    private MuebleRepository muebleRepository;
+
+    @Mock
+    private StockSucursalRepository stockSucursalRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private CatalogoIndices catalogoIndices;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private DiarioStockService diarioStock;
+
+    @Mock
+    private StockShardService stockShards;
+
+    private InventarioService inventarioService;
+
+    private Mueble mueble;
+
+    @BeforeEach
+    void setUp() {
+        inventarioService = new InventarioService(muebleRepository, stockSucursalRepository, jdbcTemplate, transactionManager,
+            new ObjectMapper(), catalogoIndices, entityManager, diarioStock, stockShards);
+
+        mueble = new Mueble();
+        mueble.setIdMueble(1);
+        mueble.setNombre("Silla de Roble");
+        mueble.setStock(3);
+        mueble.setEstadoLogico(true);
+    }
+
+    @Test
+    @DisplayName("Should apply a delta with an additive update and refresh the entity")
+    void testAjustar() {
+        // Given
+        when(muebleRepository.sumarStock(1, -2)).thenReturn(1);
+
+        // When
+        inventarioService.ajustar(mueble, -2, MotivoMovimiento.VENTA, 10);
+
+        // Then
+        verify(entityManager).refresh(mueble);
+        verify(diarioStock).registrar(1, -2, MotivoMovimiento.VENTA, 10);
+        verify(catalogoIndices).registrarCambio(mueble);
+        verify(muebleRepository, never()).save(any(Mueble.class));
+    }
+
+    @Test
+    @DisplayName("Should fail when the delta would leave negative stock")
+    void testAjustarSinStock() {
+        // Given
+        when(muebleRepository.sumarStock(1, -5)).thenReturn(0);
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> inventarioService.ajustar(mueble, -5, MotivoMovimiento.AJUSTE, null));
+        assertTrue(exception.getMessage().contains("Stock insuficiente"));
+        verifyNoInteractions(diarioStock);
+        verify(catalogoIndices, never()).registrarCambio(any(Mueble.class));
+    }
+
+    @Test
+    @DisplayName("Should route hot items to their stock shards")
+    void testAjustarEnModoHot() {
+        // Given
+        mueble.setShardsStock(4);
+        when(stockShards.ajustar(1, 4, -2)).thenReturn(true);
+
+        // When
+        inventarioService.ajustar(mueble, -2, MotivoMovimiento.VENTA, 10);
+
+        // Then
+        verify(muebleRepository, never()).sumarStock(anyInt(), anyInt());
+        verify(diarioStock).registrar(1, -2, MotivoMovimiento.VENTA, 10);
+        verify(catalogoIndices).registrarCambio(mueble);
+    }
+
+    @Test
+    @DisplayName("Should fail when no combination of shards covers the delta")
+    void testAjustarEnModoHotSinStock() {
+        // Given
+        mueble.setShardsStock(4);
+        when(stockShards.ajustar(1, 4, -5)).thenReturn(false);
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> inventarioService.ajustar(mueble, -5, MotivoMovimiento.VENTA, 10));
+        assertTrue(exception.getMessage().contains("Stock insuficiente"));
+        verifyNoInteractions(diarioStock);
+    }
+
+    @Test
+    @DisplayName("Should batch several deltas and report the ones not applied")
+    void testAplicar() {
+        // Given
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 0});
+        when(muebleRepository.findAllById(List.of(1))).thenReturn(List.of(mueble));
+
+        // When
+        ResultadoInventarioDTO resultado = inventarioService.aplicar(List.of(
+            ajuste(1, 5), ajuste(2, 0), ajuste(3, -4)));
+
+        // Then
+        assertEquals(3, resultado.getProcesados());
+        assertEquals(1, resultado.getAplicados());
+        assertEquals(2, resultado.getRechazados());
+        assertEquals(List.of(2, 3), resultado.getErrores().stream().map(ErrorImportacionDTO::getLinea).toList());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+        verify(diarioStock).registrar(1, null, 5, MotivoMovimiento.RECEPCION, null);
+        verify(diarioStock, never()).registrar(eq(3), any(), anyInt(), any(), any());
+        verify(catalogoIndices).registrarCambio(mueble);
+    }
+
+    @Test
+    @DisplayName("Should apply a delta to the branch row only")
+    void testAjustarEnSucursal() {
+        // Given
+        when(stockSucursalRepository.sumarStock(2, 1, -1)).thenReturn(1);
+
+        // When
+        inventarioService.ajustarEnSucursal(2, mueble, -1, MotivoMovimiento.VENTA, 10);
+
+        // Then
+        verify(diarioStock).registrar(1, 2, -1, MotivoMovimiento.VENTA, 10);
+        verify(muebleRepository, never()).sumarStock(anyInt(), anyInt());
+        verify(catalogoIndices).registrarCambio(mueble);
+    }
+
+    @Test
+    @DisplayName("Should create the branch row on the first reception")
+    void testAjustarEnSucursalPrimeraRecepcion() {
+        // Given
+        when(stockSucursalRepository.sumarStock(2, 1, 4)).thenReturn(0);
+        when(jdbcTemplate.update(startsWith("INSERT INTO stock_sucursal"), eq(4), eq(2), eq(1))).thenReturn(1);
+
+        // When
+        inventarioService.ajustarEnSucursal(2, mueble, 4, MotivoMovimiento.RECEPCION, null);
+
+        // Then
+        verify(diarioStock).registrar(1, 2, 4, MotivoMovimiento.RECEPCION, null);
+    }
+
+    @Test
+    @DisplayName("Should fail when the branch does not have enough stock")
+    void testAjustarEnSucursalSinStock() {
+        // Given
+        when(stockSucursalRepository.sumarStock(2, 1, -3)).thenReturn(0);
+        when(stockSucursalRepository.findByIdSucursalAndIdMueble(2, 1)).thenReturn(Optional.empty());
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> inventarioService.ajustarEnSucursal(2, mueble, -3, MotivoMovimiento.VENTA, 10));
+        assertTrue(exception.getMessage().contains("Stock insuficiente"));
+        verifyNoInteractions(diarioStock);
+    }
+
+    @Test
+    @DisplayName("Should stream a shipment and rebuild indexes once at the end")
+    void testRecibir() throws IOException {
+        // Given
+        String ndjson = """
+            {"idMueble":1,"cantidad":20}
+            {"idMueble":2,"cantidad":4}
+            """;
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 1});
+
+        // When
+        ResultadoInventarioDTO resultado = inventarioService.recibir(
+            new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        // Then
+        assertEquals(2, resultado.getAplicados());
+        verify(catalogoIndices, times(1)).reconstruir();
+        verify(catalogoIndices, never()).registrarCambio(any(Mueble.class));
+    }
+
+    @Test
+    @DisplayName("Should rebuild indexes for committed batches when a later batch fails")
+    void testRecibirCortadoReconstruyeIndices() {
+        // Given
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < InventarioService.TAMANO_LOTE * 2; i++) {
+            ndjson.append("{\"idMueble\":").append(i + 1).append(",\"cantidad\":5}\n");
+        }
+        int[] loteCompleto = new int[InventarioService.TAMANO_LOTE];
+        Arrays.fill(loteCompleto, 1);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+            .thenReturn(loteCompleto)
+            .thenThrow(new QueryTimeoutException("Lock wait timeout exceeded"));
+
+        // When
+        assertThrows(QueryTimeoutException.class, () -> inventarioService.recibir(
+            new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8))));
+
+        // Then
+        verify(transactionManager, times(1)).commit(any());
+        verify(catalogoIndices, times(1)).reconstruir();
+    }
+
+    private static AjusteStockDTO ajuste(Integer idMueble, Integer cantidad) {
+        AjusteStockDTO ajuste = new AjusteStockDTO();
+        ajuste.setIdMueble(idMueble);
+        ajuste.setCantidad(cantidad);
+        return ajuste;
+    }
+}
@@ -2,9 +2,20 @@ package cl.ubiobio.muebleria.services;
 
 import cl.ubiobio.muebleria.dto.MuebleDTO;
 import cl.ubiobio.muebleria.dto.MuebleRequestDTO;
+import cl.ubiobio.muebleria.dto.PaginaMueblesDTO;
+import cl.ubiobio.muebleria.enums.EstadoOrden;
+import cl.ubiobio.muebleria.enums.MotivoMovimiento;
+import cl.ubiobio.muebleria.enums.OrdenCatalogo;
 import cl.ubiobio.muebleria.enums.TamanoMueble;
 import cl.ubiobio.muebleria.models.Mueble;
+import cl.ubiobio.muebleria.repositories.DetalleOrdenRepository;
 import cl.ubiobio.muebleria.repositories.MuebleRepository;
+import cl.ubiobio.muebleria.repositories.StockSucursalRepository;
+import cl.ubiobio.muebleria.search.CatalogoIndices;
+import cl.ubiobio.muebleria.search.IndiceKits;
+import cl.ubiobio.muebleria.search.MuebleBitmapIndex;
+import cl.ubiobio.muebleria.search.MuebleSearchIndex;
+import cl.ubiobio.muebleria.search.MuebleSugerenciasTrie;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,13 +23,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +49,36 @@ class MuebleServiceTest {
     @Mock
     private MuebleRepository muebleRepository;
 
+    @Mock
+    private MuebleSearchIndex searchIndex;
+
+    @Mock
+    private MuebleBitmapIndex bitmapIndex;
+
+    @Mock
+    private MuebleSugerenciasTrie sugerenciasTrie;
+
+    @Mock
+    private CatalogoIndices catalogoIndices;
+
+    @Mock
+    private DetalleOrdenRepository detalleOrdenRepository;
+
+    @Mock
+    private InventarioService inventarioService;
+
+    @Mock
+    private DiarioStockService diarioStock;
+
+    @Mock
+    private StockSucursalRepository stockSucursalRepository;
+
+    @Mock
+    private IndiceKits indiceKits;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private MuebleService muebleService;
 
@@ -56,23 +107,76 @@ class MuebleServiceTest {
     }
 
     @Test
-    @DisplayName("Should list all active muebles")
-    void testListarMueblesActivos() {
+    @DisplayName("Should return a keyset page with next cursor")
+    void testListarPagina() {
         // Given
         Mueble mueble2 = new Mueble();
         mueble2.setIdMueble(2);
-        mueble2.setNombre("Mesa");
+        mueble2.setNombre("Silla Plegable");
         mueble2.setEstadoLogico(true);
 
-        when(muebleRepository.findByEstadoLogicoTrue())
-            .thenReturn(Arrays.asList(mueble, mueble2));
+        when(muebleRepository.findByEstadoLogicoTrue(any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+            .thenReturn(Window.from(Arrays.asList(mueble, mueble2), i -> ScrollPosition.keyset(), true));
 
         // When
-        List<MuebleDTO> resultado = muebleService.listarMueblesActivos();
+        PaginaMueblesDTO pagina = muebleService.listarPagina(OrdenCatalogo.NOMBRE, null, 2);
 
         // Then
-        assertEquals(2, resultado.size());
-        verify(muebleRepository, times(1)).findByEstadoLogicoTrue();
+        assertEquals(2, pagina.getMuebles().size());
+        assertNotNull(pagina.getSiguienteCursor());
+        verify(muebleRepository).findByEstadoLogicoTrue(ScrollPosition.keyset(),
+            Sort.by("nombre").ascending().and(Sort.by("idMueble").ascending()), Limit.of(2));
+    }
+
+    @Test
+    @DisplayName("Should resume from the cursor of the previous page")
+    void testListarPaginaDesdeCursor() {
+        // Given
+        when(muebleRepository.findByEstadoLogicoTrue(any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+            .thenReturn(Window.from(Arrays.asList(mueble), i -> ScrollPosition.keyset(), true))
+            .thenReturn(Window.from(List.of(), i -> ScrollPosition.keyset(), false));
+        String cursor = muebleService.listarPagina(OrdenCatalogo.PRECIO, null, 1).getSiguienteCursor();
+
+        // When
+        PaginaMueblesDTO pagina = muebleService.listarPagina(OrdenCatalogo.PRECIO, cursor, 1);
+
+        // Then
+        assertTrue(pagina.getMuebles().isEmpty());
+        assertNull(pagina.getSiguienteCursor());
+        verify(muebleRepository).findByEstadoLogicoTrue(
+            eq(ScrollPosition.forward(Map.of("precioBase", 15000, "idMueble", 1))), any(Sort.class), eq(Limit.of(1)));
+    }
+
+    @Test
+    @DisplayName("Should walk the catalog in batches, each in its own read-only transaction")
+    void testRecorrerActivosPorLotes() {
+        // Given
+        Mueble mueble2 = new Mueble();
+        mueble2.setIdMueble(2);
+        mueble2.setNombre("Silla Plegable");
+        mueble2.setEstadoLogico(true);
+
+        when(muebleRepository.findByEstadoLogicoTrue(any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+            .thenReturn(Window.from(List.of(mueble), i -> ScrollPosition.keyset(), true))
+            .thenReturn(Window.from(List.of(mueble2), i -> ScrollPosition.keyset(), false));
+        List<MuebleDTO> recibidos = new ArrayList<>();
+
+        // When
+        muebleService.recorrerActivos(OrdenCatalogo.NOMBRE, recibidos::add);
+
+        // Then
+        assertEquals(List.of(1, 2), recibidos.stream().map(MuebleDTO::getIdMueble).toList());
+        verify(transactionManager, times(2)).getTransaction(argThat(TransactionDefinition::isReadOnly));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed cursor")
+    void testListarPaginaCursorInvalido() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+            () -> muebleService.listarPagina(OrdenCatalogo.STOCK, "no-es-un-cursor", 10));
+        verify(muebleRepository, never()).findByEstadoLogicoTrue(any(ScrollPosition.class), any(Sort.class), any(Limit.class));
     }
 
     @Test
@@ -91,6 +195,81 @@ class MuebleServiceTest {
         verify(muebleRepository, times(1)).findById(1);
     }
 
+    @Test
+    @DisplayName("Should subtract quoted quantities from physical stock")
+    void testObtenerPorIdConStockDisponible() {
+        // Given
+        DetalleOrdenRepository.CantidadPorMueble reserva = mock(DetalleOrdenRepository.CantidadPorMueble.class);
+        when(reserva.getIdMueble()).thenReturn(1);
+        when(reserva.getCantidad()).thenReturn(12L);
+        when(muebleRepository.findById(1)).thenReturn(Optional.of(mueble));
+        when(detalleOrdenRepository.sumarCantidadPorMueble(List.of(1), EstadoOrden.COTIZACION))
+            .thenReturn(List.of(reserva));
+
+        // When
+        MuebleDTO resultado = muebleService.obtenerPorId(1);
+
+        // Then
+        assertEquals(50, resultado.getStock());
+        assertEquals(38, resultado.getStockDisponible());
+    }
+
+    @Test
+    @DisplayName("Should aggregate availability across the central warehouse and every branch")
+    void testObtenerPorIdConStockEnSucursales() {
+        // Given
+        DetalleOrdenRepository.CantidadPorMueble reserva = mock(DetalleOrdenRepository.CantidadPorMueble.class);
+        when(reserva.getIdMueble()).thenReturn(1);
+        when(reserva.getCantidad()).thenReturn(12L);
+        DetalleOrdenRepository.CantidadPorMueble enSucursales = mock(DetalleOrdenRepository.CantidadPorMueble.class);
+        when(enSucursales.getIdMueble()).thenReturn(1);
+        when(enSucursales.getCantidad()).thenReturn(7L);
+        when(muebleRepository.findById(1)).thenReturn(Optional.of(mueble));
+        when(detalleOrdenRepository.sumarCantidadPorMueble(List.of(1), EstadoOrden.COTIZACION))
+            .thenReturn(List.of(reserva));
+        when(stockSucursalRepository.sumarStockPorMueble(List.of(1))).thenReturn(List.of(enSucursales));
+
+        // When
+        MuebleDTO resultado = muebleService.obtenerPorId(1);
+
+        // Then
+        assertEquals(50, resultado.getStock());
+        assertEquals(45, resultado.getStockDisponible());
+    }
+
+    @Test
+    @DisplayName("Should derive kit availability from its components, counting reservations made through kits")
+    void testObtenerPorIdKit() {
+        // Given
+        Mueble kit = new Mueble();
+        kit.setIdMueble(9);
+        kit.setNombre("Comedor 4 sillas");
+        kit.setEsKit(true);
+        DetalleOrdenRepository.CantidadPorMueble directa = mock(DetalleOrdenRepository.CantidadPorMueble.class);
+        when(directa.getIdMueble()).thenReturn(1);
+        when(directa.getCantidad()).thenReturn(2L);
+        DetalleOrdenRepository.CantidadPorMueble viaKits = mock(DetalleOrdenRepository.CantidadPorMueble.class);
+        when(viaKits.getIdMueble()).thenReturn(1);
+        when(viaKits.getCantidad()).thenReturn(8L);
+
+        when(muebleRepository.findById(9)).thenReturn(Optional.of(kit));
+        when(indiceKits.componentes(9)).thenReturn(List.of(new IndiceKits.Componente(1, 4)));
+        when(detalleOrdenRepository.sumarCantidadPorMueble(List.of(9, 1), EstadoOrden.COTIZACION))
+            .thenReturn(List.of(directa));
+        when(detalleOrdenRepository.sumarCantidadViaKitsPorMueble(List.of(9, 1), EstadoOrden.COTIZACION))
+            .thenReturn(List.of(viaKits));
+        when(indiceKits.stockDerivado(9)).thenReturn(5);
+        when(indiceKits.disponible(9, Map.of(1, 10L))).thenReturn(2);
+
+        // When
+        MuebleDTO resultado = muebleService.obtenerPorId(9);
+
+        // Then
+        assertTrue(resultado.getEsKit());
+        assertEquals(5, resultado.getStock());
+        assertEquals(2, resultado.getStockDisponible());
+    }
+
     @Test
     @DisplayName("Should throw exception when mueble not found")
     void testObtenerPorIdNoEncontrado() {
@@ -117,27 +296,52 @@ class MuebleServiceTest {
         assertEquals("Silla de Roble", resultado.getNombre());
         assertTrue(resultado.getEstadoLogico());
         verify(muebleRepository, times(1)).save(any(Mueble.class));
+        verify(catalogoIndices, times(1)).registrarCambio(mueble);
+        verify(diarioStock, times(1)).registrar(1, 50, MotivoMovimiento.ALTA, null);
     }
 
     @Test
     @DisplayName("Should update existing mueble")
     void testActualizar() {
         // Given
-        when(muebleRepository.findById(1)).thenReturn(Optional.of(mueble));
+        when(muebleRepository.findByIdParaActualizar(1)).thenReturn(Optional.of(mueble));
         when(muebleRepository.save(any(Mueble.class))).thenReturn(mueble);
 
         muebleRequest.setNombre("Silla Actualizada");
         muebleRequest.setPrecioBase(20000);
+        muebleRequest.setStock(45);
 
         // When
         MuebleDTO resultado = muebleService.actualizar(1, muebleRequest);
 
         // Then
         assertNotNull(resultado);
-        verify(muebleRepository, times(1)).findById(1);
+        // Sobrescritura absoluta: lectura con bloqueo y la diferencia real en el diario
+        verify(muebleRepository, times(1)).findByIdParaActualizar(1);
+        verify(muebleRepository, never()).findById(1);
+        verify(diarioStock).registrar(1, -5, MotivoMovimiento.EDICION, null);
         verify(muebleRepository, times(1)).save(any(Mueble.class));
     }
 
+    @Test
+    @DisplayName("Should apply an edited stock as a delta when the form sends the previous value")
+    void testActualizarStockComoDelta() {
+        // Given
+        when(muebleRepository.findById(1)).thenReturn(Optional.of(mueble));
+        when(muebleRepository.save(any(Mueble.class))).thenReturn(mueble);
+
+        muebleRequest.setStockAnterior(50);
+        muebleRequest.setStock(60);
+
+        // When
+        muebleService.actualizar(1, muebleRequest);
+
+        // Then
+        assertEquals(50, mueble.getStock(), "stock must not be overwritten with the form value");
+        verify(inventarioService, times(1)).ajustar(mueble, 10, MotivoMovimiento.EDICION, null);
+        verifyNoInteractions(diarioStock);
+    }
+
     @Test
     @DisplayName("Should soft delete mueble (set estadoLogico to false)")
     void testEliminar() {
@@ -155,22 +359,42 @@ class MuebleServiceTest {
         // Then
         verify(muebleRepository, times(1)).findById(1);
         verify(muebleRepository, times(1)).save(any(Mueble.class));
+        verify(catalogoIndices, times(1)).registrarCambio(mueble);
     }
 
     @Test
-    @DisplayName("Should search muebles by name")
+    @DisplayName("Should search muebles by name through the in-memory index")
     void testBuscarPorNombre() {
         // Given
-        when(muebleRepository.findByNombreContainingIgnoreCaseAndEstadoLogicoTrue("silla"))
-            .thenReturn(Arrays.asList(mueble));
+        Mueble mesa = new Mueble();
+        mesa.setIdMueble(2);
+        mesa.setNombre("Mesa de Roble");
+        mesa.setEstadoLogico(true);
+
+        when(searchIndex.buscar("roble", 20, 0)).thenReturn(Arrays.asList(2, 1));
+        when(muebleRepository.findAllById(Arrays.asList(2, 1)))
+            .thenReturn(Arrays.asList(mueble, mesa));
+
+        // When
+        List<MuebleDTO> resultado = muebleService.buscarPorNombre("roble", 20, 0);
+
+        // Then - Se respeta el orden del ranking del índice
+        assertEquals(2, resultado.size());
+        assertEquals("Mesa de Roble", resultado.get(0).getNombre());
+        assertEquals("Silla de Roble", resultado.get(1).getNombre());
+    }
+
+    @Test
+    @DisplayName("Should not hit the database when the index has no matches")
+    void testBuscarPorNombreSinResultados() {
+        // Given
+        when(searchIndex.buscar("sofa", 20, 0)).thenReturn(List.of());
 
         // When
-        List<MuebleDTO> resultado = muebleService.buscarPorNombre("silla");
+        List<MuebleDTO> resultado = muebleService.buscarPorNombre("sofa", 20, 0);
 
         // Then
-        assertEquals(1, resultado.size());
-        assertEquals("Silla de Roble", resultado.get(0).getNombre());
-        verify(muebleRepository, times(1))
-            .findByNombreContainingIgnoreCaseAndEstadoLogicoTrue("silla");
+        assertTrue(resultado.isEmpty());
+        verify(muebleRepository, never()).findAllById(any());
     }
 }
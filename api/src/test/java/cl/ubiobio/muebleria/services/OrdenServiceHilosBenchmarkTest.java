@@ -0,0 +1,176 @@
+package cl.ubiobio.muebleria.services;
+
+import cl.ubiobio.muebleria.dto.CrearOrdenRequestDTO;
+import cl.ubiobio.muebleria.dto.DetalleRequestDTO;
+import cl.ubiobio.muebleria.enums.Rol;
+import cl.ubiobio.muebleria.enums.TipoAplicacion;
+import cl.ubiobio.muebleria.models.Mueble;
+import cl.ubiobio.muebleria.models.Orden;
+import cl.ubiobio.muebleria.models.Usuario;
+import cl.ubiobio.muebleria.repositories.DetalleOrdenRepository;
+import cl.ubiobio.muebleria.repositories.MuebleRepository;
+import cl.ubiobio.muebleria.repositories.OrdenRepository;
+import cl.ubiobio.muebleria.repositories.StockSucursalRepository;
+import cl.ubiobio.muebleria.repositories.SucursalRepository;
+import cl.ubiobio.muebleria.repositories.UsuarioRepository;
+import cl.ubiobio.muebleria.repositories.VarianteAdicionalRepository;
+import cl.ubiobio.muebleria.security.UsuarioPrincipal;
+import cl.ubiobio.muebleria.strategy.PrecioFijoStrategy;
+import cl.ubiobio.muebleria.strategy.PrecioStrategyFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.stubbing.Answer;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Benchmark: platform thread pool vs virtual threads on the order creation flow
+ * Each repository call waits like a JDBC round-trip and takes one of a limited set of
+ * connections, as Hikari would. Prints throughput, p50 and p99 for both modes.
+ * Opt-in: mvn test -Dtest=OrdenServiceHilosBenchmarkTest -Dbenchmark=true
+ * [-Dbenchmark.peticiones=4000] [-Dbenchmark.conexiones=50] [-Dbenchmark.latencia-ms=5]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("OrdenService - Platform vs Virtual Threads Benchmark")
+class OrdenServiceHilosBenchmarkTest {
+
+    // Igual que server.tomcat.threads.max por defecto
+    private static final int HILOS_PLATAFORMA = 200;
+
+    private final int peticiones = Integer.getInteger("benchmark.peticiones", 4000);
+    private final int conexiones = Integer.getInteger("benchmark.conexiones", 50);
+    private final long latenciaMs = Long.getLong("benchmark.latencia-ms", 5);
+
+    private OrdenService ordenService;
+    private Semaphore pool;
+    private CrearOrdenRequestDTO request;
+    private UsuarioPrincipal principal;
+
+    @BeforeEach
+    void setUp() {
+        pool = new Semaphore(conexiones, true);
+
+        // stubOnly: sin registrar invocaciones, que con miles de llamadas serían el cuello de botella
+        OrdenRepository ordenRepository = mock(OrdenRepository.class, withSettings().stubOnly());
+        MuebleRepository muebleRepository = mock(MuebleRepository.class, withSettings().stubOnly());
+        PrecioStrategyFactory precioStrategyFactory = mock(PrecioStrategyFactory.class, withSettings().stubOnly());
+        UsuarioRepository usuarioRepository = mock(UsuarioRepository.class, withSettings().stubOnly());
+
+        Mueble mueble = new Mueble();
+        mueble.setIdMueble(1);
+        mueble.setNombre("Silla");
+        mueble.setPrecioBase(15000);
+        mueble.setStock(1_000_000);
+
+        when(precioStrategyFactory.getStrategy(TipoAplicacion.FIJO)).thenReturn(new PrecioFijoStrategy());
+        when(muebleRepository.findById(anyInt())).thenAnswer(jdbc(invocation -> Optional.of(mueble)));
+        when(ordenRepository.save(any(Orden.class))).thenAnswer(jdbc(invocation -> invocation.getArgument(0)));
+        when(usuarioRepository.getReferenceById(anyLong())).thenReturn(new Usuario());
+
+        ordenService = new OrdenService(ordenRepository, muebleRepository,
+            mock(VarianteAdicionalRepository.class, withSettings().stubOnly()), precioStrategyFactory,
+            mock(DetalleOrdenRepository.class, withSettings().stubOnly()),
+            mock(InventarioService.class, withSettings().stubOnly()),
+            mock(SucursalRepository.class, withSettings().stubOnly()),
+            mock(StockSucursalRepository.class, withSettings().stubOnly()),
+            mock(KitService.class, withSettings().stubOnly()),
+            mock(CacheOrdenesCerradas.class, withSettings().stubOnly()),
+            mock(PlatformTransactionManager.class, withSettings().stubOnly()), usuarioRepository);
+
+        DetalleRequestDTO detalle = new DetalleRequestDTO();
+        detalle.setIdMueble(1);
+        detalle.setCantidad(1);
+        detalle.setIdsVariantes(List.of());
+        request = new CrearOrdenRequestDTO();
+        request.setDetalles(List.of(detalle));
+
+        Usuario usuario = new Usuario();
+        usuario.setId(1L);
+        usuario.setUsername("bench");
+        usuario.setRol(Rol.USER);
+        principal = UsuarioPrincipal.de(usuario);
+    }
+
+    @Test
+    @DisplayName("Should report throughput and tail latency for both thread models")
+    void testCompararModelos() throws Exception {
+        // Calentamiento del JIT con el mismo flujo
+        medir(Executors.newVirtualThreadPerTaskExecutor(), peticiones / 4);
+
+        Resultado plataforma = medir(Executors.newFixedThreadPool(HILOS_PLATAFORMA), peticiones);
+        Resultado virtuales = medir(Executors.newVirtualThreadPerTaskExecutor(), peticiones);
+
+        System.out.printf("crearOrden x%d, %d conexiones, %d ms por consulta%n", peticiones, conexiones, latenciaMs);
+        System.out.println("plataforma(" + HILOS_PLATAFORMA + ") " + plataforma);
+        System.out.println("virtuales       " + virtuales);
+
+        assertEquals(peticiones, plataforma.completadas());
+        assertEquals(peticiones, virtuales.completadas());
+    }
+
+    // Todas las peticiones llegan a la vez; la latencia incluye la espera en la cola del ejecutor
+    private Resultado medir(ExecutorService ejecutor, int total) throws Exception {
+        long[] latencias = new long[total];
+        long inicio = System.nanoTime();
+        try (ejecutor) {
+            Future<?>[] futuros = new Future<?>[total];
+            for (int i = 0; i < total; i++) {
+                final int indice = i;
+                final long llegada = System.nanoTime();
+                futuros[i] = ejecutor.submit(() -> {
+                    ordenService.crearOrden(request, principal);
+                    latencias[indice] = System.nanoTime() - llegada;
+                });
+            }
+            for (Future<?> futuro : futuros) {
+                futuro.get();
+            }
+        }
+        long duracion = System.nanoTime() - inicio;
+
+        Arrays.sort(latencias);
+        return new Resultado(total, total * 1e9 / duracion,
+            percentil(latencias, 0.50), percentil(latencias, 0.99));
+    }
+
+    // Round-trip JDBC: toma una conexión del pool, espera la latencia y la devuelve
+    private <T> Answer<T> jdbc(Answer<T> respuesta) {
+        return invocation -> {
+            pool.acquire();
+            try {
+                Thread.sleep(latenciaMs);
+                return respuesta.answer(invocation);
+            } finally {
+                pool.release();
+            }
+        };
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        int indice = (int) Math.ceil(p * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, indice)] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private record Resultado(int completadas, double porSegundo, double p50Ms, double p99Ms) {
+        @Override
+        public String toString() {
+            return String.format("%8.0f ord/s  p50 %7.1f ms  p99 %7.1f ms", porSegundo, p50Ms, p99Ms);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package cl.ubiobio.muebleria.services;
+
+import cl.ubiobio.muebleria.dto.ComponenteKitDTO;
+import cl.ubiobio.muebleria.dto.CrearOrdenRequestDTO;
+import cl.ubiobio.muebleria.dto.DetalleRequestDTO;
+import cl.ubiobio.muebleria.dto.OrdenDTO;
+import cl.ubiobio.muebleria.enums.EstadoOrden;
+import cl.ubiobio.muebleria.enums.Rol;
+import cl.ubiobio.muebleria.models.Mueble;
+import cl.ubiobio.muebleria.models.Usuario;
+import cl.ubiobio.muebleria.repositories.MuebleRepository;
+import cl.ubiobio.muebleria.repositories.UsuarioRepository;
+import cl.ubiobio.muebleria.search.CatalogoIndices;
+import cl.ubiobio.muebleria.search.IndiceKits;
+import cl.ubiobio.muebleria.security.UsuarioPrincipal;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for virtual-thread pinning in the order flows, with the real collaborators
+ * (InventarioService, CatalogoIndices, IndiceKits, CacheOrdenesCerradas) on H2
+ * Each statement waits like a JDBC round-trip, so a monitor held across a query parks the
+ * virtual thread while pinned and JFR reports a jdk.VirtualThreadPinned event
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:pinning")
+@ActiveProfiles("test")
+@DisplayName("OrdenService - Virtual Thread Pinning Tests")
+class OrdenServicePinningTest {
+
+    // Suficiente para que un monitor retenido durante la espera genere el evento
+    private static final long LATENCIA_JDBC_MS = 5;
+
+    @TestConfiguration
+    static class LatenciaJdbc {
+
+        @Bean
+        static BeanPostProcessor conLatenciaJdbc() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String nombre) {
+                    return bean instanceof DataSource dataSource && nombre.equals("dataSource")
+                        ? new DataSourceLento(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    // Cada sentencia preparada y cada commit esperan antes de llegar a H2
+    static class DataSourceLento extends DelegatingDataSource {
+
+        DataSourceLento(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection conexion = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, metodo, args) -> {
+                    if (metodo.getName().startsWith("prepare") || metodo.getName().equals("commit")) {
+                        Thread.sleep(LATENCIA_JDBC_MS);
+                    }
+                    try {
+                        return metodo.invoke(conexion, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        }
+    }
+
+    @Autowired
+    private OrdenService ordenService;
+
+    @Autowired
+    private KitService kitService;
+
+    @Autowired
+    private MuebleRepository muebleRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private CatalogoIndices catalogoIndices;
+
+    @Autowired
+    private IndiceKits indiceKits;
+
+    private UsuarioPrincipal principal;
+    private Mueble silla;
+    private Mueble comedor;
+
+    @BeforeEach
+    void setUp() {
+        String nombre = "pinning-" + UUID.randomUUID().toString().substring(0, 8);
+        Usuario usuario = new Usuario();
+        usuario.setUsername(nombre);
+        usuario.setPassword("x");
+        usuario.setEmail(nombre + "@muebleria.cl");
+        usuario.setRol(Rol.USER);
+        usuario.setActivo(true);
+        principal = UsuarioPrincipal.de(usuarioRepository.save(usuario));
+
+        silla = mueble("Silla", 10);
+        comedor = mueble("Comedor", 0);
+        ComponenteKitDTO componente = new ComponenteKitDTO();
+        componente.setIdComponente(silla.getIdMueble());
+        componente.setCantidad(2);
+        kitService.definirComponentes(comedor.getIdMueble(), List.of(componente));
+        catalogoIndices.reconstruir();
+    }
+
+    @Test
+    @DisplayName("Should create an order on a virtual thread without pinning its carrier")
+    void testCrearOrdenSinPinning() throws Exception {
+        // When
+        AtomicReference<OrdenDTO> creada = new AtomicReference<>();
+        List<RecordedEvent> pinned = pinnedDurante(() -> creada.set(ordenService.crearOrden(pedido(), principal)));
+
+        // Then
+        assertTrue(pinned.isEmpty(), describir(pinned));
+        assertEquals(EstadoOrden.COTIZACION, creada.get().getEstadoOrden());
+    }
+
+    @Test
+    @DisplayName("Should confirm an order on a virtual thread without pinning its carrier")
+    void testConfirmarOrdenSinPinning() throws Exception {
+        // Given
+        Integer idOrden = ordenService.crearOrden(pedido(), principal).getIdOrden();
+
+        // When
+        List<RecordedEvent> pinned = pinnedDurante(() -> ordenService.confirmarOrden(idOrden, principal));
+
+        // Then: 1 silla suelta y 2 del comedor; el kit se reindexó después del commit
+        assertTrue(pinned.isEmpty(), describir(pinned));
+        assertEquals(7, stock(silla));
+        assertEquals(3, indiceKits.stockDerivado(comedor.getIdMueble()));
+    }
+
+    @Test
+    @DisplayName("Should cancel a sold order on a virtual thread without pinning its carrier")
+    void testCancelarOrdenSinPinning() throws Exception {
+        // Given: venta ya leída una vez, con su JSON en caché
+        Integer idOrden = ordenService.crearOrden(pedido(), principal).getIdOrden();
+        ordenService.confirmarOrden(idOrden, principal);
+        ordenService.obtenerSerializada(idOrden, principal);
+
+        // When
+        List<RecordedEvent> pinned = pinnedDurante(() -> ordenService.cancelarOrden(idOrden, principal));
+
+        // Then
+        assertTrue(pinned.isEmpty(), describir(pinned));
+        assertEquals(10, stock(silla));
+        assertEquals(5, indiceKits.stockDerivado(comedor.getIdMueble()));
+    }
+
+    private Mueble mueble(String nombre, int stock) {
+        Mueble mueble = new Mueble();
+        mueble.setNombre(nombre);
+        mueble.setPrecioBase(15000);
+        mueble.setStock(stock);
+        return muebleRepository.save(mueble);
+    }
+
+    private CrearOrdenRequestDTO pedido() {
+        CrearOrdenRequestDTO request = new CrearOrdenRequestDTO();
+        request.setDetalles(List.of(detalle(silla), detalle(comedor)));
+        return request;
+    }
+
+    private static DetalleRequestDTO detalle(Mueble mueble) {
+        DetalleRequestDTO detalle = new DetalleRequestDTO();
+        detalle.setIdMueble(mueble.getIdMueble());
+        detalle.setCantidad(1);
+        detalle.setIdsVariantes(List.of());
+        return detalle;
+    }
+
+    private int stock(Mueble mueble) {
+        return muebleRepository.findById(mueble.getIdMueble()).orElseThrow().getStock();
+    }
+
+    // Ejecuta el flujo en un hilo virtual y devuelve los eventos de pinning registrados mientras corría
+    private static List<RecordedEvent> pinnedDurante(Runnable flujo) throws Exception {
+        List<RecordedEvent> eventos = new CopyOnWriteArrayList<>();
+        AtomicReference<Throwable> fallo = new AtomicReference<>();
+
+        try (RecordingStream stream = new RecordingStream()) {
+            stream.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            stream.onEvent("jdk.VirtualThreadPinned", eventos::add);
+            stream.startAsync();
+
+            Thread hilo = Thread.ofVirtual().name("orden-virtual").start(() -> {
+                try {
+                    flujo.run();
+                } catch (Throwable e) {
+                    fallo.set(e);
+                }
+            });
+            hilo.join();
+            // stop() vacía los eventos pendientes antes de volver
+            stream.stop();
+        }
+
+        if (fallo.get() != null) {
+            fail("El flujo falló en el hilo virtual", fallo.get());
+        }
+        return eventos;
+    }
+
+    private static String describir(List<RecordedEvent> eventos) {
+        return "Hilo virtual fijado a su carrier:\n" + eventos.stream()
+            .map(evento -> evento.getStackTrace() == null ? "(sin stack)" : evento.getStackTrace().getFrames().stream()
+                .limit(8)
+                .map(RecordedFrame::getMethod)
+                .map(metodo -> "  " + metodo.getType().getName() + "." + metodo.getName())
+                .collect(Collectors.joining("\n")))
+            .collect(Collectors.joining("\n---\n"));
+    }
+}
@@ -4,12 +4,18 @@ import cl.ubiobio.muebleria.dto.CrearOrdenRequestDTO;
 import cl.ubiobio.muebleria.dto.DetalleRequestDTO;
 import cl.ubiobio.muebleria.dto.OrdenDTO;
 import cl.ubiobio.muebleria.enums.EstadoOrden;
+import cl.ubiobio.muebleria.enums.MotivoMovimiento;
 import cl.ubiobio.muebleria.enums.Rol;
 import cl.ubiobio.muebleria.enums.TipoAplicacion;
 import cl.ubiobio.muebleria.models.*;
+import cl.ubiobio.muebleria.repositories.DetalleOrdenRepository;
 import cl.ubiobio.muebleria.repositories.MuebleRepository;
 import cl.ubiobio.muebleria.repositories.OrdenRepository;
+import cl.ubiobio.muebleria.repositories.StockSucursalRepository;
+import cl.ubiobio.muebleria.repositories.SucursalRepository;
+import cl.ubiobio.muebleria.repositories.UsuarioRepository;
 import cl.ubiobio.muebleria.repositories.VarianteAdicionalRepository;
+import cl.ubiobio.muebleria.security.UsuarioPrincipal;
 import cl.ubiobio.muebleria.strategy.PrecioStrategyFactory;
 import cl.ubiobio.muebleria.strategy.PrecioFijoStrategy;
 import cl.ubiobio.muebleria.strategy.PrecioPorcentajeStrategy;
@@ -17,16 +23,24 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.lenient;
 
@@ -54,6 +68,30 @@ class OrdenServiceTest {
     @Mock
     private PrecioStrategyFactory precioStrategyFactory;
 
+    @Mock
+    private InventarioService inventarioService;
+
+    @Mock
+    private DetalleOrdenRepository detalleOrdenRepository;
+
+    @Mock
+    private SucursalRepository sucursalRepository;
+
+    @Mock
+    private StockSucursalRepository stockSucursalRepository;
+
+    @Mock
+    private KitService kitService;
+
+    @Mock
+    private CacheOrdenesCerradas cacheOrdenes;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
     @InjectMocks
     private OrdenService ordenService;
 
@@ -93,6 +131,7 @@ class OrdenServiceTest {
         mueble.setIdMueble(1);
         mueble.setNombre("Silla");
         mueble.setPrecioBase(15000);
+        mueble.setStock(10);
 
         // Variante FIJO
         varianteFijo = new VarianteAdicional();
@@ -146,7 +185,7 @@ class OrdenServiceTest {
         request.setDetalles(Arrays.asList(detalleRequest));
 
         // When
-        OrdenDTO resultado = ordenService.crearOrden(request, usuario);
+        OrdenDTO resultado = ordenService.crearOrden(request, UsuarioPrincipal.de(usuario));
 
         // Then
         assertNotNull(resultado);
@@ -169,7 +208,7 @@ class OrdenServiceTest {
         detalleRequest.setIdsVariantes(Arrays.asList());
 
         // When
-        OrdenDTO resultado = ordenService.agregarDetalle(1, detalleRequest, usuario);
+        OrdenDTO resultado = ordenService.agregarDetalle(1, detalleRequest, UsuarioPrincipal.de(usuario));
 
         // Then
         assertNotNull(resultado);
@@ -188,7 +227,7 @@ class OrdenServiceTest {
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            ordenService.agregarDetalle(2, detalleRequest, usuario);
+            ordenService.agregarDetalle(2, detalleRequest, UsuarioPrincipal.de(usuario));
         });
 
         assertTrue(exception.getMessage().contains("VENTA"));
@@ -208,7 +247,7 @@ class OrdenServiceTest {
         when(ordenRepository.save(any(Orden.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
-        OrdenDTO resultado = ordenService.confirmarOrden(1, usuario);
+        OrdenDTO resultado = ordenService.confirmarOrden(1, UsuarioPrincipal.de(usuario));
 
         // Then
         assertEquals(EstadoOrden.VENTA, resultado.getEstadoOrden());
@@ -216,6 +255,230 @@ class OrdenServiceTest {
         verify(ordenRepository, times(1)).save(any(Orden.class));
     }
 
+    @Test
+    @DisplayName("State Pattern: Should decrement stock atomically when confirming")
+    void testConfirmarOrdenDescuentaStock() {
+        // Given
+        DetalleOrden detalle = new DetalleOrden();
+        detalle.setMueble(mueble);
+        detalle.setCantidad(2);
+        ordenCotizacion.addDetalle(detalle);
+
+        when(ordenRepository.findById(1)).thenReturn(Optional.of(ordenCotizacion));
+        when(ordenRepository.save(any(Orden.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        ordenService.confirmarOrden(1, UsuarioPrincipal.de(usuario));
+
+        // Then
+        verify(inventarioService, times(1)).ajustar(mueble, -2, MotivoMovimiento.VENTA, 1);
+    }
+
+    @Test
+    @DisplayName("State Pattern: Should NOT confirm when stock is insufficient")
+    void testConfirmarOrdenSinStock() {
+        // Given
+        DetalleOrden detalle = new DetalleOrden();
+        detalle.setMueble(mueble);
+        detalle.setCantidad(5);
+        ordenCotizacion.addDetalle(detalle);
+
+        when(ordenRepository.findById(1)).thenReturn(Optional.of(ordenCotizacion));
+        doThrow(new RuntimeException("Stock insuficiente para mueble 'Silla'"))
+            .when(inventarioService).ajustar(mueble, -5, MotivoMovimiento.VENTA, 1);
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            ordenService.confirmarOrden(1, UsuarioPrincipal.de(usuario));
+        });
+
+        assertTrue(exception.getMessage().contains("Stock insuficiente"));
+        assertEquals(EstadoOrden.COTIZACION, ordenCotizacion.getEstadoOrden());
+        verify(ordenRepository, never()).save(any(Orden.class));
+    }
+
+    @Test
+    @DisplayName("Should check availability against the branch stock, not the central warehouse")
+    void testCrearOrdenEnSucursalSinStock() {
+        // Given
+        Sucursal sucursal = sucursal(3);
+        StockSucursal stockSucursal = new StockSucursal();
+        stockSucursal.setIdSucursal(3);
+        stockSucursal.setIdMueble(1);
+        stockSucursal.setStock(1);
+
+        when(sucursalRepository.findById(3)).thenReturn(Optional.of(sucursal));
+        when(muebleRepository.findById(1)).thenReturn(Optional.of(mueble));
+        when(stockSucursalRepository.findByIdSucursalAndIdMueble(3, 1)).thenReturn(Optional.of(stockSucursal));
+        when(detalleOrdenRepository.sumarCantidadEnSucursal(1, 3, EstadoOrden.COTIZACION)).thenReturn(0L);
+
+        DetalleRequestDTO detalleRequest = new DetalleRequestDTO();
+        detalleRequest.setIdMueble(1);
+        detalleRequest.setCantidad(2);
+
+        CrearOrdenRequestDTO request = new CrearOrdenRequestDTO();
+        request.setIdSucursal(3);
+        request.setDetalles(Arrays.asList(detalleRequest));
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            ordenService.crearOrden(request, UsuarioPrincipal.de(usuario));
+        });
+
+        assertTrue(exception.getMessage().contains("Stock insuficiente"));
+        verify(detalleOrdenRepository, never()).sumarCantidad(any(), any());
+        verify(ordenRepository, never()).save(any(Orden.class));
+    }
+
+    @Test
+    @DisplayName("Should decrement the branch stock when confirming a branch order")
+    void testConfirmarOrdenEnSucursal() {
+        // Given
+        DetalleOrden detalle = new DetalleOrden();
+        detalle.setMueble(mueble);
+        detalle.setCantidad(2);
+        ordenCotizacion.addDetalle(detalle);
+        ordenCotizacion.setSucursal(sucursal(3));
+
+        when(ordenRepository.findById(1)).thenReturn(Optional.of(ordenCotizacion));
+        when(ordenRepository.save(any(Orden.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        OrdenDTO resultado = ordenService.confirmarOrden(1, UsuarioPrincipal.de(usuario));
+
+        // Then
+        assertEquals(3, resultado.getIdSucursal());
+        verify(inventarioService, times(1)).ajustarEnSucursal(3, mueble, -2, MotivoMovimiento.VENTA, 1);
+        verify(inventarioService, never()).ajustar(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should decrement every component when confirming a kit")
+    void testConfirmarOrdenConKit() {
+        // Given
+        Mueble mesa = new Mueble();
+        mesa.setIdMueble(5);
+        mesa.setNombre("Mesa");
+        Mueble kit = new Mueble();
+        kit.setIdMueble(9);
+        kit.setNombre("Comedor 4 sillas");
+        kit.setPrecioBase(120000);
+        kit.setEsKit(true);
+
+        DetalleOrden detalle = new DetalleOrden();
+        detalle.setMueble(kit);
+        detalle.setCantidad(2);
+        ordenCotizacion.addDetalle(detalle);
+
+        when(ordenRepository.findById(1)).thenReturn(Optional.of(ordenCotizacion));
+        when(ordenRepository.save(any(Orden.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(kitService.cargarComponentes(kit)).thenReturn(List.of(
+            new KitService.Unidad(mueble, 4), new KitService.Unidad(mesa, 1)));
+
+        // When
+        ordenService.confirmarOrden(1, UsuarioPrincipal.de(usuario));
+
+        // Then
+        verify(inventarioService).ajustar(mueble, -8, MotivoMovimiento.VENTA, 1);
+        verify(inventarioService).ajustar(mesa, -2, MotivoMovimiento.VENTA, 1);
+        verify(inventarioService, never()).ajustar(eq(kit), anyInt(), any(), any());
+        assertEquals(2, detalle.getComponentesSnapshot().size());
+        assertEquals(4, detalle.getComponentesSnapshot().get(0).getCantidad());
+        assertSame(mesa, detalle.getComponentesSnapshot().get(1).getComponente());
+    }
+
+    @Test
+    @DisplayName("Should return the kit components frozen at confirm even if the kit changed since")
+    void testCancelarVentaConKitUsaSnapshot() {
+        // Given: el kit se vendió con 4 sillas y después dejó de ser kit
+        Mueble kit = new Mueble();
+        kit.setIdMueble(9);
+        kit.setNombre("Comedor 4 sillas");
+        kit.setEsKit(false);
+
+        DetalleOrden detalle = new DetalleOrden();
+        detalle.setMueble(kit);
+        detalle.setCantidad(2);
+        DetalleOrdenComponente componente = new DetalleOrdenComponente();
+        componente.setDetalle(detalle);
+        componente.setComponente(mueble);
+        componente.setCantidad(4);
+        detalle.getComponentesSnapshot().add(componente);
+        ordenVenta.addDetalle(detalle);
+
+        when(ordenRepository.findById(2)).thenReturn(Optional.of(ordenVenta));
+        when(ordenRepository.save(any(Orden.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        ordenService.cancelarOrden(2, UsuarioPrincipal.de(usuario));
+
+        // Then
+        verify(inventarioService).ajustar(mueble, 8, MotivoMovimiento.CANCELACION, ordenVenta.getIdOrden());
+        verify(inventarioService, never()).ajustar(eq(kit), anyInt(), any(), any());
+        verifyNoInteractions(kitService);
+    }
+
+    @Test
+    @DisplayName("Should adjust each furniture once and in id order, adding up lines and kit components")
+    void testConfirmarOrdenAgrupaPorMueble() {
+        // Given
+        Mueble mesa = new Mueble();
+        mesa.setIdMueble(5);
+        mesa.setNombre("Mesa");
+        mesa.setPrecioBase(40000);
+        Mueble kit = new Mueble();
+        kit.setIdMueble(9);
+        kit.setNombre("Comedor 4 sillas");
+        kit.setPrecioBase(120000);
+        kit.setEsKit(true);
+
+        for (Object[] linea : new Object[][]{{mesa, 1}, {kit, 1}, {mueble, 2}}) {
+            DetalleOrden detalle = new DetalleOrden();
+            detalle.setMueble((Mueble) linea[0]);
+            detalle.setCantidad((Integer) linea[1]);
+            ordenCotizacion.addDetalle(detalle);
+        }
+
+        when(ordenRepository.findById(1)).thenReturn(Optional.of(ordenCotizacion));
+        when(ordenRepository.save(any(Orden.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(kitService.cargarComponentes(kit)).thenReturn(List.of(
+            new KitService.Unidad(mueble, 4), new KitService.Unidad(mesa, 1)));
+
+        // When
+        ordenService.confirmarOrden(1, UsuarioPrincipal.de(usuario));
+
+        // Then: los bloqueos de fila se toman una vez por mueble y siempre en el mismo orden
+        InOrder orden = inOrder(inventarioService);
+        orden.verify(inventarioService).ajustar(mueble, -6, MotivoMovimiento.VENTA, 1);
+        orden.verify(inventarioService).ajustar(mesa, -2, MotivoMovimiento.VENTA, 1);
+        verifyNoMoreInteractions(inventarioService);
+    }
+
+    @Test
+    @DisplayName("Should reject a kit in a branch order")
+    void testCrearOrdenConKitEnSucursal() {
+        // Given
+        mueble.setEsKit(true);
+        when(sucursalRepository.findById(3)).thenReturn(Optional.of(sucursal(3)));
+        when(muebleRepository.findById(1)).thenReturn(Optional.of(mueble));
+
+        DetalleRequestDTO detalleRequest = new DetalleRequestDTO();
+        detalleRequest.setIdMueble(1);
+        detalleRequest.setCantidad(1);
+
+        CrearOrdenRequestDTO request = new CrearOrdenRequestDTO();
+        request.setIdSucursal(3);
+        request.setDetalles(Arrays.asList(detalleRequest));
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            ordenService.crearOrden(request, UsuarioPrincipal.de(usuario));
+        });
+
+        assertTrue(exception.getMessage().contains("bodega central"));
+        verifyNoInteractions(kitService);
+    }
+
     @Test
     @DisplayName("State Pattern: Should NOT allow confirm from VENTA state")
     void testNoPermitirConfirmarDesdeVenta() {
@@ -224,7 +487,7 @@ class OrdenServiceTest {
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            ordenService.confirmarOrden(2, usuario);
+            ordenService.confirmarOrden(2, UsuarioPrincipal.de(usuario));
         });
 
         assertTrue(exception.getMessage().contains("COTIZACION"));
@@ -238,7 +501,7 @@ class OrdenServiceTest {
         when(ordenRepository.save(any(Orden.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
-        OrdenDTO resultado = ordenService.cancelarOrden(1, usuario);
+        OrdenDTO resultado = ordenService.cancelarOrden(1, UsuarioPrincipal.de(usuario));
 
         // Then
         assertEquals(EstadoOrden.CANCELADA, resultado.getEstadoOrden());
@@ -266,7 +529,7 @@ class OrdenServiceTest {
         request.setDetalles(Arrays.asList(detalleRequest));
 
         // When
-        OrdenDTO resultado = ordenService.crearOrden(request, usuario);
+        OrdenDTO resultado = ordenService.crearOrden(request, UsuarioPrincipal.de(usuario));
 
         // Then
         // Base: 15000 × 2 = 30000
@@ -294,7 +557,7 @@ class OrdenServiceTest {
         request.setDetalles(Arrays.asList(detalleRequest));
 
         // When
-        OrdenDTO resultado = ordenService.crearOrden(request, usuario);
+        OrdenDTO resultado = ordenService.crearOrden(request, UsuarioPrincipal.de(usuario));
 
         // Then
         // Base: 15000 + Lacado: 5000 = 20000
@@ -322,7 +585,7 @@ class OrdenServiceTest {
         request.setDetalles(Arrays.asList(detalleRequest));
 
         // When
-        OrdenDTO resultado = ordenService.crearOrden(request, usuario);
+        OrdenDTO resultado = ordenService.crearOrden(request, UsuarioPrincipal.de(usuario));
 
         // Then
         // Base: 15000 + Tapizado 10%: 1500 = 16500
@@ -351,7 +614,7 @@ class OrdenServiceTest {
         request.setDetalles(Arrays.asList(detalleRequest));
 
         // When
-        OrdenDTO resultado = ordenService.crearOrden(request, usuario);
+        OrdenDTO resultado = ordenService.crearOrden(request, UsuarioPrincipal.de(usuario));
 
         // Then
         // Base: 15000 + Lacado: 5000 + Tapizado 10%: 1500 = 21500 por unidad
@@ -382,7 +645,7 @@ class OrdenServiceTest {
         request.setDetalles(Arrays.asList(detalleRequest));
 
         // When
-        OrdenDTO resultado = ordenService.crearOrden(request, usuario);
+        OrdenDTO resultado = ordenService.crearOrden(request, UsuarioPrincipal.de(usuario));
 
         // Then - Strategy FIJO adds exactly 5000
         assertEquals(20000L, resultado.getTotalCalculado()); // 15000 + 5000
@@ -409,7 +672,7 @@ class OrdenServiceTest {
         request.setDetalles(Arrays.asList(detalleRequest));
 
         // When
-        OrdenDTO resultado = ordenService.crearOrden(request, usuario);
+        OrdenDTO resultado = ordenService.crearOrden(request, UsuarioPrincipal.de(usuario));
 
         // Then - Strategy PORCENTAJE calculates 10% of 15000 = 1500
         assertEquals(16500L, resultado.getTotalCalculado()); // 15000 + 1500
@@ -435,7 +698,7 @@ class OrdenServiceTest {
         when(ordenRepository.save(any(Orden.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
-        OrdenDTO resultado = ordenService.confirmarOrden(1, usuario);
+        OrdenDTO resultado = ordenService.confirmarOrden(1, UsuarioPrincipal.de(usuario));
 
         // Then - Prices should be frozen in snapshot fields
         assertNotNull(resultado.getDetalles().get(0).getPrecioUnitarioFinal());
@@ -458,10 +721,114 @@ class OrdenServiceTest {
         when(ordenRepository.save(any(Orden.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
-        OrdenDTO resultado = ordenService.confirmarOrden(1, usuario);
+        OrdenDTO resultado = ordenService.confirmarOrden(1, UsuarioPrincipal.de(usuario));
 
         // Then
         assertNotNull(resultado.getTotalCalculado());
         assertEquals(30000L, resultado.getTotalCalculado()); // 15000 × 2
     }
+
+    @Test
+    @DisplayName("Snapshot Pattern: Should keep names and variant parameters after the catalog changes")
+    void testSnapshotNombres() {
+        // Given
+        DetalleOrden detalle = new DetalleOrden();
+        detalle.setMueble(mueble);
+        detalle.setCantidad(1);
+
+        DetalleOrdenVariante detalleVariante = new DetalleOrdenVariante();
+        detalleVariante.setVariante(varianteFijo);
+        detalle.getVariantesAplicadas().add(detalleVariante);
+
+        ordenCotizacion.addDetalle(detalle);
+
+        when(ordenRepository.findById(1)).thenReturn(Optional.of(ordenCotizacion));
+        when(ordenRepository.save(any(Orden.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        ordenService.confirmarOrden(1, UsuarioPrincipal.de(usuario));
+
+        // When - el catálogo cambia después de la venta
+        mueble.setNombre("Silla (descontinuada)");
+        mueble.setEstadoLogico(false);
+        varianteFijo.setNombre("Lacado premium");
+        varianteFijo.setCostoExtra(9000);
+        ordenService.obtenerSerializada(1, UsuarioPrincipal.de(usuario));
+
+        // Then
+        ArgumentCaptor<OrdenDTO> serializada = ArgumentCaptor.forClass(OrdenDTO.class);
+        verify(cacheOrdenes).serializar(serializada.capture(), eq(1L), anyLong());
+        OrdenDTO resultado = serializada.getValue();
+        assertEquals("Silla", resultado.getDetalles().get(0).getNombreMueble());
+        assertEquals("Lacado", resultado.getDetalles().get(0).getVariantes().get(0).getNombre());
+        assertEquals(5000, resultado.getDetalles().get(0).getVariantes().get(0).getCostoExtra());
+        assertEquals(TipoAplicacion.FIJO, resultado.getDetalles().get(0).getVariantes().get(0).getTipoAplicacion());
+    }
+
+    // ==================== CACHÉ DE ÓRDENES CERRADAS ====================
+
+    @Test
+    @DisplayName("Should serve a closed order from the cache without loading it")
+    void testObtenerSerializadaDesdeCache() {
+        // Given
+        byte[] json = "{\"idOrden\":2}".getBytes(StandardCharsets.UTF_8);
+        when(cacheOrdenes.buscar(2)).thenReturn(new CacheOrdenesCerradas.Entrada(1L, json));
+
+        // When
+        byte[] resultado = ordenService.obtenerSerializada(2, UsuarioPrincipal.de(usuario));
+
+        // Then
+        assertSame(json, resultado);
+        verifyNoInteractions(ordenRepository, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should check ownership against the cached owner id")
+    void testObtenerSerializadaDesdeCacheSinPermiso() {
+        // Given
+        Usuario otro = new Usuario();
+        otro.setId(99L);
+        otro.setRol(Rol.USER);
+        when(cacheOrdenes.buscar(2)).thenReturn(new CacheOrdenesCerradas.Entrada(1L, new byte[0]));
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> ordenService.obtenerSerializada(2, UsuarioPrincipal.de(otro)));
+        assertTrue(exception.getMessage().contains("permiso"));
+    }
+
+    @Test
+    @DisplayName("Should load and hand a missed order to the cache with its owner")
+    void testObtenerSerializadaSinCache() {
+        // Given
+        when(ordenRepository.findById(2)).thenReturn(Optional.of(ordenVenta));
+        when(cacheOrdenes.serializar(any(OrdenDTO.class), eq(1L), anyLong())).thenReturn(new byte[]{1});
+
+        // When
+        byte[] resultado = ordenService.obtenerSerializada(2, UsuarioPrincipal.de(usuario));
+
+        // Then
+        assertArrayEquals(new byte[]{1}, resultado);
+        verify(cacheOrdenes).serializar(argThat(dto -> dto.getEstadoOrden() == EstadoOrden.VENTA), eq(1L), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should evict the cached order when it is cancelled")
+    void testCancelarInvalidaCache() {
+        // Given
+        when(ordenRepository.findById(2)).thenReturn(Optional.of(ordenVenta));
+        when(ordenRepository.save(any(Orden.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        ordenService.cancelarOrden(2, UsuarioPrincipal.de(usuario));
+
+        // Then
+        verify(cacheOrdenes).invalidar(2);
+    }
+
+    private static Sucursal sucursal(Integer id) {
+        Sucursal sucursal = new Sucursal();
+        sucursal.setIdSucursal(id);
+        sucursal.setNombre("Sala Concepción");
+        sucursal.setActiva(true);
+        return sucursal;
+    }
 }
@@ -0,0 +1,270 @@
+package cl.ubiobio.muebleria.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de StockShardService contra H2 real: el no-sobreventa depende de que
+ * los UPDATE condicionados se evalúen en la base de datos, no en memoria.
+ * El benchmark de contención solo corre con -Dbenchmark=true.
+ */
+@DisplayName("StockShardService Tests")
+class StockShardServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private StockShardService stockShards;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:shards;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        stockShards = new StockShardService(jdbcTemplate);
+
+        jdbcTemplate.execute("CREATE TABLE muebles (id_mueble INT PRIMARY KEY, stock INT NOT NULL, shards_stock INT)");
+        jdbcTemplate.execute("CREATE TABLE stock_shards (id_shard_stock INT AUTO_INCREMENT PRIMARY KEY, " +
+            "id_mueble INT NOT NULL, shard INT NOT NULL, stock INT NOT NULL, UNIQUE (id_mueble, shard))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("Should spread the current stock across the shards and empty the main row")
+    void testActivar() {
+        // Given
+        jdbcTemplate.update("INSERT INTO muebles VALUES (1, 10, NULL)");
+
+        // When
+        stockShards.activar(1, 4);
+
+        // Then
+        assertEquals(List.of(3, 3, 2, 2), stockPorShard(1));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT stock FROM muebles WHERE id_mueble = 1", Integer.class));
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT shards_stock FROM muebles WHERE id_mueble = 1", Integer.class));
+    }
+
+    @Test
+    @DisplayName("Should drain several shards when none covers the quantity alone")
+    void testAjustarRepartido() {
+        // Given
+        jdbcTemplate.update("INSERT INTO muebles VALUES (1, 10, NULL)");
+        stockShards.activar(1, 4);
+
+        // When
+        boolean aplicado = enTransaccion(() -> stockShards.ajustar(1, 4, -9));
+        boolean sinStock = enTransaccion(() -> stockShards.ajustar(1, 4, -2));
+
+        // Then
+        assertTrue(aplicado);
+        assertFalse(sinStock);
+        assertEquals(1, total(1));
+        assertTrue(stockPorShard(1).stream().allMatch(stock -> stock >= 0));
+    }
+
+    @Test
+    @DisplayName("Should wrap around to other shards when the random one is drained")
+    void testAjustarDaLaVuelta() {
+        // Given: solo el último shard tiene stock; el inicio al azar cae casi siempre en uno vacío
+        jdbcTemplate.update("INSERT INTO muebles VALUES (1, 10, NULL)");
+        stockShards.activar(1, 4);
+        jdbcTemplate.update("UPDATE stock_shards SET stock = 0 WHERE id_mueble = 1 AND shard < 3");
+
+        // When
+        boolean aplicado = enTransaccion(() -> stockShards.ajustar(1, 4, -2));
+
+        // Then
+        assertTrue(aplicado);
+        assertEquals(List.of(0, 0, 0, 0), stockPorShard(1));
+    }
+
+    @Test
+    @DisplayName("Should skip shards locked by another transaction instead of waiting on them")
+    void testAjustarSaltaShardBloqueado() throws Exception {
+        // Given: otra venta tiene tomados los shards 1 a 3 sin confirmar; solo queda libre el 0
+        jdbcTemplate.update("INSERT INTO muebles VALUES (1, 10, NULL)");
+        stockShards.activar(1, 4);
+        try (Connection otraVenta = jdbcTemplate.getDataSource().getConnection()) {
+            otraVenta.setAutoCommit(false);
+            otraVenta.createStatement().executeUpdate(
+                "UPDATE stock_shards SET stock = stock - 1 WHERE id_mueble = 1 AND shard > 0");
+
+            // When
+            boolean aplicado = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> enTransaccion(() -> stockShards.ajustar(1, 4, -2)));
+
+            // Then
+            assertTrue(aplicado);
+            otraVenta.rollback();
+        }
+        assertEquals(List.of(1, 3, 2, 2), stockPorShard(1));
+    }
+
+    @Test
+    @DisplayName("Should fold the shards back into the main row")
+    void testDesactivar() {
+        // Given
+        jdbcTemplate.update("INSERT INTO muebles VALUES (1, 10, NULL)");
+        stockShards.activar(1, 4);
+        enTransaccion(() -> stockShards.ajustar(1, 4, 5));
+
+        // When
+        stockShards.desactivar(1);
+
+        // Then
+        assertEquals(15, jdbcTemplate.queryForObject("SELECT stock FROM muebles WHERE id_mueble = 1", Integer.class));
+        assertTrue(stockPorShard(1).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should never oversell under concurrent decrements")
+    void testSinSobreventaConcurrente() throws InterruptedException {
+        // Given
+        jdbcTemplate.update("INSERT INTO muebles VALUES (1, 100, NULL)");
+        stockShards.activar(1, 8);
+
+        // When: 320 intentos de 1 unidad sobre 100 disponibles
+        int vendidos = correr(16, 20, 0, i -> stockShards.ajustar(1, 8, -1));
+
+        // Then: lo vendido más lo que queda es exactamente el stock inicial
+        assertTrue(vendidos > 0);
+        assertEquals(100, vendidos + total(1));
+        assertTrue(stockPorShard(1).stream().allMatch(stock -> stock >= 0));
+    }
+
+    @Test
+    @DisplayName("Should not deadlock when single-shard and spread decrements race")
+    void testSinInterbloqueoEntreCaminos() throws InterruptedException {
+        // Given: cantidades de 1 a 6 sobre 4 shards; las grandes suelen ir por repartir()
+        jdbcTemplate.update("INSERT INTO muebles VALUES (1, 200, NULL)");
+        stockShards.activar(1, 4);
+        List<Throwable> errores = new CopyOnWriteArrayList<>();
+
+        // When
+        int vendidos = correr(12, 15, 1, i -> {
+            try {
+                return stockShards.ajustar(1, 4, -(1 + i % 6));
+            } catch (RuntimeException e) {
+                errores.add(e);
+                throw e;
+            }
+        });
+
+        // Then
+        assertTrue(errores.isEmpty(), () -> "Transacciones abortadas: " + errores);
+        assertTrue(vendidos > 0);
+        assertTrue(stockPorShard(1).stream().allMatch(stock -> stock >= 0));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark: single row vs sharded stock under contention")
+    void benchmarkContencion() throws InterruptedException {
+        // Given: mismo stock en un mueble de fila única y en uno con 16 shards
+        int hilos = 32;
+        int porHilo = 50;
+        int retencionMs = 2; // Resto de la transacción de confirmarOrden con el bloqueo tomado
+        jdbcTemplate.update("INSERT INTO muebles VALUES (1, ?, NULL)", hilos * porHilo);
+        jdbcTemplate.update("INSERT INTO muebles VALUES (2, ?, NULL)", hilos * porHilo);
+        stockShards.activar(2, 16);
+
+        // When
+        long inicio = System.nanoTime();
+        int filaUnica = correr(hilos, porHilo, retencionMs, i -> jdbcTemplate.update(
+            "UPDATE muebles SET stock = stock - 1 WHERE id_mueble = 1 AND stock >= 1") > 0);
+        long msFilaUnica = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        inicio = System.nanoTime();
+        int conShards = correr(hilos, porHilo, retencionMs, i -> stockShards.ajustar(2, 16, -1));
+        long msConShards = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        // Then
+        System.out.printf("Fila única: %d descuentos en %d ms (%.0f/s)%n",
+            filaUnica, msFilaUnica, filaUnica * 1000.0 / msFilaUnica);
+        System.out.printf("16 shards:  %d descuentos en %d ms (%.0f/s)%n",
+            conShards, msConShards, conShards * 1000.0 / msConShards);
+        assertEquals(hilos * porHilo, filaUnica);
+        assertEquals(hilos * porHilo, conShards + total(2));
+    }
+
+    // Cada intento corre en su propia transacción y retiene los bloqueos retencionMs antes del commit
+    private int correr(int hilos, int porHilo, int retencionMs, IntPredicate descuento) throws InterruptedException {
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch partida = new CountDownLatch(1);
+        AtomicInteger aplicados = new AtomicInteger();
+        for (int h = 0; h < hilos; h++) {
+            ejecutor.execute(() -> {
+                try {
+                    partida.await();
+                    for (int i = 0; i < porHilo; i++) {
+                        final int intento = i;
+                        if (enTransaccion(() -> {
+                            boolean ok = descuento.test(intento);
+                            dormir(retencionMs);
+                            return ok;
+                        })) {
+                            aplicados.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        partida.countDown();
+        ejecutor.shutdown();
+        assertTrue(ejecutor.awaitTermination(2, TimeUnit.MINUTES));
+        return aplicados.get();
+    }
+
+    private boolean enTransaccion(BooleanSupplier accion) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> accion.getAsBoolean()));
+    }
+
+    private static void dormir(int ms) {
+        if (ms <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<Integer> stockPorShard(int idMueble) {
+        return new ArrayList<>(jdbcTemplate.queryForList(
+            "SELECT stock FROM stock_shards WHERE id_mueble = ? ORDER BY shard", Integer.class, idMueble));
+    }
+
+    private int total(int idMueble) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM muebles WHERE id_mueble = ?", Integer.class, idMueble)
+            + stockPorShard(idMueble).stream().mapToInt(Integer::intValue).sum();
+    }
+}
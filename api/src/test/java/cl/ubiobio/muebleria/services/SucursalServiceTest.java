@@ -0,0 +1,104 @@
+package cl.ubiobio.muebleria.services;
+
+import cl.ubiobio.muebleria.dto.DisponibilidadSucursalDTO;
+import cl.ubiobio.muebleria.dto.SucursalRequestDTO;
+import cl.ubiobio.muebleria.enums.EstadoOrden;
+import cl.ubiobio.muebleria.models.Mueble;
+import cl.ubiobio.muebleria.models.StockSucursal;
+import cl.ubiobio.muebleria.models.Sucursal;
+import cl.ubiobio.muebleria.repositories.DetalleOrdenRepository;
+import cl.ubiobio.muebleria.repositories.MuebleRepository;
+import cl.ubiobio.muebleria.repositories.StockSucursalRepository;
+import cl.ubiobio.muebleria.repositories.SucursalRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SucursalService Tests")
+class SucursalServiceTest {
+
+    @Mock
+    private SucursalRepository sucursalRepository;
+
+    @Mock
+    private StockSucursalRepository stockSucursalRepository;
+
+    @Mock
+    private MuebleRepository muebleRepository;
+
+    @Mock
+    private DetalleOrdenRepository detalleOrdenRepository;
+
+    @InjectMocks
+    private SucursalService sucursalService;
+
+    @Test
+    @DisplayName("Should report availability for the central warehouse and each active branch")
+    void testDisponibilidad() {
+        // Given
+        Mueble mueble = new Mueble();
+        mueble.setIdMueble(1);
+        mueble.setStock(10);
+
+        Sucursal norte = new Sucursal();
+        norte.setIdSucursal(2);
+        norte.setNombre("Sala Norte");
+        Sucursal sur = new Sucursal();
+        sur.setIdSucursal(3);
+        sur.setNombre("Sala Sur");
+
+        StockSucursal stockNorte = new StockSucursal();
+        stockNorte.setIdSucursal(2);
+        stockNorte.setIdMueble(1);
+        stockNorte.setStock(4);
+
+        List<DetalleOrdenRepository.CantidadPorSucursal> reservas = List.of(reserva(null, 3L), reserva(2, 1L));
+
+        when(muebleRepository.findById(1)).thenReturn(Optional.of(mueble));
+        when(detalleOrdenRepository.sumarCantidadPorSucursal(1, EstadoOrden.COTIZACION)).thenReturn(reservas);
+        when(stockSucursalRepository.findByIdMueble(1)).thenReturn(List.of(stockNorte));
+        when(sucursalRepository.findByActivaTrueOrderByNombreAsc()).thenReturn(List.of(norte, sur));
+
+        // When
+        List<DisponibilidadSucursalDTO> disponibilidad = sucursalService.disponibilidad(1);
+
+        // Then
+        assertEquals(3, disponibilidad.size());
+        assertNull(disponibilidad.get(0).getIdSucursal());
+        assertEquals(7, disponibilidad.get(0).getDisponible());
+        assertEquals(3, disponibilidad.get(1).getDisponible());
+        assertEquals(0, disponibilidad.get(2).getStock()); // Sin fila en stock_sucursal
+    }
+
+    @Test
+    @DisplayName("Should reject a duplicated branch name")
+    void testCrearDuplicada() {
+        // Given
+        SucursalRequestDTO request = new SucursalRequestDTO();
+        request.setNombre("Sala Norte");
+        when(sucursalRepository.existsByNombre("Sala Norte")).thenReturn(true);
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> sucursalService.crear(request));
+        assertTrue(exception.getMessage().contains("Sala Norte"));
+        verify(sucursalRepository, never()).save(any(Sucursal.class));
+    }
+
+    private static DetalleOrdenRepository.CantidadPorSucursal reserva(Integer idSucursal, Long cantidad) {
+        DetalleOrdenRepository.CantidadPorSucursal fila = mock(DetalleOrdenRepository.CantidadPorSucursal.class);
+        when(fila.getIdSucursal()).thenReturn(idSucursal);
+        when(fila.getCantidad()).thenReturn(cantidad);
+        return fila;
+    }
+}
@@ -0,0 +1,88 @@
+package cl.ubiobio.muebleria.services;
+
+import cl.ubiobio.muebleria.dto.ReporteVerificacionDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("VerificadorStockService Tests")
+class VerificadorStockServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MeterRegistry meterRegistry;
+
+    private VerificadorStockService verificador;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        verificador = new VerificadorStockService(jdbcTemplate, transactionManager, meterRegistry, 2);
+    }
+
+    @Test
+    @DisplayName("Should walk muebles by keyset and report drift against the journal")
+    @SuppressWarnings("unchecked")
+    void testVerificar() {
+        // Given
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(0), eq(2))).thenReturn(List.of(
+            new VerificadorStockService.Lectura(1, 10, 10),
+            new VerificadorStockService.Lectura(4, 7, 9)));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(4), eq(2))).thenReturn(List.of(
+            new VerificadorStockService.Lectura(9, 3, 3)));
+
+        // When
+        ReporteVerificacionDTO reporte = verificador.verificar();
+
+        // Then
+        assertEquals(3, reporte.getRevisados());
+        assertEquals(1, reporte.getConDesviacion());
+        assertEquals(2, reporte.getDesviacionAbsoluta());
+        assertEquals(4, reporte.getDesviaciones().get(0).getIdMueble());
+        assertEquals(-2, reporte.getDesviaciones().get(0).getDiferencia());
+        assertNotNull(reporte.getFin());
+        assertSame(reporte, verificador.getUltimoReporte());
+
+        assertEquals(1.0, meterRegistry.get("inventario.verificador.desviaciones").gauge().value());
+        assertEquals(3.0, meterRegistry.get("inventario.verificador.revisados").counter().count());
+        // Cada lote corre en su propia transacción de solo lectura
+        verify(transactionManager, times(2)).getTransaction(argThat(definicion ->
+            definicion.isReadOnly()));
+    }
+
+    @Test
+    @DisplayName("Should finish with an empty report when there are no muebles")
+    @SuppressWarnings("unchecked")
+    void testVerificarSinMuebles() {
+        // Given
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(0), eq(2))).thenReturn(List.of());
+
+        // When
+        ReporteVerificacionDTO reporte = verificador.verificar();
+
+        // Then
+        assertEquals(0, reporte.getRevisados());
+        assertTrue(reporte.getDesviaciones().isEmpty());
+    }
+}
@@ -1,6 +1,7 @@
 import os
 from flask import Flask, render_template, request, jsonify, session, redirect, url_for
 from functools import wraps
+from urllib.parse import urlencode
 import requests
 
 app = Flask(__name__)
@@ -27,6 +28,12 @@ def get_auth_headers():
         return {'Authorization': f'Bearer {token}'}
     return {}
 
+def forwarded_headers(headers=None):
+    """Add X-Forwarded-For so the API rate-limits by the browser's IP instead of the frontend's"""
+    chain = request.headers.get('X-Forwarded-For')
+    forwarded = f"{chain}, {request.remote_addr}" if chain else request.remote_addr
+    return {**(headers or {}), 'X-Forwarded-For': forwarded}
+
 def get_current_user():
     """Get current user info from session"""
     return {
@@ -63,12 +70,39 @@ def admin_required(f):
         return f(*args, **kwargs)
     return decorated_function
 
+def refresh_session():
+    """Exchange the refresh token for a new access token; clears the session if it expired"""
+    refresh_token = session.get('refresh_token')
+    if not refresh_token:
+        return False
+    try:
+        response = requests.post(f"{API_BASE_URL}/auth/refresh", json={'refreshToken': refresh_token},
+                                 headers=forwarded_headers())
+    except requests.exceptions.RequestException as e:
+        print(f"API Error: {e}")
+        return False
+    if response.status_code != 200:
+        session.clear()
+        return False
+    data = response.json()
+    session['jwt_token'] = data['token']
+    session['refresh_token'] = data['refreshToken']
+    return True
+
+def send_request(method, endpoint, authenticated=True, **kwargs):
+    """Send a request to the API; on 401 renew the access token once and retry"""
+    url = f"{API_BASE_URL}{endpoint}"
+    headers = get_auth_headers() if authenticated else {}
+    response = requests.request(method, url, headers=forwarded_headers(headers), **kwargs)
+    if authenticated and response.status_code == 401 and refresh_session():
+        response = requests.request(method, url, headers=forwarded_headers(get_auth_headers()), **kwargs)
+    return response
+
 # API Client functions
 def api_get(endpoint, authenticated=True):
     """GET request to API"""
     try:
-        headers = get_auth_headers() if authenticated else {}
-        response = requests.get(f"{API_BASE_URL}{endpoint}", headers=headers)
+        response = send_request('GET', endpoint, authenticated)
         response.raise_for_status()
         return response.json()
     except requests.exceptions.RequestException as e:
@@ -78,9 +112,7 @@ def api_get(endpoint, authenticated=True):
 def api_post(endpoint, data, authenticated=True):
     """POST request to API"""
     try:
-        headers = get_auth_headers() if authenticated else {}
-        headers['Content-Type'] = 'application/json'
-        response = requests.post(f"{API_BASE_URL}{endpoint}", json=data, headers=headers)
+        response = send_request('POST', endpoint, authenticated, json=data)
         response.raise_for_status()
         return response.json()
     except requests.exceptions.RequestException as e:
@@ -92,8 +124,7 @@ def api_post(endpoint, data, authenticated=True):
 def api_put(endpoint, data, authenticated=True):
     """PUT request to API"""
     try:
-        headers = get_auth_headers() if authenticated else {}
-        response = requests.put(f"{API_BASE_URL}{endpoint}", json=data, headers=headers)
+        response = send_request('PUT', endpoint, authenticated, json=data)
         response.raise_for_status()
         return response.json()
     except requests.exceptions.RequestException as e:
@@ -103,8 +134,7 @@ def api_put(endpoint, data, authenticated=True):
 def api_delete(endpoint, authenticated=True):
     """DELETE request to API"""
     try:
-        headers = get_auth_headers() if authenticated else {}
-        response = requests.delete(f"{API_BASE_URL}{endpoint}", headers=headers)
+        response = send_request('DELETE', endpoint, authenticated)
         response.raise_for_status()
         return True
     except requests.exceptions.RequestException as e:
@@ -128,6 +158,7 @@ def login():
     if response and 'token' in response:
         # Save to session
         session['jwt_token'] = response['token']
+        session['refresh_token'] = response.get('refreshToken')
         session['username'] = response['username']
         session['rol'] = response['rol']
 
@@ -169,6 +200,12 @@ def register():
 
 @app.route('/logout')
 def logout():
+    # Revoke the access token and the refresh token family on the API
+    try:
+        requests.post(f"{API_BASE_URL}/auth/logout", json={'refreshToken': session.get('refresh_token')},
+                      headers=forwarded_headers(get_auth_headers()))
+    except requests.exceptions.RequestException as e:
+        print(f"API Error: {e}")
     session.clear()
     return redirect(url_for('login'))
 
@@ -190,6 +227,16 @@ def catalogo():
     muebles = api_get('/muebles', authenticated=False) or []  # Catalog is public
     return render_template('catalogo.html', muebles=muebles)
 
+@app.route('/catalogo/sugerencias')
+@login_required
+def catalogo_sugerencias():
+    prefijo = request.args.get('prefijo', '').strip()
+    sugerencias = []
+    if prefijo:
+        sugerencias = api_get(f'/muebles/sugerencias?{urlencode({"prefijo": prefijo})}',
+                              authenticated=False) or []
+    return render_template('catalogo_sugerencias.html', sugerencias=sugerencias)
+
 # ============= ADMIN ROUTES =============
 
 @app.route('/admin')
@@ -243,6 +290,7 @@ def muebles_update(id):
         'tipo': request.form.get('tipo'),
         'precioBase': int(request.form.get('precioBase')),
         'stock': int(request.form.get('stock')),
+        'stockAnterior': int(request.form.get('stockAnterior')) if request.form.get('stockAnterior') else None,
         'tamano': request.form.get('tamano'),
         'material': request.form.get('material')
     }
@@ -333,7 +381,8 @@ def mis_ordenes_list():
 def mis_ordenes_new():
     muebles = api_get('/muebles', authenticated=False) or []
     variantes = api_get('/variantes', authenticated=False) or []
-    return render_template('ordenes/form.html', muebles=muebles, variantes=variantes)
+    sucursales = api_get('/sucursales', authenticated=False) or []
+    return render_template('ordenes/form.html', muebles=muebles, variantes=variantes, sucursales=sucursales)
 
 # ============= ADMIN ORDENES ROUTES =============
 
@@ -348,7 +397,8 @@ def ordenes_list():
 def admin_ordenes_new():
     muebles = api_get('/muebles', authenticated=False) or []
     variantes = api_get('/variantes', authenticated=False) or []
-    return render_template('ordenes/form.html', muebles=muebles, variantes=variantes, is_admin=True)
+    sucursales = api_get('/sucursales', authenticated=False) or []
+    return render_template('ordenes/form.html', muebles=muebles, variantes=variantes, sucursales=sucursales, is_admin=True)
 
 @app.route('/admin/ordenes/create', methods=['POST'])
 @admin_required
@@ -378,13 +428,14 @@ def admin_ordenes_create():
                              error="Debe agregar al menos un item a la orden")
 
     data = {'detalles': detalles}
+    id_sucursal = request.form.get('idSucursal')
+    if id_sucursal:
+        data['idSucursal'] = int(id_sucursal)
     print(f"Admin sending order data: {data}")
 
     # Mejorar manejo de errores para obtener mensaje del backend
     try:
-        headers = get_auth_headers()
-        headers['Content-Type'] = 'application/json'
-        response = requests.post(f"{API_BASE_URL}/ordenes", json=data, headers=headers)
+        response = send_request('POST', '/ordenes', json=data)
 
         if response.status_code == 201:
             return redirect(url_for('ordenes_list'))
@@ -485,13 +536,14 @@ def ordenes_create():
                              error="Debe agregar al menos un item a la orden")
 
     data = {'detalles': detalles}
+    id_sucursal = request.form.get('idSucursal')
+    if id_sucursal:
+        data['idSucursal'] = int(id_sucursal)
     print(f"Sending order data: {data}")
 
     # Mejorar manejo de errores para obtener mensaje del backend
     try:
-        headers = get_auth_headers()
-        headers['Content-Type'] = 'application/json'
-        response = requests.post(f"{API_BASE_URL}/ordenes", json=data, headers=headers)
+        response = send_request('POST', '/ordenes', json=data)
 
         if response.status_code == 201:
             return redirect(url_for('mis_ordenes_list'))